@@ -0,0 +1,58 @@
+package com.codedocgen.config;
+
+import com.codedocgen.service.OnDemandDiagramService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * With app.diagrams.sequence.mode=lazy, sequence diagram URLs point at files that do not exist until first
+ * requested. This filter renders a requested diagram before the resource handler in {@link WebConfig} serves it;
+ * requests for anything that was not registered fall through to the usual 404.
+ */
+@Component
+public class OnDemandDiagramFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = "/generated-output/";
+
+    @Value("${app.outputBasePath:/tmp/codedocgen_output}")
+    private String outputBasePath;
+
+    private final OnDemandDiagramService onDemandDiagramService;
+
+    public OnDemandDiagramFilter(OnDemandDiagramService onDemandDiagramService) {
+        this.onDemandDiagramService = onDemandDiagramService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !onDemandDiagramService.isEnabled()
+                || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))
+                || !uri.startsWith(request.getContextPath() + PREFIX)
+                || !(uri.endsWith(".svg") || uri.endsWith(".svgz"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String relativePath = UriUtils.decode(
+                request.getRequestURI().substring(request.getContextPath().length() + PREFIX.length()), StandardCharsets.UTF_8);
+        Path basePath = Path.of(outputBasePath).toAbsolutePath().normalize();
+        Path diagramPath = basePath.resolve(relativePath).normalize();
+        // Only files under the output directory, as the resource handler allows
+        if (diagramPath.startsWith(basePath)) {
+            onDemandDiagramService.ensureRendered(diagramPath.toFile());
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,32 @@
+package com.codedocgen.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Diagrams rendered with app.diagrams.output-format=svgz are gzip-compressed SVG files. The resource handler in
+ * {@link WebConfig} serves them as image/svg+xml; this filter adds the Content-Encoding header so browsers
+ * decompress them.
+ */
+@Component
+public class SvgzContentEncodingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !(uri.startsWith(request.getContextPath() + "/generated-output/") && uri.endsWith(".svgz"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.setHeader("Content-Encoding", "gzip");
+        filterChain.doFilter(request, response);
+    }
+}
@@ -2,53 +2,29 @@ package com.codedocgen.controller;
 
 import com.codedocgen.dto.ParsedDataResponse;
 import com.codedocgen.dto.RepoRequest;
-import com.codedocgen.service.*;
-import com.codedocgen.model.ClassMetadata;
-import com.codedocgen.model.EndpointMetadata;
+import com.codedocgen.model.AnalysisJob;
+import com.codedocgen.model.AnalysisProgress;
+import com.codedocgen.service.AnalysisJobService;
+import com.codedocgen.service.AnalysisService;
+import com.codedocgen.service.ResultStreamingService;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.File;
-import java.io.IOException;
-import java.util.List;
-import java.util.ArrayList;
-import java.util.UUID;
 import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.Map;
+import java.util.List;
 import java.util.Locale;
-import java.nio.file.Files;
-import java.nio.file.Path;
-
-// Import OpenAPI model and ObjectMapper
-// import io.swagger.v3.oas.models.OpenAPI; // No longer injecting OpenAPI directly
-// import org.springdoc.core.service.OpenAPIService; // No longer using this service directly
-import com.fasterxml.jackson.databind.ObjectMapper; // Keep for potential future use, though maybe not strictly needed here
-import com.fasterxml.jackson.core.JsonProcessingException;
-
-// Imports for RestTemplate and dynamic URL construction
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-import jakarta.servlet.http.HttpServletRequest;
-
-import com.codedocgen.parser.CallFlowAnalyzer;
-import com.codedocgen.service.DaoAnalysisService;
-import com.codedocgen.model.DbAnalysisResult;
-import com.codedocgen.model.LogStatement;
-import com.codedocgen.service.LoggerInsightsService;
-import com.codedocgen.model.PiiPciFinding;
-import com.codedocgen.service.PiiPciDetectionService;
-import com.codedocgen.service.YamlParserService;
-
-// For FileUtils.deleteDirectory
-import org.apache.commons.io.FileUtils;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/analysis")
@@ -56,340 +32,163 @@ public class AnalysisController {
 
     private static final Logger logger = LoggerFactory.getLogger(AnalysisController.class);
 
-    private final GitService gitService;
-    private final JavaParserService javaParserService;
-    private final ProjectDetectorService projectDetectorService;
-    private final EndpointExtractorService endpointExtractorService;
-    private final DiagramService diagramService;
-    private final DocumentationService documentationService;
-    // private final OpenAPIService openApiService; // Removed
-    private final ObjectMapper objectMapper; 
-    private final RestTemplate restTemplate; // Inject RestTemplate
-    private final CallFlowAnalyzer callFlowAnalyzer;
-    private final DaoAnalysisService daoAnalysisService; // Add DaoAnalysisService
-    private final LoggerInsightsService loggerInsightsService; // Added LoggerInsightsService
-    private final YamlParserService yamlParserService; // Added YamlParserService
-    private final PiiPciDetectionService piiPciDetectionService; // Added PiiPciDetectionService
-
-    @Value("${app.repoStoragePath:/tmp/codedocgen_repos}")
-    private String repoStoragePath;
-
-    @Value("${app.outputBasePath:/tmp/codedocgen_output}")
-    private String outputBasePath;    
+    private final AnalysisService analysisService;
+    private final AnalysisJobService analysisJobService;
+    private final ResultStreamingService resultStreamingService;
 
     @Autowired
-    public AnalysisController(GitService gitService, 
-                              JavaParserService javaParserService,
-                              ProjectDetectorService projectDetectorService,
-                              EndpointExtractorService endpointExtractorService,
-                              DiagramService diagramService,
-                              DocumentationService documentationService,
-                              // OpenAPIService openApiService, // Removed
-                              ObjectMapper objectMapper,
-                              RestTemplate restTemplate,
-                              CallFlowAnalyzer callFlowAnalyzer,
-                              DaoAnalysisService daoAnalysisService, // Add DaoAnalysisService
-                              LoggerInsightsService loggerInsightsService, // Added LoggerInsightsService
-                              YamlParserService yamlParserService, // Added YamlParserService
-                              PiiPciDetectionService piiPciDetectionService) { // Added PiiPciDetectionService
-        this.gitService = gitService;
-        this.javaParserService = javaParserService;
-        this.projectDetectorService = projectDetectorService;
-        this.endpointExtractorService = endpointExtractorService;
-        this.diagramService = diagramService;
-        this.documentationService = documentationService;
-        // this.openApiService = openApiService; // Removed
-        this.objectMapper = objectMapper;
-        this.restTemplate = restTemplate; // Initialize RestTemplate
-        this.callFlowAnalyzer = callFlowAnalyzer;
-        this.daoAnalysisService = daoAnalysisService; // Initialize DaoAnalysisService
-        this.loggerInsightsService = loggerInsightsService; // Initialize LoggerInsightsService
-        this.yamlParserService = yamlParserService; // Added YamlParserService
-        this.piiPciDetectionService = piiPciDetectionService; // Added PiiPciDetectionService
+    public AnalysisController(AnalysisService analysisService, AnalysisJobService analysisJobService,
+                              ResultStreamingService resultStreamingService) {
+        this.analysisService = analysisService;
+        this.analysisJobService = analysisJobService;
+        this.resultStreamingService = resultStreamingService;
     }
 
+    // Synchronous analysis; prefer the /jobs endpoints for large repositories. With format (json or ndjson) and/or
+    // sections (comma-separated response properties) the result is streamed section by section, see streamResult
     @PostMapping("/analyze")
-    public ResponseEntity<ParsedDataResponse> analyzeRepository(@RequestBody RepoRequest repoRequest) {
+    public ResponseEntity<?> analyzeRepository(@RequestBody RepoRequest repoRequest,
+                                               @RequestParam(required = false) String format,
+                                               @RequestParam(required = false) String sections,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         logger.info("Received request to /api/analysis/analyze with repoUrl: {}", repoRequest != null ? repoRequest.getRepoUrl() : "null RepoRequest");
 
-        String repoUrl = null;
-        if (repoRequest != null && repoRequest.getRepoUrl() != null) {
-            repoUrl = repoRequest.getRepoUrl().trim();
-        }
-
-        if (repoUrl == null || repoUrl.isEmpty()) {
+        String repoUrl = extractRepoUrl(repoRequest);
+        if (repoUrl == null) {
             logger.warn("/api/analysis/analyze: repoUrl is null or empty.");
             return ResponseEntity.badRequest().body(null);
         }
         logger.info("/api/analysis/analyze: Processing repoUrl: {}", repoUrl);
 
-        String extractedProjectName = "unknown_project";
-        try {
-            extractedProjectName = extractProjectNameFromUrl(repoUrl);
-        } catch (URISyntaxException e) {
-            logger.warn("Invalid repository URL syntax, using default name: {}", repoUrl, e);
-            extractedProjectName = "default_project"; // Fallback project name
-        }
-
         String uniqueRepoId = UUID.randomUUID().toString().substring(0, 8);
-        File localRepoPath = new File(repoStoragePath, "repo_" + uniqueRepoId);
-        File outputDir = new File(outputBasePath, "docs_" + uniqueRepoId);
-
-        // Clean up the general outputBasePath directory BEFORE creating a new unique outputDir
-        // This will remove all previously generated docs_* directories
-        File baseOutputDir = new File(outputBasePath);
-        if (baseOutputDir.exists()) {
-            File[] existingOutputDirs = baseOutputDir.listFiles(pathname -> pathname.isDirectory() && pathname.getName().startsWith("docs_"));
-            if (existingOutputDirs != null) {
-                for (File dir : existingOutputDirs) {
-                    logger.info("Deleting old output directory: {}", dir.getAbsolutePath());
-                    try {
-                        FileUtils.deleteDirectory(dir);
-                    } catch (IOException e) {
-                        logger.warn("Could not delete old output directory {}: {}", dir.getAbsolutePath(), e.getMessage());
-                    }
-                }
+        try {
+            ParsedDataResponse response = analysisService.analyze(repoUrl, uniqueRepoId, new AnalysisProgress(), false);
+            HttpStatus status = response.getErrorMessage() != null ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK;
+            if (format != null || sections != null) {
+                return streamResult(response, status, format, sections, acceptEncoding);
             }
-        }
-
-        if (!outputDir.mkdirs()) {
-            logger.error("Could not create output directory: {}. Check permissions and path.", outputDir.getAbsolutePath());
+            return ResponseEntity.status(status).body(response);
+        } catch (Exception e) {
+            logger.error("!!! UNHANDLED EXCEPTION in /api/analysis/analyze for URL {} !!!: Type: {}, Message: {}", repoUrl, e.getClass().getName(), e.getMessage(), e);
             ParsedDataResponse errorResponse = new ParsedDataResponse();
-            errorResponse.setErrorMessage("Failed to create output directory: " + outputDir.getAbsolutePath());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse); 
+            errorResponse.setErrorMessage("Internal server error during analysis: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
-        logger.info("/api/analysis/analyze: Output directory set to: {}", outputDir.getAbsolutePath());
+    }
 
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitAnalysisJob(@RequestBody RepoRequest repoRequest) {
+        String repoUrl = extractRepoUrl(repoRequest);
+        if (repoUrl == null) {
+            logger.warn("/api/analysis/jobs: repoUrl is null or empty.");
+            return ResponseEntity.badRequest().body(Map.of("error", "repoUrl is required"));
+        }
         try {
-            logger.info("/api/analysis/analyze: Starting analysis for {}", repoUrl);
-            logger.info("Attempting to clone repository: {}", repoUrl);
-            gitService.cloneRepository(repoUrl, localRepoPath.getAbsolutePath());
-            logger.info("Repository cloned to: {}", localRepoPath.getAbsolutePath());
-
-            ParsedDataResponse response = new ParsedDataResponse();
-            response.setProjectName(extractedProjectName);
-
-            // 1. Detect Project Type & Spring Boot info
-            response.setProjectType(projectDetectorService.detectBuildTool(localRepoPath));
-            response.setSpringBootProject(projectDetectorService.isSpringBootProject(localRepoPath));
-            if (response.isSpringBootProject()) {
-                response.setSpringBootVersion(projectDetectorService.detectSpringBootVersion(localRepoPath));
-            }
-
-            // 2. Parse Java Code
-            List<String> parseWarnings = new java.util.ArrayList<>();
-            List<ClassMetadata> classMetadataList = javaParserService.parseProject(localRepoPath, parseWarnings);
-            response.setClasses(classMetadataList);
-            response.setParseWarnings(parseWarnings);
-
-            // 3. Extract Endpoints
-            List<EndpointMetadata> endpointMetadataList = endpointExtractorService.extractEndpoints(classMetadataList, localRepoPath);
-            response.setEndpoints(endpointMetadataList);
-            
-            // 4. Generate Diagrams
-            File diagramsSubDir = new File(outputDir, "diagrams");
-            if (!diagramsSubDir.exists() && !diagramsSubDir.mkdirs()){
-                logger.warn("Could not create specific diagrams output directory: {}", diagramsSubDir.getAbsolutePath());
-            } else {
-                 Map<com.codedocgen.model.DiagramType, String> absoluteDiagramPaths = diagramService.generateDiagrams(classMetadataList, diagramsSubDir.getAbsolutePath());
-                 Map<com.codedocgen.model.DiagramType, String> relativeDiagramPaths = new java.util.HashMap<>();
-                 if (absoluteDiagramPaths != null) {
-                    String pathPrefixToTrim = new File(outputBasePath).getAbsolutePath();
-                    for (Map.Entry<com.codedocgen.model.DiagramType, String> entry : absoluteDiagramPaths.entrySet()) {
-                        String absolutePath = entry.getValue();
-                        String relativePath = absolutePath.replace(pathPrefixToTrim, "").replace("\\", "/");
-                        if (relativePath.startsWith("/")) {
-                            relativePath = relativePath.substring(1);
-                        }
-                        relativeDiagramPaths.put(entry.getKey(), "/generated-output/" + relativePath);
-                    }
-                 }
-                 response.setDiagrams(relativeDiagramPaths);
-            }
-
-            // 5. Find Feature Files
-            response.setFeatureFiles(documentationService.findAndReadFeatureFiles(localRepoPath));
+            AnalysisJob job = analysisJobService.submit(repoUrl, repoRequest.getBaseJobId());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/analysis/jobs/" + job.getId()))
+                    .body(job);
+        } catch (IllegalArgumentException e) {
+            logger.warn("/api/analysis/jobs: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(Map.of("error", "Too many analyses in progress, please retry later"));
+        }
+    }
 
-            // 5.1 Find and Read WSDL Files
-            response.setWsdlFilesContent(documentationService.findAndReadWsdlFiles(localRepoPath));
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<AnalysisJob> getAnalysisJob(@PathVariable String jobId) {
+        return analysisJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
-            // 5.2 Find and Read XSD Files
-            response.setXsdFilesContent(documentationService.findAndReadXsdFiles(localRepoPath));
+    @GetMapping("/jobs/{jobId}/result")
+    public ResponseEntity<?> getAnalysisJobResult(@PathVariable String jobId,
+                                                  @RequestParam(required = false) String format,
+                                                  @RequestParam(required = false) String sections,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Optional<AnalysisJob> maybeJob = analysisJobService.getJob(jobId);
+        if (maybeJob.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        AnalysisJob job = maybeJob.get();
+        boolean streamed = format != null || sections != null;
+        switch (job.getStatus()) {
+            case COMPLETED:
+                return streamed ? streamResult(job.getResult(), HttpStatus.OK, format, sections, acceptEncoding)
+                        : ResponseEntity.ok(job.getResult());
+            case FAILED:
+                return streamed && job.getResult() != null ? streamResult(job.getResult(), HttpStatus.INTERNAL_SERVER_ERROR, format, sections, acceptEncoding)
+                        : ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(job.getResult());
+            default:
+                // Not finished yet: point the caller back at the status resource
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/analysis/jobs/" + job.getId()))
+                        .body(job);
+        }
+    }
 
-            // 6. Generate OpenAPI Spec
-            try {
-                // Always generate OpenAPI spec from parsed endpoints for the analyzed repo
-                String openApiJson = documentationService.generateOpenApiSpecFromEndpoints(endpointMetadataList, extractedProjectName);
-                response.setOpenApiSpec(openApiJson);
-                logger.debug("Generated OpenAPI spec from analyzed endpoints.");
-            } catch (Exception e) {
-                logger.error("Error generating OpenAPI spec from endpoints: {}", e.getMessage(), e);
-                response.setOpenApiSpec("Error generating OpenAPI spec: " + e.getMessage());
-            }
+    /**
+     * Streams the requested sections of a result with chunked transfer: a JSON object for format=json (the default)
+     * or one line per section for format=ndjson. The body is gzip'ed when the client accepts it; brotli is not
+     * offered, as there is no pure-Java encoder for it.
+     */
+    private ResponseEntity<?> streamResult(ParsedDataResponse result, HttpStatus status, String format, String sections, String acceptEncoding) {
+        ResultStreamingService.Format streamFormat;
+        List<String> sectionNames;
+        try {
+            streamFormat = format == null ? ResultStreamingService.Format.JSON
+                    : ResultStreamingService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+            sectionNames = resultStreamingService.parseSections(sections);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected result stream request (format={}, sections={}): {}", format, sections, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", "format must be json or ndjson, and sections a comma-separated subset of "
+                    + resultStreamingService.sectionNames()));
+        }
 
-            // 7. Generate Project Summary
-            response.setProjectSummary(documentationService.generateProjectSummary(response));
-            
-            // 8. Generate Call Flows (for controllers and SOAP endpoints)
-            logger.info("Calling CallFlowAnalyzer.getEntrypointCallFlows with {} classes", classMetadataList != null ? classMetadataList.size() : 0);
-            Map<String, List<String>> callFlows = callFlowAnalyzer.getEntrypointCallFlows(classMetadataList);
-            logger.info("CallFlowAnalyzer returned {} call flows", callFlows != null ? callFlows.size() : 0);
-            response.setCallFlows(callFlows);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        StreamingResponseBody body = out -> resultStreamingService.write(result, sectionNames, streamFormat, gzip, out);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status)
+                .contentType(streamFormat == ResultStreamingService.Format.NDJSON ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(body);
+    }
 
-            // Generate a sequence diagram for each entrypoint call flow
-            Map<String, String> sequenceDiagrams = new java.util.HashMap<>();
-            if (callFlows != null && !callFlows.isEmpty()) {
-                for (Map.Entry<String, List<String>> entry : callFlows.entrySet()) {
-                    String entrypointFqn = entry.getKey();
-                    List<String> flow = entry.getValue();
-                if (flow != null && !flow.isEmpty()) {
-                        String seqDiagramAbs = diagramService.generateSequenceDiagram(flow, diagramsSubDir.getAbsolutePath(), "sequence_diagram_" + sanitizeFileName(entrypointFqn));
-                    if (seqDiagramAbs != null) {
-                        String pathPrefixToTrim = new File(outputBasePath).getAbsolutePath();
-                        String relativePath = seqDiagramAbs.replace(pathPrefixToTrim, "").replace("\\", "/");
-                        if (relativePath.startsWith("/")) relativePath = relativePath.substring(1);
-                            sequenceDiagrams.put(entrypointFqn, "/generated-output/" + relativePath);
-                        }
-                    }
-                }
-                response.setSequenceDiagrams(sequenceDiagrams);
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
             }
-
-            // 9. Analyze DAO operations
-            logger.info("Analyzing DAO/Repository classes for database operations");
-            try {
-                // Call the updated service method which returns DbAnalysisResult
-                DbAnalysisResult dbAnalysisResult = daoAnalysisService.analyzeDbOperations(classMetadataList, localRepoPath);
-                
-                // Set the new composite object in the response
-                response.setDbAnalysis(dbAnalysisResult);
-
-                // For backward compatibility or if still needed directly, also set the old daoOperations field
-                // and dbDiagramPath (though dbDiagramPath might be better handled via dbAnalysisResult.getOperationsByClass() if it affects diagram generation)
-                if (dbAnalysisResult != null) {
-                    response.setDaoOperations(dbAnalysisResult.getOperationsByClass()); 
-                    logger.info("Found database operations in {} DAO/Repository classes", 
-                                dbAnalysisResult.getOperationsByClass() != null ? dbAnalysisResult.getOperationsByClass().size() : 0);
-
-                    // 10. Generate database schema diagram if DAO operations were found
-                    if (dbAnalysisResult.getOperationsByClass() != null && !dbAnalysisResult.getOperationsByClass().isEmpty()) {
-                        try {
-                            logger.info("Generating database schema diagram");
-                            // Pass the operationsByClass part to generateDbDiagram
-                            String dbDiagramAbsPath = daoAnalysisService.generateDbDiagram(classMetadataList, dbAnalysisResult.getOperationsByClass(), diagramsSubDir.getAbsolutePath());
-                            if (dbDiagramAbsPath != null) {
-                                String pathPrefixToTrim = new File(outputBasePath).getAbsolutePath();
-                                String relativePath = dbDiagramAbsPath.replace(pathPrefixToTrim, "").replace("\\", "/");
-                                if (relativePath.startsWith("/")) relativePath = relativePath.substring(1);
-                                response.setDbDiagramPath("/generated-output/" + relativePath); 
-                                // Also update the main diagrams map if DATABASE_DIAGRAM is a key it uses
-                                if (response.getDiagrams() != null) { // Ensure diagrams map exists
-                                   response.getDiagrams().put(com.codedocgen.model.DiagramType.DATABASE_DIAGRAM, "/generated-output/" + relativePath);
-                                } else {
-                                   Map<com.codedocgen.model.DiagramType, String> diagramsMap = new java.util.HashMap<>();
-                                   diagramsMap.put(com.codedocgen.model.DiagramType.DATABASE_DIAGRAM, "/generated-output/" + relativePath);
-                                   response.setDiagrams(diagramsMap);
-                                }
-                            }
-                        } catch (Exception e) {
-                            logger.error("Error generating database diagram: {}", e.getMessage(), e);
-                            response.setDbDiagramPath("Error generating diagram: " + e.getMessage());
-                        }
-                    } else {
-                        logger.info("No DAO operations found, skipping database schema diagram generation.");
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
                     }
-                } else {
-                    logger.info("No database analysis result returned.");
-                }
-            } catch (Exception e) {
-                logger.error("Error during DAO analysis or DB diagram generation: {}", e.getMessage(), e);
-                // Optionally set an error message in the response for these parts
-            }
-
-            // 11. Get Logger Insights
-            logger.info("Attempting to get logger insights from: {}", localRepoPath.getAbsolutePath());
-            try {
-                // Determine the path for log analysis (e.g., src/main/java or root)
-                 Path potentialSrcPath = localRepoPath.toPath().resolve("src/main/java");
-                 String effectivePathForLogAnalysis = localRepoPath.getAbsolutePath();
-                 if (Files.exists(potentialSrcPath) && Files.isDirectory(potentialSrcPath)){
-                     effectivePathForLogAnalysis = potentialSrcPath.toString();
-                     logger.info("Using src/main/java as source for log analysis: {}", effectivePathForLogAnalysis);
-                 } else {
-                      logger.info("src/main/java not found, analyzing entire repository for logs: {}", effectivePathForLogAnalysis);
-                 }
-                List<LogStatement> logStatements = loggerInsightsService.getLogInsights(effectivePathForLogAnalysis);
-                response.setLogStatements(logStatements);
-                logger.info("Successfully retrieved {} log statements.", logStatements.size());
-            } catch (Exception e) {
-                logger.error("Error fetching logger insights: {}", e.getMessage(), e);
-                // Optionally add a warning or error to the response about log insights failing
-                 response.setLogStatements(new ArrayList<>()); // Set empty list on error
-            }
-
-            // PCI/PII Scan
-            // Convert File to Path before calling the service
-            List<PiiPciFinding> piiPciFindings = piiPciDetectionService.scanRepository(localRepoPath.toPath(), null); 
-            response.setPiiPciFindings(piiPciFindings);
-
-            // 12. Finalize and return response
-            logger.info("Completed analysis for repository: {}", repoUrl);
-            return ResponseEntity.ok(response);
-
-        } catch (Exception e) {
-            logger.error("!!! UNHANDLED EXCEPTION in /api/analysis/analyze for URL {} !!!: Type: {}, Message: {}", repoUrl, e.getClass().getName(), e.getMessage(), e);
-            ParsedDataResponse errorResponse = new ParsedDataResponse();
-            errorResponse.setErrorMessage("Internal server error during analysis: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
-        } finally {
-            logger.info("/api/analysis/analyze: Starting finally block for repoUrl: {}", repoUrl != null ? repoUrl : "UNKNOWN_URL");
-            try {
-                if (localRepoPath.exists()) { // Check if directory was created before attempting to delete
-                    logger.info("Deleting cloned repository at: {}", localRepoPath.getAbsolutePath());
-                    gitService.deleteRepository(localRepoPath);
-                    logger.info("Successfully deleted cloned repository: {}", localRepoPath.getAbsolutePath());
-                } else {
-                    logger.info("Cloned repository path {} did not exist, skipping deletion.", localRepoPath.getAbsolutePath());
                 }
-            } catch (IOException e) {
-                logger.error("Error deleting repository directory {} in finally block: {}", localRepoPath.getAbsolutePath(), e.getMessage(), e);
             }
-            // Optionally, also delete the outputDir if it's temporary and not meant to be served directly
-            // This was already present and commented out, leaving as is.
-            // try {
-            //     logger.info("Deleting output directory: {}", outputDir.getAbsolutePath());
-            //     FileUtils.deleteDirectory(outputDir);
-            // } catch (IOException e) {
-            //     logger.error("Error deleting output directory {}: {}", outputDir.getAbsolutePath(), e.getMessage(), e);
-            // }
-            logger.info("/api/analysis/analyze: Finished finally block for repoUrl: {}", repoUrl != null ? repoUrl : "UNKNOWN_URL");
+            return true;
         }
-    }
-    
-    private String extractProjectNameFromUrl(String repoUrl) throws URISyntaxException {
-        URI uri = new URI(repoUrl);
-        String path = uri.getPath();
-        String projectName = path.substring(path.lastIndexOf('/') + 1);
-        if (projectName.endsWith(".git")) {
-            projectName = projectName.substring(0, projectName.length() - 4);
-        }
-        if (projectName.isEmpty()) {
-            // Handle cases like https://github.com/ (if that's even valid for cloning)
-            // or if somehow the name is empty after stripping .git
-            return "unknown_project";
-        }
-        return projectName;
+        return false;
     }
 
-    private String sanitizeFileName(String input) {
-        return input.replaceAll("[^a-zA-Z0-9_\\-]", "_");
+    private String extractRepoUrl(RepoRequest repoRequest) {
+        if (repoRequest == null || repoRequest.getRepoUrl() == null) {
+            return null;
+        }
+        String repoUrl = repoRequest.getRepoUrl().trim();
+        return repoUrl.isEmpty() ? null : repoUrl;
     }
-
-    // Placeholder for OpenAPI generation - this is a complex task
-    // private String generateOpenApiSpec(File projectDir, List<ClassMetadata> classes, List<EndpointMetadata> endpoints) {
-    //     // This would involve using a library like Springdoc or Swagger Core to generate the spec
-    //     // based on annotations and existing configurations (if any).
-    //     // For Spring Boot projects, if springdoc-openapi-starter-webmvc is on classpath, it might be auto-generated.
-    //     return "{\"openapi\": \"3.0.0\", \"info\": {\"title\": \"Generated API\", \"version\": \"1.0.0\"}, \"paths\": {}}";
-    // }
-} 
\ No newline at end of file
+}
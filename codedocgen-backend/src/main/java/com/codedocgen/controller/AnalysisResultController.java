@@ -0,0 +1,83 @@
+package com.codedocgen.controller;
+
+import com.codedocgen.dto.ResultPage;
+import com.codedocgen.service.AnalysisResultStore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read access to stored analysis results (the analysisId of a completed analysis), so the UI fetches only the
+ * page it shows instead of the whole response.
+ */
+@RestController
+@RequestMapping("/api/analysis/results")
+public class AnalysisResultController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisResultController.class);
+
+    private static final String CURSOR_PARAM = "cursor";
+    private static final String LIMIT_PARAM = "limit";
+
+    private final AnalysisResultStore analysisResultStore;
+
+    @Autowired
+    public AnalysisResultController(AnalysisResultStore analysisResultStore) {
+        this.analysisResultStore = analysisResultStore;
+    }
+
+    // Stored analyses, most recent first, and the sections that can be paged with their filterable properties
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> listResults() {
+        return ResponseEntity.ok(Map.of(
+                "analysisIds", analysisResultStore.analysisIds(),
+                "pagedSections", analysisResultStore.pagedSections()));
+    }
+
+    // Everything except the paged sections, plus their sizes
+    @GetMapping("/{analysisId}")
+    public ResponseEntity<Map<String, Object>> getResultSummary(@PathVariable String analysisId) {
+        if (analysisResultStore.isPending(analysisId)) {
+            return pending(analysisId);
+        }
+        return analysisResultStore.summary(analysisId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // e.g. /{analysisId}/logStatements?level=ERROR,WARN&piiRisk=true&limit=50&cursor=...
+    @GetMapping("/{analysisId}/{section}")
+    public ResponseEntity<?> getResultPage(@PathVariable String analysisId,
+                                           @PathVariable String section,
+                                           @RequestParam(value = CURSOR_PARAM, required = false) String cursor,
+                                           @RequestParam(value = LIMIT_PARAM, defaultValue = "100") int limit,
+                                           @RequestParam Map<String, String> params) {
+        Map<String, String> filters = new LinkedHashMap<>(params);
+        filters.remove(CURSOR_PARAM);
+        filters.remove(LIMIT_PARAM);
+        if (analysisResultStore.isPending(analysisId)) {
+            return pending(analysisId);
+        }
+        try {
+            Optional<ResultPage> page = analysisResultStore.page(analysisId, section, filters, cursor, limit);
+            return page.<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            logger.warn("/api/analysis/results/{}/{}: {}", analysisId, section, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    // The analysis has finished but its result is still being written; the client retries
+    private static ResponseEntity<Map<String, Object>> pending(String analysisId) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("analysisId", analysisId, "status", "pending"));
+    }
+}
@@ -0,0 +1,50 @@
+package com.codedocgen.controller;
+
+import com.codedocgen.service.ClasspathCacheService;
+import com.codedocgen.service.DiagramCacheService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheController.class);
+
+    private final ClasspathCacheService classpathCacheService;
+    private final DiagramCacheService diagramCacheService;
+
+    @Autowired
+    public CacheController(ClasspathCacheService classpathCacheService, DiagramCacheService diagramCacheService) {
+        this.classpathCacheService = classpathCacheService;
+        this.diagramCacheService = diagramCacheService;
+    }
+
+    // Drops one cached classpath (by build-file hash) or, without a key, the whole classpath cache
+    @DeleteMapping("/classpath")
+    public ResponseEntity<Map<String, Object>> invalidateClasspathCache(@RequestParam(value = "key", required = false) String key) {
+        logger.info("Received request to invalidate classpath cache{}", key != null ? " entry " + key : "");
+        int removed = classpathCacheService.invalidate(key);
+        return ResponseEntity.ok(Map.of("removed", removed));
+    }
+
+    // Hit/miss counts of the rendered diagram cache (also published as the codedocgen.diagram.cache.lookups metric)
+    @GetMapping("/diagrams")
+    public ResponseEntity<Map<String, Object>> getDiagramCacheStats() {
+        return ResponseEntity.ok(diagramCacheService.stats());
+    }
+
+    // Drops every cached diagram, e.g. after upgrading Graphviz
+    @DeleteMapping("/diagrams")
+    public ResponseEntity<Map<String, Object>> invalidateDiagramCache() {
+        logger.info("Received request to invalidate diagram cache");
+        int removed = diagramCacheService.invalidate();
+        return ResponseEntity.ok(Map.of("removed", removed));
+    }
+}
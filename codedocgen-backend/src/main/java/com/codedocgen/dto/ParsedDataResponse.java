@@ -13,7 +13,10 @@ import java.util.Map;
 
 @Data
 public class ParsedDataResponse {
+    private String analysisId; // Id of the stored result for /api/analysis/results queries; null if it was not stored
     private String projectName;
+    private String commitId; // Commit that was analyzed
+    private String baseCommitId; // Set when the result was patched incrementally from an analysis of this commit
     private String projectType; // e.g., Maven, Gradle
     private String springBootVersion; // if applicable
     private boolean isSpringBootProject;
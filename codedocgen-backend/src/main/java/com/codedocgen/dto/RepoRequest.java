@@ -5,4 +5,5 @@ import lombok.Data;
 @Data
 public class RepoRequest {
     private String repoUrl;
+    private String baseJobId; // Optional: completed job of the same repository to re-analyze incrementally from
 } 
\ No newline at end of file
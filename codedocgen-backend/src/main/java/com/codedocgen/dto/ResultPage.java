@@ -0,0 +1,18 @@
+package com.codedocgen.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a stored analysis result section (see {@link com.codedocgen.service.AnalysisResultStore}).
+ */
+@Data
+public class ResultPage {
+    private String analysisId;
+    private String section;
+    private List<JsonNode> items; // Elements as they appear in the full response
+    private String nextCursor; // Pass as cursor to get the next page; null on the last page
+    private long sectionTotal; // Elements in the whole section, not only those matching the filters
+}
@@ -0,0 +1,108 @@
+package com.codedocgen.model;
+
+import com.codedocgen.dto.ParsedDataResponse;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * An analysis submitted through the job API. The result is only exposed through the result endpoint,
+ * so status polling stays cheap.
+ */
+public class AnalysisJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String repoUrl;
+    private final String baseJobId;
+    private final Instant submittedAt = Instant.now();
+    private final AnalysisProgress progress = new AnalysisProgress();
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String errorMessage;
+    private volatile ParsedDataResponse result;
+
+    public AnalysisJob(String id, String repoUrl) {
+        this(id, repoUrl, null);
+    }
+
+    public AnalysisJob(String id, String repoUrl, String baseJobId) {
+        this.id = id;
+        this.repoUrl = repoUrl;
+        this.baseJobId = baseJobId;
+    }
+
+    public void markRunning() {
+        this.startedAt = Instant.now();
+        this.status = Status.RUNNING;
+    }
+
+    public void markCompleted(ParsedDataResponse result) {
+        this.result = result;
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+
+    public void markFailed(String errorMessage, ParsedDataResponse result) {
+        this.errorMessage = errorMessage;
+        this.result = result;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getRepoUrl() {
+        return repoUrl;
+    }
+
+    public String getBaseJobId() {
+        return baseJobId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public Map<AnalysisStage, StageProgress> getStages() {
+        return progress.getStages();
+    }
+
+    @JsonIgnore
+    public AnalysisProgress getProgress() {
+        return progress;
+    }
+
+    @JsonIgnore
+    public ParsedDataResponse getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,30 @@
+package com.codedocgen.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-stage progress of one analysis run. Every stage is registered up front, so the map itself is never
+ * structurally modified and can be read safely while the analysis is running.
+ */
+public class AnalysisProgress {
+
+    private final Map<AnalysisStage, StageProgress> stages;
+
+    public AnalysisProgress() {
+        Map<AnalysisStage, StageProgress> initial = new EnumMap<>(AnalysisStage.class);
+        for (AnalysisStage stage : AnalysisStage.values()) {
+            initial.put(stage, new StageProgress());
+        }
+        this.stages = Collections.unmodifiableMap(initial);
+    }
+
+    public StageProgress stage(AnalysisStage stage) {
+        return stages.get(stage);
+    }
+
+    public Map<AnalysisStage, StageProgress> getStages() {
+        return stages;
+    }
+}
@@ -0,0 +1,21 @@
+package com.codedocgen.model;
+
+/**
+ * The stages of a repository analysis, in the order they are reported. Independent stages may run concurrently.
+ */
+public enum AnalysisStage {
+    CLONE,
+    CHANGE_DETECTION, // Incremental runs only: files changed since the baseline's commit
+    PROJECT_DETECTION,
+    PARSE,
+    ENDPOINTS,
+    DIAGRAMS,
+    DOCUMENTATION, // Feature, WSDL and XSD files
+    OPENAPI_SPEC,
+    PROJECT_SUMMARY,
+    CALL_FLOWS,
+    SEQUENCE_DIAGRAMS,
+    DAO_ANALYSIS,
+    LOG_INSIGHTS,
+    PII_PCI_SCAN
+}
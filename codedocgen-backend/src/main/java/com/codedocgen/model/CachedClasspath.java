@@ -0,0 +1,31 @@
+package com.codedocgen.model;
+
+import java.util.List;
+
+/**
+ * Resolved dependency classpath of a Maven project plus its module directories (relative to the project root),
+ * as stored by the classpath cache, and whether its build generates sources (e.g. JAXB or wsimport plugins).
+ */
+public class CachedClasspath {
+    private final String classpath;
+    private final List<String> modulePaths;
+    private final boolean generatesSources;
+
+    public CachedClasspath(String classpath, List<String> modulePaths, boolean generatesSources) {
+        this.classpath = classpath;
+        this.modulePaths = modulePaths;
+        this.generatesSources = generatesSources;
+    }
+
+    public String getClasspath() {
+        return classpath;
+    }
+
+    public List<String> getModulePaths() {
+        return modulePaths;
+    }
+
+    public boolean isGeneratesSources() {
+        return generatesSources;
+    }
+}
@@ -1,20 +1,28 @@
 package com.codedocgen.model;
 
+import java.io.Serializable;
 import lombok.Data;
 import java.util.List;
 import java.util.Map;
 
 @Data
-public class ClassMetadata {
+public class ClassMetadata implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String name;
     private String packageName;
     private String type; // E.g., "class", "interface", "enum", "controller", "service", "repository", "entity"
-    private List<String> annotations = new java.util.ArrayList<>();
-    private List<MethodMetadata> methods = new java.util.ArrayList<>();
-    private List<FieldMetadata> fields = new java.util.ArrayList<>();
+    // Lists default to the shared empty list; parsed metadata holds immutable lists (see MethodMetadata for "serial")
+    @SuppressWarnings("serial")
+    private List<String> annotations = List.of();
+    @SuppressWarnings("serial")
+    private List<MethodMetadata> methods = List.of();
+    @SuppressWarnings("serial")
+    private List<FieldMetadata> fields = List.of();
     private String parentClass; // Fully qualified name of the parent class
-    private List<String> interfaces = new java.util.ArrayList<>(); // List of fully qualified names of implemented interfaces
-    private String filePath; // Relative path to the source file
+    @SuppressWarnings("serial")
+    private List<String> interfaces = List.of(); // List of fully qualified names of implemented interfaces
+    private String filePath; // Path to the source file, relative to the project root
     private boolean isAbstract; // Added to resolve linter error
     private boolean isInterface; // Added to resolve linter error
     // Add more fields as needed, e.g., for imports, static blocks, inner classes
@@ -1,15 +1,19 @@
 package com.codedocgen.model;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Objects;
 import java.util.Collections;
 import java.util.Arrays;
 
-public class DaoOperationDetail {
+public class DaoOperationDetail implements Serializable {
+    private static final long serialVersionUID = 1L;
+
 
     private final String methodName;
     private final String sqlQuery;
     private final SqlOperationType operationType;
+    @SuppressWarnings("serial") // Callers pass ArrayLists or JDK immutable lists
     private final List<String> tables;
 
     public enum SqlOperationType {
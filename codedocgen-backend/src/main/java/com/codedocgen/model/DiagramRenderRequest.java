@@ -0,0 +1,47 @@
+package com.codedocgen.model;
+
+import java.io.File;
+
+/**
+ * One PlantUML diagram to render: its source, the SVG file to write and a label used in logs. The number of nodes
+ * to lay out, when known, lets the renderer pick a layout engine by diagram size.
+ */
+public class DiagramRenderRequest {
+    public static final int UNKNOWN_SIZE = -1;
+
+    private final String plantUmlSource;
+    private final File outputFile;
+    private final String label;
+    private final int layoutNodes;
+
+    public DiagramRenderRequest(String plantUmlSource, File outputFile, String label) {
+        this(plantUmlSource, outputFile, label, UNKNOWN_SIZE);
+    }
+
+    /**
+     * @param layoutNodes Nodes in the diagram's graph layout; 0 for diagrams PlantUML lays out itself (sequence
+     *                    diagrams), {@link #UNKNOWN_SIZE} if not known
+     */
+    public DiagramRenderRequest(String plantUmlSource, File outputFile, String label, int layoutNodes) {
+        this.plantUmlSource = plantUmlSource;
+        this.outputFile = outputFile;
+        this.label = label;
+        this.layoutNodes = layoutNodes;
+    }
+
+    public String getPlantUmlSource() {
+        return plantUmlSource;
+    }
+
+    public File getOutputFile() {
+        return outputFile;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getLayoutNodes() {
+        return layoutNodes;
+    }
+}
@@ -1,10 +1,14 @@
 package com.codedocgen.model;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class FieldMetadata {
+public class FieldMetadata implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String name;
     private String type;
+    @SuppressWarnings("serial") // Always an ArrayList or a JDK immutable list
     private List<String> annotations; // List of annotation strings
     private String visibility; // e.g., public, private, protected, default
     private boolean isStatic;   // Optional
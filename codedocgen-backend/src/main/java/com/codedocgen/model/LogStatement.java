@@ -1,16 +1,21 @@
 package com.codedocgen.model;
 
+import java.io.Serializable;
 import java.util.List;
 
-public class LogStatement {
+public class LogStatement implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String id;
     private String className;
     private int line;
     private String level;
     private String message;
+    @SuppressWarnings("serial") // Always an ArrayList or a JDK immutable list
     private List<LogVariable> variables;
     private boolean isPiiRisk;
     private boolean isPciRisk;
+    private String filePath; // Source file, relative to the analyzed root
 
     public LogStatement() {
     }
@@ -89,4 +94,12 @@ public class LogStatement {
     public void setPciRisk(boolean pciRisk) {
         isPciRisk = pciRisk;
     }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
 } 
\ No newline at end of file
@@ -1,6 +1,10 @@
 package com.codedocgen.model;
 
-public class LogVariable {
+import java.io.Serializable;
+
+public class LogVariable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String name;
     private String type;
     private boolean isPii;
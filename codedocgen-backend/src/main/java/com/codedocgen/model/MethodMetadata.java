@@ -1,45 +1,62 @@
 package com.codedocgen.model;
 
+import java.io.Serializable;
 import lombok.Data;
 import java.util.List;
 import java.util.Map;
 import com.codedocgen.model.DaoOperationDetail;
 
 @Data
-public class MethodMetadata {
+public class MethodMetadata implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String name;
     private String returnType;
-    private List<String> parameters = new java.util.ArrayList<>(); // Parameter type and name
-    private List<String> annotations = new java.util.ArrayList<>();
-    private List<String> exceptionsThrown = new java.util.ArrayList<>();
+    // Lists default to the shared empty list; parsed metadata holds immutable lists (see parser.SymbolTable). Those
+    // and the parser's ArrayLists are all serializable, so "serial" is suppressed on the List-typed fields
+    @SuppressWarnings("serial")
+    private List<String> parameters = List.of(); // Parameter type and name
+    @SuppressWarnings("serial")
+    private List<String> annotations = List.of();
+    @SuppressWarnings("serial")
+    private List<String> exceptionsThrown = List.of();
     private String visibility; // public, private, protected, default
     private boolean isStatic;
     private boolean isAbstract;
     private String packageName;
     private String className;
     // For call flow: 
-    private List<String> calledMethods = new java.util.ArrayList<>(); // List of fully qualified method names or simplified representation
-    private List<String> externalCalls = new java.util.ArrayList<>(); // Map<String, String> in spec, simplified to List<String> for now
-    private List<DaoOperationDetail> daoOperations = new java.util.ArrayList<>(); // Added for DAO analysis, non-final for Lombok setter
+    @SuppressWarnings("serial")
+    private List<String> calledMethods = List.of(); // List of fully qualified method names or simplified representation
+    @SuppressWarnings("serial")
+    private List<String> externalCalls = List.of(); // Map<String, String> in spec, simplified to List<String> for now
+    @SuppressWarnings("serial")
+    private List<DaoOperationDetail> daoOperations = List.of(); // Added for DAO analysis, non-final for Lombok setter
     // Local variable declarations (type and name as 'Type name')
-    private List<String> localVariables = new java.util.ArrayList<>();
-    private List<List<String>> parameterAnnotations = new java.util.ArrayList<>(); // Annotations for each parameter, in order
-    private List<String> returnTypeAnnotations = new java.util.ArrayList<>(); // Annotations for the return type
+    @SuppressWarnings("serial")
+    private List<String> localVariables = List.of();
+    @SuppressWarnings("serial")
+    private List<List<String>> parameterAnnotations = List.of(); // Annotations for each parameter, in order
+    @SuppressWarnings("serial")
+    private List<String> returnTypeAnnotations = List.of(); // Annotations for the return type
     
-    // For deeper analysis of bean methods, store the original JavaParser node
-    @com.fasterxml.jackson.annotation.JsonIgnore // Prevent Jackson from trying to serialize this complex AST node
-    private transient com.github.javaparser.ast.body.MethodDeclaration resolvedMethodNode;
+    // For @Bean methods, the setters called on the bean (e.g. setTargetNamespace on a DefaultWsdl11Definition)
+    @SuppressWarnings("serial")
+    private List<SetterCall> setterCalls = List.of();
     
     // The following fields are likely superseded by daoOperations. Review for removal.
     /** @deprecated Replaced by {@link #daoOperations} */
     @Deprecated
-    private List<String> sqlQueries = new java.util.ArrayList<>(); 
+    @SuppressWarnings("serial")
+    private List<String> sqlQueries = List.of(); 
     /** @deprecated Replaced by {@link #daoOperations} */
     @Deprecated
-    private List<String> sqlTables = new java.util.ArrayList<>(); 
+    @SuppressWarnings("serial")
+    private List<String> sqlTables = List.of(); 
     /** @deprecated Replaced by {@link #daoOperations} */
     @Deprecated
-    private List<String> sqlOperations = new java.util.ArrayList<>(); 
+    @SuppressWarnings("serial")
+    private List<String> sqlOperations = List.of(); 
 
     // No explicit constructor or getters/setters for daoOperations needed here.
     // Lombok's @Data will generate them.
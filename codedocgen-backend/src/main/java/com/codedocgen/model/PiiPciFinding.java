@@ -1,6 +1,10 @@
 package com.codedocgen.model;
 
-public class PiiPciFinding {
+import java.io.Serializable;
+
+public class PiiPciFinding implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String filePath;
     private int lineNumber;
     private int columnNumber; // Start position of the finding in the line
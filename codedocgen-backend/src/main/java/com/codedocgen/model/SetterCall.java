@@ -0,0 +1,58 @@
+package com.codedocgen.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A single-argument {@code setXxx(...)} call made as a statement in a method body, such as the configuration of
+ * a bean in a {@code @Bean} method. Kept instead of the method's AST so metadata does not hold on to the parsed
+ * compilation unit.
+ */
+public class SetterCall implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String methodName;
+    private final String argument; // Source text of the argument expression
+    private final String stringLiteralValue; // Value of the argument if it is a string literal, otherwise null
+
+    public SetterCall(String methodName, String argument, String stringLiteralValue) {
+        this.methodName = methodName;
+        this.argument = argument;
+        this.stringLiteralValue = stringLiteralValue;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getArgument() {
+        return argument;
+    }
+
+    public String getStringLiteralValue() {
+        return stringLiteralValue;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        SetterCall that = (SetterCall) o;
+        return Objects.equals(methodName, that.methodName) &&
+               Objects.equals(argument, that.argument) &&
+               Objects.equals(stringLiteralValue, that.stringLiteralValue);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(methodName, argument, stringLiteralValue);
+    }
+
+    @Override
+    public String toString() {
+        return "SetterCall{" +
+               "methodName='" + methodName + "'" +
+               ", argument='" + argument + "'" +
+               '}';
+    }
+}
@@ -0,0 +1,84 @@
+package com.codedocgen.model;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of a single analysis stage. Updated by the analysis thread and read concurrently by status requests,
+ * so all state is volatile or atomic.
+ */
+public class StageProgress {
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED, SKIPPED
+    }
+
+    private volatile Status status = Status.PENDING;
+    private final AtomicInteger completed = new AtomicInteger();
+    private volatile int total = -1; // -1 when the stage has no countable units
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String message;
+
+    public void start() {
+        this.startedAt = Instant.now();
+        this.status = Status.RUNNING;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public void increment() {
+        completed.incrementAndGet();
+    }
+
+    public void increment(int count) {
+        completed.addAndGet(count);
+    }
+
+    public void complete() {
+        finish(Status.COMPLETED, null);
+    }
+
+    public void fail(String message) {
+        finish(Status.FAILED, message);
+    }
+
+    public void skip(String message) {
+        finish(Status.SKIPPED, message);
+    }
+
+    private void finish(Status finalStatus, String finalMessage) {
+        if (this.startedAt == null) {
+            this.startedAt = Instant.now();
+        }
+        this.finishedAt = Instant.now();
+        this.message = finalMessage;
+        this.status = finalStatus;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,19 @@
+package com.codedocgen.parser;
+
+/**
+ * An analysis of one syntax tree that runs as callbacks inside a shared {@link AstDispatcher} walk instead of
+ * traversing the tree itself. Instances hold the state of a single walk.
+ */
+public interface AstAnalyzer {
+
+    /**
+     * Registers the callbacks for the node types the analyzer needs; called before the walk.
+     */
+    void register(AstDispatcher dispatcher);
+
+    /**
+     * Called after the walk, also if one of the analyzer's callbacks failed ({@link AstDispatcher#failure(Object)}).
+     */
+    default void finish(AstDispatcher dispatcher) {
+    }
+}
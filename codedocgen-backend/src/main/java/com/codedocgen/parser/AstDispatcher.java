@@ -0,0 +1,198 @@
+package com.codedocgen.parser;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.AnnotationDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.RecordDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.expr.StringLiteralExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Walks a syntax tree once and feeds every node to the callbacks that {@link AstAnalyzer}s registered for its
+ * type, so any number of analyses share a single traversal. Enter callbacks run before the node's children are
+ * visited, exit callbacks after; callbacks for the same node run in registration order. Children are visited in
+ * {@link VoidVisitorAdapter} order, so results match those of a dedicated visitor.
+ * <p>
+ * Only the node types in {@link #SUPPORTED_TYPES} can be registered; support another by adding a visit override
+ * to the walker. A callback that throws disables the rest of its owner's callbacks for this walk and is reported
+ * by {@link #failure(Object)}; the other analyzers carry on. Not thread-safe; use one dispatcher per walk.
+ */
+public final class AstDispatcher {
+
+    public static final Set<Class<? extends Node>> SUPPORTED_TYPES = Set.of(
+            CompilationUnit.class, ClassOrInterfaceDeclaration.class, EnumDeclaration.class, AnnotationDeclaration.class,
+            RecordDeclaration.class, MethodDeclaration.class, BlockStmt.class, VariableDeclarator.class,
+            MethodCallExpr.class, StringLiteralExpr.class);
+
+    /**
+     * Orders nodes of one tree as {@link Node#findAll} returns them (enclosing nodes before the nodes they contain,
+     * otherwise by position), for analyzers whose results depend on that order. Nodes without a range go last.
+     */
+    public static final Comparator<Node> SOURCE_ORDER = Comparator
+            .comparing((Node n) -> n.getRange().map(r -> r.begin).orElse(null), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(n -> n.getRange().map(r -> r.end).orElse(null), Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final Map<Class<?>, List<Callback>> enterCallbacks = new HashMap<>();
+    private final Map<Class<?>, List<Callback>> exitCallbacks = new HashMap<>();
+    private final Map<Object, RuntimeException> failures = new IdentityHashMap<>();
+    private final Walker walker = new Walker();
+
+    /**
+     * Registers all of the analyzer's callbacks.
+     */
+    public AstDispatcher register(AstAnalyzer analyzer) {
+        analyzer.register(this);
+        return this;
+    }
+
+    /**
+     * @param owner The analyzer the callback belongs to; a failing callback disables all callbacks of its owner
+     */
+    public <N extends Node> AstDispatcher onEnter(Object owner, Class<N> type, Consumer<? super N> callback) {
+        add(enterCallbacks, owner, type, callback);
+        return this;
+    }
+
+    public <N extends Node> AstDispatcher onExit(Object owner, Class<N> type, Consumer<? super N> callback) {
+        add(exitCallbacks, owner, type, callback);
+        return this;
+    }
+
+    private <N extends Node> void add(Map<Class<?>, List<Callback>> callbacks, Object owner, Class<N> type, Consumer<? super N> callback) {
+        if (!SUPPORTED_TYPES.contains(type)) {
+            throw new IllegalArgumentException("AstDispatcher does not dispatch " + type.getSimpleName() + " nodes");
+        }
+        @SuppressWarnings("unchecked")
+        Consumer<Node> nodeCallback = node -> callback.accept((N) node);
+        callbacks.computeIfAbsent(type, k -> new ArrayList<>()).add(new Callback(owner, nodeCallback));
+    }
+
+    /**
+     * Walks the node and everything below it, including the node itself.
+     */
+    public void walk(Node root) {
+        root.accept(walker, null);
+    }
+
+    /**
+     * @return The exception thrown by one of the owner's callbacks during the walk, or null if there was none
+     */
+    public RuntimeException failure(Object owner) {
+        return failures.get(owner);
+    }
+
+    private void dispatch(Map<Class<?>, List<Callback>> callbacks, Node node) {
+        List<Callback> forType = callbacks.get(node.getClass());
+        if (forType == null) {
+            return;
+        }
+        for (Callback callback : forType) {
+            if (failures.containsKey(callback.owner)) {
+                continue;
+            }
+            try {
+                callback.consumer.accept(node);
+            } catch (RuntimeException e) {
+                failures.put(callback.owner, e);
+            }
+        }
+    }
+
+    private static final class Callback {
+        private final Object owner;
+        private final Consumer<Node> consumer;
+
+        private Callback(Object owner, Consumer<Node> consumer) {
+            this.owner = owner;
+            this.consumer = consumer;
+        }
+    }
+
+    private final class Walker extends VoidVisitorAdapter<Void> {
+
+        @Override
+        public void visit(CompilationUnit n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+
+        @Override
+        public void visit(ClassOrInterfaceDeclaration n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+
+        @Override
+        public void visit(EnumDeclaration n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+
+        @Override
+        public void visit(AnnotationDeclaration n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+
+        @Override
+        public void visit(RecordDeclaration n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+
+        @Override
+        public void visit(MethodDeclaration n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+
+        @Override
+        public void visit(BlockStmt n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+
+        @Override
+        public void visit(VariableDeclarator n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+
+        @Override
+        public void visit(MethodCallExpr n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+
+        @Override
+        public void visit(StringLiteralExpr n, Void arg) {
+            dispatch(enterCallbacks, n);
+            super.visit(n, arg);
+            dispatch(exitCallbacks, n);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.codedocgen.parser;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import com.codedocgen.model.ClassMetadata;
 import com.codedocgen.model.MethodMetadata;
@@ -11,34 +12,32 @@ import org.slf4j.LoggerFactory; // Uncomment if logger is used
 public class CallFlowAnalyzer {
     private static final Logger logger = LoggerFactory.getLogger(CallFlowAnalyzer.class); // Uncomment if logger is used
     
-    // Set to track methods we've already warned about to reduce log noise
-    private Set<String> warnedSignatures = new HashSet<>();
+    // Distinct unresolved signatures logged per analysis before further warnings are only counted
+    @Value("${app.call-flow.max-warned-signatures:200}")
+    private int maxWarnedSignatures = 200;
+
+    // Whether overloads are separate call-flow steps, matched by parameter types; by default the last overload
+    // declared stands for all overloads of a method
+    @Value("${app.call-flow.resolve-overloads:false}")
+    private boolean resolveOverloads = false;
 
     // Method to initiate call flow generation from a single entrypoint (can be used for specific tests or kept for compatibility)
     public List<String> getCallFlow(String entryMethodFQN, List<ClassMetadata> classes) {
-        Map<String, MethodMetadata> methodMap = new HashMap<>();
-        Map<String, ClassMetadata> classMap = new HashMap<>();
-        buildMaps(classes, methodMap, classMap);
+        MethodIndex index = buildIndex(classes);
+        CallGraph callGraph = new CallGraph(index, maxWarnedSignatures);
 
-        List<String> flow = new ArrayList<>();
-        Set<String> visited = new HashSet<>();
-        dfs(entryMethodFQN, methodMap, flow, visited, classMap, classes);
-        return flow;
+        int entryId = callGraph.methodId(entryMethodFQN);
+        if (entryId >= 0) {
+            return callGraph.flowFrom(entryId);
+        }
+        return unresolvedEntryFlow(entryMethodFQN, getBaseFqn(entryMethodFQN), index, callGraph);
     }
 
     // Main method to get all call flows for relevant entrypoints (controllers, SOAP services)
     public Map<String, List<String>> getEntrypointCallFlows(List<ClassMetadata> classes) {
         logger.info("CallFlowAnalyzer received {} classes for analysis.", classes != null ? classes.size() : 0);
-        Map<String, MethodMetadata> methodMap = new HashMap<>();
-        Map<String, ClassMetadata> classMap = new HashMap<>();
-        buildMaps(classes, methodMap, classMap);
-        logger.info("Built methodMap with {} entries and classMap with {} entries.", methodMap.size(), classMap.size());
-
-        // Print all method map keys for debugging
-        // logger.debug("Method map keys:" + methodMap.keySet());
-        // for (String key : methodMap.keySet()) {
-        //     logger.debug("  methodMap key: {}", key);
-        // }
+        MethodIndex index = buildIndex(classes);
+        logger.info("Built method index with {} methods ({} distinct base FQNs) over {} classes.", index.methods().size(), index.size(), index.classCount());
 
         Map<String, List<String>> flows = new HashMap<>();
         int entryPointClassesFound = 0;
@@ -48,6 +47,8 @@ public class CallFlowAnalyzer {
                 logger.warn("Input class list is null. Cannot generate call flows.");
                 return flows;
             }
+            // The graph and its memoized flows are shared by all entry points, so common subtrees are walked once
+            CallGraph callGraph = new CallGraph(index, maxWarnedSignatures);
             for (ClassMetadata cls : classes) {
                 if (("controller".equalsIgnoreCase(cls.getType()) || "soap".equalsIgnoreCase(cls.getType())) && cls.getMethods() != null) {
                     entryPointClassesFound++;
@@ -60,316 +61,118 @@ public class CallFlowAnalyzer {
                         String entryPointDisplayFQN = entryPointBaseFQN + "(" +
                                                     (m.getParameters() != null ? String.join(", ", m.getParameters()) : "") +
                                                     ")";
-                        logger.debug("Attempting DFS for entry point: {}", entryPointDisplayFQN);
-                        logger.debug("  Entry point FQN for methodMap lookup: {}", entryPointBaseFQN);
-                        logger.debug("  Called methods for this entry point:");
-                        if (m.getCalledMethods() != null) {
-                            for (String called : m.getCalledMethods()) {
-                                logger.debug("    calledMethod: {}", called);
-                            }
-                        }
+                        logger.debug("Building flow for entry point: {}", entryPointDisplayFQN);
 
-                        List<String> flow = new ArrayList<>();
-                        Set<String> visited = new HashSet<>();
-                        dfs(entryPointBaseFQN, methodMap, flow, visited, classMap, classes);
+                        // With overload resolution each overload of an entry point gets its own flow; otherwise all
+                        // overloads get the flow of the one in the graph
+                        int entryId = callGraph.methodId(m);
+                        if (entryId < 0) {
+                            entryId = callGraph.methodId(entryPointBaseFQN);
+                        }
+                        List<String> flow = entryId >= 0 ? callGraph.flowFrom(entryId)
+                                : unresolvedEntryFlow(entryPointBaseFQN, entryPointBaseFQN, index, callGraph);
 
                         if (!flow.isEmpty()) {
                             logger.debug("Successfully generated flow for entry point: {} ({} steps). First step: {}", entryPointDisplayFQN, flow.size(), flow.get(0));
                             flows.put(entryPointDisplayFQN, flow);
                         } else {
-                            logger.warn("Flow for entry point {} was empty after DFS. This should not happen if the entry point itself was processed.", entryPointDisplayFQN);
+                            logger.warn("Flow for entry point {} was empty. This should not happen if the entry point itself was processed.", entryPointDisplayFQN);
                         }
                     }
                 }
             }
+            if (callGraph.suppressedWarnings() > 0) {
+                logger.warn("{} further unresolved call warnings were suppressed after the first {} distinct signatures.", callGraph.suppressedWarnings(), maxWarnedSignatures);
+            }
         } catch (Exception e) {
             logger.error("Unexpected error during call flow generation: {}", e.getMessage(), e);
             // Optionally, you might want to return the partially generated flows or an error indicator
         }
-        logger.info("Found {} entry point class(es). Attempted DFS for {} total entry point methods. Generated {} call flows.", entryPointClassesFound, totalEntryPointsAttempted, flows.size());
+        logger.info("Found {} entry point class(es). Attempted {} total entry point methods. Generated {} call flows.", entryPointClassesFound, totalEntryPointsAttempted, flows.size());
         return flows;
     }
 
-    private void buildMaps(List<ClassMetadata> classes, Map<String, MethodMetadata> methodMap, Map<String, ClassMetadata> classMap) {
+    private MethodIndex buildIndex(List<ClassMetadata> classes) {
         if (classes == null) {
-            logger.warn("Input class list to buildMaps is null.");
-            return;
-        }
-        for (ClassMetadata cls : classes) {
-            String classFQN = (cls.getPackageName() != null && !cls.getPackageName().isEmpty()) ?
-                cls.getPackageName() + "." + cls.getName() : cls.getName();
-            classMap.put(classFQN, cls);
-
-            if (cls.getMethods() != null) {
-                for (MethodMetadata m : cls.getMethods()) {
-                    // Ensure className and packageName are set on methodMeta if not already
-                    if (m.getClassName() == null) m.setClassName(cls.getName());
-                    if (m.getPackageName() == null) m.setPackageName(cls.getPackageName());
-
-                    String baseMethodFQN = classFQN + "." + m.getName(); // Key for methodMap is still base FQN
-                    // If we wanted to support overloading directly in methodMap, the key would need to include param types.
-                    // For now, we rely on calledMethodSignatures from parser being more specific.
-                    methodMap.put(baseMethodFQN, m); 
-                }
-            }
+            logger.warn("Input class list to buildIndex is null.");
         }
+        return new MethodIndex(classes, resolveOverloads);
     }
 
     // Helper to extract base FQN (Class.method) from a signature like Class.method(paramType1,paramType2)
     private String getBaseFqn(String signature) {
-        if (signature == null) return null;
-        int paramIndex = signature.indexOf('(');
-        if (paramIndex != -1) {
-            return signature.substring(0, paramIndex);
-        }
-        return signature;
+        return CallGraph.baseFqn(signature);
     }
 
-    private void dfs(String methodLookupKey, // This is expected to be a base FQN (Class.method) for initial lookup
-                     Map<String, MethodMetadata> methodMap,
-                     List<String> flow,
-                     Set<String> visited,
-                     Map<String, ClassMetadata> classMap,
-                     List<ClassMetadata> allProjectClasses) {
-
-        logger.debug("DFS: Input methodLookupKey: '{}'", methodLookupKey);
-
-        // If the lookup key already indicates a special type (e.g., from JavaParserServiceImpl fallback),
-        // add it directly and don't recurse further down this path.
-        if (methodLookupKey != null && 
-            (methodLookupKey.startsWith("UNRESOLVED_CALL:") || 
+    /**
+     * Flow for an entry key that is not a methodMap key: pre-classified keys and framework/library calls become a
+     * single step, a match on package + class name + method name continues as that method's flow, anything else
+     * becomes an UNRESOLVED_OR_EXTERNAL placeholder.
+     */
+    private List<String> unresolvedEntryFlow(String methodLookupKey,
+                                             String baseMethodFQN,
+                                             MethodIndex index,
+                                             CallGraph callGraph) {
+        List<String> flow = new ArrayList<>();
+        if (methodLookupKey != null &&
+            (methodLookupKey.startsWith("UNRESOLVED_CALL:") ||
              methodLookupKey.startsWith("FRAMEWORK_CALL:") || // Future-proofing if parser adds this
              methodLookupKey.startsWith("EXTERNAL_LIB:") || // Future-proofing
              methodLookupKey.startsWith("ERROR:") )) { // Error during parsing
-            logger.debug("DFS: methodLookupKey '{}' is pre-classified. Adding to flow and returning.", methodLookupKey);
-            // Ensure it's not a duplicate of the very last item to avoid redundant entries if parser and analyzer both add prefixes.
-            // This simple check might need refinement based on how prefixes are layered.
-            if (flow.isEmpty() || !flow.get(flow.size() - 1).equals(methodLookupKey)) {
-                 flow.add(methodLookupKey);
-            }
-            // Do not remove from visited here, as this is a terminal node for this path.
-            return;
+            flow.add(methodLookupKey);
+            return flow;
         }
-        
-        String baseMethodFQN = getBaseFqn(methodLookupKey); 
-        logger.debug("DFS: Processing key '{}', base FQN '{}'. Visited size: {}. Current flow size: {}", methodLookupKey, baseMethodFQN, visited.size(), flow.size());
-
         if (baseMethodFQN == null) {
-            logger.warn("DFS: baseMethodFQN is null for lookupKey '{}'. Cannot proceed.", methodLookupKey);
+            logger.warn("baseMethodFQN is null for lookupKey '{}'. Cannot proceed.", methodLookupKey);
             flow.add("ERROR: Null baseMethodFQN for " + methodLookupKey);
-            return;
-        }
-
-        // Visited set should track the specific signature if possible, though currently uses baseFQN.
-        // If methodLookupKey could carry parameter info, visited could be more precise.
-        if (!visited.add(baseMethodFQN)) { // For now, cycle detection is on base FQN
-            logger.debug("DFS: Method {} already visited (based on base FQN). Skipping.", baseMethodFQN);
-            return;
+            return flow;
         }
 
-        MethodMetadata currentMethodMeta = methodMap.get(baseMethodFQN); 
-        // If currentMethodMeta is null, it means the base FQN wasn't in our map.
-        // This can happen if the called method is from an external lib not fully parsed, or if a class was missed.
-
-        if (currentMethodMeta == null) {
-            // Fallback: try to find a match if methodLookupKey had parameters and differs from baseMethodFQN
-            // This part might be less relevant if methodLookupKey is always base.
-            if (!baseMethodFQN.equals(methodLookupKey) && methodLookupKey.contains("(")) {
-                 // Try a lookup with the original key if it was more specific, though methodMap uses base FQN keys.
-                 // This path is unlikely to find anything new unless methodMap keys change.
-            }
-
-            // If still not found, apply previous fallback logic (though it might be less effective now)
-            boolean foundViaFallback = false;
-            String methodNameOnly = baseMethodFQN.contains(".") ? baseMethodFQN.substring(baseMethodFQN.lastIndexOf('.') + 1) : baseMethodFQN;
-            String expectedClassNameFromFQN = baseMethodFQN.contains(".") ? baseMethodFQN.substring(0, baseMethodFQN.lastIndexOf('.')) : "";
-
-            // Try to find by class name + method name (iterating all methods)
-            if (!expectedClassNameFromFQN.isEmpty()) {
-                for (Map.Entry<String, MethodMetadata> entry : methodMap.entrySet()) {
-                    MethodMetadata m = entry.getValue();
-                    String methodClassName = (m.getPackageName() != null && !m.getPackageName().isEmpty() ? m.getPackageName() + "." : "") + m.getClassName();
-                    if (m.getName().equals(methodNameOnly) && methodClassName.equals(expectedClassNameFromFQN)) {
-                        currentMethodMeta = m;
-                        logger.debug("DFS: Found method by FQN class + method name matching: {}.{}", expectedClassNameFromFQN, methodNameOnly);
-                        foundViaFallback = true;
-                        break;
-                    }
+        // Try the class recorded on the methods themselves, then a simple (unqualified) class name
+        String methodNameOnly = baseMethodFQN.contains(".") ? baseMethodFQN.substring(baseMethodFQN.lastIndexOf('.') + 1) : baseMethodFQN;
+        String expectedClassNameFromFQN = baseMethodFQN.contains(".") ? baseMethodFQN.substring(0, baseMethodFQN.lastIndexOf('.')) : "";
+        if (!expectedClassNameFromFQN.isEmpty()) {
+            for (MethodMetadata m : index.methodsOf(expectedClassNameFromFQN)) {
+                if (m.getName().equals(methodNameOnly)) {
+                    logger.debug("Found method by FQN class + method name matching: {}.{}", expectedClassNameFromFQN, methodNameOnly);
+                    return callGraph.flowFrom(callGraph.methodId(m));
                 }
             }
-
-            if (!foundViaFallback) {
-                 // Only warn once per method signature to reduce log noise
-                String warningSignature = methodLookupKey; // Use the original lookup key for warning
-                
-                // Check for Spring Data Repository common methods
-                String calledClassName = baseMethodFQN.contains(".") ? baseMethodFQN.substring(0, baseMethodFQN.lastIndexOf('.')) : "";
-                String calledMethodName = baseMethodFQN.contains(".") ? baseMethodFQN.substring(baseMethodFQN.lastIndexOf('.') + 1) : baseMethodFQN;
-                ClassMetadata calledClassMeta = classMap.get(calledClassName);
-                boolean isKnownRepositoryCall = false;
-                if (calledClassMeta != null && "repository".equalsIgnoreCase(calledClassMeta.getType())) {
-                    if (calledMethodName.startsWith("save") || calledMethodName.startsWith("find") || 
-                        calledMethodName.startsWith("delete") || calledMethodName.startsWith("exists") ||
-                        calledMethodName.startsWith("count")) {
-                        flow.add("FRAMEWORK_CALL (Spring Data): " + warningSignature);
-                        isKnownRepositoryCall = true;
+            if (!expectedClassNameFromFQN.contains(".")) {
+                for (MethodMetadata m : index.candidates(methodNameOnly)) {
+                    if (expectedClassNameFromFQN.equals(m.getClassName())) {
+                        logger.debug("Found method by simple class + method name matching: {}.{}", expectedClassNameFromFQN, methodNameOnly);
+                        return callGraph.flowFrom(callGraph.methodId(m));
                     }
                 }
-
-                // Check for other common unresolved patterns (JDK, common libs)
-                boolean isCommonJdkOrLib = false;
-                if (!isKnownRepositoryCall) {
-                    if (baseMethodFQN.startsWith("java.util.Optional") || baseMethodFQN.startsWith("java.util.regex") || 
-                        baseMethodFQN.startsWith("java.lang.String") || baseMethodFQN.startsWith("org.slf4j.Logger") ||
-                        baseMethodFQN.startsWith("java.time.LocalDateTime") || baseMethodFQN.startsWith("java.util.Objects") ||
-                        baseMethodFQN.startsWith("org.springframework.validation") || baseMethodFQN.startsWith("org.springframework.context.support")) {
-                        flow.add("FRAMEWORK_CALL (JDK/Lib): " + warningSignature);
-                        isCommonJdkOrLib = true;
-                    }
-                }
-
-                if (!isKnownRepositoryCall && !isCommonJdkOrLib) {
-                    if (!warnedSignatures.contains(warningSignature)) {
-                        logger.warn("DFS: MethodMetadata not found for '{}' (base FQN: '{}'). Called from '{}'. It might be an external library method or a parsing gap. Adding placeholder.", 
-                            warningSignature, baseMethodFQN,
-                            flow.isEmpty() ? "Entry Point" : flow.get(flow.size() - 1));
-                        warnedSignatures.add(warningSignature);
-                    }
-                    flow.add("UNRESOLVED_OR_EXTERNAL: " + warningSignature);
-                }
-                visited.remove(baseMethodFQN); // Allow re-visiting if a different call path leads here through a resolved method
-                return;
             }
         }
 
-        // --- Parameter and local variable type tracking (uses FQNs from MethodMetadata) ---
-        Map<String, String> paramTypeMap = new HashMap<>();
-        if (currentMethodMeta.getParameters() != null) {
-            for (String param : currentMethodMeta.getParameters()) {
-                String[] parts = param.trim().split(" ");
-                if (parts.length == 2) {
-                    paramTypeMap.put(parts[1], parts[0]); // variable name -> type
-                } else if (parts.length == 1 && !parts[0].isEmpty()) {
-                    // Handle cases where parameter might just be a type (e.g. from some unresolved scenarios)
-                    // For now, we don't add these to paramTypeMap as they lack a name.
-                    logger.trace("DFS: Parameter '{}' in method lookup key '{}' seems to be type-only.", param, methodLookupKey);
-                }
-            }
-        }
-        // Local variable extraction (if available in MethodMetadata)
-        if (currentMethodMeta.getLocalVariables() != null) {
-            for (String localVar : currentMethodMeta.getLocalVariables()) {
-                String[] parts = localVar.trim().split(" ");
-                if (parts.length == 2) {
-                    paramTypeMap.put(parts[1], parts[0]);
-                    logger.debug("DFS: Found local variable '{}' of type '{}' in method '{}'", parts[1], parts[0], methodLookupKey);
-                }
+        // Check for Spring Data Repository common methods
+        ClassMetadata calledClassMeta = index.classOf(expectedClassNameFromFQN);
+        if (calledClassMeta != null && "repository".equalsIgnoreCase(calledClassMeta.getType())) {
+            if (methodNameOnly.startsWith("save") || methodNameOnly.startsWith("find") ||
+                methodNameOnly.startsWith("delete") || methodNameOnly.startsWith("exists") ||
+                methodNameOnly.startsWith("count")) {
+                flow.add("FRAMEWORK_CALL (Spring Data): " + methodLookupKey);
+                return flow;
             }
         }
-        // --- End parameter and local variable type tracking ---
 
-        String fqnForDisplay = (currentMethodMeta.getPackageName() != null && !currentMethodMeta.getPackageName().isEmpty() ? currentMethodMeta.getPackageName() + "." : "") +
-                                currentMethodMeta.getClassName() + "." +
-                                currentMethodMeta.getName() +
-                                "(" + (currentMethodMeta.getParameters() != null ? String.join(", ", currentMethodMeta.getParameters()) : "") + ")";
-        logger.debug("DFS: Current method display FQN: {}", fqnForDisplay);
-
-        if (flow.isEmpty()) {
-            logger.debug("DFS: Adding entry point {} to flow.", fqnForDisplay);
-            flow.add(fqnForDisplay); 
-        } else {
-            // Avoid adding the same method signature back-to-back if it's already the last element
-            // This can happen if the call was to itself (direct recursion handled by 'visited')
-            // or if the parsing logic leads to it.
-            if (!flow.get(flow.size()-1).equals(fqnForDisplay)) {
-                 // Check if the last element was an UNRESOLVED_OR_EXTERNAL placeholder for the current method
-                 // This might occur if a method call resolves to currentMethodMeta, but was initially added as unresolved.
-                 String lastElement = flow.get(flow.size()-1);
-                 if (lastElement.startsWith("UNRESOLVED_OR_EXTERNAL: ") && getBaseFqn(lastElement.substring("UNRESOLVED_OR_EXTERNAL: ".length())).equals(baseMethodFQN)) {
-                    logger.debug("DFS: Replacing placeholder '{}' with resolved method '{}'", lastElement, fqnForDisplay);
-                    flow.set(flow.size()-1, fqnForDisplay);
-                 } else {
-                    logger.debug("DFS: Adding {} to flow. Last element was {}.", fqnForDisplay, lastElement);
-                    flow.add(fqnForDisplay);
-                 }
-            } else {
-                 logger.debug("DFS: Method {} is already the last element in the flow. Not re-adding.", fqnForDisplay);
-            }
+        // Check for other common unresolved patterns (JDK, common libs)
+        if (baseMethodFQN.startsWith("java.util.Optional") || baseMethodFQN.startsWith("java.util.regex") ||
+            baseMethodFQN.startsWith("java.lang.String") || baseMethodFQN.startsWith("org.slf4j.Logger") ||
+            baseMethodFQN.startsWith("java.time.LocalDateTime") || baseMethodFQN.startsWith("java.util.Objects") ||
+            baseMethodFQN.startsWith("org.springframework.validation") || baseMethodFQN.startsWith("org.springframework.context.support")) {
+            flow.add("FRAMEWORK_CALL (JDK/Lib): " + methodLookupKey);
+            return flow;
         }
 
-        if (currentMethodMeta.getCalledMethods() != null && !currentMethodMeta.getCalledMethods().isEmpty()) {
-            logger.debug("DFS: Method {} has {} called methods to process.", fqnForDisplay, currentMethodMeta.getCalledMethods().size());
-            String currentMethodClassFQN = (currentMethodMeta.getPackageName() != null && !currentMethodMeta.getPackageName().isEmpty() ? currentMethodMeta.getPackageName() + "." : "") +
-                                         currentMethodMeta.getClassName();
-            ClassMetadata currentClass = classMap.get(currentMethodClassFQN);
-            if (currentClass == null) {
-                logger.warn("DFS: Could not find current class {} in classMap for method {}.", currentMethodClassFQN, fqnForDisplay);
-            }
-
-            for (String calledMethodSignatureFromParser : currentMethodMeta.getCalledMethods()) {
-                logger.debug("DFS: Processing called method signature from parser: '{}'", calledMethodSignatureFromParser);
-                
-                // The calledMethodSignatureFromParser should ideally be an FQN with parameter types if resolved by JavaParserServiceImpl
-                String calledBaseFQN = getBaseFqn(calledMethodSignatureFromParser);
-                if (calledBaseFQN == null) {
-                    logger.warn("DFS: Stripped base FQN is null for signature: '{}'", calledMethodSignatureFromParser);
-                    flow.add("ERROR: Null stripped method for " + calledMethodSignatureFromParser);
-                    continue;
-                }
-
-                boolean resolvedAndTraversed = false;
-
-                // Attempt 1: Direct lookup of the base FQN in methodMap.
-                // This is the primary lookup. If calledMethodSignatureFromParser has params, they are for display/matching, not map key.
-                logger.debug("DFS: Attempt 1 - Direct lookup for base '{}' (from '{}')", calledBaseFQN, calledMethodSignatureFromParser);
-                MethodMetadata targetMethodMeta = methodMap.get(calledBaseFQN);
-
-                if (targetMethodMeta != null) {
-                    // Now we have a candidate class. If calledMethodSignatureFromParser included params, 
-                    // we could try to find an overload in targetMethodMeta's class that matches.
-                    // For now, we assume base FQN match is sufficient to proceed with recursion using that targetMethodMeta.
-                    // The fqnForDisplay of this targetMethodMeta will show its actual parameters.
-
-                    // Construct the display FQN for the target method based on its metadata
-                    String targetDisplayFQN = (targetMethodMeta.getPackageName() != null && !targetMethodMeta.getPackageName().isEmpty() ? targetMethodMeta.getPackageName() + "." : "") +
-                                              targetMethodMeta.getClassName() + "." +
-                                              targetMethodMeta.getName() +
-                                              "(" + (targetMethodMeta.getParameters() != null ? String.join(", ", targetMethodMeta.getParameters()) : "") + ")";
-                    
-                    logger.debug("DFS: Attempt 1 Potential Match. Target display FQN: '{}'. Recursing with base key: '{}'", targetDisplayFQN, calledBaseFQN);
-                    // flow.add(" -> " + targetDisplayFQN); // Added inside the recursive DFS call if new
-                    dfs(calledBaseFQN, methodMap, flow, visited, classMap, allProjectClasses); // Recurse with base FQN
-                    resolvedAndTraversed = true;
-                } else {
-                    logger.debug("DFS: Attempt 1 No direct match in methodMap for base '{}'", calledBaseFQN);
-                }
-
-                // Fallback for chained calls (e.g., obj.method1().method2())
-                // This needs careful implementation if calledMethodSignatureFromParser is already specific.
-                // The JavaParserServiceImpl should ideally resolve these chains into direct, fully-qualified calls.
-                // If it still appears as a chain here, it means the parser couldn't fully resolve it.
-                if (!resolvedAndTraversed && calledMethodSignatureFromParser.contains(".") && !calledMethodSignatureFromParser.startsWith(currentMethodMeta.getPackageName() !=null ? currentMethodMeta.getPackageName() : "")) {
-                     // This logic might be too simplistic if the chained call isn't easily resolvable with current context
-                     // Consider if this fallback is still needed given improved parser.
-                     // flow.add(" -> CHAINED_CALL_PLACEHOLDER: " + calledMethodSignatureFromParser);
-                     // resolvedAndTraversed = true; // Mark as handled to avoid unresolved warning for this specific case
-                }
-
-
-                // If not resolved by direct lookup or specific handlers:
-                if (!resolvedAndTraversed) {
-                    if (!warnedSignatures.contains(calledMethodSignatureFromParser)) {
-                        logger.warn("DFS: Method '{}' called from '{}' could not be resolved in methodMap or by fallbacks. Adding as UNRESOLVED.", 
-                            calledMethodSignatureFromParser, fqnForDisplay);
-                        warnedSignatures.add(calledMethodSignatureFromParser);
-                    }
-                    flow.add("UNRESOLVED_CALL: " + calledMethodSignatureFromParser);
-                    // Do not recurse for unresolved calls
-                }
-            }
-        } else {
-            logger.debug("DFS: Method {} has no called methods or list is empty.", fqnForDisplay);
+        if (callGraph.shouldWarn(methodLookupKey)) {
+            logger.warn("MethodMetadata not found for '{}' (base FQN: '{}'). It might be an external library method or a parsing gap. Adding placeholder.",
+                methodLookupKey, baseMethodFQN);
         }
-        logger.debug("DFS: Finished processing for {}. Current flow size: {}. Flow: {}", fqnForDisplay, flow.size(), String.join("\n", flow));
+        flow.add("UNRESOLVED_OR_EXTERNAL: " + methodLookupKey);
+        return flow;
     }
-} 
\ No newline at end of file
+}
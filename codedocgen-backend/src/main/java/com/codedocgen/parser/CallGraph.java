@@ -0,0 +1,337 @@
+package com.codedocgen.parser;
+
+import com.codedocgen.model.MethodMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Call graph over the project's methods, used to build call flows. Methods are numbered once; each method's
+ * calls are resolved through the {@link MethodIndex} (overload-aware if enabled) and become either an edge to another
+ * method or a literal {@code UNRESOLVED_CALL} step.
+ * <p>
+ * A flow is the depth-first, pre-order listing of everything reachable from a method, each method listed once.
+ * Flows are memoized per method: the flow of a method in another strongly connected component never depends on
+ * the path that reached it, so it is computed once and spliced into every flow that reaches it (skipping steps
+ * already listed). Only walks inside a cycle are path dependent and traversed per flow.
+ * <p>
+ * Not thread-safe; build one per analysis.
+ */
+class CallGraph {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallGraph.class);
+
+    private final int methodCount;
+    private final String[] displayNames;              // Per method: "pkg.Class.method(params)"
+    private final int[][] callTargets;                // Per method, per call: target method, or the literal's token (>= methodCount)
+    private final List<String> literals = new ArrayList<>();
+    private final List<Integer> literalOwners = new ArrayList<>();
+    private final Map<MethodMetadata, Integer> methodsByMetadata = new IdentityHashMap<>();
+    private final MethodIndex index;
+
+    // Unresolved signatures already logged, so each is warned about once per graph; bounded for huge projects
+    private final Set<String> warnedSignatures = new HashSet<>();
+    private final int maxWarnedSignatures;
+    private int suppressedWarnings;
+
+    private final int[] componentOf;                  // Strongly connected component of each method
+    private final int[][] componentExits;             // Per component: distinct methods outside it that it calls
+
+    // Memoized flows as token arrays; tokens < methodCount are methods, the rest index literals
+    private final int[][] memo;
+    private final int[] visitStamp;
+    private final int[] spliceStamp;
+    private int visitGeneration;
+    private int spliceGeneration;
+
+    /**
+     * @param index Methods of the analyzed classes
+     * @param maxWarnedSignatures Distinct unresolved signatures logged before further warnings are only counted
+     */
+    CallGraph(MethodIndex index, int maxWarnedSignatures) {
+        this.index = index;
+        this.maxWarnedSignatures = maxWarnedSignatures;
+        List<MethodMetadata> methods = index.methods();
+        this.methodCount = methods.size();
+        this.displayNames = new String[methodCount];
+        for (int id = 0; id < methodCount; id++) {
+            methodsByMetadata.putIfAbsent(methods.get(id), id);
+            displayNames[id] = displayName(methods.get(id));
+        }
+
+        this.callTargets = new int[methodCount][];
+        for (int id = 0; id < methodCount; id++) {
+            List<String> calledMethods = methods.get(id).getCalledMethods();
+            int[] targets = new int[calledMethods != null ? calledMethods.size() : 0];
+            for (int call = 0; call < targets.length; call++) {
+                String signature = calledMethods.get(call);
+                MethodMetadata resolved = index.resolve(signature);
+                if (resolved != null) {
+                    targets[call] = methodsByMetadata.get(resolved);
+                } else if (signature == null) {
+                    targets[call] = addLiteral("ERROR: Null stripped method for " + signature, id);
+                } else {
+                    targets[call] = addLiteral("UNRESOLVED_CALL: " + signature, id);
+                }
+            }
+            callTargets[id] = targets;
+        }
+
+        this.componentOf = new int[methodCount];
+        this.componentExits = computeComponents();
+        this.memo = new int[methodCount][];
+        this.visitStamp = new int[methodCount];
+        this.spliceStamp = new int[methodCount];
+        logger.debug("Built call graph with {} methods, {} unresolved call sites and {} strongly connected components.",
+                methodCount, literals.size(), componentExits.length);
+    }
+
+    /** @return The method id for a signature or base FQN ("pkg.Class.method"), or -1 */
+    int methodId(String signature) {
+        MethodMetadata method = index.resolve(signature);
+        return method != null ? methodId(method) : -1;
+    }
+
+    /** @return The method id of a method that is in the graph, or -1 */
+    int methodId(MethodMetadata method) {
+        Integer id = methodsByMetadata.get(method);
+        return id != null ? id : -1;
+    }
+
+    /** @return The call flow starting at the given method, with the method itself as the first step */
+    List<String> flowFrom(int methodId) {
+        int[] tokens = ensureMemo(methodId);
+        List<String> flow = new ArrayList<>(tokens.length);
+        for (int token : tokens) {
+            flow.add(token < methodCount ? displayNames[token] : literals.get(token - methodCount));
+        }
+        return flow;
+    }
+
+    // Computes the memo of a method after the memos of every component its own component calls into
+    private int[] ensureMemo(int root) {
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            int method = pending.peek();
+            if (memo[method] != null) {
+                pending.pop();
+                continue;
+            }
+            boolean ready = true;
+            for (int exit : componentExits[componentOf[method]]) {
+                if (memo[exit] == null) {
+                    pending.push(exit);
+                    ready = false;
+                }
+            }
+            if (ready) {
+                memo[method] = computeFlow(method);
+                pending.pop();
+            }
+        }
+        return memo[root];
+    }
+
+    private int[] computeFlow(int root) {
+        visitGeneration++;
+        TokenList flow = new TokenList();
+        visit(root, flow);
+        return flow.toArray();
+    }
+
+    // Plain DFS inside the root's component; calls leaving the component splice in the callee's memo
+    private void visit(int method, TokenList flow) {
+        visitStamp[method] = visitGeneration;
+        flow.add(method);
+        for (int target : callTargets[method]) {
+            if (target >= methodCount) {
+                warnUnresolved(target);
+                flow.add(target);
+            } else if (visitStamp[target] == visitGeneration) {
+                continue;
+            } else if (componentOf[target] == componentOf[method]) {
+                visit(target, flow);
+            } else {
+                splice(memo[target], flow);
+            }
+        }
+    }
+
+    /**
+     * Appends a memoized flow, dropping methods already in the flow together with their literal steps (a method
+     * already listed was fully expanded before, since nothing in another component can lead back to the methods
+     * still being expanded).
+     */
+    private void splice(int[] piece, TokenList flow) {
+        spliceGeneration++;
+        for (int token : piece) {
+            if (token < methodCount) {
+                if (visitStamp[token] != visitGeneration) {
+                    visitStamp[token] = visitGeneration;
+                    spliceStamp[token] = spliceGeneration;
+                    flow.add(token);
+                }
+            } else if (spliceStamp[literalOwners.get(token - methodCount)] == spliceGeneration) {
+                flow.add(token);
+            }
+        }
+    }
+
+    // Iterative Tarjan; returns the distinct cross-component call targets of each component
+    private int[][] computeComponents() {
+        int[] index = new int[methodCount];
+        int[] lowLink = new int[methodCount];
+        boolean[] onStack = new boolean[methodCount];
+        Arrays.fill(index, -1);
+        Deque<Integer> componentStack = new ArrayDeque<>();
+        int[] callCursor = new int[methodCount];
+        Deque<Integer> walk = new ArrayDeque<>();
+        int nextIndex = 0;
+        int componentCount = 0;
+
+        for (int start = 0; start < methodCount; start++) {
+            if (index[start] != -1) {
+                continue;
+            }
+            walk.push(start);
+            while (!walk.isEmpty()) {
+                int method = walk.peek();
+                if (index[method] == -1) {
+                    index[method] = lowLink[method] = nextIndex++;
+                    componentStack.push(method);
+                    onStack[method] = true;
+                }
+                boolean descended = false;
+                while (callCursor[method] < callTargets[method].length) {
+                    int target = callTargets[method][callCursor[method]++];
+                    if (target >= methodCount) {
+                        continue;
+                    }
+                    if (index[target] == -1) {
+                        walk.push(target);
+                        descended = true;
+                        break;
+                    } else if (onStack[target]) {
+                        lowLink[method] = Math.min(lowLink[method], index[target]);
+                    }
+                }
+                if (descended) {
+                    continue;
+                }
+                walk.pop();
+                if (!walk.isEmpty()) {
+                    int caller = walk.peek();
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[method]);
+                }
+                if (lowLink[method] == index[method]) {
+                    int member;
+                    do {
+                        member = componentStack.pop();
+                        onStack[member] = false;
+                        componentOf[member] = componentCount;
+                    } while (member != method);
+                    componentCount++;
+                }
+            }
+        }
+
+        List<Set<Integer>> exits = new ArrayList<>(componentCount);
+        for (int component = 0; component < componentCount; component++) {
+            exits.add(new LinkedHashSet<>());
+        }
+        for (int method = 0; method < methodCount; method++) {
+            for (int target : callTargets[method]) {
+                if (target < methodCount && componentOf[target] != componentOf[method]) {
+                    exits.get(componentOf[method]).add(target);
+                }
+            }
+        }
+        int[][] componentExits = new int[componentCount][];
+        for (int component = 0; component < componentCount; component++) {
+            componentExits[component] = exits.get(component).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return componentExits;
+    }
+
+    /**
+     * @return Whether a warning about this unresolved signature should be logged: true the first time it is seen,
+     * while fewer than the configured maximum have been logged
+     */
+    boolean shouldWarn(String signature) {
+        if (warnedSignatures.contains(signature)) {
+            return false;
+        }
+        if (warnedSignatures.size() >= maxWarnedSignatures) {
+            suppressedWarnings++;
+            return false;
+        }
+        warnedSignatures.add(signature);
+        return true;
+    }
+
+    /** @return Warnings not logged because the warned-signature limit was reached */
+    int suppressedWarnings() {
+        return suppressedWarnings;
+    }
+
+    // Literals reach a flow through visit() at least once, so reachable unresolved calls are always reported here
+    private void warnUnresolved(int token) {
+        String literal = literals.get(token - methodCount);
+        if (literal.startsWith("UNRESOLVED_CALL: ")) {
+            String signature = literal.substring("UNRESOLVED_CALL: ".length());
+            if (shouldWarn(signature)) {
+                logger.warn("Method '{}' called from '{}' could not be resolved in the call graph. Adding as UNRESOLVED.",
+                        signature, displayNames[literalOwners.get(token - methodCount)]);
+            }
+        } else {
+            logger.warn("Stripped base FQN is null for a call from '{}'.", displayNames[literalOwners.get(token - methodCount)]);
+        }
+    }
+
+    private int addLiteral(String text, int owner) {
+        literals.add(text);
+        literalOwners.add(owner);
+        return methodCount + literals.size() - 1;
+    }
+
+    static String displayName(MethodMetadata method) {
+        return (method.getPackageName() != null && !method.getPackageName().isEmpty() ? method.getPackageName() + "." : "") +
+                method.getClassName() + "." +
+                method.getName() +
+                "(" + (method.getParameters() != null ? String.join(", ", method.getParameters()) : "") + ")";
+    }
+
+    // Base FQN (Class.method) of a signature like Class.method(paramType1,paramType2)
+    static String baseFqn(String signature) {
+        if (signature == null) return null;
+        int paramIndex = signature.indexOf('(');
+        return paramIndex != -1 ? signature.substring(0, paramIndex) : signature;
+    }
+
+    private static final class TokenList {
+        private int[] tokens = new int[16];
+        private int size;
+
+        void add(int token) {
+            if (size == tokens.length) {
+                tokens = Arrays.copyOf(tokens, size * 2);
+            }
+            tokens[size++] = token;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(tokens, size);
+        }
+    }
+}
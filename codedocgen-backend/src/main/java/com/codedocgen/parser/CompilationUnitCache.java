@@ -0,0 +1,213 @@
+package com.codedocgen.parser;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseProblemException;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Per-analysis cache of parsed compilation units, shared by metadata extraction, logger insights and DAO
+ * analysis so each source file is parsed once. Entries are held through soft references and the number of
+ * entries is capped (least recently used first), so the heap stays bounded on huge repositories; a unit that
+ * was evicted or collected is transparently re-parsed on the next request.
+ * <p>
+ * Later stages can also have their analysis of a file run inside the parser's walk of it ({@link #addAnalyzer}):
+ * the analyzer leaves its result here ({@link #putResult}) and the stage takes it ({@link #takeResult}) instead of
+ * walking the file again. Results are held strongly until taken or the cache is dropped with its analysis.
+ * <p>
+ * Thread-safe. Two threads missing on the same file at the same time may both parse it; the last one wins.
+ */
+public class CompilationUnitCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompilationUnitCache.class);
+
+    private final Map<Path, SoftReference<CompilationUnit>> entries;
+    private volatile ParserConfiguration parserConfiguration = new ParserConfiguration();
+    private volatile Function<Path, String> resolutionContexts = file -> null;
+
+    private final List<Function<Path, AstAnalyzer>> analyzerFactories = new CopyOnWriteArrayList<>();
+    private final Map<Path, Map<ResultKey<?>, Object>> results = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reparses = new AtomicLong(); // Misses on entries whose soft reference was cleared by the GC
+
+    public CompilationUnitCache(int maxEntries) {
+        final int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, SoftReference<CompilationUnit>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Sets the configuration (including the symbol resolver) used for every parse from now on. Called by the
+     * parser service once the project's classpath is known.
+     */
+    public void setParserConfiguration(ParserConfiguration parserConfiguration) {
+        this.parserConfiguration = parserConfiguration;
+    }
+
+    /**
+     * Sets, per file, the hash of everything symbol resolution with the current configuration depends on besides
+     * the file itself (dependencies and the project sources it may resolve against), for stored results that
+     * contain resolved types.
+     */
+    public void setResolutionContexts(Function<Path, String> resolutionContexts) {
+        this.resolutionContexts = resolutionContexts;
+    }
+
+    /**
+     * @return The file's hash as set by the parser service, or null if it is unknown
+     */
+    public String getResolutionContext(Path file) {
+        return resolutionContexts.apply(file);
+    }
+
+    /**
+     * Returns the compilation unit for the given file, parsing it if it is not cached.
+     * @throws IOException if the file cannot be read
+     * @throws ParseProblemException if the file does not parse
+     */
+    public CompilationUnit get(Path file) throws IOException {
+        return get(file, parserConfiguration);
+    }
+
+    /**
+     * Like {@link #get(Path)}, but a miss is parsed with the given configuration, e.g. with a symbol resolver that
+     * belongs to the calling thread.
+     */
+    public CompilationUnit get(Path file, ParserConfiguration configuration) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        boolean seenBefore;
+        synchronized (entries) {
+            SoftReference<CompilationUnit> ref = entries.get(key);
+            CompilationUnit cached = ref != null ? ref.get() : null;
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            seenBefore = ref != null;
+        }
+
+        if (seenBefore) {
+            reparses.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        CompilationUnit cu = parse(key, configuration);
+        synchronized (entries) {
+            entries.put(key, new SoftReference<>(cu));
+        }
+        return cu;
+    }
+
+    private CompilationUnit parse(Path file, ParserConfiguration configuration) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            ParseResult<CompilationUnit> result = new JavaParser(configuration).parse(in);
+            if (!result.isSuccessful() || result.getResult().isEmpty()) {
+                throw new ParseProblemException(result.getProblems());
+            }
+            return result.getResult().get();
+        }
+    }
+
+    /**
+     * Adds an analysis to run in the parser's walk of every file it extracts metadata from.
+     * @param factory Creates the analyzer for a file (absolute, normalized path), or returns null to skip the file
+     */
+    public void addAnalyzer(Function<Path, AstAnalyzer> factory) {
+        analyzerFactories.add(factory);
+    }
+
+    /**
+     * @return New instances of the added analyzers that want the file, for one walk of it
+     */
+    public List<AstAnalyzer> newAnalyzers(Path file) {
+        if (analyzerFactories.isEmpty()) {
+            return List.of();
+        }
+        Path key = file.toAbsolutePath().normalize();
+        List<AstAnalyzer> analyzers = new ArrayList<>(analyzerFactories.size());
+        for (Function<Path, AstAnalyzer> factory : analyzerFactories) {
+            AstAnalyzer analyzer = factory.apply(key);
+            if (analyzer != null) {
+                analyzers.add(analyzer);
+            }
+        }
+        return analyzers;
+    }
+
+    public <T> void putResult(Path file, ResultKey<T> key, T result) {
+        Objects.requireNonNull(result);
+        results.compute(file.toAbsolutePath().normalize(), (path, forFile) -> {
+            Map<ResultKey<?>, Object> updated = forFile != null ? forFile : new HashMap<>(4);
+            updated.put(key, result);
+            return updated;
+        });
+    }
+
+    /**
+     * Removes and returns a result left for the file.
+     * @return The result, or null if none was left (e.g. the file's metadata came from the result store)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T takeResult(Path file, ResultKey<T> key) {
+        Object[] taken = new Object[1];
+        results.computeIfPresent(file.toAbsolutePath().normalize(), (path, forFile) -> {
+            taken[0] = forFile.remove(key);
+            return forFile.isEmpty() ? null : forFile;
+        });
+        return (T) taken[0];
+    }
+
+    public void logStats(String label) {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        logger.info("[CompilationUnitCache] {}: {} hits, {} misses, {} re-parses of collected entries, {} entries.",
+                label, hits.get(), misses.get(), reparses.get(), size);
+    }
+
+    /**
+     * Typed name of a per-file result. Keys compare by identity, so declare each one once as a constant.
+     */
+    public static final class ResultKey<T> {
+        private final String name;
+
+        private ResultKey(String name) {
+            this.name = name;
+        }
+
+        public static <T> ResultKey<T> of(String name) {
+            return new ResultKey<>(name);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -3,15 +3,21 @@ package com.codedocgen.parser;
 import com.codedocgen.model.DaoOperationDetail;
 import com.github.javaparser.ast.body.MethodDeclaration;
 import com.github.javaparser.ast.body.VariableDeclarator;
+import com.github.javaparser.ast.expr.AnnotationExpr;
 import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MemberValuePair;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.expr.StringLiteralExpr;
 import com.github.javaparser.ast.expr.NameExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,62 +42,109 @@ public class DaoAnalyzer {
         Pattern.CASE_INSENSITIVE
     );
 
+    // Per-file DAO operations left in the CompilationUnitCache by the parser's walk, see MethodScan#sourceOperations
+    public static final CompilationUnitCache.ResultKey<List<DaoOperationDetail>> SOURCE_OPERATIONS =
+            CompilationUnitCache.ResultKey.of("daoSourceOperations");
+
+    /**
+     * @return A scan of the methods of one walk, to be registered with its dispatcher
+     */
+    public MethodScan newScan() {
+        return new MethodScan();
+    }
+
     public DaoAnalysisResult analyze(MethodDeclaration methodDeclaration) {
-        List<DaoOperationDetail> operations = new ArrayList<>();
-        String methodName = methodDeclaration.getNameAsString();
-        Map<String, String> stringVariables = new HashMap<>();
+        MethodScan scan = newScan();
+        AstDispatcher dispatcher = new AstDispatcher().register(scan);
+        dispatcher.walk(methodDeclaration);
+        if (dispatcher.failure(scan) != null) {
+            throw dispatcher.failure(scan);
+        }
+        return scan.result(methodDeclaration);
+    }
 
-        if (methodDeclaration.getBody().isPresent()) {
-            // 1. Find string variable assignments
-            methodDeclaration.getBody().get().findAll(VariableDeclarator.class).forEach(vd -> {
-                if (vd.getType().asString().equals("String") && vd.getInitializer().isPresent()) {
-                    Expression initializer = vd.getInitializer().get();
-                    if (initializer.isStringLiteralExpr()) {
-                        stringVariables.put(vd.getNameAsString(), initializer.asStringLiteralExpr().getValue());
-                    } else if (initializer.isNameExpr()) {
-                        // Handle assignment from another variable, if that variable is known
-                        String referencedVarName = initializer.asNameExpr().getNameAsString();
-                        if (stringVariables.containsKey(referencedVarName)) {
-                            stringVariables.put(vd.getNameAsString(), stringVariables.get(referencedVarName));
+    /**
+     * @return The operation of the method's Spring Data @Query annotation, or null if it has none with a query
+     */
+    public DaoOperationDetail queryAnnotationOperation(MethodDeclaration md) {
+        for (AnnotationExpr annotation : md.getAnnotations()) {
+            String annotationName = annotation.getNameAsString();
+            if ("Query".equals(annotationName) || annotationName.endsWith(".Query")) {
+                String sqlQuery = null;
+                if (annotation.isNormalAnnotationExpr()) {
+                    for (MemberValuePair pair : annotation.asNormalAnnotationExpr().getPairs()) {
+                        if ("value".equals(pair.getNameAsString()) || "query".equals(pair.getNameAsString())) {
+                            if (pair.getValue().isStringLiteralExpr()) {
+                                sqlQuery = pair.getValue().asStringLiteralExpr().getValue();
+                            }
                         }
                     }
-                    // Note: Does not handle concatenated strings or method calls returning strings yet.
+                } else if (annotation.isSingleMemberAnnotationExpr()) {
+                    Expression valueExpr = annotation.asSingleMemberAnnotationExpr().getMemberValue();
+                    if (valueExpr.isStringLiteralExpr()) {
+                        sqlQuery = valueExpr.asStringLiteralExpr().getValue();
+                    }
                 }
-            });
 
-            // 2. Look for specific JDBC method calls
-            methodDeclaration.getBody().get().findAll(MethodCallExpr.class).forEach(methodCall -> {
-                String jdbcMethodName = methodCall.getNameAsString();
-                if (JDBC_METHODS.contains(jdbcMethodName) && !methodCall.getArguments().isEmpty()) {
-                    Expression firstArg = methodCall.getArgument(0);
-                    String sqlQuery = null;
-                    if (firstArg.isStringLiteralExpr()) {
-                        sqlQuery = firstArg.asStringLiteralExpr().getValue();
-                    } else if (firstArg.isNameExpr()) {
-                        // Check if the argument is a tracked string variable
-                        String varName = firstArg.asNameExpr().getNameAsString();
-                        if (stringVariables.containsKey(varName)) {
-                            sqlQuery = stringVariables.get(varName);
-                        }
-                    }
+                if (sqlQuery != null && !sqlQuery.trim().isEmpty()) {
+                    return new DaoOperationDetail(md.getNameAsString(), sqlQuery, extractSqlOperationType(sqlQuery), extractTableNames(sqlQuery));
+                }
+            }
+        }
+        return null;
+    }
 
-                    if (sqlQuery != null && isPotentiallySql(sqlQuery)) {
-                        addOperationDetail(operations, methodName, sqlQuery);
+    private DaoAnalysisResult analyzeBody(String methodName, List<VariableDeclarator> declarators, List<MethodCallExpr> jdbcCalls,
+                                          List<StringLiteralExpr> literals) {
+        List<DaoOperationDetail> operations = new ArrayList<>();
+        Map<String, String> stringVariables = new HashMap<>();
+
+        // 1. Find string variable assignments
+        declarators.forEach(vd -> {
+            if (vd.getType().asString().equals("String") && vd.getInitializer().isPresent()) {
+                Expression initializer = vd.getInitializer().get();
+                if (initializer.isStringLiteralExpr()) {
+                    stringVariables.put(vd.getNameAsString(), initializer.asStringLiteralExpr().getValue());
+                } else if (initializer.isNameExpr()) {
+                    // Handle assignment from another variable, if that variable is known
+                    String referencedVarName = initializer.asNameExpr().getNameAsString();
+                    if (stringVariables.containsKey(referencedVarName)) {
+                        stringVariables.put(vd.getNameAsString(), stringVariables.get(referencedVarName));
                     }
-                    // TODO: Handle cases where SQL is in a variable or constructed dynamically - Partially Addressed
                 }
-            });
+                // Note: Does not handle concatenated strings or method calls returning strings yet.
+            }
+        });
 
-            // Fallback: also check all string literals if no specific JDBC calls found yielding SQL
-            // This is less precise but can catch queries not directly in JDBC method calls shown above.
-            if (operations.isEmpty()) {
-                 methodDeclaration.getBody().get().findAll(StringLiteralExpr.class).forEach(str -> {
-                    String value = str.getValue();
-                    if (isPotentiallySql(value)) {
-                        addOperationDetail(operations, methodName, value);
-                    }
-                });
+        // 2. Look for specific JDBC method calls
+        jdbcCalls.forEach(methodCall -> {
+            Expression firstArg = methodCall.getArgument(0);
+            String sqlQuery = null;
+            if (firstArg.isStringLiteralExpr()) {
+                sqlQuery = firstArg.asStringLiteralExpr().getValue();
+            } else if (firstArg.isNameExpr()) {
+                // Check if the argument is a tracked string variable
+                String varName = firstArg.asNameExpr().getNameAsString();
+                if (stringVariables.containsKey(varName)) {
+                    sqlQuery = stringVariables.get(varName);
+                }
             }
+
+            if (sqlQuery != null && isPotentiallySql(sqlQuery)) {
+                addOperationDetail(operations, methodName, sqlQuery);
+            }
+            // TODO: Handle cases where SQL is in a variable or constructed dynamically - Partially Addressed
+        });
+
+        // Fallback: also check all string literals if no specific JDBC calls found yielding SQL
+        // This is less precise but can catch queries not directly in JDBC method calls shown above.
+        if (operations.isEmpty()) {
+            literals.forEach(str -> {
+                String value = str.getValue();
+                if (isPotentiallySql(value)) {
+                    addOperationDetail(operations, methodName, value);
+                }
+            });
         }
         return new DaoAnalysisResult(operations);
     }
@@ -166,6 +219,110 @@ public class DaoAnalyzer {
         return tables.stream().distinct().collect(Collectors.toList());
     }
 
+    /**
+     * Collects the nodes the analysis needs from every method body during a shared walk, and analyzes each method
+     * when the walk leaves it. Nodes of nested methods (anonymous and local classes) also count for the enclosing
+     * method, and collected nodes are put in source order first, so results are the same as searching each body.
+     */
+    public class MethodScan implements AstAnalyzer {
+        private final Deque<ScannedMethod> open = new ArrayDeque<>();
+        private final List<ScannedMethod> scanned = new ArrayList<>(); // In the order the walk entered them
+        private final Map<MethodDeclaration, ScannedMethod> byDeclaration = new IdentityHashMap<>();
+
+        @Override
+        public void register(AstDispatcher dispatcher) {
+            dispatcher.onEnter(this, MethodDeclaration.class, md -> {
+                ScannedMethod method = new ScannedMethod(md);
+                open.push(method);
+                scanned.add(method);
+                byDeclaration.put(md, method);
+            });
+            dispatcher.onExit(this, MethodDeclaration.class, md -> {
+                ScannedMethod method = open.pop();
+                method.declarators.sort(AstDispatcher.SOURCE_ORDER);
+                method.jdbcCalls.sort(AstDispatcher.SOURCE_ORDER);
+                method.literals.sort(AstDispatcher.SOURCE_ORDER);
+                method.result = analyzeBody(md.getNameAsString(), method.declarators, method.jdbcCalls, method.literals);
+                method.declarators = null;
+                method.jdbcCalls = null;
+                method.literals = null;
+            });
+            dispatcher.onEnter(this, BlockStmt.class, block -> {
+                if (!open.isEmpty() && open.peek().body == block) {
+                    open.peek().inBody = true;
+                }
+            });
+            dispatcher.onExit(this, BlockStmt.class, block -> {
+                if (!open.isEmpty() && open.peek().body == block) {
+                    open.peek().inBody = false;
+                }
+            });
+            dispatcher.onEnter(this, VariableDeclarator.class, vd -> {
+                for (ScannedMethod method : open) {
+                    if (method.inBody) {
+                        method.declarators.add(vd);
+                    }
+                }
+            });
+            dispatcher.onEnter(this, MethodCallExpr.class, call -> {
+                if (!JDBC_METHODS.contains(call.getNameAsString()) || call.getArguments().isEmpty()) {
+                    return;
+                }
+                for (ScannedMethod method : open) {
+                    if (method.inBody) {
+                        method.jdbcCalls.add(call);
+                    }
+                }
+            });
+            dispatcher.onEnter(this, StringLiteralExpr.class, literal -> {
+                for (ScannedMethod method : open) {
+                    if (method.inBody) {
+                        method.literals.add(literal);
+                    }
+                }
+            });
+        }
+
+        /**
+         * @return The analysis of a method the walk went through, or an empty result for any other method
+         */
+        public DaoAnalysisResult result(MethodDeclaration md) {
+            ScannedMethod method = byDeclaration.get(md);
+            return method != null && method.result != null ? method.result : new DaoAnalysisResult(List.of());
+        }
+
+        /**
+         * @return Per method in source order, its @Query operation if it has one, else the operations found in its body
+         */
+        public List<DaoOperationDetail> sourceOperations() {
+            List<DaoOperationDetail> operations = new ArrayList<>();
+            for (ScannedMethod method : scanned) {
+                DaoOperationDetail queryOperation = queryAnnotationOperation(method.declaration);
+                if (queryOperation != null) {
+                    operations.add(queryOperation);
+                } else if (method.result != null) {
+                    operations.addAll(method.result.getOperations());
+                }
+            }
+            return operations;
+        }
+    }
+
+    private static final class ScannedMethod {
+        private final MethodDeclaration declaration;
+        private final BlockStmt body;
+        private boolean inBody;
+        private List<VariableDeclarator> declarators = new ArrayList<>();
+        private List<MethodCallExpr> jdbcCalls = new ArrayList<>();
+        private List<StringLiteralExpr> literals = new ArrayList<>();
+        private DaoAnalysisResult result;
+
+        private ScannedMethod(MethodDeclaration declaration) {
+            this.declaration = declaration;
+            this.body = declaration.getBody().orElse(null);
+        }
+    }
+
     public static class DaoAnalysisResult {
         public final List<DaoOperationDetail> operations;
 
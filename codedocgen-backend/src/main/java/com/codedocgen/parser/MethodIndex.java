@@ -0,0 +1,176 @@
+package com.codedocgen.parser;
+
+import com.codedocgen.model.ClassMetadata;
+import com.codedocgen.model.MethodMetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lookup tables over the parsed methods, built once per call flow analysis so every lookup is a hash probe:
+ * <ul>
+ *   <li>base FQN ("pkg.Class.method") to method; with overloads the last one declared wins</li>
+ *   <li>overload key ("pkg.Class.method(String,int)") to method, using simple, non-generic parameter types so
+ *       source declarations and symbol-solver signatures produce the same key; only if overloads are resolved</li>
+ *   <li>class FQN to its methods, and simple method name to candidate methods</li>
+ * </ul>
+ * By default overloads are not told apart: only the last overload of each base FQN is indexed and every call
+ * resolves to it, so call flows and sequence diagrams stay as they have always been. With overload resolution
+ * every overload is indexed and a call resolves to the overload whose parameter types match its signature.
+ */
+class MethodIndex {
+
+    private final boolean resolveOverloads;
+    private final List<MethodMetadata> methods = new ArrayList<>();
+    private final Map<String, MethodMetadata> byBaseFqn = new LinkedHashMap<>();
+    private final Map<String, MethodMetadata> byOverloadKey = new HashMap<>();
+    private final Map<String, List<MethodMetadata>> byClassFqn = new HashMap<>();
+    private final Map<String, List<MethodMetadata>> bySimpleName = new HashMap<>();
+    private final Map<String, ClassMetadata> classes = new HashMap<>();
+
+    /**
+     * @param resolveOverloads Whether overloads are separate methods, resolved by parameter types
+     */
+    MethodIndex(List<ClassMetadata> classList, boolean resolveOverloads) {
+        this.resolveOverloads = resolveOverloads;
+        if (classList == null) {
+            return;
+        }
+        List<MethodMetadata> declared = new ArrayList<>();
+        for (ClassMetadata cls : classList) {
+            String classFQN = classFqn(cls.getPackageName(), cls.getName());
+            classes.put(classFQN, cls);
+            if (cls.getMethods() == null) {
+                continue;
+            }
+            for (MethodMetadata m : cls.getMethods()) {
+                // Ensure className and packageName are set on methodMeta if not already
+                if (m.getClassName() == null) m.setClassName(cls.getName());
+                if (m.getPackageName() == null) m.setPackageName(cls.getPackageName());
+
+                declared.add(m);
+                String baseFqn = classFQN + "." + m.getName();
+                byBaseFqn.put(baseFqn, m);
+                if (resolveOverloads) {
+                    byOverloadKey.put(baseFqn + "(" + String.join(",", declaredParameterTypes(m)) + ")", m);
+                }
+            }
+        }
+        methods.addAll(resolveOverloads ? declared : byBaseFqn.values());
+        for (MethodMetadata m : methods) {
+            // Methods are also reachable under the class recorded on the method itself, which can differ from
+            // the class that declared it (e.g. nested types)
+            byClassFqn.computeIfAbsent(classFqn(m.getPackageName(), m.getClassName()), k -> new ArrayList<>()).add(m);
+            bySimpleName.computeIfAbsent(m.getName(), k -> new ArrayList<>()).add(m);
+        }
+    }
+
+    /** @return Every indexed method (the last overload of each base FQN unless overloads are resolved) */
+    List<MethodMetadata> methods() {
+        return methods;
+    }
+
+    int size() {
+        return byBaseFqn.size();
+    }
+
+    int classCount() {
+        return classes.size();
+    }
+
+    /**
+     * Resolves a called-method signature ("pkg.Class.method(java.lang.String, int)" or just "pkg.Class.method"):
+     * the exact overload when overloads are resolved and the parameter types match one, otherwise the method
+     * registered under the base FQN.
+     */
+    MethodMetadata resolve(String signature) {
+        String baseFqn = CallGraph.baseFqn(signature);
+        if (baseFqn == null) {
+            return null;
+        }
+        if (resolveOverloads && baseFqn.length() < signature.length()) {
+            MethodMetadata overload = byOverloadKey.get(baseFqn + "(" + String.join(",", calledParameterTypes(signature)) + ")");
+            if (overload != null) {
+                return overload;
+            }
+        }
+        return byBaseFqn.get(baseFqn);
+    }
+
+    /** @return Methods whose own package and class name form the given class FQN */
+    List<MethodMetadata> methodsOf(String classFqn) {
+        return byClassFqn.getOrDefault(classFqn, Collections.emptyList());
+    }
+
+    /** @return Methods with the given simple name, across all classes */
+    List<MethodMetadata> candidates(String methodName) {
+        return bySimpleName.getOrDefault(methodName, Collections.emptyList());
+    }
+
+    ClassMetadata classOf(String classFqn) {
+        return classes.get(classFqn);
+    }
+
+    static String classFqn(String packageName, String className) {
+        return (packageName != null && !packageName.isEmpty()) ? packageName + "." + className : className;
+    }
+
+    // Parameters are recorded as "Type name"
+    private static List<String> declaredParameterTypes(MethodMetadata m) {
+        List<String> types = new ArrayList<>();
+        if (m.getParameters() != null) {
+            for (String param : m.getParameters()) {
+                String trimmed = param.trim();
+                int nameStart = trimmed.lastIndexOf(' ');
+                types.add(simpleType(nameStart > 0 ? trimmed.substring(0, nameStart) : trimmed));
+            }
+        }
+        return types;
+    }
+
+    private static List<String> calledParameterTypes(String signature) {
+        List<String> types = new ArrayList<>();
+        int open = signature.indexOf('(');
+        int close = signature.lastIndexOf(')');
+        if (open < 0 || close <= open + 1) {
+            return types;
+        }
+        int depth = 0;
+        int start = open + 1;
+        for (int i = start; i < close; i++) {
+            char c = signature.charAt(i);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (c == ',' && depth == 0) {
+                types.add(simpleType(signature.substring(start, i)));
+                start = i + 1;
+            }
+        }
+        types.add(simpleType(signature.substring(start, close)));
+        return types;
+    }
+
+    // "java.util.List<com.x.Foo>" -> "List", "java.lang.String..." -> "String[]"
+    private static String simpleType(String type) {
+        StringBuilder erased = new StringBuilder();
+        int depth = 0;
+        for (char c : type.trim().toCharArray()) {
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            } else if (depth == 0 && !Character.isWhitespace(c)) {
+                erased.append(c);
+            }
+        }
+        String result = erased.toString().replace("...", "[]");
+        int lastDot = result.lastIndexOf('.');
+        return lastDot >= 0 ? result.substring(lastDot + 1) : result;
+    }
+}
@@ -0,0 +1,154 @@
+package com.codedocgen.parser;
+
+import com.codedocgen.model.ClassMetadata;
+import com.codedocgen.model.FieldMetadata;
+import com.codedocgen.model.MethodMetadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-analysis string table for the parsed metadata model. Type names, annotations, package names and call
+ * signatures repeat across thousands of methods; {@link #compact(ClassMetadata)} replaces each of them with one
+ * shared instance and each list with an immutable, exactly sized copy (the shared empty list when empty), so the
+ * parse result costs a fraction of the heap the parser's growable lists do.
+ * <p>
+ * Compacted metadata is read-only: its lists throw on modification. Thread-safe.
+ */
+public class SymbolTable {
+
+    private final Map<String, String> symbols = new ConcurrentHashMap<>();
+
+    /**
+     * @return The table's instance of the string, or null for null
+     */
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = symbols.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    /**
+     * @return An immutable copy of the list with interned elements, the shared empty list if it is empty, or null
+     * for null
+     */
+    public List<String> compactStrings(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        if (values.isEmpty()) {
+            return List.of();
+        }
+        String[] interned = new String[values.size()];
+        for (int i = 0; i < interned.length; i++) {
+            interned[i] = intern(values.get(i));
+        }
+        return immutableList(interned);
+    }
+
+    public int size() {
+        return symbols.size();
+    }
+
+    /**
+     * Interns the strings of the class, its fields and its methods in place and replaces all their lists with
+     * compact immutable ones.
+     * @return The same metadata, for chaining
+     */
+    public ClassMetadata compact(ClassMetadata classMetadata) {
+        if (classMetadata == null) {
+            return null;
+        }
+        classMetadata.setName(intern(classMetadata.getName()));
+        classMetadata.setPackageName(intern(classMetadata.getPackageName()));
+        classMetadata.setType(intern(classMetadata.getType()));
+        classMetadata.setParentClass(intern(classMetadata.getParentClass()));
+        classMetadata.setAnnotations(compactStrings(classMetadata.getAnnotations()));
+        classMetadata.setInterfaces(compactStrings(classMetadata.getInterfaces()));
+        if (classMetadata.getFields() != null) {
+            for (FieldMetadata field : classMetadata.getFields()) {
+                compact(field);
+            }
+        }
+        if (classMetadata.getMethods() != null) {
+            for (MethodMetadata method : classMetadata.getMethods()) {
+                compact(method);
+            }
+        }
+        classMetadata.setFields(compactList(classMetadata.getFields()));
+        classMetadata.setMethods(compactList(classMetadata.getMethods()));
+        return classMetadata;
+    }
+
+    @SuppressWarnings("deprecation")
+    private void compact(MethodMetadata method) {
+        if (method == null) {
+            return;
+        }
+        method.setName(intern(method.getName()));
+        method.setReturnType(intern(method.getReturnType()));
+        method.setVisibility(intern(method.getVisibility()));
+        method.setPackageName(intern(method.getPackageName()));
+        method.setClassName(intern(method.getClassName()));
+        method.setParameters(compactStrings(method.getParameters()));
+        method.setAnnotations(compactStrings(method.getAnnotations()));
+        method.setExceptionsThrown(compactStrings(method.getExceptionsThrown()));
+        method.setCalledMethods(compactStrings(method.getCalledMethods()));
+        method.setExternalCalls(compactStrings(method.getExternalCalls()));
+        method.setLocalVariables(compactStrings(method.getLocalVariables()));
+        method.setReturnTypeAnnotations(compactStrings(method.getReturnTypeAnnotations()));
+        method.setDaoOperations(compactList(method.getDaoOperations()));
+        method.setSetterCalls(compactList(method.getSetterCalls()));
+        method.setSqlQueries(compactStrings(method.getSqlQueries()));
+        method.setSqlTables(compactStrings(method.getSqlTables()));
+        method.setSqlOperations(compactStrings(method.getSqlOperations()));
+
+        List<List<String>> parameterAnnotations = method.getParameterAnnotations();
+        if (parameterAnnotations != null) {
+            List<List<String>> compacted = new ArrayList<>(parameterAnnotations.size());
+            for (List<String> annotations : parameterAnnotations) {
+                compacted.add(compactStrings(annotations));
+            }
+            method.setParameterAnnotations(compactList(compacted));
+        }
+    }
+
+    private void compact(FieldMetadata field) {
+        if (field == null) {
+            return;
+        }
+        field.setName(intern(field.getName()));
+        field.setType(intern(field.getType()));
+        field.setVisibility(intern(field.getVisibility()));
+        field.setInitializer(intern(field.getInitializer()));
+        field.setAnnotations(compactStrings(field.getAnnotations()));
+    }
+
+    private static <T> List<T> compactList(List<T> values) {
+        if (values == null) {
+            return null;
+        }
+        if (values.isEmpty()) {
+            return List.of();
+        }
+        @SuppressWarnings("unchecked")
+        T[] copy = (T[]) values.toArray();
+        return immutableList(copy);
+    }
+
+    // List.of is array-backed but rejects null elements, which parsed metadata may contain
+    private static <T> List<T> immutableList(T[] values) {
+        for (T value : values) {
+            if (value == null) {
+                return Collections.unmodifiableList(Arrays.asList(values));
+            }
+        }
+        return List.of(values);
+    }
+}
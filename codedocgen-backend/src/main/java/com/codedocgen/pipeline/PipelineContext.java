@@ -0,0 +1,76 @@
+package com.codedocgen.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Values produced and consumed by the stages of one pipeline run. Stages running on different threads publish
+ * their outputs here; null values are allowed.
+ * <p>
+ * Each stage is handed its own view of the run's values ({@link #forStage()}). The executor closes a stage's view
+ * once the stage has finished, failed, timed out or been cancelled; writes through a closed view are dropped, so a
+ * stage that keeps running after its timeout cannot overwrite what the run continued with.
+ */
+public class PipelineContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineContext.class);
+
+    private static final Object NULL_VALUE = new Object();
+
+    private final Map<PipelineKey<?>, Object> values;
+    private boolean closed; // Guarded by this
+
+    public PipelineContext() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    private PipelineContext(Map<PipelineKey<?>, Object> values) {
+        this.values = values;
+    }
+
+    public <T> void put(PipelineKey<T> key, T value) {
+        synchronized (this) {
+            if (closed) {
+                logger.warn("[PipelineContext] Dropping write of '{}' from a stage that already finished or timed out.", key);
+                return;
+            }
+            values.put(key, value != null ? value : NULL_VALUE);
+        }
+    }
+
+    public boolean has(PipelineKey<?> key) {
+        return values.containsKey(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(PipelineKey<T> key) {
+        Object value = values.get(key);
+        return value == NULL_VALUE ? null : (T) value;
+    }
+
+    public <T> T getOrDefault(PipelineKey<T> key, T defaultValue) {
+        return has(key) ? get(key) : defaultValue;
+    }
+
+    /**
+     * @return A view of the same values for one stage, writable until {@link #close()}d
+     */
+    PipelineContext forStage() {
+        return new PipelineContext(values);
+    }
+
+    /**
+     * Drops all later writes through this view. Once this returns, no write through it is still in progress.
+     */
+    synchronized void close() {
+        closed = true;
+    }
+
+    // Publishes values whose types were checked when they were declared (stage fallbacks)
+    void putAll(Map<PipelineKey<?>, Object> entries) {
+        entries.forEach((key, value) -> values.put(key, value != null ? value : NULL_VALUE));
+    }
+}
@@ -0,0 +1,287 @@
+package com.codedocgen.pipeline;
+
+import com.codedocgen.model.AnalysisProgress;
+import com.codedocgen.model.AnalysisStage;
+import com.codedocgen.model.StageProgress;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a set of {@link PipelineStage}s as a dependency graph. A stage is submitted to the shared worker pool as
+ * soon as all stages producing its inputs have completed, so independent stages run concurrently and the
+ * wall-clock time of a run approaches its longest dependency chain.
+ * <p>
+ * Each stage's timeout is measured from the moment it starts running. A critical stage that fails or times out
+ * aborts the run and its failure is rethrown to the caller. Any other stage that fails publishes its declared
+ * fallback outputs, if it has them, and its dependents run as if it had completed; otherwise the stages downstream
+ * of it are skipped. A failure that would skip a critical stage aborts the run instead, so a run never succeeds
+ * without the results of its critical stages.
+ */
+@Component
+public class PipelineExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PipelineExecutor.class);
+
+    // How often the coordinator wakes up to check timeouts of stages that started after it began waiting
+    private static final long MAX_POLL_MILLIS = 1000;
+
+    // Worker threads shared by all pipeline runs
+    @Value("${app.pipeline.threads:4}")
+    private int pipelineThreads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, pipelineThreads);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "analysis-stage-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("[PipelineExecutor-Init] Stage executor started with {} worker threads.", threads);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the stages to completion on the calling thread's behalf.
+     * @param stages The stages; every input must either be seeded in the context or produced by exactly one stage
+     * @param context Seed values; receives every stage output
+     * @param progress Per-stage status is reported here
+     * @throws Exception The failure of a critical stage (a {@link TimeoutException} if it timed out)
+     */
+    public void run(List<PipelineStage> stages, PipelineContext context, AnalysisProgress progress) throws Exception {
+        Map<AnalysisStage, Set<AnalysisStage>> dependents = new EnumMap<>(AnalysisStage.class);
+        Map<AnalysisStage, Integer> pendingDependencies = new EnumMap<>(AnalysisStage.class);
+        Map<AnalysisStage, PipelineStage> stagesById = buildGraph(stages, context, dependents, pendingDependencies);
+
+        CompletionService<AnalysisStage> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<AnalysisStage>, PipelineStage> running = new IdentityHashMap<>();
+        Map<AnalysisStage, Long> startNanos = new ConcurrentHashMap<>();
+        Map<AnalysisStage, PipelineContext> stageContexts = new EnumMap<>(AnalysisStage.class);
+        Deque<PipelineStage> ready = new ArrayDeque<>();
+        for (PipelineStage stage : stages) {
+            if (pendingDependencies.get(stage.getId()) == 0) {
+                ready.add(stage);
+            }
+        }
+
+        try {
+            while (!ready.isEmpty() || !running.isEmpty()) {
+                while (!ready.isEmpty()) {
+                    PipelineStage stage = ready.poll();
+                    StageProgress stageProgress = progress.stage(stage.getId());
+                    // Closed as soon as the stage is done with, so a stage that outlives its timeout cannot publish
+                    PipelineContext stageContext = context.forStage();
+                    stageContexts.put(stage.getId(), stageContext);
+                    running.put(completionService.submit(() -> {
+                        startNanos.put(stage.getId(), System.nanoTime());
+                        stageProgress.start();
+                        stage.getAction().run(stageContext, stageProgress);
+                        return stage.getId();
+                    }), stage);
+                }
+
+                Future<AnalysisStage> done = completionService.poll(nextPollMillis(running, startNanos), TimeUnit.MILLISECONDS);
+                if (done != null && running.containsKey(done)) {
+                    PipelineStage stage = running.remove(done);
+                    stageContexts.get(stage.getId()).close();
+                    try {
+                        done.get();
+                        StageProgress stageProgress = progress.stage(stage.getId());
+                        if (stageProgress.getStatus() == StageProgress.Status.RUNNING) {
+                            stageProgress.complete();
+                        }
+                        releaseDependents(stage.getId(), dependents, pendingDependencies, stagesById, ready);
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        if (handleFailure(stage, cause, cause.getMessage(), context, dependents, stagesById, progress)) {
+                            releaseDependents(stage.getId(), dependents, pendingDependencies, stagesById, ready);
+                        }
+                    }
+                }
+
+                for (Map.Entry<Future<AnalysisStage>, PipelineStage> entry : new ArrayList<>(running.entrySet())) {
+                    PipelineStage stage = entry.getValue();
+                    Long started = startNanos.get(stage.getId());
+                    if (stage.getTimeout() != null && started != null && !entry.getKey().isDone()
+                            && System.nanoTime() - started > stage.getTimeout().toNanos()) {
+                        entry.getKey().cancel(true);
+                        stageContexts.get(stage.getId()).close();
+                        running.remove(entry.getKey());
+                        String message = "Timed out after " + stage.getTimeout().toSeconds() + "s";
+                        if (handleFailure(stage, new TimeoutException("Stage " + stage.getId() + " " + message.toLowerCase()), message,
+                                context, dependents, stagesById, progress)) {
+                            releaseDependents(stage.getId(), dependents, pendingDependencies, stagesById, ready);
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } finally {
+            // Only non-empty if the run is aborted; stop whatever is still in flight
+            for (Map.Entry<Future<AnalysisStage>, PipelineStage> entry : running.entrySet()) {
+                entry.getKey().cancel(true);
+                stageContexts.get(entry.getValue().getId()).close();
+            }
+        }
+    }
+
+    private Map<AnalysisStage, PipelineStage> buildGraph(List<PipelineStage> stages, PipelineContext context,
+                                                         Map<AnalysisStage, Set<AnalysisStage>> dependents,
+                                                         Map<AnalysisStage, Integer> pendingDependencies) {
+        Map<AnalysisStage, PipelineStage> stagesById = new EnumMap<>(AnalysisStage.class);
+        Map<PipelineKey<?>, AnalysisStage> producers = new HashMap<>();
+        for (PipelineStage stage : stages) {
+            if (stagesById.put(stage.getId(), stage) != null) {
+                throw new IllegalArgumentException("Duplicate pipeline stage: " + stage.getId());
+            }
+            for (PipelineKey<?> output : stage.getOutputs()) {
+                AnalysisStage previous = producers.put(output, stage.getId());
+                if (previous != null) {
+                    throw new IllegalArgumentException("Pipeline key '" + output + "' is produced by both " + previous + " and " + stage.getId());
+                }
+            }
+            dependents.put(stage.getId(), new HashSet<>());
+        }
+
+        for (PipelineStage stage : stages) {
+            Set<AnalysisStage> dependencies = new HashSet<>();
+            for (PipelineKey<?> input : stage.getInputs()) {
+                AnalysisStage producer = producers.get(input);
+                if (producer != null) {
+                    dependencies.add(producer);
+                } else if (!context.has(input)) {
+                    throw new IllegalArgumentException("Pipeline stage " + stage.getId() + " needs '" + input + "', which no stage produces");
+                }
+            }
+            for (AnalysisStage dependency : dependencies) {
+                dependents.get(dependency).add(stage.getId());
+            }
+            pendingDependencies.put(stage.getId(), dependencies.size());
+        }
+
+        // Kahn's algorithm; anything left unvisited is part of a cycle
+        Map<AnalysisStage, Integer> remaining = new EnumMap<>(pendingDependencies);
+        Deque<AnalysisStage> queue = new ArrayDeque<>();
+        remaining.forEach((id, count) -> {
+            if (count == 0) {
+                queue.add(id);
+            }
+        });
+        int visited = 0;
+        while (!queue.isEmpty()) {
+            AnalysisStage id = queue.poll();
+            visited++;
+            for (AnalysisStage dependent : dependents.get(id)) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        if (visited != stages.size()) {
+            throw new IllegalArgumentException("Pipeline stages contain a dependency cycle");
+        }
+        return stagesById;
+    }
+
+    private void releaseDependents(AnalysisStage completed, Map<AnalysisStage, Set<AnalysisStage>> dependents,
+                                   Map<AnalysisStage, Integer> pendingDependencies, Map<AnalysisStage, PipelineStage> stagesById,
+                                   Deque<PipelineStage> ready) {
+        for (AnalysisStage dependentId : dependents.get(completed)) {
+            if (pendingDependencies.merge(dependentId, -1, Integer::sum) == 0) {
+                ready.add(stagesById.get(dependentId));
+            }
+        }
+    }
+
+    /**
+     * @return Whether the stage's fallback outputs were published and its dependents can run
+     * @throws Exception If the run has to be aborted
+     */
+    private boolean handleFailure(PipelineStage stage, Throwable cause, String message, PipelineContext context,
+                                  Map<AnalysisStage, Set<AnalysisStage>> dependents, Map<AnalysisStage, PipelineStage> stagesById,
+                                  AnalysisProgress progress) throws Exception {
+        logger.error("[PipelineExecutor] Stage {} failed: {}", stage.getId(), message, cause);
+        progress.stage(stage.getId()).fail(message);
+        if (stage.isCritical()) {
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new IllegalStateException("Stage " + stage.getId() + " failed: " + message, cause);
+        }
+        if (!stage.getFallbacks().isEmpty()) {
+            logger.warn("[PipelineExecutor] Continuing with the fallback outputs of stage {}.", stage.getId());
+            context.putAll(stage.getFallbacks());
+            return true;
+        }
+
+        Set<AnalysisStage> downstream = new LinkedHashSet<>();
+        collectDependents(stage.getId(), dependents, downstream);
+        for (AnalysisStage dependent : downstream) {
+            if (stagesById.get(dependent).isCritical()) {
+                throw new IllegalStateException("Critical stage " + dependent + " cannot run because stage " + stage.getId()
+                        + " failed: " + message, cause);
+            }
+        }
+        for (AnalysisStage dependent : downstream) {
+            logger.warn("[PipelineExecutor] Skipping stage {} because {} did not complete.", dependent, stage.getId());
+            progress.stage(dependent).skip("Skipped because " + stage.getId() + " did not complete");
+        }
+        return false;
+    }
+
+    private void collectDependents(AnalysisStage stage, Map<AnalysisStage, Set<AnalysisStage>> dependents, Set<AnalysisStage> collected) {
+        for (AnalysisStage dependent : dependents.get(stage)) {
+            if (collected.add(dependent)) {
+                collectDependents(dependent, dependents, collected);
+            }
+        }
+    }
+
+    private long nextPollMillis(Map<Future<AnalysisStage>, PipelineStage> running, Map<AnalysisStage, Long> startNanos) {
+        long waitMillis = MAX_POLL_MILLIS;
+        long now = System.nanoTime();
+        for (PipelineStage stage : running.values()) {
+            Long started = startNanos.get(stage.getId());
+            if (stage.getTimeout() != null && started != null) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(started + stage.getTimeout().toNanos() - now);
+                waitMillis = Math.min(waitMillis, Math.max(1, remaining));
+            }
+        }
+        return waitMillis;
+    }
+}
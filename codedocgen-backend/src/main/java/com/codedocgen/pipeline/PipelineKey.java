@@ -0,0 +1,27 @@
+package com.codedocgen.pipeline;
+
+/**
+ * Typed name of a value passed between pipeline stages. Keys compare by identity, so declare each one once
+ * as a constant.
+ */
+public final class PipelineKey<T> {
+
+    private final String name;
+
+    private PipelineKey(String name) {
+        this.name = name;
+    }
+
+    public static <T> PipelineKey<T> of(String name) {
+        return new PipelineKey<>(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,134 @@
+package com.codedocgen.pipeline;
+
+import com.codedocgen.model.AnalysisStage;
+import com.codedocgen.model.StageProgress;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One node of the analysis pipeline. Dependencies between stages are derived from their declared inputs and
+ * outputs: a stage runs once every stage producing one of its inputs has completed.
+ */
+public class PipelineStage {
+
+    @FunctionalInterface
+    public interface Action {
+        void run(PipelineContext context, StageProgress progress) throws Exception;
+    }
+
+    private final AnalysisStage id;
+    private final Set<PipelineKey<?>> inputs;
+    private final Set<PipelineKey<?>> outputs;
+    private final Duration timeout;
+    private final boolean critical;
+    private final Map<PipelineKey<?>, Object> fallbacks;
+    private final Action action;
+
+    private PipelineStage(Builder builder) {
+        this.id = builder.id;
+        this.inputs = Collections.unmodifiableSet(builder.inputs);
+        this.outputs = Collections.unmodifiableSet(builder.outputs);
+        this.timeout = builder.timeout;
+        this.critical = builder.critical;
+        this.fallbacks = Collections.unmodifiableMap(builder.fallbacks);
+        this.action = builder.action;
+    }
+
+    public static Builder builder(AnalysisStage id) {
+        return new Builder(id);
+    }
+
+    public AnalysisStage getId() {
+        return id;
+    }
+
+    public Set<PipelineKey<?>> getInputs() {
+        return inputs;
+    }
+
+    public Set<PipelineKey<?>> getOutputs() {
+        return outputs;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    // A failed critical stage aborts the whole pipeline; other failures only skip the stages that depend on it
+    public boolean isCritical() {
+        return critical;
+    }
+
+    // Outputs published in place of the stage's own if it fails or times out; empty if its dependents are skipped instead
+    public Map<PipelineKey<?>, Object> getFallbacks() {
+        return fallbacks;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public static class Builder {
+        private final AnalysisStage id;
+        private final Set<PipelineKey<?>> inputs = new LinkedHashSet<>();
+        private final Set<PipelineKey<?>> outputs = new LinkedHashSet<>();
+        private Duration timeout;
+        private boolean critical;
+        private final Map<PipelineKey<?>, Object> fallbacks = new LinkedHashMap<>();
+        private Action action;
+
+        private Builder(AnalysisStage id) {
+            this.id = id;
+        }
+
+        public Builder inputs(PipelineKey<?>... keys) {
+            inputs.addAll(List.of(keys));
+            return this;
+        }
+
+        public Builder outputs(PipelineKey<?>... keys) {
+            outputs.addAll(List.of(keys));
+            return this;
+        }
+
+        public Builder timeout(Duration timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder critical() {
+            this.critical = true;
+            return this;
+        }
+
+        /**
+         * Declares the value an output takes if the stage fails or times out. A stage with fallbacks for all its
+         * outputs lets its dependents run after a failure instead of skipping them.
+         */
+        public <T> Builder fallback(PipelineKey<T> key, T value) {
+            fallbacks.put(key, value);
+            return this;
+        }
+
+        public Builder action(Action action) {
+            this.action = action;
+            return this;
+        }
+
+        public PipelineStage build() {
+            if (action == null) {
+                throw new IllegalStateException("Pipeline stage " + id + " has no action");
+            }
+            if (!fallbacks.isEmpty() && !fallbacks.keySet().equals(outputs)) {
+                throw new IllegalStateException("Pipeline stage " + id + " must declare fallbacks for exactly its outputs " + outputs);
+            }
+            return new PipelineStage(this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.codedocgen.service;
+
+import com.codedocgen.model.AnalysisJob;
+
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs analyses in the background on a bounded executor so callers can poll for progress instead of
+ * holding a request open for the whole analysis.
+ */
+public interface AnalysisJobService {
+
+    /**
+     * Queues an analysis of the given repository. If an analysis of the same URL is already queued or running,
+     * that job is returned instead of starting a new one.
+     * @throws RejectedExecutionException if all workers are busy and the queue is full
+     */
+    AnalysisJob submit(String repoUrl) throws RejectedExecutionException;
+
+    /**
+     * Queues an incremental analysis that patches the result of {@code baseJobId} (see
+     * {@link AnalysisService#analyze(String, String, com.codedocgen.model.AnalysisProgress, boolean, com.codedocgen.dto.ParsedDataResponse)}).
+     * If an analysis of the same URL on the same base job is already queued or running, that job is returned.
+     * @param baseJobId A completed job of the same repository, or null for a full analysis
+     * @throws IllegalArgumentException if the base job is unknown, not completed, or of another repository
+     * @throws RejectedExecutionException if all workers are busy and the queue is full
+     */
+    AnalysisJob submit(String repoUrl, String baseJobId) throws RejectedExecutionException;
+
+    Optional<AnalysisJob> getJob(String jobId);
+}
@@ -0,0 +1,63 @@
+package com.codedocgen.service;
+
+import com.codedocgen.dto.ParsedDataResponse;
+import com.codedocgen.dto.ResultPage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Local on-disk store of completed analysis results, so the UI can page through the large sections (classes,
+ * endpoints, log statements, PII/PCI findings) and re-open an analysis without re-running it or downloading the
+ * whole response. Results outlive the analysis job and are dropped after the configured retention.
+ */
+public interface AnalysisResultStore {
+
+    /**
+     * @return The sections that can be paged, each with the element properties it can be filtered by
+     */
+    Map<String, Set<String>> pagedSections();
+
+    /**
+     * Stores a completed result under the analysis id, replacing any earlier result with that id.
+     * @return Whether the result was stored (false if the store is disabled or the write failed)
+     */
+    boolean save(String analysisId, ParsedDataResponse result);
+
+    /**
+     * Like {@link #save}, but writes the result on the store's own thread, so the analysis does not wait for it.
+     * The id is {@link #isPending pending} until the write has finished; a failed write is only logged.
+     * @return Whether the result was queued (false if the store is disabled or the id is invalid)
+     */
+    boolean saveInBackground(String analysisId, ParsedDataResponse result);
+
+    /**
+     * @return Whether a result queued under the id is still being written
+     */
+    boolean isPending(String analysisId);
+
+    /**
+     * @return Every section except the paged ones, plus the element count of each paged section under
+     * "sectionCounts", or empty if no result is stored under the id
+     */
+    Optional<Map<String, Object>> summary(String analysisId);
+
+    /**
+     * Reads the next elements of a paged section that match all filters. A filter matches an element if its
+     * property equals one of the comma-separated values (case-insensitively), or, for a value ending in '*', starts
+     * with the rest of the value.
+     * @param filters Property -> values; properties must be filterable for the section
+     * @param cursor The previous page's nextCursor, or null for the first page
+     * @return The page, with the size of the whole section (a filtered count would mean reading all of it), or
+     * empty if no result is stored under the id
+     * @throws IllegalArgumentException If the section, a filter property or the cursor is invalid
+     */
+    Optional<ResultPage> page(String analysisId, String section, Map<String, String> filters, String cursor, int limit);
+
+    /**
+     * @return The ids of the stored results, most recent first
+     */
+    List<String> analysisIds();
+}
@@ -0,0 +1,37 @@
+package com.codedocgen.service;
+
+import com.codedocgen.dto.ParsedDataResponse;
+import com.codedocgen.model.AnalysisProgress;
+
+/**
+ * Runs the full analysis pipeline (clone, parse, endpoints, diagrams, documentation, call flows, DAO,
+ * logger insights and PII/PCI scan) for a single repository.
+ */
+public interface AnalysisService {
+
+    /**
+     * Analyzes a repository. Output is written to {@code outputBasePath/docs_<analysisId>}.
+     * @param repoUrl The repository to clone and analyze
+     * @param analysisId Unique id of this run, used for the clone and output directory names
+     * @param progress Receives per-stage progress updates
+     * @param retainOutput If true, the output directory is kept until {@link #releaseOutput(String)} is called;
+     *                     otherwise it is removed by the next analysis that starts
+     * @return The analysis result; {@code errorMessage} is set if the run could not be started
+     */
+    ParsedDataResponse analyze(String repoUrl, String analysisId, AnalysisProgress progress, boolean retainOutput) throws Exception;
+
+    /**
+     * Analyzes a repository incrementally: files changed since {@code baseline}'s commit are re-parsed and
+     * re-scanned and their entries in the baseline's classes, log statements and PII/PCI findings are replaced;
+     * every section derived from the class list is rebuilt. Falls back to a full analysis if the baseline has
+     * no commit id or its commit is not in the clone.
+     * @param baseline A previous result for the same repository, or null for a full analysis
+     */
+    ParsedDataResponse analyze(String repoUrl, String analysisId, AnalysisProgress progress, boolean retainOutput, ParsedDataResponse baseline) throws Exception;
+
+    /**
+     * Deletes the output directory of a retained analysis.
+     * @param analysisId The id that was passed to {@link #analyze}
+     */
+    void releaseOutput(String analysisId);
+}
@@ -0,0 +1,41 @@
+package com.codedocgen.service;
+
+import com.codedocgen.model.CachedClasspath;
+
+import java.io.File;
+import java.util.Optional;
+
+/**
+ * On-disk cache of resolved Maven classpaths, keyed by a hash of the project's build files, so re-analyzing an
+ * unchanged project can skip dependency resolution. Generated sources live in the clone, so a project whose build
+ * generates sources still runs that phase on every analysis; other projects skip Maven on a hit.
+ */
+public interface ClasspathCacheService {
+
+    /**
+     * Computes the cache key of a project: a SHA-256 over the relative paths and contents of every
+     * pom.xml, build.gradle(.kts) and settings.gradle(.kts) file in it.
+     * @return The key, or null if caching is disabled or the build files could not be read
+     */
+    String computeKey(File projectDir);
+
+    /**
+     * The same hash as {@link #computeKey(File)}, also when caching is disabled, for other results that depend on
+     * the project's dependencies.
+     * @return The hash, or null if the project has no build files or they could not be read
+     */
+    String buildFilesHash(File projectDir);
+
+    /**
+     * Returns the cached classpath for the key, if present and every entry on it still exists.
+     */
+    Optional<CachedClasspath> lookup(String key);
+
+    void store(String key, CachedClasspath classpath);
+
+    /**
+     * Removes one entry, or all entries if key is null.
+     * @return The number of entries removed
+     */
+    int invalidate(String key);
+}
@@ -3,6 +3,7 @@ package com.codedocgen.service;
 import com.codedocgen.model.ClassMetadata;
 import com.codedocgen.model.DaoOperationDetail;
 import com.codedocgen.model.DbAnalysisResult;
+import com.codedocgen.parser.CompilationUnitCache;
 
 import java.io.File;
 import java.util.List;
@@ -20,6 +21,13 @@ public interface DaoAnalysisService {
      * @return Map of class FQN to list of DAO operations
      */
     DbAnalysisResult analyzeDbOperations(List<ClassMetadata> classes, File projectDir);
+
+    /**
+     * Same as {@link #analyzeDbOperations(List, File)}, but reads DAO sources from the analysis-wide
+     * compilation unit cache instead of parsing them again
+     * @param cuCache Cache populated by the parser; may be null
+     */
+    DbAnalysisResult analyzeDbOperations(List<ClassMetadata> classes, File projectDir, CompilationUnitCache cuCache);
     
     /**
      * Generate diagram showing database tables and their relationships
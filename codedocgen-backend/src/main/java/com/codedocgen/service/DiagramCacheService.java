@@ -0,0 +1,44 @@
+package com.codedocgen.service;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Cache of rendered SVG diagrams keyed by a hash of their PlantUML source, so a diagram whose source hasn't
+ * changed is copied into the output directory instead of being rendered again. Entries live on disk, shared by
+ * all analyses on this host, with the most recently used ones also held in memory. Callers only store diagrams
+ * that are the regular rendering of their source, not error images or fallback layouts.
+ */
+public interface DiagramCacheService {
+
+    /**
+     * @param outputFormat "svg" or "svgz"; entries hold the output file's bytes, so each format has its own key
+     * @return The cache key of a PlantUML source (SHA-256 of the source, the output format and the PlantUML
+     * version), or null if the cache is disabled
+     */
+    String key(String plantUmlSource, String outputFormat);
+
+    /**
+     * Writes the cached diagram for the key to the output file, hard-linking the on-disk entry where possible.
+     * @return True on a hit; false on a miss or if the entry could not be written
+     */
+    boolean copyTo(String key, File outputFile);
+
+    /**
+     * Adds a rendered diagram file, hard-linking it into the cache where possible. The file must only ever be
+     * replaced (e.g. by a rename), never written through, since the cache entry may share its contents.
+     */
+    void store(String key, Path renderedFile);
+
+    /**
+     * @return Hit and miss counts, in-memory size and entry count
+     */
+    Map<String, Object> stats();
+
+    /**
+     * Removes every cached diagram.
+     * @return The number of on-disk entries removed
+     */
+    int invalidate();
+}
@@ -0,0 +1,45 @@
+package com.codedocgen.service;
+
+import com.codedocgen.model.DiagramRenderRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Renders PlantUML sources to SVG files on a bounded worker pool shared by every diagram generator, so diagrams
+ * (and the Graphviz processes behind them) render in parallel instead of one after another.
+ */
+public interface DiagramRenderingService {
+
+    /**
+     * @return The name a diagram requested as {@code svgFileName} is written under: the same name, or with the
+     * .svgz extension when gzip-compressed output is configured
+     */
+    String outputFileName(String svgFileName);
+
+    /**
+     * Queues one diagram. The future completes with the absolute path of the written SVG, or exceptionally with a
+     * {@link java.util.concurrent.TimeoutException} if rendering ran longer than the per-diagram timeout.
+     * Cancelling the future stops the render.
+     */
+    CompletableFuture<String> submit(DiagramRenderRequest request);
+
+    /**
+     * Queues many diagrams at once.
+     * @return One future per request, in request order
+     */
+    List<CompletableFuture<String>> submitAll(List<DiagramRenderRequest> requests);
+
+    /**
+     * Renders one diagram and waits for it.
+     * @return The absolute path of the written SVG, or null if rendering failed or timed out (the cause is logged)
+     */
+    String render(DiagramRenderRequest request);
+
+    /**
+     * Waits for a rendered diagram.
+     * @return The absolute path, or null if rendering failed or timed out (the cause is logged)
+     * @throws InterruptedException If the waiting thread is interrupted; the render is cancelled
+     */
+    String await(CompletableFuture<String> rendered, DiagramRenderRequest request) throws InterruptedException;
+}
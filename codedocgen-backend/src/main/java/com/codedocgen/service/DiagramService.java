@@ -9,5 +9,12 @@ public interface DiagramService {
     Map<DiagramType, String> generateDiagrams(List<ClassMetadata> classMetadata, String outputDir);
     String generateClassDiagram(List<ClassMetadata> classMetadata, String outputDir);
     String generateSequenceDiagram(List<String> callFlow, String outputDir, String diagramName);
+    /**
+     * Renders one sequence diagram per call flow, in parallel.
+     * @param callFlowsByDiagramName Call flows keyed by diagram (file) name, without extension
+     * @param onDiagramDone Called once per call flow when its diagram has rendered or failed
+     * @return Diagram name to absolute SVG path, for the diagrams that rendered
+     */
+    Map<String, String> generateSequenceDiagrams(Map<String, List<String>> callFlowsByDiagramName, String outputDir, Runnable onDiagramDone);
     // Add other diagram generation methods (e.g., sequence, component)
 } 
\ No newline at end of file
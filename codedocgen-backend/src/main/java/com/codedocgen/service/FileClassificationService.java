@@ -0,0 +1,34 @@
+package com.codedocgen.service;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Decides which repository files the analyzers read. Every walk skips directories that never hold project sources
+ * (VCS metadata, node_modules). The PII/PCI scan also skips build output, .gitignore'd paths, excluded names
+ * (binaries, archives, lockfiles, minified assets), empty files, files over the size cap, and files that do not
+ * start with UTF-8 text.
+ */
+public interface FileClassificationService {
+
+    /**
+     * @return The Java source files under the directory, in walk order
+     */
+    List<Path> javaSources(Path root);
+
+    /**
+     * @return The files under the repository to scan for PII/PCI, in walk order, selected by path, size and
+     * .gitignore; their content is checked with {@link #looksLikeText(Path)} by whoever reads them
+     */
+    List<Path> scannableFiles(Path repoRoot);
+
+    /**
+     * Applies the rules of {@link #scannableFiles(Path)} to a single file, for incremental scans.
+     */
+    boolean isScannable(Path repoRoot, Path file);
+
+    /**
+     * @return Whether the first bytes of the file are valid UTF-8 without NUL bytes
+     */
+    boolean looksLikeText(Path file);
+}
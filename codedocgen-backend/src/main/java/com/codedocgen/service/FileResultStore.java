@@ -0,0 +1,35 @@
+package com.codedocgen.service;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed store of per-file analysis results, shared by all analyses on this host. Results are keyed
+ * by the SHA-256 of the file's bytes plus the producing analyzer and its version, so identical files in forks,
+ * branches or vendored copies are analyzed once. Results must not depend on where the file lives; callers
+ * re-apply path-specific fields after loading.
+ */
+public interface FileResultStore {
+
+    /**
+     * @return The hex SHA-256 of the file's bytes, or null if the store is disabled or the file cannot be read
+     */
+    String contentHash(Path file);
+
+    /**
+     * Key for results that also depend on something outside the file, e.g. types resolved against the rest of the
+     * project: the content hash combined with a hash describing that context.
+     * @return The combined hash, or null (nothing is loaded or saved) if either is null
+     */
+    String contextualHash(String contentHash, String context);
+
+    /**
+     * @param analyzer Name of the producing analyzer, e.g. "class-metadata"
+     * @param analyzerVersion Changes whenever the analyzer's output for the same bytes may change
+     * @return The stored result, or empty if there is none or it cannot be read
+     */
+    <T extends Serializable> Optional<T> load(String analyzer, String analyzerVersion, String contentHash, Class<T> type);
+
+    void save(String analyzer, String analyzerVersion, String contentHash, Serializable result);
+}
@@ -3,8 +3,12 @@ package com.codedocgen.service;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import java.io.File;
 import java.io.IOException;
+import java.util.Set;
 
 public interface GitService {
     File cloneRepository(String repoUrl, String localPath) throws GitAPIException, IOException;
     void deleteRepository(File repoDir) throws IOException;
+    String getHeadCommitId(File repoDir) throws IOException;
+    // Paths (relative, '/'-separated) added, modified or deleted between two commits; renames report both paths
+    Set<String> getChangedPaths(File repoDir, String fromCommitId, String toCommitId) throws IOException;
 } 
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.codedocgen.service;
 
 import com.codedocgen.model.ClassMetadata;
+import com.codedocgen.model.StageProgress;
+import com.codedocgen.parser.CompilationUnitCache;
 import java.io.File;
 import java.util.List;
 
 public interface JavaParserService {
     List<ClassMetadata> parseProject(File projectDir);
     List<ClassMetadata> parseProject(File projectDir, List<String> parseWarnings);
+    // progress and cuCache may be null; parsed compilation units are left in cuCache for later stages
+    List<ClassMetadata> parseProject(File projectDir, List<String> parseWarnings, StageProgress progress, CompilationUnitCache cuCache);
+    // Parses only the given .java files (paths relative to projectDir); missing files are ignored
+    List<ClassMetadata> parseFiles(File projectDir, List<String> relativePaths, List<String> parseWarnings, StageProgress progress, CompilationUnitCache cuCache);
     ClassMetadata parseFile(File javaFile);
     // Potentially add methods for specific parsing tasks, e.g., find all annotations of a certain type
 } 
\ No newline at end of file
@@ -1,8 +1,18 @@
 package com.codedocgen.service;
 
 import com.codedocgen.model.LogStatement;
+import com.codedocgen.parser.CompilationUnitCache;
+import java.io.File;
+import java.nio.file.Path;
 import java.util.List;
 
 public interface LoggerInsightsService {
     List<LogStatement> getLogInsights(String projectPath);
+    // Reuses compilation units already parsed for this analysis; cuCache may be null
+    List<LogStatement> getLogInsights(String projectPath, CompilationUnitCache cuCache);
+    // Only the given .java files (paths relative to rootDir, which statements' filePath is also relative to)
+    List<LogStatement> getLogInsights(File rootDir, List<String> relativePaths, CompilationUnitCache cuCache);
+    // Collects the log statements of .java files under sourceRoot in the parser's walk of each file; getLogInsights
+    // with the same cache then takes them from the cache instead of walking those files again
+    void registerWithParser(CompilationUnitCache cuCache, Path sourceRoot);
 } 
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.codedocgen.service;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Sequence diagrams rendered the first time they are requested instead of during analysis. Analysis only records
+ * each entrypoint's call flow next to where its diagram will be written; the first request for the diagram renders
+ * it, and later requests are served the file on disk.
+ */
+public interface OnDemandDiagramService {
+
+    /**
+     * @return Whether sequence diagrams are rendered on demand (app.diagrams.sequence.mode=lazy)
+     */
+    boolean isEnabled();
+
+    /**
+     * Records a call flow to render on first request.
+     * @return The absolute path the diagram will be written to, or null if the call flow could not be stored
+     */
+    String registerSequenceDiagram(String diagramName, List<String> callFlow, String outputDir);
+
+    /**
+     * Renders a registered diagram if it is not on disk yet. Concurrent calls for the same diagram wait for a
+     * single render.
+     * @return True if the diagram file exists afterwards; false if it was never registered or failed to render
+     */
+    boolean ensureRendered(File diagramFile);
+}
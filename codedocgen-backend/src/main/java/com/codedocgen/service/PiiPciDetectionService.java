@@ -8,4 +8,6 @@ import java.util.regex.Pattern;
 
 public interface PiiPciDetectionService {
     List<PiiPciFinding> scanRepository(Path repoPath, Map<String, Pattern> piiPciPatterns);
+    // Scans only the given files (paths relative to repoPath), applying the same exclusions as a repository scan
+    List<PiiPciFinding> scanFiles(Path repoPath, List<String> relativePaths, Map<String, Pattern> piiPciPatterns);
 } 
\ No newline at end of file
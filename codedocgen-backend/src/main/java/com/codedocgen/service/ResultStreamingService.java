@@ -0,0 +1,40 @@
+package com.codedocgen.service;
+
+import com.codedocgen.dto.ParsedDataResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes an analysis result section by section (a section is one top-level property of {@link ParsedDataResponse},
+ * e.g. "classes" or "piiPciFindings"), flushing after each one, so clients receive the first sections while the
+ * large ones are still being serialized and can ask for only the sections they display.
+ */
+public interface ResultStreamingService {
+
+    enum Format {
+        /** A single JSON object, the same shape as the regular response restricted to the requested sections */
+        JSON,
+        /** One {@code {"section": name, "data": value}} line per section (application/x-ndjson) */
+        NDJSON
+    }
+
+    /**
+     * @return The section names, in the order they are written
+     */
+    List<String> sectionNames();
+
+    /**
+     * @param sections Comma-separated section names; null or blank selects every section
+     * @return The selected sections in write order
+     * @throws IllegalArgumentException If a name is not a section
+     */
+    List<String> parseSections(String sections);
+
+    /**
+     * Writes the selected sections of the result. The stream is finished but not closed.
+     * @param gzip Whether to gzip the output; each section is still flushed as it completes
+     */
+    void write(ParsedDataResponse result, List<String> sections, Format format, boolean gzip, OutputStream out) throws IOException;
+}
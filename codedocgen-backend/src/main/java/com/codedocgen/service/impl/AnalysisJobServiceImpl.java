@@ -0,0 +1,155 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.dto.ParsedDataResponse;
+import com.codedocgen.model.AnalysisJob;
+import com.codedocgen.service.AnalysisJobService;
+import com.codedocgen.service.AnalysisService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class AnalysisJobServiceImpl implements AnalysisJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobServiceImpl.class);
+
+    private final AnalysisService analysisService;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+
+    // Number of analyses that run at the same time
+    @Value("${app.jobs.max-concurrent:1}")
+    private int maxConcurrentJobs;
+
+    // Jobs waiting for a worker; submissions beyond this are rejected
+    @Value("${app.jobs.queue-capacity:10}")
+    private int queueCapacity;
+
+    // How long finished jobs (and their generated output) are kept for polling
+    @Value("${app.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    public AnalysisJobServiceImpl(AnalysisService analysisService) {
+        this.analysisService = analysisService;
+    }
+
+    @PostConstruct
+    public void init() {
+        int workers = Math.max(1, maxConcurrentJobs);
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "analysis-job-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("[AnalysisJobService-Init] Job executor started with {} workers and a queue capacity of {}.", workers, Math.max(1, queueCapacity));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public AnalysisJob submit(String repoUrl) throws RejectedExecutionException {
+        return submit(repoUrl, null);
+    }
+
+    @Override
+    public synchronized AnalysisJob submit(String repoUrl, String baseJobId) throws RejectedExecutionException {
+        purgeExpiredJobs();
+
+        // Resolved now, so the baseline survives even if the base job expires while this one is queued
+        ParsedDataResponse baseline = null;
+        if (baseJobId != null) {
+            AnalysisJob baseJob = jobs.get(baseJobId);
+            if (baseJob == null || baseJob.getStatus() != AnalysisJob.Status.COMPLETED) {
+                throw new IllegalArgumentException("Base job " + baseJobId + " does not exist or has not completed");
+            }
+            if (!baseJob.getRepoUrl().equals(repoUrl)) {
+                throw new IllegalArgumentException("Base job " + baseJobId + " analyzed a different repository");
+            }
+            baseline = baseJob.getResult();
+        }
+
+        // Only the same request is deduplicated: a full and an incremental analysis, or incremental analyses on
+        // different bases, produce different results
+        for (AnalysisJob existing : jobs.values()) {
+            if (!existing.isFinished() && existing.getRepoUrl().equals(repoUrl) && Objects.equals(existing.getBaseJobId(), baseJobId)) {
+                logger.info("[AnalysisJobService] Analysis of {} (base job {}) is already in progress as job {}.", repoUrl, baseJobId, existing.getId());
+                return existing;
+            }
+        }
+
+        AnalysisJob job = new AnalysisJob(UUID.randomUUID().toString(), repoUrl, baseJobId);
+        final ParsedDataResponse jobBaseline = baseline;
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> runJob(job, jobBaseline));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            logger.warn("[AnalysisJobService] Rejected analysis of {}: {} running, {} queued.", repoUrl, executor.getActiveCount(), executor.getQueue().size());
+            throw e;
+        }
+        logger.info("[AnalysisJobService] Queued job {} for {}.", job.getId(), repoUrl);
+        return job;
+    }
+
+    @Override
+    public Optional<AnalysisJob> getJob(String jobId) {
+        purgeExpiredJobs();
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void runJob(AnalysisJob job, ParsedDataResponse baseline) {
+        job.markRunning();
+        logger.info("[AnalysisJobService] Starting job {} for {}.", job.getId(), job.getRepoUrl());
+        try {
+            ParsedDataResponse result = analysisService.analyze(job.getRepoUrl(), job.getId(), job.getProgress(), true, baseline);
+            if (result.getErrorMessage() != null) {
+                job.markFailed(result.getErrorMessage(), result);
+            } else {
+                job.markCompleted(result);
+            }
+        } catch (Exception e) {
+            logger.error("[AnalysisJobService] Job {} for {} failed: {}", job.getId(), job.getRepoUrl(), e.getMessage(), e);
+            ParsedDataResponse errorResponse = new ParsedDataResponse();
+            errorResponse.setErrorMessage("Internal server error during analysis: " + e.getMessage());
+            job.markFailed(errorResponse.getErrorMessage(), errorResponse);
+        }
+        logger.info("[AnalysisJobService] Job {} finished with status {}.", job.getId(), job.getStatus());
+    }
+
+    private void purgeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        Iterator<AnalysisJob> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            AnalysisJob job = iterator.next();
+            if (job.isFinished() && job.getFinishedAt().isBefore(cutoff)) {
+                iterator.remove();
+                analysisService.releaseOutput(job.getId());
+                logger.info("[AnalysisJobService] Evicted expired job {}.", job.getId());
+            }
+        }
+    }
+}
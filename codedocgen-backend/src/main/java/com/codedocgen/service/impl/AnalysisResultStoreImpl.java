@@ -0,0 +1,433 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.dto.ParsedDataResponse;
+import com.codedocgen.dto.ResultPage;
+import com.codedocgen.service.AnalysisResultStore;
+import com.codedocgen.service.ResultStreamingService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stores each result in {@code <dir>/<analysisId>/}: every paged section as NDJSON (one element per line, in
+ * response order), the other sections as summary.json and the section sizes as counts.json. A result is written
+ * to a temp directory and moved into place, so readers never see a partial one. Cursors are the byte offset of
+ * the next line, so a page seeks straight to its first element; filters are applied to the elements as they are
+ * read, so a filtered page reads the section only until it is full. Analyses hand their results to a single
+ * background writer, so finishing an analysis never waits for its result to be written.
+ */
+@Service
+public class AnalysisResultStoreImpl implements AnalysisResultStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisResultStoreImpl.class);
+
+    private static final String SECTION_SUFFIX = ".ndjson";
+    private static final String SUMMARY_FILE = "summary.json";
+    private static final String COUNTS_FILE = "counts.json";
+    private static final String TEMP_PREFIX = ".tmp-";
+    // Analysis ids become directory names; job ids are UUIDs and synchronous analyses use 8 hex characters
+    private static final Pattern ANALYSIS_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private static final Map<String, Set<String>> PAGED_SECTIONS = new LinkedHashMap<>();
+    private static final Map<String, Function<ParsedDataResponse, List<?>>> SECTION_VALUES = new LinkedHashMap<>();
+
+    static {
+        pagedSection("classes", ParsedDataResponse::getClasses, "packageName", "type", "name", "filePath");
+        pagedSection("endpoints", ParsedDataResponse::getEndpoints, "type", "httpMethod", "className", "path");
+        pagedSection("logStatements", ParsedDataResponse::getLogStatements, "level", "className", "filePath", "piiRisk", "pciRisk");
+        pagedSection("piiPciFindings", ParsedDataResponse::getPiiPciFindings, "findingType", "filePath");
+    }
+
+    private static void pagedSection(String name, Function<ParsedDataResponse, List<?>> values, String... filterableProperties) {
+        PAGED_SECTIONS.put(name, Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(filterableProperties))));
+        SECTION_VALUES.put(name, values);
+    }
+
+    @Value("${app.result-query.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.result-query.dir:/tmp/codedocgen_results}")
+    private String storeDir;
+
+    // Stored results older than this are deleted on the next save; 0 keeps them
+    @Value("${app.result-query.retention-hours:168}")
+    private long retentionHours;
+
+    private final ObjectMapper objectMapper;
+    // One compact JSON value per line, without a flush per element
+    private final ObjectWriter lineWriter;
+    private final ResultStreamingService resultStreamingService;
+    // Ids queued by saveInBackground whose write has not finished
+    private final Set<String> pendingIds = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService writer;
+
+    public AnalysisResultStoreImpl(ObjectMapper objectMapper, ResultStreamingService resultStreamingService) {
+        this.objectMapper = objectMapper;
+        this.lineWriter = objectMapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.resultStreamingService = resultStreamingService;
+    }
+
+    @PostConstruct
+    public void init() {
+        // One writer: results are written in the order analyses complete and never compete with each other for disk
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "analysis-result-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    @Override
+    public Map<String, Set<String>> pagedSections() {
+        return Collections.unmodifiableMap(PAGED_SECTIONS);
+    }
+
+    @Override
+    public boolean save(String analysisId, ParsedDataResponse result) {
+        if (!enabled || result == null || !isValidId(analysisId)) {
+            return false;
+        }
+        Path root = Paths.get(storeDir);
+        Path tempDir = null;
+        try {
+            Files.createDirectories(root);
+            purgeExpired(root);
+            tempDir = Files.createTempDirectory(root, TEMP_PREFIX + analysisId + "-");
+
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Map.Entry<String, Function<ParsedDataResponse, List<?>>> section : SECTION_VALUES.entrySet()) {
+                counts.put(section.getKey(), writeSection(tempDir.resolve(section.getKey() + SECTION_SUFFIX), section.getValue().apply(result)));
+            }
+            List<String> summarySections = resultStreamingService.sectionNames().stream()
+                    .filter(name -> !PAGED_SECTIONS.containsKey(name))
+                    .collect(Collectors.toList());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempDir.resolve(SUMMARY_FILE)), IO_BUFFER_SIZE)) {
+                resultStreamingService.write(result, summarySections, ResultStreamingService.Format.JSON, false, out);
+            }
+            objectMapper.writeValue(tempDir.resolve(COUNTS_FILE).toFile(), counts);
+
+            Path target = root.resolve(analysisId);
+            if (Files.exists(target)) {
+                FileUtils.deleteDirectory(target.toFile());
+            }
+            try {
+                Files.move(tempDir, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempDir, target);
+            }
+            tempDir = null;
+            logger.info("[AnalysisResultStore] Stored result {} ({}).", analysisId, counts);
+            return true;
+        } catch (IOException e) {
+            logger.warn("[AnalysisResultStore] Could not store result {}: {}", analysisId, e.getMessage());
+            return false;
+        } finally {
+            if (tempDir != null) {
+                FileUtils.deleteQuietly(tempDir.toFile());
+            }
+        }
+    }
+
+    @Override
+    public boolean saveInBackground(String analysisId, ParsedDataResponse result) {
+        if (!enabled || result == null || !isValidId(analysisId)) {
+            return false;
+        }
+        pendingIds.add(analysisId);
+        try {
+            writer.execute(() -> {
+                try {
+                    save(analysisId, result);
+                } finally {
+                    pendingIds.remove(analysisId);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pendingIds.remove(analysisId);
+            logger.warn("[AnalysisResultStore] Could not queue result {}: {}", analysisId, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isPending(String analysisId) {
+        return analysisId != null && pendingIds.contains(analysisId);
+    }
+
+    private long writeSection(Path file, List<?> values) throws IOException {
+        long count = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), IO_BUFFER_SIZE);
+             JsonGenerator generator = lineWriter.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            if (values != null) {
+                for (Object value : values) {
+                    lineWriter.writeValue(generator, value);
+                    generator.writeRaw('\n');
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Optional<Map<String, Object>> summary(String analysisId) {
+        Path dir = resultDir(analysisId);
+        if (dir == null || !Files.isRegularFile(dir.resolve(SUMMARY_FILE))) {
+            return Optional.empty();
+        }
+        try {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = objectMapper.readTree(dir.resolve(SUMMARY_FILE).toFile()).fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                summary.put(field.getKey(), field.getValue());
+            }
+            summary.put("sectionCounts", readCounts(dir));
+            return Optional.of(summary);
+        } catch (IOException e) {
+            logger.warn("[AnalysisResultStore] Could not read summary of {}: {}", analysisId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<ResultPage> page(String analysisId, String section, Map<String, String> filters, String cursor, int limit) {
+        Set<String> filterable = PAGED_SECTIONS.get(section);
+        if (filterable == null) {
+            throw new IllegalArgumentException("Unknown section '" + section + "'; expected one of " + PAGED_SECTIONS.keySet());
+        }
+        Map<String, List<String>> parsedFilters = new LinkedHashMap<>();
+        for (Map.Entry<String, String> filter : filters.entrySet()) {
+            if (!filterable.contains(filter.getKey())) {
+                throw new IllegalArgumentException("Cannot filter " + section + " by '" + filter.getKey() + "'; filterable properties are " + filterable);
+            }
+            List<String> values = Arrays.stream(filter.getValue().split(","))
+                    .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                    .filter(value -> !value.isEmpty())
+                    .collect(Collectors.toList());
+            parsedFilters.put(filter.getKey(), values);
+        }
+
+        Path dir = resultDir(analysisId);
+        if (dir == null || !Files.isRegularFile(dir.resolve(section + SECTION_SUFFIX))) {
+            return Optional.empty();
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        try (FileChannel channel = FileChannel.open(dir.resolve(section + SECTION_SUFFIX), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long offset = decodeCursor(cursor, channel, size);
+            channel.position(offset);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), IO_BUFFER_SIZE);
+
+            List<JsonNode> items = new ArrayList<>();
+            LineBuffer line = new LineBuffer();
+            while (items.size() < pageSize && offset < size) {
+                int consumed = line.read(in);
+                if (consumed < 0) {
+                    break;
+                }
+                offset += consumed;
+                JsonNode element = objectMapper.readTree(line.bytes, 0, line.length);
+                if (matches(element, parsedFilters)) {
+                    items.add(element);
+                }
+            }
+
+            ResultPage page = new ResultPage();
+            page.setAnalysisId(analysisId);
+            page.setSection(section);
+            page.setItems(items);
+            page.setNextCursor(offset < size ? encodeCursor(offset) : null);
+            page.setSectionTotal(readCounts(dir).getOrDefault(section, 0L));
+            return Optional.of(page);
+        } catch (IOException e) {
+            logger.warn("[AnalysisResultStore] Could not read {} of {}: {}", section, analysisId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static boolean matches(JsonNode element, Map<String, List<String>> filters) {
+        for (Map.Entry<String, List<String>> filter : filters.entrySet()) {
+            JsonNode property = element.get(filter.getKey());
+            if (property == null || property.isNull() || property.isContainerNode()) {
+                return false;
+            }
+            String text = property.asText().toLowerCase(Locale.ROOT);
+            boolean matched = false;
+            for (String value : filter.getValue()) {
+                matched = value.endsWith("*") ? text.startsWith(value.substring(0, value.length() - 1)) : text.equals(value);
+                if (matched) {
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String encodeCursor(long offset) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Long.toString(offset).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // A cursor must point at the start of a line of this section
+    private static long decodeCursor(String cursor, FileChannel channel, long size) throws IOException {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        long offset;
+        try {
+            offset = Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (offset < 0 || offset > size) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (offset > 0) {
+            ByteBuffer previous = ByteBuffer.allocate(1);
+            if (channel.read(previous, offset - 1) != 1 || previous.get(0) != '\n') {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+        return offset;
+    }
+
+    private Map<String, Long> readCounts(Path dir) throws IOException {
+        return objectMapper.readValue(dir.resolve(COUNTS_FILE).toFile(), new TypeReference<LinkedHashMap<String, Long>>() { });
+    }
+
+    @Override
+    public List<String> analysisIds() {
+        Path root = Paths.get(storeDir);
+        if (!enabled || !Files.isDirectory(root)) {
+            return List.of();
+        }
+        try (Stream<Path> dirs = Files.list(root)) {
+            return dirs.filter(dir -> Files.isDirectory(dir) && !dir.getFileName().toString().startsWith(TEMP_PREFIX))
+                    .sorted(Comparator.comparingLong((Path dir) -> dir.toFile().lastModified()).reversed())
+                    .map(dir -> dir.getFileName().toString())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.warn("[AnalysisResultStore] Could not list {}: {}", root, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private Path resultDir(String analysisId) {
+        if (!enabled || !isValidId(analysisId)) {
+            return null;
+        }
+        Path dir = Paths.get(storeDir, analysisId);
+        return Files.isDirectory(dir) ? dir : null;
+    }
+
+    private static boolean isValidId(String analysisId) {
+        return analysisId != null && ANALYSIS_ID.matcher(analysisId).matches();
+    }
+
+    // Also removes temp directories left behind by an interrupted save
+    private void purgeExpired(Path root) throws IOException {
+        if (retentionHours <= 0) {
+            return;
+        }
+        long cutoff = Instant.now().minus(Duration.ofHours(retentionHours)).toEpochMilli();
+        try (Stream<Path> dirs = Files.list(root)) {
+            dirs.filter(dir -> Files.isDirectory(dir) && dir.toFile().lastModified() < cutoff)
+                    .forEach(dir -> {
+                        logger.info("[AnalysisResultStore] Deleting expired result {}.", dir.getFileName());
+                        FileUtils.deleteQuietly(dir.toFile());
+                    });
+        }
+    }
+
+    /**
+     * A reusable buffer holding one line of a section file, without its line feed.
+     */
+    private static final class LineBuffer {
+        private byte[] bytes = new byte[8 * 1024];
+        private int length;
+
+        /**
+         * @return The number of bytes consumed including the line feed, or -1 at the end of the stream
+         */
+        int read(InputStream in) throws IOException {
+            length = 0;
+            int consumed = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                consumed++;
+                if (b == '\n') {
+                    return consumed;
+                }
+                if (length == bytes.length) {
+                    bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                }
+                bytes[length++] = (byte) b;
+            }
+            return consumed == 0 ? -1 : consumed;
+        }
+    }
+}
@@ -0,0 +1,682 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.dto.ParsedDataResponse;
+import com.codedocgen.model.AnalysisProgress;
+import com.codedocgen.model.AnalysisStage;
+import com.codedocgen.model.ClassMetadata;
+import com.codedocgen.model.DbAnalysisResult;
+import com.codedocgen.model.DiagramType;
+import com.codedocgen.model.EndpointMetadata;
+import com.codedocgen.model.LogStatement;
+import com.codedocgen.model.PiiPciFinding;
+import com.codedocgen.parser.CallFlowAnalyzer;
+import com.codedocgen.parser.CompilationUnitCache;
+import com.codedocgen.pipeline.PipelineContext;
+import com.codedocgen.pipeline.PipelineExecutor;
+import com.codedocgen.pipeline.PipelineKey;
+import com.codedocgen.pipeline.PipelineStage;
+import com.codedocgen.service.*;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Service
+public class AnalysisServiceImpl implements AnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisServiceImpl.class);
+
+    private final GitService gitService;
+    private final JavaParserService javaParserService;
+    private final ProjectDetectorService projectDetectorService;
+    private final EndpointExtractorService endpointExtractorService;
+    private final DiagramService diagramService;
+    private final DocumentationService documentationService;
+    private final CallFlowAnalyzer callFlowAnalyzer;
+    private final DaoAnalysisService daoAnalysisService;
+    private final LoggerInsightsService loggerInsightsService;
+    private final PiiPciDetectionService piiPciDetectionService;
+    private final PipelineExecutor pipelineExecutor;
+    private final OnDemandDiagramService onDemandDiagramService;
+    private final FileClassificationService fileClassificationService;
+    private final AnalysisResultStore analysisResultStore;
+
+    // Values passed between pipeline stages
+    private static final PipelineKey<ParsedDataResponse> BASELINE = PipelineKey.of("baseline");
+    private static final PipelineKey<File> REPO_DIR = PipelineKey.of("repoDir");
+    private static final PipelineKey<String> COMMIT_ID = PipelineKey.of("commitId");
+    private static final PipelineKey<Set<String>> CHANGED_PATHS = PipelineKey.of("changedPaths"); // null: full analysis
+    private static final PipelineKey<String> PROJECT_TYPE = PipelineKey.of("projectType");
+    private static final PipelineKey<Boolean> SPRING_BOOT = PipelineKey.of("springBoot");
+    private static final PipelineKey<String> SPRING_BOOT_VERSION = PipelineKey.of("springBootVersion");
+    private static final PipelineKey<List<ClassMetadata>> CLASSES = PipelineKey.of("classes");
+    private static final PipelineKey<List<String>> PARSE_WARNINGS = PipelineKey.of("parseWarnings");
+    private static final PipelineKey<CompilationUnitCache> AST_CACHE = PipelineKey.of("astCache");
+    private static final PipelineKey<List<EndpointMetadata>> ENDPOINTS = PipelineKey.of("endpoints");
+    private static final PipelineKey<Map<DiagramType, String>> DIAGRAMS = PipelineKey.of("diagrams");
+    private static final PipelineKey<List<String>> FEATURE_FILES = PipelineKey.of("featureFiles");
+    private static final PipelineKey<Map<String, String>> WSDL_FILES = PipelineKey.of("wsdlFiles");
+    private static final PipelineKey<Map<String, String>> XSD_FILES = PipelineKey.of("xsdFiles");
+    private static final PipelineKey<String> OPENAPI_SPEC = PipelineKey.of("openApiSpec");
+    private static final PipelineKey<String> PROJECT_SUMMARY = PipelineKey.of("projectSummary");
+    private static final PipelineKey<Map<String, List<String>>> CALL_FLOWS = PipelineKey.of("callFlows");
+    private static final PipelineKey<Map<String, String>> SEQUENCE_DIAGRAMS = PipelineKey.of("sequenceDiagrams");
+    private static final PipelineKey<DbAnalysisResult> DB_ANALYSIS = PipelineKey.of("dbAnalysis");
+    private static final PipelineKey<String> DB_DIAGRAM_PATH = PipelineKey.of("dbDiagramPath");
+    private static final PipelineKey<List<LogStatement>> LOG_STATEMENTS = PipelineKey.of("logStatements");
+    private static final PipelineKey<List<PiiPciFinding>> PII_PCI_FINDINGS = PipelineKey.of("piiPciFindings");
+
+    private static final Set<String> BUILD_FILE_NAMES = Set.of("pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "settings.gradle.kts");
+
+    // Output directories that must survive the cleanup at the start of the next analysis (running or retained)
+    private final Set<String> protectedOutputIds = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.repoStoragePath:/tmp/codedocgen_repos}")
+    private String repoStoragePath;
+
+    @Value("${app.outputBasePath:/tmp/codedocgen_output}")
+    private String outputBasePath;
+
+    // Upper bound on compilation units kept in the per-analysis AST cache (entries are also soft references)
+    @Value("${app.parser.ast-cache.max-entries:20000}")
+    private int astCacheMaxEntries;
+
+    // Timeout for each analysis stage except clone and parse
+    @Value("${app.pipeline.stage-timeout-minutes:30}")
+    private long stageTimeoutMinutes;
+
+    // Timeout for clone and parse, which include network access and the project's Maven/Gradle build
+    @Value("${app.pipeline.build-stage-timeout-minutes:60}")
+    private long buildStageTimeoutMinutes;
+
+    @Autowired
+    public AnalysisServiceImpl(GitService gitService,
+                               JavaParserService javaParserService,
+                               ProjectDetectorService projectDetectorService,
+                               EndpointExtractorService endpointExtractorService,
+                               DiagramService diagramService,
+                               DocumentationService documentationService,
+                               CallFlowAnalyzer callFlowAnalyzer,
+                               DaoAnalysisService daoAnalysisService,
+                               LoggerInsightsService loggerInsightsService,
+                               PiiPciDetectionService piiPciDetectionService,
+                               PipelineExecutor pipelineExecutor,
+                               OnDemandDiagramService onDemandDiagramService,
+                               FileClassificationService fileClassificationService,
+                               AnalysisResultStore analysisResultStore) {
+        this.gitService = gitService;
+        this.javaParserService = javaParserService;
+        this.projectDetectorService = projectDetectorService;
+        this.endpointExtractorService = endpointExtractorService;
+        this.diagramService = diagramService;
+        this.documentationService = documentationService;
+        this.callFlowAnalyzer = callFlowAnalyzer;
+        this.daoAnalysisService = daoAnalysisService;
+        this.loggerInsightsService = loggerInsightsService;
+        this.piiPciDetectionService = piiPciDetectionService;
+        this.pipelineExecutor = pipelineExecutor;
+        this.onDemandDiagramService = onDemandDiagramService;
+        this.fileClassificationService = fileClassificationService;
+        this.analysisResultStore = analysisResultStore;
+    }
+
+    @Override
+    public ParsedDataResponse analyze(String repoUrl, String analysisId, AnalysisProgress progress, boolean retainOutput) throws Exception {
+        return analyze(repoUrl, analysisId, progress, retainOutput, null);
+    }
+
+    @Override
+    public ParsedDataResponse analyze(String repoUrl, String analysisId, AnalysisProgress progress, boolean retainOutput, ParsedDataResponse baseline) throws Exception {
+        String extractedProjectName = "unknown_project";
+        try {
+            extractedProjectName = extractProjectNameFromUrl(repoUrl);
+        } catch (URISyntaxException e) {
+            logger.warn("Invalid repository URL syntax, using default name: {}", repoUrl, e);
+            extractedProjectName = "default_project"; // Fallback project name
+        }
+
+        File localRepoPath = new File(repoStoragePath, "repo_" + analysisId);
+        File outputDir = new File(outputBasePath, "docs_" + analysisId);
+
+        protectedOutputIds.add(analysisId);
+        // Clean up the general outputBasePath directory BEFORE creating a new unique outputDir.
+        // This removes previously generated docs_* directories that no running or retained analysis still needs.
+        deleteUnprotectedOutputDirs();
+
+        if (!outputDir.mkdirs()) {
+            logger.error("Could not create output directory: {}. Check permissions and path.", outputDir.getAbsolutePath());
+            protectedOutputIds.remove(analysisId);
+            ParsedDataResponse errorResponse = new ParsedDataResponse();
+            errorResponse.setErrorMessage("Failed to create output directory: " + outputDir.getAbsolutePath());
+            return errorResponse;
+        }
+        logger.info("Output directory set to: {}", outputDir.getAbsolutePath());
+
+        File diagramsSubDir = new File(outputDir, "diagrams");
+        if (!diagramsSubDir.exists() && !diagramsSubDir.mkdirs()) {
+            logger.warn("Could not create specific diagrams output directory: {}", diagramsSubDir.getAbsolutePath());
+        }
+
+        try {
+            logger.info("Starting analysis for {}", repoUrl);
+            PipelineContext context = new PipelineContext();
+            context.put(BASELINE, baseline);
+            pipelineExecutor.run(buildStages(repoUrl, extractedProjectName, localRepoPath, diagramsSubDir), context, progress);
+            ParsedDataResponse response = assembleResponse(context, extractedProjectName);
+            // Stored with its id, so the id is part of the stored summary. Written in the background; until it is,
+            // the result endpoints report the id as pending
+            response.setAnalysisId(analysisId);
+            if (!analysisResultStore.saveInBackground(analysisId, response)) {
+                response.setAnalysisId(null);
+            }
+            logger.info("Completed analysis for repository: {}", repoUrl);
+            return response;
+        } finally {
+            if (!retainOutput) {
+                protectedOutputIds.remove(analysisId);
+            }
+            try {
+                if (localRepoPath.exists()) { // Check if directory was created before attempting to delete
+                    logger.info("Deleting cloned repository at: {}", localRepoPath.getAbsolutePath());
+                    gitService.deleteRepository(localRepoPath);
+                    logger.info("Successfully deleted cloned repository: {}", localRepoPath.getAbsolutePath());
+                } else {
+                    logger.info("Cloned repository path {} did not exist, skipping deletion.", localRepoPath.getAbsolutePath());
+                }
+            } catch (IOException e) {
+                logger.error("Error deleting repository directory {}: {}", localRepoPath.getAbsolutePath(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Declares the analysis as a dependency graph. Everything except project detection and the repository-wide
+     * file scans (documentation files, PII/PCI) waits for the parse stage, whose compilation unit cache is reused
+     * by logger insights and DAO analysis; clone and parse are critical, every other stage degrades to an
+     * empty section on failure.
+     */
+    private List<PipelineStage> buildStages(String repoUrl, String projectName, File localRepoPath, File diagramsSubDir) {
+        Duration stageTimeout = Duration.ofMinutes(stageTimeoutMinutes);
+        Duration buildTimeout = Duration.ofMinutes(buildStageTimeoutMinutes);
+        List<PipelineStage> stages = new ArrayList<>();
+
+        stages.add(PipelineStage.builder(AnalysisStage.CLONE)
+                .outputs(REPO_DIR)
+                .timeout(buildTimeout)
+                .critical()
+                .action((ctx, stageProgress) -> {
+                    logger.info("Attempting to clone repository: {}", repoUrl);
+                    gitService.cloneRepository(repoUrl, localRepoPath.getAbsolutePath());
+                    logger.info("Repository cloned to: {}", localRepoPath.getAbsolutePath());
+                    ctx.put(REPO_DIR, localRepoPath);
+                    String commitId = null;
+                    try {
+                        commitId = gitService.getHeadCommitId(localRepoPath);
+                    } catch (IOException e) {
+                        logger.warn("Could not resolve the HEAD commit of {}: {}", localRepoPath.getAbsolutePath(), e.getMessage());
+                    }
+                    ctx.put(COMMIT_ID, commitId);
+                })
+                .build());
+
+        // Incremental runs: which files changed since the baseline's commit. Anything unexpected means a full run,
+        // including a failure or timeout of this stage, so the critical parse stage always runs
+        stages.add(PipelineStage.builder(AnalysisStage.CHANGE_DETECTION)
+                .inputs(REPO_DIR, COMMIT_ID, BASELINE)
+                .outputs(CHANGED_PATHS)
+                .fallback(CHANGED_PATHS, null)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    ctx.put(CHANGED_PATHS, null);
+                    ParsedDataResponse baselineResult = ctx.get(BASELINE);
+                    String commitId = ctx.get(COMMIT_ID);
+                    if (baselineResult == null) {
+                        stageProgress.skip("No baseline, running a full analysis");
+                        return;
+                    }
+                    if (baselineResult.getCommitId() == null || commitId == null) {
+                        logger.warn("Baseline or current commit id unknown; running a full analysis of {}", repoUrl);
+                        stageProgress.skip("Commit id unknown, running a full analysis");
+                        return;
+                    }
+                    try {
+                        Set<String> changedPaths = gitService.getChangedPaths(ctx.get(REPO_DIR), baselineResult.getCommitId(), commitId);
+                        // A changed build file can change symbol resolution in files that did not change
+                        for (String changedPath : changedPaths) {
+                            String fileName = changedPath.substring(changedPath.lastIndexOf('/') + 1);
+                            if (BUILD_FILE_NAMES.contains(fileName)) {
+                                logger.info("Build file {} changed since {}; running a full analysis of {}", changedPath, baselineResult.getCommitId(), repoUrl);
+                                stageProgress.skip("Build file changed, running a full analysis");
+                                return;
+                            }
+                        }
+                        logger.info("Incremental analysis of {}: {} paths changed since {}", repoUrl, changedPaths.size(), baselineResult.getCommitId());
+                        ctx.put(CHANGED_PATHS, changedPaths);
+                    } catch (IOException e) {
+                        logger.warn("Could not diff {} against baseline commit {}; running a full analysis: {}", repoUrl, baselineResult.getCommitId(), e.getMessage());
+                        stageProgress.skip("Baseline commit not available, running a full analysis");
+                    }
+                })
+                .build());
+
+        // Detect Project Type & Spring Boot info
+        stages.add(PipelineStage.builder(AnalysisStage.PROJECT_DETECTION)
+                .inputs(REPO_DIR)
+                .outputs(PROJECT_TYPE, SPRING_BOOT, SPRING_BOOT_VERSION)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    File repoDir = ctx.get(REPO_DIR);
+                    ctx.put(PROJECT_TYPE, projectDetectorService.detectBuildTool(repoDir));
+                    boolean springBoot = projectDetectorService.isSpringBootProject(repoDir);
+                    ctx.put(SPRING_BOOT, springBoot);
+                    ctx.put(SPRING_BOOT_VERSION, springBoot ? projectDetectorService.detectSpringBootVersion(repoDir) : null);
+                })
+                .build());
+
+        // Parse Java Code (includes the Maven/Gradle classpath build for the symbol solver)
+        stages.add(PipelineStage.builder(AnalysisStage.PARSE)
+                .inputs(REPO_DIR, CHANGED_PATHS, BASELINE)
+                .outputs(CLASSES, PARSE_WARNINGS, AST_CACHE)
+                .timeout(buildTimeout)
+                .critical()
+                .action((ctx, stageProgress) -> {
+                    List<String> parseWarnings = new ArrayList<>();
+                    CompilationUnitCache astCache = new CompilationUnitCache(astCacheMaxEntries);
+                    // Log statements are collected in the parser's walk of each file, instead of a second walk later
+                    loggerInsightsService.registerWithParser(astCache, logSourceRoot(ctx.get(REPO_DIR)));
+                    Set<String> changedPaths = ctx.get(CHANGED_PATHS);
+                    if (changedPaths == null) {
+                        ctx.put(CLASSES, javaParserService.parseProject(ctx.get(REPO_DIR), parseWarnings, stageProgress, astCache));
+                        ctx.put(PARSE_WARNINGS, parseWarnings);
+                    } else {
+                        ParsedDataResponse baselineResult = ctx.get(BASELINE);
+                        List<ClassMetadata> changedClasses = javaParserService.parseFiles(ctx.get(REPO_DIR), new ArrayList<>(changedPaths), parseWarnings, stageProgress, astCache);
+                        ctx.put(CLASSES, patchByPath(baselineResult.getClasses(), ClassMetadata::getFilePath, changedPaths, changedClasses));
+                        // Warnings are "<relative path>: <message>"
+                        ctx.put(PARSE_WARNINGS, patchByPath(baselineResult.getParseWarnings(), warning -> warning.split(": ", 2)[0], changedPaths, parseWarnings));
+                    }
+                    ctx.put(AST_CACHE, astCache);
+                })
+                .build());
+
+        stages.add(PipelineStage.builder(AnalysisStage.ENDPOINTS)
+                .inputs(CLASSES, REPO_DIR)
+                .outputs(ENDPOINTS)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> ctx.put(ENDPOINTS, endpointExtractorService.extractEndpoints(ctx.get(CLASSES), ctx.get(REPO_DIR))))
+                .build());
+
+        stages.add(PipelineStage.builder(AnalysisStage.DIAGRAMS)
+                .inputs(CLASSES)
+                .outputs(DIAGRAMS)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    if (!diagramsSubDir.isDirectory()) {
+                        stageProgress.skip("Could not create diagrams output directory");
+                        return;
+                    }
+                    Map<DiagramType, String> absoluteDiagramPaths = diagramService.generateDiagrams(ctx.get(CLASSES), diagramsSubDir.getAbsolutePath());
+                    Map<DiagramType, String> relativeDiagramPaths = new HashMap<>();
+                    if (absoluteDiagramPaths != null) {
+                        for (Map.Entry<DiagramType, String> entry : absoluteDiagramPaths.entrySet()) {
+                            relativeDiagramPaths.put(entry.getKey(), toGeneratedOutputUrl(entry.getValue()));
+                        }
+                    }
+                    stageProgress.setTotal(relativeDiagramPaths.size());
+                    stageProgress.increment(relativeDiagramPaths.size());
+                    ctx.put(DIAGRAMS, relativeDiagramPaths);
+                })
+                .build());
+
+        // Find and read Feature, WSDL and XSD files
+        stages.add(PipelineStage.builder(AnalysisStage.DOCUMENTATION)
+                .inputs(REPO_DIR)
+                .outputs(FEATURE_FILES, WSDL_FILES, XSD_FILES)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    File repoDir = ctx.get(REPO_DIR);
+                    ctx.put(FEATURE_FILES, documentationService.findAndReadFeatureFiles(repoDir));
+                    ctx.put(WSDL_FILES, documentationService.findAndReadWsdlFiles(repoDir));
+                    ctx.put(XSD_FILES, documentationService.findAndReadXsdFiles(repoDir));
+                })
+                .build());
+
+        stages.add(PipelineStage.builder(AnalysisStage.OPENAPI_SPEC)
+                .inputs(ENDPOINTS)
+                .outputs(OPENAPI_SPEC)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    try {
+                        // Always generate OpenAPI spec from parsed endpoints for the analyzed repo
+                        ctx.put(OPENAPI_SPEC, documentationService.generateOpenApiSpecFromEndpoints(ctx.get(ENDPOINTS), projectName));
+                        logger.debug("Generated OpenAPI spec from analyzed endpoints.");
+                    } catch (Exception e) {
+                        logger.error("Error generating OpenAPI spec from endpoints: {}", e.getMessage(), e);
+                        ctx.put(OPENAPI_SPEC, "Error generating OpenAPI spec: " + e.getMessage());
+                    }
+                })
+                .build());
+
+        // The summary reads several sections, so it is built from a partial response
+        stages.add(PipelineStage.builder(AnalysisStage.PROJECT_SUMMARY)
+                .inputs(PROJECT_TYPE, SPRING_BOOT, SPRING_BOOT_VERSION, CLASSES, ENDPOINTS, FEATURE_FILES, OPENAPI_SPEC)
+                .outputs(PROJECT_SUMMARY)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    ParsedDataResponse partial = new ParsedDataResponse();
+                    partial.setProjectName(projectName);
+                    partial.setProjectType(ctx.get(PROJECT_TYPE));
+                    partial.setSpringBootProject(Boolean.TRUE.equals(ctx.get(SPRING_BOOT)));
+                    partial.setSpringBootVersion(ctx.get(SPRING_BOOT_VERSION));
+                    partial.setClasses(ctx.get(CLASSES));
+                    partial.setEndpoints(ctx.get(ENDPOINTS));
+                    partial.setFeatureFiles(ctx.get(FEATURE_FILES));
+                    partial.setOpenApiSpec(ctx.get(OPENAPI_SPEC));
+                    ctx.put(PROJECT_SUMMARY, documentationService.generateProjectSummary(partial));
+                })
+                .build());
+
+        // Generate Call Flows (for controllers and SOAP endpoints)
+        stages.add(PipelineStage.builder(AnalysisStage.CALL_FLOWS)
+                .inputs(CLASSES)
+                .outputs(CALL_FLOWS)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    List<ClassMetadata> classMetadataList = ctx.get(CLASSES);
+                    logger.info("Calling CallFlowAnalyzer.getEntrypointCallFlows with {} classes", classMetadataList != null ? classMetadataList.size() : 0);
+                    Map<String, List<String>> callFlows = callFlowAnalyzer.getEntrypointCallFlows(classMetadataList);
+                    logger.info("CallFlowAnalyzer returned {} call flows", callFlows != null ? callFlows.size() : 0);
+                    ctx.put(CALL_FLOWS, callFlows);
+                })
+                .build());
+
+        // Generate a sequence diagram for each entrypoint call flow
+        stages.add(PipelineStage.builder(AnalysisStage.SEQUENCE_DIAGRAMS)
+                .inputs(CALL_FLOWS)
+                .outputs(SEQUENCE_DIAGRAMS)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    Map<String, List<String>> callFlows = ctx.get(CALL_FLOWS);
+                    if (callFlows == null || callFlows.isEmpty()) {
+                        return;
+                    }
+                    stageProgress.setTotal(callFlows.size());
+                    Map<String, List<String>> flowsByDiagramName = new HashMap<>();
+                    Map<String, List<String>> entrypointsByDiagramName = new HashMap<>();
+                    for (Map.Entry<String, List<String>> entry : callFlows.entrySet()) {
+                        String entrypointFqn = entry.getKey();
+                        List<String> flow = entry.getValue();
+                        if (flow != null && !flow.isEmpty()) {
+                            String diagramName = "sequence_diagram_" + sanitizeFileName(entrypointFqn);
+                            // Entrypoints whose names sanitize alike share one diagram file, as before
+                            if (flowsByDiagramName.putIfAbsent(diagramName, flow) != null) {
+                                stageProgress.increment();
+                            }
+                            entrypointsByDiagramName.computeIfAbsent(diagramName, k -> new ArrayList<>()).add(entrypointFqn);
+                        } else {
+                            stageProgress.increment();
+                        }
+                    }
+                    Map<String, String> renderedDiagrams;
+                    if (onDemandDiagramService.isEnabled()) {
+                        // Rendered the first time each URL is requested
+                        renderedDiagrams = new HashMap<>();
+                        for (Map.Entry<String, List<String>> entry : flowsByDiagramName.entrySet()) {
+                            String path = onDemandDiagramService.registerSequenceDiagram(entry.getKey(), entry.getValue(), diagramsSubDir.getAbsolutePath());
+                            if (path != null) {
+                                renderedDiagrams.put(entry.getKey(), path);
+                            }
+                            stageProgress.increment();
+                        }
+                    } else {
+                        // Rendered in parallel on the diagram render pool
+                        renderedDiagrams = diagramService.generateSequenceDiagrams(flowsByDiagramName, diagramsSubDir.getAbsolutePath(), stageProgress::increment);
+                    }
+                    Map<String, String> sequenceDiagrams = new HashMap<>();
+                    for (Map.Entry<String, String> entry : renderedDiagrams.entrySet()) {
+                        for (String entrypointFqn : entrypointsByDiagramName.get(entry.getKey())) {
+                            sequenceDiagrams.put(entrypointFqn, toGeneratedOutputUrl(entry.getValue()));
+                        }
+                    }
+                    ctx.put(SEQUENCE_DIAGRAMS, sequenceDiagrams);
+                })
+                .build());
+
+        // Analyze DAO operations and generate the database schema diagram if any were found
+        stages.add(PipelineStage.builder(AnalysisStage.DAO_ANALYSIS)
+                .inputs(CLASSES, REPO_DIR, AST_CACHE)
+                .outputs(DB_ANALYSIS, DB_DIAGRAM_PATH)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    logger.info("Analyzing DAO/Repository classes for database operations");
+                    List<ClassMetadata> classMetadataList = ctx.get(CLASSES);
+                    DbAnalysisResult dbAnalysisResult = daoAnalysisService.analyzeDbOperations(classMetadataList, ctx.get(REPO_DIR), ctx.get(AST_CACHE));
+                    ctx.put(DB_ANALYSIS, dbAnalysisResult);
+                    if (dbAnalysisResult == null) {
+                        logger.info("No database analysis result returned.");
+                        return;
+                    }
+                    logger.info("Found database operations in {} DAO/Repository classes",
+                                dbAnalysisResult.getOperationsByClass() != null ? dbAnalysisResult.getOperationsByClass().size() : 0);
+                    if (dbAnalysisResult.getOperationsByClass() == null || dbAnalysisResult.getOperationsByClass().isEmpty()) {
+                        logger.info("No DAO operations found, skipping database schema diagram generation.");
+                        return;
+                    }
+                    try {
+                        logger.info("Generating database schema diagram");
+                        String dbDiagramAbsPath = daoAnalysisService.generateDbDiagram(classMetadataList, dbAnalysisResult.getOperationsByClass(), diagramsSubDir.getAbsolutePath());
+                        if (dbDiagramAbsPath != null) {
+                            ctx.put(DB_DIAGRAM_PATH, toGeneratedOutputUrl(dbDiagramAbsPath));
+                        }
+                    } catch (Exception e) {
+                        logger.error("Error generating database diagram: {}", e.getMessage(), e);
+                        ctx.put(DB_DIAGRAM_PATH, "Error generating diagram: " + e.getMessage());
+                    }
+                })
+                .build());
+
+        // Get Logger Insights from src/main/java, or the whole repository if there is none
+        stages.add(PipelineStage.builder(AnalysisStage.LOG_INSIGHTS)
+                .inputs(REPO_DIR, AST_CACHE, CHANGED_PATHS, BASELINE)
+                .outputs(LOG_STATEMENTS)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    File repoDir = ctx.get(REPO_DIR);
+                    Path effectivePathForLogAnalysis = logSourceRoot(repoDir);
+                    if (!effectivePathForLogAnalysis.equals(repoDir.toPath())) {
+                        logger.info("Using src/main/java as source for log analysis: {}", effectivePathForLogAnalysis);
+                    } else {
+                        logger.info("src/main/java not found, analyzing entire repository for logs: {}", effectivePathForLogAnalysis);
+                    }
+                    // Statement paths are relative to the repository root, like class file paths
+                    String logSourcePrefix = repoDir.toPath().relativize(effectivePathForLogAnalysis).toString().replace("\\", "/");
+                    Set<String> changedPaths = ctx.get(CHANGED_PATHS);
+                    List<String> javaFiles = new ArrayList<>();
+                    if (changedPaths == null) {
+                        for (Path path : fileClassificationService.javaSources(effectivePathForLogAnalysis)) {
+                            javaFiles.add(repoDir.toPath().relativize(path).toString().replace("\\", "/"));
+                        }
+                    } else {
+                        for (String changedPath : changedPaths) {
+                            if (logSourcePrefix.isEmpty() || changedPath.startsWith(logSourcePrefix + "/")) {
+                                javaFiles.add(changedPath);
+                            }
+                        }
+                    }
+                    List<LogStatement> logStatements = loggerInsightsService.getLogInsights(repoDir, javaFiles, ctx.get(AST_CACHE));
+                    logger.info("Successfully retrieved {} log statements.", logStatements.size());
+                    if (changedPaths != null) {
+                        logStatements = patchByPath(ctx.get(BASELINE).getLogStatements(), LogStatement::getFilePath, changedPaths, logStatements);
+                    }
+                    ctx.put(LOG_STATEMENTS, logStatements);
+                })
+                .build());
+
+        stages.add(PipelineStage.builder(AnalysisStage.PII_PCI_SCAN)
+                .inputs(REPO_DIR, CHANGED_PATHS, BASELINE)
+                .outputs(PII_PCI_FINDINGS)
+                .timeout(stageTimeout)
+                .action((ctx, stageProgress) -> {
+                    Set<String> changedPaths = ctx.get(CHANGED_PATHS);
+                    if (changedPaths == null) {
+                        ctx.put(PII_PCI_FINDINGS, piiPciDetectionService.scanRepository(ctx.get(REPO_DIR).toPath(), null));
+                        return;
+                    }
+                    List<PiiPciFinding> changedFindings = piiPciDetectionService.scanFiles(ctx.get(REPO_DIR).toPath(), new ArrayList<>(changedPaths), null);
+                    ctx.put(PII_PCI_FINDINGS, patchByPath(ctx.get(BASELINE).getPiiPciFindings(), PiiPciFinding::getFilePath, changedPaths, changedFindings));
+                })
+                .build());
+
+        return stages;
+    }
+
+    // Log insights cover src/main/java, or the whole repository if there is none
+    private static Path logSourceRoot(File repoDir) {
+        Path potentialSrcPath = repoDir.toPath().resolve("src/main/java");
+        return Files.isDirectory(potentialSrcPath) ? potentialSrcPath : repoDir.toPath();
+    }
+
+    private ParsedDataResponse assembleResponse(PipelineContext context, String projectName) {
+        ParsedDataResponse response = new ParsedDataResponse();
+        response.setProjectName(projectName);
+        response.setCommitId(context.get(COMMIT_ID));
+        if (context.get(CHANGED_PATHS) != null) {
+            response.setBaseCommitId(context.get(BASELINE).getCommitId());
+        }
+        response.setProjectType(context.get(PROJECT_TYPE));
+        response.setSpringBootProject(Boolean.TRUE.equals(context.get(SPRING_BOOT)));
+        response.setSpringBootVersion(context.get(SPRING_BOOT_VERSION));
+        response.setClasses(context.get(CLASSES));
+        response.setParseWarnings(context.get(PARSE_WARNINGS));
+        response.setEndpoints(context.get(ENDPOINTS));
+        response.setFeatureFiles(context.get(FEATURE_FILES));
+        response.setWsdlFilesContent(context.get(WSDL_FILES));
+        response.setXsdFilesContent(context.get(XSD_FILES));
+        response.setOpenApiSpec(context.get(OPENAPI_SPEC));
+        response.setProjectSummary(context.get(PROJECT_SUMMARY));
+        response.setCallFlows(context.get(CALL_FLOWS));
+        response.setSequenceDiagrams(context.get(SEQUENCE_DIAGRAMS));
+        response.setLogStatements(context.getOrDefault(LOG_STATEMENTS, new ArrayList<>()));
+        response.setPiiPciFindings(context.get(PII_PCI_FINDINGS));
+
+        Map<DiagramType, String> diagrams = context.get(DIAGRAMS);
+        DbAnalysisResult dbAnalysisResult = context.get(DB_ANALYSIS);
+        response.setDbAnalysis(dbAnalysisResult);
+        if (dbAnalysisResult != null) {
+            // For backward compatibility, also set the old daoOperations field
+            response.setDaoOperations(dbAnalysisResult.getOperationsByClass());
+        }
+        String dbDiagramPath = context.get(DB_DIAGRAM_PATH);
+        if (dbDiagramPath != null) {
+            response.setDbDiagramPath(dbDiagramPath);
+            if (dbDiagramPath.startsWith("/generated-output/")) {
+                if (diagrams == null) {
+                    diagrams = new HashMap<>();
+                }
+                diagrams.put(DiagramType.DATABASE_DIAGRAM, dbDiagramPath);
+            }
+        }
+        response.setDiagrams(diagrams);
+        return response;
+    }
+
+    /**
+     * Replaces the baseline entries of changed files with freshly computed ones: baseline entries whose path is
+     * in {@code changedPaths} (modified, deleted or renamed files) are dropped and {@code changedEntries} appended.
+     */
+    private static <T> List<T> patchByPath(List<T> baselineEntries, Function<T, String> pathOf, Set<String> changedPaths, List<T> changedEntries) {
+        List<T> patched = new ArrayList<>();
+        if (baselineEntries != null) {
+            for (T entry : baselineEntries) {
+                String path = pathOf.apply(entry);
+                if (path == null || !changedPaths.contains(path)) {
+                    patched.add(entry);
+                }
+            }
+        }
+        patched.addAll(changedEntries);
+        return patched;
+    }
+
+    @Override
+    public void releaseOutput(String analysisId) {
+        protectedOutputIds.remove(analysisId);
+        File outputDir = new File(outputBasePath, "docs_" + analysisId);
+        if (outputDir.exists()) {
+            logger.info("Deleting released output directory: {}", outputDir.getAbsolutePath());
+            try {
+                FileUtils.deleteDirectory(outputDir);
+            } catch (IOException e) {
+                logger.warn("Could not delete output directory {}: {}", outputDir.getAbsolutePath(), e.getMessage());
+            }
+        }
+    }
+
+    private void deleteUnprotectedOutputDirs() {
+        File baseOutputDir = new File(outputBasePath);
+        if (!baseOutputDir.exists()) {
+            return;
+        }
+        File[] existingOutputDirs = baseOutputDir.listFiles(pathname -> pathname.isDirectory() && pathname.getName().startsWith("docs_"));
+        if (existingOutputDirs == null) {
+            return;
+        }
+        for (File dir : existingOutputDirs) {
+            if (protectedOutputIds.contains(dir.getName().substring("docs_".length()))) {
+                continue;
+            }
+            logger.info("Deleting old output directory: {}", dir.getAbsolutePath());
+            try {
+                FileUtils.deleteDirectory(dir);
+            } catch (IOException e) {
+                logger.warn("Could not delete old output directory {}: {}", dir.getAbsolutePath(), e.getMessage());
+            }
+        }
+    }
+
+    // Maps an absolute file under outputBasePath to the URL it is served from (see WebConfig)
+    private String toGeneratedOutputUrl(String absolutePath) {
+        String pathPrefixToTrim = new File(outputBasePath).getAbsolutePath();
+        String relativePath = absolutePath.replace(pathPrefixToTrim, "").replace("\\", "/");
+        if (relativePath.startsWith("/")) {
+            relativePath = relativePath.substring(1);
+        }
+        return "/generated-output/" + relativePath;
+    }
+
+    private String extractProjectNameFromUrl(String repoUrl) throws URISyntaxException {
+        URI uri = new URI(repoUrl);
+        String path = uri.getPath();
+        String projectName = path.substring(path.lastIndexOf('/') + 1);
+        if (projectName.endsWith(".git")) {
+            projectName = projectName.substring(0, projectName.length() - 4);
+        }
+        if (projectName.isEmpty()) {
+            // Handle cases like https://github.com/ (if that's even valid for cloning)
+            // or if somehow the name is empty after stripping .git
+            return "unknown_project";
+        }
+        return projectName;
+    }
+
+    private String sanitizeFileName(String input) {
+        return input.replaceAll("[^a-zA-Z0-9_\\-]", "_");
+    }
+}
@@ -0,0 +1,221 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.model.CachedClasspath;
+import com.codedocgen.service.ClasspathCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Service
+public class ClasspathCacheServiceImpl implements ClasspathCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClasspathCacheServiceImpl.class);
+
+    private static final Set<String> BUILD_FILE_NAMES = Set.of(
+            "pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "settings.gradle.kts");
+    // Build output and VCS directories never contain build files that matter for the key
+    private static final Set<String> SKIPPED_DIRS = Set.of(".git", "target", "build", "node_modules", ".gradle", ".idea");
+    private static final String ENTRY_SUFFIX = ".properties";
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${app.classpath-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.classpath-cache.dir:/tmp/codedocgen_classpath_cache}")
+    private String cacheDir;
+
+    @Override
+    public String computeKey(File projectDir) {
+        return enabled ? buildFilesHash(projectDir) : null;
+    }
+
+    @Override
+    public String buildFilesHash(File projectDir) {
+        Path root = projectDir.toPath();
+        List<Path> buildFiles = new ArrayList<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return !dir.equals(root) && SKIPPED_DIRS.contains(dir.getFileName().toString())
+                            ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (BUILD_FILE_NAMES.contains(file.getFileName().toString()) && Files.isRegularFile(file)) {
+                        buildFiles.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.warn("[ClasspathCache] Could not scan build files in {}: {}", projectDir.getAbsolutePath(), e.getMessage());
+            return null;
+        }
+        buildFiles.sort(null);
+        if (buildFiles.isEmpty()) {
+            return null;
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Path buildFile : buildFiles) {
+                // Path separators are normalized so the key doesn't depend on the OS that computed it
+                digest.update(root.relativize(buildFile).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Files.readAllBytes(buildFile));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.warn("[ClasspathCache] Could not hash build files in {}: {}", projectDir.getAbsolutePath(), e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public Optional<CachedClasspath> lookup(String key) {
+        if (!enabled || key == null) {
+            return Optional.empty();
+        }
+        Path entryFile = entryFile(key);
+        if (!Files.isRegularFile(entryFile)) {
+            logger.info("[ClasspathCache] Miss for key {}.", key);
+            return Optional.empty();
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(entryFile)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("[ClasspathCache] Could not read cache entry {}: {}", entryFile, e.getMessage());
+            return Optional.empty();
+        }
+        String classpath = properties.getProperty("classpath", "");
+        List<String> modulePaths = splitPaths(properties.getProperty("modules", ""));
+        // Entries written before this was recorded assume the worst
+        boolean generatesSources = Boolean.parseBoolean(properties.getProperty("generates-sources", "true"));
+
+        // The local repository may have been cleaned since the entry was written
+        for (String jarPath : splitPaths(classpath)) {
+            if (!new File(jarPath).exists()) {
+                logger.info("[ClasspathCache] Entry {} references missing file {}; treating as a miss.", key, jarPath);
+                invalidate(key);
+                return Optional.empty();
+            }
+        }
+        logger.info("[ClasspathCache] Hit for key {} ({} modules).", key, modulePaths.size());
+        return Optional.of(new CachedClasspath(classpath, modulePaths, generatesSources));
+    }
+
+    @Override
+    public void store(String key, CachedClasspath classpath) {
+        if (!enabled || key == null) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.setProperty("classpath", classpath.getClasspath() != null ? classpath.getClasspath() : "");
+        properties.setProperty("modules", String.join(File.pathSeparator, classpath.getModulePaths()));
+        properties.setProperty("generates-sources", Boolean.toString(classpath.isGeneratesSources()));
+
+        Path entryFile = entryFile(key);
+        try {
+            Files.createDirectories(entryFile.getParent());
+            // Write to a temp file and move it into place, so a concurrent lookup never sees a partial entry
+            Path tempFile = Files.createTempFile(entryFile.getParent(), key, ".tmp");
+            try (OutputStream out = Files.newOutputStream(tempFile)) {
+                properties.store(out, "CodeDocGen resolved classpath");
+            }
+            try {
+                Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.info("[ClasspathCache] Stored classpath for key {}.", key);
+        } catch (IOException e) {
+            logger.warn("[ClasspathCache] Could not write cache entry {}: {}", entryFile, e.getMessage());
+        }
+    }
+
+    @Override
+    public int invalidate(String key) {
+        Path dir = Paths.get(cacheDir);
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        if (key != null) {
+            if (!KEY_PATTERN.matcher(key).matches()) {
+                return 0;
+            }
+            try {
+                return Files.deleteIfExists(entryFile(key)) ? 1 : 0;
+            } catch (IOException e) {
+                logger.warn("[ClasspathCache] Could not delete cache entry {}: {}", key, e.getMessage());
+                return 0;
+            }
+        }
+
+        int removed = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, "*" + ENTRY_SUFFIX)) {
+            for (Path entry : entries) {
+                try {
+                    Files.deleteIfExists(entry);
+                    removed++;
+                } catch (IOException e) {
+                    logger.warn("[ClasspathCache] Could not delete cache entry {}: {}", entry, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("[ClasspathCache] Could not list cache directory {}: {}", dir, e.getMessage());
+        }
+        logger.info("[ClasspathCache] Invalidated {} cache entries.", removed);
+        return removed;
+    }
+
+    private Path entryFile(String key) {
+        return Paths.get(cacheDir, key + ENTRY_SUFFIX);
+    }
+
+    private static List<String> splitPaths(String joined) {
+        if (joined == null || joined.isBlank()) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(joined.split(Pattern.quote(File.pathSeparator)))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toList());
+    }
+}
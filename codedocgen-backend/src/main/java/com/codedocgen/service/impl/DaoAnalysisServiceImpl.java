@@ -3,16 +3,16 @@ package com.codedocgen.service.impl;
 import com.codedocgen.model.ClassMetadata;
 import com.codedocgen.model.DaoOperationDetail;
 import com.codedocgen.model.DbAnalysisResult;
-import com.codedocgen.model.DiagramType;
+import com.codedocgen.model.DiagramRenderRequest;
 import com.codedocgen.model.MethodMetadata;
+import com.codedocgen.parser.AstDispatcher;
+import com.codedocgen.parser.CompilationUnitCache;
 import com.codedocgen.parser.DaoAnalyzer;
 import com.codedocgen.service.DaoAnalysisService;
-import com.codedocgen.util.PlantUMLRenderer;
+import com.codedocgen.service.DiagramRenderingService;
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,10 +25,6 @@ import java.util.stream.Collectors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import com.github.javaparser.ast.expr.StringLiteralExpr;
-import com.github.javaparser.ast.expr.AnnotationExpr;
-import com.github.javaparser.ast.expr.NormalAnnotationExpr;
-import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
-import com.github.javaparser.ast.expr.Expression;
 import com.github.javaparser.ast.expr.Name;
 
 @Service
@@ -36,7 +32,7 @@ public class DaoAnalysisServiceImpl implements DaoAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(DaoAnalysisServiceImpl.class);
     private final DaoAnalyzer daoAnalyzer;
-    private final PlantUMLRenderer plantUMLRenderer;
+    private final DiagramRenderingService diagramRenderingService;
 
     private static final Set<String> DAO_METHOD_PATTERNS = new HashSet<>(Arrays.asList(
             "find", "get", "load", "select", "query", 
@@ -47,13 +43,18 @@ public class DaoAnalysisServiceImpl implements DaoAnalysisService {
     ));
 
     @Autowired
-    public DaoAnalysisServiceImpl(DaoAnalyzer daoAnalyzer, PlantUMLRenderer plantUMLRenderer) {
+    public DaoAnalysisServiceImpl(DaoAnalyzer daoAnalyzer, DiagramRenderingService diagramRenderingService) {
         this.daoAnalyzer = daoAnalyzer;
-        this.plantUMLRenderer = plantUMLRenderer;
+        this.diagramRenderingService = diagramRenderingService;
     }
 
     @Override
     public DbAnalysisResult analyzeDbOperations(List<ClassMetadata> classes, File projectDir) {
+        return analyzeDbOperations(classes, projectDir, null);
+    }
+
+    @Override
+    public DbAnalysisResult analyzeDbOperations(List<ClassMetadata> classes, File projectDir, CompilationUnitCache cuCache) {
         Map<String, List<DaoOperationDetail>> operationsByClassResult = new HashMap<>();
         
         if (classes == null || projectDir == null) {
@@ -83,10 +84,14 @@ public class DaoAnalysisServiceImpl implements DaoAnalysisService {
             
             try {
                 if (classMetadata.getFilePath() != null) {
-                    File sourceFile = new File(projectDir, classMetadata.getFilePath());
+                    // The parser records paths relative to the project root; absolute paths are used as they are
+                    File sourceFile = new File(classMetadata.getFilePath());
+                    if (!sourceFile.isAbsolute()) {
+                        sourceFile = new File(projectDir, classMetadata.getFilePath());
+                    }
                     if (sourceFile.exists()) {
                         try {
-                            List<DaoOperationDetail> sourceOps = analyzeSourceFile(sourceFile, classMetadata.getName());
+                            List<DaoOperationDetail> sourceOps = analyzeSourceFile(sourceFile, classMetadata.getName(), cuCache);
                             if (sourceOps != null && !sourceOps.isEmpty()) {
                                 finalOperations.addAll(sourceOps);
                                 logger.debug("Successfully analyzed source file for {}: {} operations found", 
@@ -323,58 +328,25 @@ public class DaoAnalysisServiceImpl implements DaoAnalysisService {
         return false;
     }
     
-    private List<DaoOperationDetail> analyzeSourceFile(File sourceFile, String className) {
+    // Prefers the operations the parser's walk of the file left in the cache; otherwise walks the file once itself
+    private List<DaoOperationDetail> analyzeSourceFile(File sourceFile, String className, CompilationUnitCache cuCache) {
         List<DaoOperationDetail> operations = new ArrayList<>();
         
         try {
-            CompilationUnit cu = StaticJavaParser.parse(sourceFile);
-            
-            cu.accept(new VoidVisitorAdapter<Void>() {
-                @Override
-                public void visit(MethodDeclaration md, Void arg) {
-                    String methodName = md.getNameAsString();
-                    boolean queryFoundInAnnotation = false;
-
-                    for (AnnotationExpr annotation : md.getAnnotations()) {
-                        String annotationName = annotation.getNameAsString();
-                        if ("Query".equals(annotationName) || annotationName.endsWith(".Query")) {
-                            String sqlQuery = null;
-                            if (annotation.isNormalAnnotationExpr()) {
-                                NormalAnnotationExpr normalAnn = annotation.asNormalAnnotationExpr();
-                                for (com.github.javaparser.ast.expr.MemberValuePair pair : normalAnn.getPairs()) {
-                                    if ("value".equals(pair.getNameAsString()) || "query".equals(pair.getNameAsString())) {
-                                        if (pair.getValue().isStringLiteralExpr()) {
-                                            sqlQuery = pair.getValue().asStringLiteralExpr().getValue();
-                                        }
-                                    }
-                                }
-                            } else if (annotation.isSingleMemberAnnotationExpr()) {
-                                Expression valueExpr = annotation.asSingleMemberAnnotationExpr().getMemberValue();
-                                if (valueExpr.isStringLiteralExpr()) {
-                                    sqlQuery = valueExpr.asStringLiteralExpr().getValue();
-                                }
-                            }
-
-                            if (sqlQuery != null && !sqlQuery.trim().isEmpty()) {
-                                DaoOperationDetail.SqlOperationType type = daoAnalyzer.extractSqlOperationType(sqlQuery);
-                                List<String> tables = daoAnalyzer.extractTableNames(sqlQuery);
-                                operations.add(new DaoOperationDetail(methodName, sqlQuery, type, tables));
-                                queryFoundInAnnotation = true;
-                                logger.debug("Found SQL in @Query for method {}: {}", methodName, sqlQuery);
-                                break;
-                            }
-                        }
-                    }
+            List<DaoOperationDetail> shared = cuCache != null ? cuCache.takeResult(sourceFile.toPath(), DaoAnalyzer.SOURCE_OPERATIONS) : null;
+            if (shared != null) {
+                operations.addAll(shared);
+                return operations;
+            }
+            CompilationUnit cu = cuCache != null ? cuCache.get(sourceFile.toPath()) : StaticJavaParser.parse(sourceFile);
 
-                    if (!queryFoundInAnnotation) {
-                        DaoAnalyzer.DaoAnalysisResult result = daoAnalyzer.analyze(md);
-                        if (result != null && result.getOperations() != null && !result.getOperations().isEmpty()) {
-                           operations.addAll(result.getOperations());
-                        }
-                    }
-                    super.visit(md, arg);
-                }
-            }, null);
+            DaoAnalyzer.MethodScan scan = daoAnalyzer.newScan();
+            AstDispatcher dispatcher = new AstDispatcher().register(scan);
+            dispatcher.walk(cu);
+            if (dispatcher.failure(scan) != null) {
+                throw dispatcher.failure(scan);
+            }
+            operations.addAll(scan.sourceOperations());
             
         } catch (FileNotFoundException e) {
             logger.warn("Source file not found: {}", sourceFile.getAbsolutePath());
@@ -705,9 +677,8 @@ public class DaoAnalysisServiceImpl implements DaoAnalysisService {
         
         plantUmlBuilder.append("@enduml");
         
-        String outputFilePath = new File(outputPath, "database_schema.svg").getAbsolutePath();
         try {
-            return plantUMLRenderer.renderDiagram(plantUmlBuilder.toString(), outputFilePath, DiagramType.DATABASE_DIAGRAM);
+            return diagramRenderingService.render(new DiagramRenderRequest(plantUmlBuilder.toString(), new File(outputPath, "database_schema.svg"), "Database diagram"));
         } catch (Exception e) {
             logger.error("Error generating database diagram: {}", e.getMessage());
             return null;
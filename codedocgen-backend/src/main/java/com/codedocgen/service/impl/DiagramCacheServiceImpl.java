@@ -0,0 +1,417 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.service.DiagramCacheService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.sourceforge.plantuml.version.Version;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Stores each rendered diagram under {@code <dir>/<key[0..2]>/<key>.svg} (gzip-compressed for svgz output), hard-
+ * linked to the rendered file or copied to a temp file and moved into place, so concurrent renders never read a
+ * partial entry. Hits are hard-linked into the output directory when it is on the same file system; otherwise the
+ * bytes come from the in-memory LRU, which only holds small diagrams, or are streamed from disk.
+ * <p>
+ * The disk cache is capped: once its entries pass {@code max-size-mb}, the least recently used ones (by
+ * modification time, which every hit refreshes) are deleted until it is back under 90% of the cap. Deleting an
+ * entry never affects output files linked to it.
+ * <p>
+ * Graphviz is not part of the key; clear the cache (DELETE /api/cache/diagrams) after upgrading it.
+ */
+@Service
+public class DiagramCacheServiceImpl implements DiagramCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiagramCacheServiceImpl.class);
+
+    private static final String ENTRY_SUFFIX = ".svg";
+
+    @Value("${app.diagrams.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.diagrams.cache.dir:/tmp/codedocgen_diagram_cache}")
+    private String cacheDir;
+
+    // Upper bound on the SVG bytes held in memory; a single diagram is only held if it is under 1/16th of it
+    @Value("${app.diagrams.cache.memory-max-mb:32}")
+    private long memoryMaxMb;
+
+    // Upper bound on the cache directory; least recently used entries are evicted beyond it
+    @Value("${app.diagrams.cache.max-size-mb:1024}")
+    private long maxSizeMb;
+
+    private final Counter linkHits;
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+
+    // Access-ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, byte[]> hotEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hotBytes;
+
+    // Bytes of the entries on disk, -1 until the directory has been measured; kept up to date by store and evict
+    private final AtomicLong diskBytes = new AtomicLong(-1);
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public DiagramCacheServiceImpl(MeterRegistry meterRegistry) {
+        this.linkHits = lookupCounter(meterRegistry, "link_hit");
+        this.memoryHits = lookupCounter(meterRegistry, "memory_hit");
+        this.diskHits = lookupCounter(meterRegistry, "disk_hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("codedocgen.diagram.cache.lookups")
+                .description("Rendered diagram cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String key(String plantUmlSource, String outputFormat) {
+        if (!enabled || plantUmlSource == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Version.versionString().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            // Plain SVG keeps the key it had before output formats existed
+            if (!"svg".equals(outputFormat)) {
+                digest.update(outputFormat.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            digest.update(plantUmlSource.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            logger.warn("[DiagramCache] Could not hash PlantUML source: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean copyTo(String key, File outputFile) {
+        if (!enabled || key == null) {
+            return false;
+        }
+        Path entryFile = entryFile(key);
+        Path target = outputFile.toPath();
+        try {
+            // Never write through an existing file: it may itself be a link to a cache entry
+            Files.deleteIfExists(target);
+            if (Files.isRegularFile(entryFile)) {
+                touch(entryFile);
+                try {
+                    Files.createLink(target, entryFile);
+                    linkHits.increment();
+                    return true;
+                } catch (IOException | UnsupportedOperationException e) {
+                    logger.debug("[DiagramCache] Could not hard-link {} to {}: {}", entryFile, target, e.getMessage());
+                }
+            }
+
+            byte[] svg = getHot(key);
+            if (svg != null) {
+                Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+                try {
+                    Files.write(tempFile, svg);
+                    moveIntoPlace(tempFile, target);
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+                memoryHits.increment();
+                return true;
+            }
+            if (Files.isRegularFile(entryFile)) {
+                touch(entryFile);
+                Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+                try {
+                    Files.copy(entryFile, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                    moveIntoPlace(tempFile, target);
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+                putHotIfSmall(key, target);
+                diskHits.increment();
+                return true;
+            }
+        } catch (IOException e) {
+            logger.warn("[DiagramCache] Could not write cached diagram {} to {}: {}", key, target, e.getMessage());
+            return false;
+        }
+        misses.increment();
+        return false;
+    }
+
+    @Override
+    public void store(String key, Path renderedFile) {
+        if (!enabled || key == null) {
+            return;
+        }
+        Path entryFile = entryFile(key);
+        try {
+            putHotIfSmall(key, renderedFile);
+            if (Files.isRegularFile(entryFile)) {
+                return;
+            }
+            Files.createDirectories(entryFile.getParent());
+            if (!linkOrCopyIntoCache(key, renderedFile, entryFile)) {
+                return; // Another render of the same source got there first
+            }
+        } catch (IOException e) {
+            logger.warn("[DiagramCache] Could not write cache entry {}: {}", entryFile, e.getMessage());
+            return;
+        }
+        added(entryFile);
+    }
+
+    // @return false if the entry already existed
+    private static boolean linkOrCopyIntoCache(String key, Path renderedFile, Path entryFile) throws IOException {
+        try {
+            Files.createLink(entryFile, renderedFile);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.debug("[DiagramCache] Could not hard-link {} into the cache: {}", renderedFile, e.getMessage());
+        }
+        Path tempFile = Files.createTempFile(entryFile.getParent(), key, ".tmp");
+        Files.copy(renderedFile, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        try {
+            Files.move(tempFile, entryFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, entryFile);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(tempFile);
+            return false;
+        }
+        return true;
+    }
+
+    // Counts a new entry and evicts if the cache has outgrown its cap. The directory is measured on first use
+    private void added(Path entryFile) {
+        long size;
+        try {
+            size = Files.size(entryFile);
+        } catch (IOException e) {
+            return;
+        }
+        long total = diskBytes.get() < 0 ? measure() : diskBytes.addAndGet(size);
+        if (total > maxSizeMb * 1024 * 1024) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    private long measure() {
+        long total = 0;
+        for (Path entry : listEntries()) {
+            try {
+                total += Files.size(entry);
+            } catch (IOException e) {
+                // Deleted concurrently
+            }
+        }
+        diskBytes.set(total);
+        return total;
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache is under 90% of its cap, so the next few stores
+     * don't each trigger a pass. Only one pass runs at a time; a store that finds one running skips eviction.
+     */
+    private void evictLeastRecentlyUsed() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            long targetBytes = maxSizeMb * 1024 * 1024 * 9 / 10;
+            List<EntryFile> entries = new ArrayList<>();
+            long total = 0;
+            for (Path entry : listEntries()) {
+                try {
+                    EntryFile entryFile = new EntryFile(entry, Files.size(entry), Files.getLastModifiedTime(entry).toMillis());
+                    entries.add(entryFile);
+                    total += entryFile.size;
+                } catch (IOException e) {
+                    // Deleted concurrently
+                }
+            }
+            entries.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+            int evicted = 0;
+            for (EntryFile entry : entries) {
+                if (total <= targetBytes) {
+                    break;
+                }
+                try {
+                    if (Files.deleteIfExists(entry.path)) {
+                        total -= entry.size;
+                        evicted++;
+                    }
+                } catch (IOException e) {
+                    logger.debug("[DiagramCache] Could not evict {}: {}", entry.path, e.getMessage());
+                }
+            }
+            diskBytes.set(total);
+            logger.info("[DiagramCache] Evicted {} least recently used diagrams; {} MB left of {} MB.", evicted, total / (1024 * 1024), maxSizeMb);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class EntryFile {
+        final Path path;
+        final long size;
+        final long lastUsed;
+
+        EntryFile(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private List<Path> listEntries() {
+        Path dir = Paths.get(cacheDir);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> walk = Files.walk(dir, 2)) {
+            return walk.filter(path -> path.getFileName().toString().endsWith(ENTRY_SUFFIX) && Files.isRegularFile(path))
+                    .collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("[DiagramCache] Could not list cache directory {}: {}", dir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    // Marks an entry as used, for eviction
+    private static void touch(Path entryFile) {
+        try {
+            Files.setLastModifiedTime(entryFile, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("[DiagramCache] Could not update last-used time of {}: {}", entryFile, e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("linkHits", (long) linkHits.count());
+        stats.put("memoryHits", (long) memoryHits.count());
+        stats.put("diskHits", (long) diskHits.count());
+        stats.put("misses", (long) misses.count());
+        synchronized (hotEntries) {
+            stats.put("memoryEntries", hotEntries.size());
+            stats.put("memoryBytes", hotBytes);
+        }
+        stats.put("diskBytes", diskBytes.get() < 0 ? measure() : diskBytes.get());
+        stats.put("diskMaxBytes", maxSizeMb * 1024 * 1024);
+        return stats;
+    }
+
+    @Override
+    public int invalidate() {
+        synchronized (hotEntries) {
+            hotEntries.clear();
+            hotBytes = 0;
+        }
+        Path dir = Paths.get(cacheDir);
+        if (!Files.isDirectory(dir)) {
+            return 0;
+        }
+        List<Path> entries;
+        try (Stream<Path> walk = Files.walk(dir)) {
+            entries = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        } catch (IOException e) {
+            logger.warn("[DiagramCache] Could not list cache directory {}: {}", dir, e.getMessage());
+            return 0;
+        }
+        int removed = 0;
+        for (Path entry : entries) {
+            if (entry.equals(dir)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(entry);
+                if (entry.getFileName().toString().endsWith(ENTRY_SUFFIX)) {
+                    removed++;
+                }
+            } catch (IOException e) {
+                logger.warn("[DiagramCache] Could not delete {}: {}", entry, e.getMessage());
+            }
+        }
+        diskBytes.set(-1);
+        logger.info("[DiagramCache] Invalidated {} cached diagrams.", removed);
+        return removed;
+    }
+
+    // Replaces the target by renaming, so readers see the old or the new file and links to the old one stay intact
+    private static void moveIntoPlace(Path tempFile, Path target) throws IOException {
+        try {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Keeps big diagrams out of the heap; they are served by hard link or streamed from disk
+    private void putHotIfSmall(String key, Path file) throws IOException {
+        if (Files.size(file) <= memoryMaxMb * 1024 * 1024 / 16) {
+            putHot(key, Files.readAllBytes(file));
+        }
+    }
+
+    private byte[] getHot(String key) {
+        synchronized (hotEntries) {
+            return hotEntries.get(key);
+        }
+    }
+
+    private void putHot(String key, byte[] svg) {
+        long maxBytes = memoryMaxMb * 1024 * 1024;
+        if (svg.length > maxBytes) {
+            return;
+        }
+        synchronized (hotEntries) {
+            byte[] previous = hotEntries.put(key, svg);
+            hotBytes += svg.length - (previous != null ? previous.length : 0);
+            Iterator<byte[]> leastRecentlyUsed = hotEntries.values().iterator();
+            while (hotBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+                hotBytes -= leastRecentlyUsed.next().length;
+                leastRecentlyUsed.remove();
+            }
+        }
+    }
+
+    private Path entryFile(String key) {
+        return Paths.get(cacheDir, key.substring(0, 2), key + ENTRY_SUFFIX);
+    }
+}
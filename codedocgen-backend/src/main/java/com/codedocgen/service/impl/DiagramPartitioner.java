@@ -0,0 +1,150 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.model.ClassMetadata;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Splits the classes of a diagram into partitions of at most a given number of nodes, so Graphviz lays out
+ * several bounded diagrams instead of one that grows with the repository. Classes are grouped by package or by
+ * connected component of their dependencies; small groups are packed together and groups over the budget are
+ * cut into chunks (connected components in breadth-first order, so neighbours stay together).
+ * <p>
+ * Not thread-safe; build one per diagram.
+ */
+final class DiagramPartitioner {
+
+    enum Mode {
+        NONE, PACKAGE, CONNECTED
+    }
+
+    private final List<ClassMetadata> classes;
+    private final Map<ClassMetadata, Integer> positions = new IdentityHashMap<>();
+    // Per class, the distinct classes it depends on (extends, implements, references or calls)
+    private final List<Set<Integer>> dependencies;
+
+    DiagramPartitioner(List<ClassMetadata> classes) {
+        this.classes = classes;
+        this.dependencies = new ArrayList<>(classes.size());
+        for (int position = 0; position < classes.size(); position++) {
+            positions.putIfAbsent(classes.get(position), position);
+            dependencies.add(new LinkedHashSet<>());
+        }
+    }
+
+    /** Records that one class of the diagram depends on another; dependencies on other classes are ignored */
+    void addDependency(ClassMetadata from, ClassMetadata to) {
+        Integer source = from != null ? positions.get(from) : null;
+        Integer target = to != null ? positions.get(to) : null;
+        if (source != null && target != null && !source.equals(target)) {
+            dependencies.get(source).add(target);
+        }
+    }
+
+    /** @return The partitions, or a single partition with every class if they fit the budget or mode is NONE */
+    List<List<ClassMetadata>> partition(Mode mode, int maxNodes) {
+        if (mode == Mode.NONE || maxNodes <= 0 || classes.size() <= maxNodes) {
+            return List.of(classes);
+        }
+        List<List<Integer>> groups = mode == Mode.CONNECTED ? connectedGroups() : packageGroups();
+
+        List<List<ClassMetadata>> partitions = new ArrayList<>();
+        List<ClassMetadata> current = new ArrayList<>();
+        for (List<Integer> group : groups) {
+            if (current.size() + group.size() > maxNodes && !current.isEmpty()) {
+                partitions.add(current);
+                current = new ArrayList<>();
+            }
+            for (int position : group) {
+                if (current.size() == maxNodes) {
+                    partitions.add(current);
+                    current = new ArrayList<>();
+                }
+                current.add(classes.get(position));
+            }
+        }
+        if (!current.isEmpty()) {
+            partitions.add(current);
+        }
+        return partitions;
+    }
+
+    /**
+     * @return For each pair of partitions, the number of dependencies from a class in the first to a class in the
+     * second (zero on the diagonal)
+     */
+    int[][] crossDependencies(List<List<ClassMetadata>> partitions) {
+        int[] partitionOf = new int[classes.size()];
+        for (int part = 0; part < partitions.size(); part++) {
+            for (ClassMetadata cls : partitions.get(part)) {
+                partitionOf[positions.get(cls)] = part;
+            }
+        }
+        int[][] counts = new int[partitions.size()][partitions.size()];
+        for (int source = 0; source < classes.size(); source++) {
+            for (int target : dependencies.get(source)) {
+                if (partitionOf[source] != partitionOf[target]) {
+                    counts[partitionOf[source]][partitionOf[target]]++;
+                }
+            }
+        }
+        return counts;
+    }
+
+    // Packages in name order, so sub-packages are packed next to their parent
+    private List<List<Integer>> packageGroups() {
+        Map<String, List<Integer>> byPackage = new TreeMap<>();
+        for (int position = 0; position < classes.size(); position++) {
+            ClassMetadata cls = classes.get(position);
+            String packageName = cls != null && cls.getPackageName() != null ? cls.getPackageName() : "";
+            byPackage.computeIfAbsent(packageName, k -> new ArrayList<>()).add(position);
+        }
+        return new ArrayList<>(byPackage.values());
+    }
+
+    // Connected components of the undirected dependency graph, each listed breadth-first
+    private List<List<Integer>> connectedGroups() {
+        List<List<Integer>> neighbours = new ArrayList<>(classes.size());
+        for (int position = 0; position < classes.size(); position++) {
+            neighbours.add(new ArrayList<>());
+        }
+        for (int source = 0; source < classes.size(); source++) {
+            for (int target : dependencies.get(source)) {
+                neighbours.get(source).add(target);
+                neighbours.get(target).add(source);
+            }
+        }
+
+        boolean[] seen = new boolean[classes.size()];
+        List<List<Integer>> groups = new ArrayList<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int start = 0; start < classes.size(); start++) {
+            if (seen[start]) {
+                continue;
+            }
+            List<Integer> group = new ArrayList<>();
+            seen[start] = true;
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                int position = queue.poll();
+                group.add(position);
+                for (int neighbour : neighbours.get(position)) {
+                    if (!seen[neighbour]) {
+                        seen[neighbour] = true;
+                        queue.add(neighbour);
+                    }
+                }
+            }
+            groups.add(group);
+        }
+        return groups;
+    }
+}
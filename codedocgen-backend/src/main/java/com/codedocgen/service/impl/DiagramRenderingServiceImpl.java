@@ -0,0 +1,416 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.model.DiagramRenderRequest;
+import com.codedocgen.service.DiagramCacheService;
+import com.codedocgen.service.DiagramRenderingService;
+import com.codedocgen.util.PlantUMLRenderer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.OptionFlags;
+import net.sourceforge.plantuml.SourceStringReader;
+import net.sourceforge.plantuml.core.DiagramDescription;
+import net.sourceforge.plantuml.error.PSystemError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Renders diagrams on a fixed worker pool. Graph diagrams are laid out either by Graphviz dot (an external process
+ * per diagram) or by Smetana, PlantUML's pure-Java port of dot, which skips the process spawn but is slower on big
+ * graphs. In "auto" mode small diagrams use Smetana and the rest Graphviz; a layout that fails or runs past the
+ * layout budget is retried once with the other engine. PlantUML kills dot at the budget; Smetana (like the rest of
+ * PlantUML) ignores interrupts, so at the render timeout the diagram fails and its caller moves on, but a slow
+ * Smetana layout keeps its worker busy until it ends by itself. Graphviz layouts are therefore only retried with
+ * Smetana for diagrams of at most {@code smetana-max-nodes} nodes; a bigger one that runs over budget keeps
+ * PlantUML's timeout image, and one whose layout fails fails.
+ * <p>
+ * PlantUML writes the SVG straight into a temp file next to the output file (gzip-compressed for svgz output),
+ * which is renamed into place once complete; readers never see a partial diagram and no copy of it is kept on
+ * the heap. Only diagrams laid out by their preferred engine without errors are added to the diagram cache; error
+ * images and fallback layouts are rendered again next time.
+ */
+@Service
+public class DiagramRenderingServiceImpl implements DiagramRenderingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiagramRenderingServiceImpl.class);
+
+    private static final String SMETANA_PRAGMA = "!pragma layout smetana\n";
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private enum LayoutEngine {
+        NONE, GRAPHVIZ, SMETANA
+    }
+
+    // Render workers; 0 = number of available cores
+    @Value("${app.diagrams.render-threads:0}")
+    private int renderThreads;
+
+    // Per-diagram timeout, measured from when the diagram starts rendering
+    @Value("${app.diagrams.render-timeout-seconds:120}")
+    private long renderTimeoutSeconds;
+
+    // "auto" (Smetana for small diagrams, Graphviz for the rest), "graphviz" or "smetana"
+    @Value("${app.diagrams.layout.engine:auto}")
+    private String layoutEngine;
+
+    // In auto mode, diagrams with at most this many nodes are laid out by Smetana; bigger ones never fall back to it
+    @Value("${app.diagrams.layout.smetana-max-nodes:40}")
+    private int smetanaMaxNodes;
+
+    // Time the first layout engine gets before the diagram is retried with the other one
+    @Value("${app.diagrams.layout.budget-seconds:30}")
+    private long layoutBudgetSeconds;
+
+    // "svg" or "svgz" (gzip-compressed SVG, served with Content-Encoding: gzip)
+    @Value("${app.diagrams.output-format:svg}")
+    private String outputFormat;
+
+    private final DiagramCacheService diagramCacheService;
+    private final PlantUMLRenderer plantUMLRenderer;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> renderTimers = new ConcurrentHashMap<>();
+
+    private ExecutorService renderPool;
+    private ScheduledExecutorService watchdog;
+
+    // PlantUMLRenderer points PlantUML at the configured Graphviz dot executable, which must happen before rendering
+    public DiagramRenderingServiceImpl(DiagramCacheService diagramCacheService, PlantUMLRenderer plantUMLRenderer, MeterRegistry meterRegistry) {
+        this.diagramCacheService = diagramCacheService;
+        this.plantUMLRenderer = plantUMLRenderer;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        int threads = renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.renderPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "diagram-render-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "diagram-render-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // PlantUML's own limit on each dot process; it kills dot and draws an error image when exceeded
+        OptionFlags.getInstance().setTimeoutMs(TimeUnit.SECONDS.toMillis(layoutBudgetSeconds));
+        logger.info("[DiagramRendering-Init] Render pool started with {} worker threads, {}s timeout per diagram.", threads, renderTimeoutSeconds);
+        logger.info("[DiagramRendering-Init] Layout engine: {} (Smetana up to {} nodes in auto mode), {}s layout budget, Graphviz {}.",
+                layoutEngine, smetanaMaxNodes, layoutBudgetSeconds, plantUMLRenderer.isDotAvailable() ? "available" : "not available");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    @Override
+    public CompletableFuture<String> submit(DiagramRenderRequest request) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        // FutureTask only interrupts the worker while it is still running this diagram
+        FutureTask<String> task = new FutureTask<>(() -> renderToFile(request));
+        try {
+            renderPool.execute(() -> {
+                if (result.isDone()) {
+                    return; // Cancelled while queued
+                }
+                // PlantUML mostly ignores the interrupt, so the caller is released at the deadline rather than
+                // when the worker gets around to noticing it
+                ScheduledFuture<?> timeout = watchdog.schedule(() -> {
+                    task.cancel(true);
+                    result.completeExceptionally(timeoutException(request));
+                }, renderTimeoutSeconds, TimeUnit.SECONDS);
+                task.run();
+                timeout.cancel(false);
+                try {
+                    result.complete(task.get());
+                } catch (CancellationException e) {
+                    result.completeExceptionally(timeoutException(request));
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        result.whenComplete((path, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    private TimeoutException timeoutException(DiagramRenderRequest request) {
+        return new TimeoutException(request.getLabel() + " did not render within " + renderTimeoutSeconds + "s");
+    }
+
+    @Override
+    public List<CompletableFuture<String>> submitAll(List<DiagramRenderRequest> requests) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(requests.size());
+        for (DiagramRenderRequest request : requests) {
+            futures.add(submit(request));
+        }
+        logger.info("[DiagramRendering] Queued {} diagrams.", requests.size());
+        return futures;
+    }
+
+    @Override
+    public String render(DiagramRenderRequest request) {
+        if (request == null) {
+            return null;
+        }
+        try {
+            return await(submit(request), request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("[DiagramRendering] Interrupted while rendering {}.", request.getLabel());
+            return null;
+        }
+    }
+
+    @Override
+    public String await(CompletableFuture<String> rendered, DiagramRenderRequest request) throws InterruptedException {
+        try {
+            return rendered.get();
+        } catch (InterruptedException e) {
+            rendered.cancel(true);
+            throw e;
+        } catch (CancellationException e) {
+            logger.warn("[DiagramRendering] {} was cancelled.", request.getLabel());
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                logger.error("[DiagramRendering] {}", cause.getMessage());
+            } else {
+                logger.error("[DiagramRendering] Error (e.g. PlantUML syntax error) rendering {}: {}", request.getLabel(), cause.getMessage(), cause);
+            }
+            logger.debug("Failed PlantUML source for {}:\n{}", request.getLabel(), request.getPlantUmlSource());
+            return null;
+        }
+    }
+
+    @Override
+    public String outputFileName(String svgFileName) {
+        return compressOutput() && svgFileName.endsWith(".svg") ? svgFileName + "z" : svgFileName;
+    }
+
+    private boolean compressOutput() {
+        return "svgz".equalsIgnoreCase(outputFormat != null ? outputFormat.trim() : null);
+    }
+
+    private String renderToFile(DiagramRenderRequest request) throws IOException {
+        File requestedFile = request.getOutputFile();
+        File outputFile = new File(requestedFile.getParentFile(), outputFileName(requestedFile.getName()));
+        File parentDir = outputFile.getParentFile();
+        if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs()) {
+            throw new IOException("Could not create diagram output directory " + parentDir);
+        }
+        String cacheKey = diagramCacheService.key(request.getPlantUmlSource(), compressOutput() ? "svgz" : "svg");
+        if (diagramCacheService.copyTo(cacheKey, outputFile)) {
+            logger.info("{} served from the diagram cache: {}", request.getLabel(), outputFile.getAbsolutePath());
+            return outputFile.getAbsolutePath();
+        }
+
+        RenderedSvg rendered = renderSvg(request, outputFile.toPath());
+        Path renderedFile = rendered.file;
+        try {
+            // A rename replaces a hard link to a cache entry left here by a previous hit, instead of writing through it
+            try {
+                Files.move(renderedFile, outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(renderedFile, outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(renderedFile);
+        }
+        if (rendered.cacheable) {
+            diagramCacheService.store(cacheKey, outputFile.toPath());
+        }
+        logger.info("{} generated: {}", request.getLabel(), outputFile.getAbsolutePath());
+        return outputFile.getAbsolutePath();
+    }
+
+    // Lays the diagram out with its preferred engine, retrying once with the other engine if that fails or runs over budget
+    private RenderedSvg renderSvg(DiagramRenderRequest request, Path outputFile) throws IOException {
+        LayoutEngine primary = primaryEngine(request);
+        LayoutEngine fallback = switch (primary) {
+            case GRAPHVIZ -> smallEnoughForSmetana(request) ? LayoutEngine.SMETANA : null;
+            case SMETANA -> plantUMLRenderer.isDotAvailable() ? LayoutEngine.GRAPHVIZ : null;
+            case NONE -> null;
+        };
+        long budgetNanos = TimeUnit.SECONDS.toNanos(layoutBudgetSeconds);
+        long start = System.nanoTime();
+        try {
+            RenderedSvg svg = layout(request, primary, outputFile);
+            long elapsed = System.nanoTime() - start;
+            // A dot process killed at the budget still yields an SVG, of PlantUML's error message
+            boolean overBudget = primary == LayoutEngine.GRAPHVIZ && elapsed >= budgetNanos;
+            recordRender(primary, overBudget ? "over_budget" : "ok", elapsed);
+            if (!overBudget) {
+                return svg;
+            }
+            if (fallback == null) {
+                logger.warn("[DiagramRendering] Graphviz layout of {} hit the {}s layout budget; too big for Smetana, keeping PlantUML's timeout image.",
+                        request.getLabel(), layoutBudgetSeconds);
+                return new RenderedSvg(svg.file, false);
+            }
+            Files.deleteIfExists(svg.file);
+            logger.warn("[DiagramRendering] Graphviz layout of {} hit the {}s layout budget; retrying with Smetana.", request.getLabel(), layoutBudgetSeconds);
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            recordRender(primary, "failed", System.nanoTime() - start);
+            if (fallback == null || Thread.currentThread().isInterrupted()) {
+                throw e;
+            }
+            logger.warn("[DiagramRendering] {} layout of {} failed ({}); retrying with {}.", primary, request.getLabel(), e.getMessage(), fallback);
+        }
+
+        start = System.nanoTime();
+        try {
+            RenderedSvg svg = layout(request, fallback, outputFile);
+            recordRender(fallback, "ok", System.nanoTime() - start);
+            // The cache key only covers the source, and a later render may well get the preferred engine's layout
+            return new RenderedSvg(svg.file, false);
+        } catch (IOException | RuntimeException e) {
+            if (!(e instanceof InterruptedIOException)) {
+                recordRender(fallback, "failed", System.nanoTime() - start);
+            }
+            throw e;
+        }
+    }
+
+    // Renders into a temp file beside the output file, so the final rename stays on one file system
+    private RenderedSvg layout(DiagramRenderRequest request, LayoutEngine engine, Path outputFile) throws IOException {
+        String source = engine == LayoutEngine.SMETANA ? withSmetanaLayout(request.getPlantUmlSource()) : request.getPlantUmlSource();
+        SourceStringReader reader = new SourceStringReader(source);
+        Path tempFile = Files.createTempFile(outputFile.getParent(), outputFile.getFileName().toString(), ".tmp");
+        boolean complete = false;
+        try {
+            DiagramDescription description;
+            try (OutputStream out = openOutput(tempFile)) {
+                description = reader.outputImage(out, new FileFormatOption(FileFormat.SVG));
+            }
+            if (description == null) {
+                throw new IOException("PlantUML found no diagram in the source of " + request.getLabel());
+            }
+            // PlantUML doesn't stop on interrupt; don't keep a diagram whose render was cancelled or timed out
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Render of " + request.getLabel() + " was cancelled");
+            }
+            // PlantUML draws syntax errors and the like as an image of the error message instead of failing
+            boolean error = reader.getBlocks().stream().anyMatch(block -> block.getDiagram() instanceof PSystemError);
+            if (error) {
+                logger.warn("[DiagramRendering] PlantUML rendered {} as an error image; not caching it.", request.getLabel());
+            }
+            complete = true;
+            return new RenderedSvg(tempFile, !error);
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    private static final class RenderedSvg {
+        private final Path file;
+        private final boolean cacheable;
+
+        private RenderedSvg(Path file, boolean cacheable) {
+            this.file = file;
+            this.cacheable = cacheable;
+        }
+    }
+
+    private OutputStream openOutput(Path file) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (compressOutput()) {
+            out = new GZIPOutputStream(out, WRITE_BUFFER_BYTES);
+        }
+        return new BufferedOutputStream(out, WRITE_BUFFER_BYTES);
+    }
+
+    private LayoutEngine primaryEngine(DiagramRenderRequest request) {
+        if (request.getLayoutNodes() == 0) {
+            return LayoutEngine.NONE;
+        }
+        if (!plantUMLRenderer.isDotAvailable()) {
+            return LayoutEngine.SMETANA;
+        }
+        String engine = layoutEngine != null ? layoutEngine.trim() : "";
+        if ("graphviz".equalsIgnoreCase(engine)) {
+            return LayoutEngine.GRAPHVIZ;
+        }
+        if ("smetana".equalsIgnoreCase(engine)) {
+            return LayoutEngine.SMETANA;
+        }
+        return smallEnoughForSmetana(request) ? LayoutEngine.SMETANA : LayoutEngine.GRAPHVIZ;
+    }
+
+    // Diagrams of unknown size count as big
+    private boolean smallEnoughForSmetana(DiagramRenderRequest request) {
+        return request.getLayoutNodes() != DiagramRenderRequest.UNKNOWN_SIZE && request.getLayoutNodes() <= smetanaMaxNodes;
+    }
+
+    // Adds the Smetana pragma right after @startuml; a layout pragma already in the source still takes precedence
+    static String withSmetanaLayout(String plantUmlSource) {
+        int start = plantUmlSource.indexOf("@start");
+        int lineEnd = start >= 0 ? plantUmlSource.indexOf('\n', start) : -1;
+        if (lineEnd < 0) {
+            return plantUmlSource;
+        }
+        return plantUmlSource.substring(0, lineEnd + 1) + SMETANA_PRAGMA + plantUmlSource.substring(lineEnd + 1);
+    }
+
+    // Render latency per layout engine and outcome, to compare the engines
+    private void recordRender(LayoutEngine engine, String outcome, long elapsedNanos) {
+        String engineTag = engine.name().toLowerCase();
+        renderTimers.computeIfAbsent(engineTag + "/" + outcome, k -> Timer.builder("codedocgen.diagram.render")
+                        .description("Diagram layout and SVG rendering time")
+                        .tag("engine", engineTag)
+                        .tag("outcome", outcome)
+                        .publishPercentiles(0.5, 0.95)
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -1,26 +1,28 @@
 package com.codedocgen.service.impl;
 
 import com.codedocgen.model.ClassMetadata;
+import com.codedocgen.model.DiagramRenderRequest;
 import com.codedocgen.model.DiagramType;
 import com.codedocgen.model.FieldMetadata;
 import com.codedocgen.model.MethodMetadata;
+import com.codedocgen.service.DiagramRenderingService;
 import com.codedocgen.service.DiagramService;
-import net.sourceforge.plantuml.FileFormat;
-import net.sourceforge.plantuml.FileFormatOption;
-import net.sourceforge.plantuml.SourceStringReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.HashSet;
 
@@ -33,6 +35,20 @@ public class DiagramServiceImpl implements DiagramService {
 
     private static final Logger logger = LoggerFactory.getLogger(DiagramServiceImpl.class);
 
+    // Class and component diagrams with more classes than this are split into partitions plus an index diagram
+    @Value("${app.diagrams.partition.max-nodes:250}")
+    private int partitionMaxNodes = 250;
+
+    // "package" (default), "connected" (connected components of the class dependencies) or "none"
+    @Value("${app.diagrams.partition.mode:package}")
+    private String partitionMode = "package";
+
+    private final DiagramRenderingService diagramRenderingService;
+
+    public DiagramServiceImpl(DiagramRenderingService diagramRenderingService) {
+        this.diagramRenderingService = diagramRenderingService;
+    }
+
     @Override
     public Map<DiagramType, String> generateDiagrams(List<ClassMetadata> classMetadataList, String baseOutputDir) {
         Map<DiagramType, String> diagramPaths = new HashMap<>();
@@ -42,73 +58,168 @@ public class DiagramServiceImpl implements DiagramService {
             return diagramPaths;
         }
 
-        // Class Diagram
-        String classDiagramPath = null;
+        // Build every source first, then render them (and the partitions of large diagrams) side by side on the shared render pool
+        Map<DiagramType, List<DiagramRenderRequest>> requests = new LinkedHashMap<>();
+        addRequests(requests, DiagramType.CLASS_DIAGRAM, () -> classDiagramRequests(classMetadataList, baseOutputDir));
+        addRequests(requests, DiagramType.ENTITY_RELATIONSHIP_DIAGRAM, () -> singleRequest(entityRelationshipDiagramRequest(classMetadataList, baseOutputDir)));
+        addRequests(requests, DiagramType.COMPONENT_DIAGRAM, () -> componentDiagramRequests(classMetadataList, baseOutputDir));
+        addRequests(requests, DiagramType.USECASE_DIAGRAM, () -> singleRequest(usecaseDiagramRequest(classMetadataList, baseOutputDir)));
+
+        List<DiagramRenderRequest> allRequests = requests.values().stream().flatMap(List::stream).collect(Collectors.toList());
+        List<CompletableFuture<String>> rendered = diagramRenderingService.submitAll(allRequests);
         try {
-            classDiagramPath = generateClassDiagram(classMetadataList, baseOutputDir);
-            if (classDiagramPath != null) {
-                diagramPaths.put(DiagramType.CLASS_DIAGRAM, classDiagramPath);
-                logger.info("Class Diagram generation successful. Path: {}", classDiagramPath);
-            } else {
-                logger.warn("Class Diagram generation returned null. This might be due to an issue with PlantUML setup (e.g., Graphviz not found or PlantUML error). Check previous logs from generateClassDiagram.");
+            int next = 0;
+            for (Map.Entry<DiagramType, List<DiagramRenderRequest>> entry : requests.entrySet()) {
+                DiagramType type = entry.getKey();
+                List<DiagramRenderRequest> typeRequests = entry.getValue();
+                // The first request is the diagram itself, or the index of its partitions
+                String path = diagramRenderingService.await(rendered.get(next), typeRequests.get(0));
+                if (typeRequests.size() > 1) {
+                    int renderedPartitions = 0;
+                    for (int part = 1; part < typeRequests.size(); part++) {
+                        if (diagramRenderingService.await(rendered.get(next + part), typeRequests.get(part)) != null) {
+                            renderedPartitions++;
+                        }
+                    }
+                    logger.info("{}: rendered {} of {} partitions.", type, renderedPartitions, typeRequests.size() - 1);
+                }
+                next += typeRequests.size();
+                if (path != null) {
+                    diagramPaths.put(type, path);
+                    logger.info("{} generation successful. Path: {}", type, path);
+                } else {
+                    logger.warn("{} generation returned null. This might be due to an issue with PlantUML setup (e.g., Graphviz not found or PlantUML error). Check previous logs.", type);
+                }
             }
-        } catch (Exception e) { // Catch any other unexpected exceptions
-            logger.error("Unexpected error during class diagram generation orchestration: {}. Type: {}", e.getMessage(), e.getClass().getName(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rendered.forEach(future -> future.cancel(true));
+            logger.warn("Interrupted while waiting for diagrams; remaining renders were cancelled.");
         }
 
-        // ER Diagram
-        String erDiagramPath = null;
+        logger.info("Final diagram paths collected: {}", diagramPaths);
+        return diagramPaths;
+    }
+
+    private void addRequests(Map<DiagramType, List<DiagramRenderRequest>> requests, DiagramType type, Supplier<List<DiagramRenderRequest>> builder) {
         try {
-            erDiagramPath = generateEntityRelationshipDiagram(classMetadataList, baseOutputDir);
-            if (erDiagramPath != null) {
-                diagramPaths.put(DiagramType.ENTITY_RELATIONSHIP_DIAGRAM, erDiagramPath);
-                logger.info("ER Diagram generation successful. Path: {}", erDiagramPath);
-            } else {
-                logger.warn("ER Diagram generation returned null. This might be due to an issue with PlantUML setup. Check previous logs from generateEntityRelationshipDiagram.");
+            List<DiagramRenderRequest> typeRequests = builder.get();
+            if (!typeRequests.isEmpty()) {
+                requests.put(type, typeRequests);
             }
         } catch (Exception e) { // Catch any other unexpected exceptions
-            logger.error("Unexpected error during ER diagram generation orchestration: {}. Type: {}", e.getMessage(), e.getClass().getName(), e);
+            logger.error("Unexpected error building {} source: {}. Type: {}", type, e.getMessage(), e.getClass().getName(), e);
         }
+    }
+
+    private static List<DiagramRenderRequest> singleRequest(DiagramRenderRequest request) {
+        return request != null ? List.of(request) : List.of();
+    }
 
-        // Component Diagram
-        String componentDiagramPath = null;
+    // Renders a diagram and its partitions, if any; returns the path of the diagram or its index
+    private String renderAll(List<DiagramRenderRequest> requests) {
+        if (requests.isEmpty()) {
+            return null;
+        }
+        List<CompletableFuture<String>> rendered = diagramRenderingService.submitAll(requests);
         try {
-            componentDiagramPath = generateComponentDiagram(classMetadataList, baseOutputDir);
-            if (componentDiagramPath != null) {
-                diagramPaths.put(DiagramType.COMPONENT_DIAGRAM, componentDiagramPath);
-                logger.info("Component Diagram generation successful. Path: {}", componentDiagramPath);
+            String path = diagramRenderingService.await(rendered.get(0), requests.get(0));
+            for (int i = 1; i < requests.size(); i++) {
+                diagramRenderingService.await(rendered.get(i), requests.get(i));
+            }
+            return path;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rendered.forEach(future -> future.cancel(true));
+            logger.warn("Interrupted while waiting for {}; remaining renders were cancelled.", requests.get(0).getLabel());
+            return null;
+        }
+    }
+
+    @Override
+    public String generateClassDiagram(List<ClassMetadata> classMetadataList, String outputDir) {
+        return renderAll(classDiagramRequests(classMetadataList, outputDir));
+    }
+
+    @Override
+    public String generateSequenceDiagram(List<String> callFlow, String outputDir, String diagramName) {
+        return diagramRenderingService.render(sequenceDiagramRequest(callFlow, outputDir, diagramName));
+    }
+
+    @Override
+    public Map<String, String> generateSequenceDiagrams(Map<String, List<String>> callFlowsByDiagramName, String outputDir, Runnable onDiagramDone) {
+        Map<String, String> diagramPaths = new HashMap<>();
+        List<String> diagramNames = new ArrayList<>();
+        List<DiagramRenderRequest> requests = new ArrayList<>();
+        for (Map.Entry<String, List<String>> entry : callFlowsByDiagramName.entrySet()) {
+            DiagramRenderRequest request = sequenceDiagramRequest(entry.getValue(), outputDir, entry.getKey());
+            if (request != null) {
+                diagramNames.add(entry.getKey());
+                requests.add(request);
             } else {
-                logger.warn("Component Diagram generation returned null. This might be due to an issue with PlantUML setup. Check previous logs from generateComponentDiagram.");
+                onDiagramDone.run();
             }
-        } catch (Exception e) { // Catch any other unexpected exceptions
-            logger.error("Unexpected error during component diagram generation orchestration: {}. Type: {}", e.getMessage(), e.getClass().getName(), e);
         }
 
-        // Usecase Diagram
-        String usecaseDiagramPath = null;
+        List<CompletableFuture<String>> rendered = diagramRenderingService.submitAll(requests);
         try {
-            usecaseDiagramPath = generateUsecaseDiagram(classMetadataList, baseOutputDir);
-            if (usecaseDiagramPath != null) {
-                diagramPaths.put(DiagramType.USECASE_DIAGRAM, usecaseDiagramPath);
-                logger.info("Usecase Diagram generation successful. Path: {}", usecaseDiagramPath);
-            } else {
-                logger.warn("Usecase Diagram generation returned null. This might be due to an issue with PlantUML setup. Check previous logs from generateUsecaseDiagram.");
+            for (int i = 0; i < requests.size(); i++) {
+                String path = diagramRenderingService.await(rendered.get(i), requests.get(i));
+                if (path != null) {
+                    diagramPaths.put(diagramNames.get(i), path);
+                }
+                onDiagramDone.run();
             }
-        } catch (Exception e) { // Catch any other unexpected exceptions
-            logger.error("Unexpected error during usecase diagram generation orchestration: {}. Type: {}", e.getMessage(), e.getClass().getName(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rendered.forEach(future -> future.cancel(true));
+            logger.warn("Interrupted while waiting for sequence diagrams; {} of {} were rendered, the rest were cancelled.", diagramPaths.size(), requests.size());
         }
-        
-        logger.info("Final diagram paths collected: {}", diagramPaths);
         return diagramPaths;
     }
 
-    @Override
-    public String generateClassDiagram(List<ClassMetadata> classMetadataList, String outputDir) {
+    public String generateEntityRelationshipDiagram(List<ClassMetadata> classMetadataList, String outputDir) {
+        return diagramRenderingService.render(entityRelationshipDiagramRequest(classMetadataList, outputDir));
+    }
+
+    public String generateComponentDiagram(List<ClassMetadata> classMetadataList, String outputDir) {
+        return renderAll(componentDiagramRequests(classMetadataList, outputDir));
+    }
+
+    public String generateUsecaseDiagram(List<ClassMetadata> classMetadataList, String outputDir) {
+        return diagramRenderingService.render(usecaseDiagramRequest(classMetadataList, outputDir));
+    }
+
+    private List<DiagramRenderRequest> classDiagramRequests(List<ClassMetadata> classMetadataList, String outputDir) {
         if (classMetadataList == null || classMetadataList.isEmpty()) {
             logger.info("No class metadata provided for class diagram generation.");
-            return null;
+            return List.of();
         }
         logger.debug("Starting class diagram generation with {} classes", classMetadataList.size());
+        DiagramPartitioner partitioner = new DiagramPartitioner(classMetadataList);
+        DiagramTypeIndex typeIndex = new DiagramTypeIndex(classMetadataList);
+        for (ClassMetadata cmd : classMetadataList) {
+            if (cmd == null) continue;
+            if (cmd.getParentClass() != null) {
+                partitioner.addDependency(cmd, typeIndex.resolve(cmd.getParentClass()));
+            }
+            if (cmd.getInterfaces() != null) {
+                for (String iface : cmd.getInterfaces()) {
+                    if (iface != null) partitioner.addDependency(cmd, typeIndex.resolve(iface));
+                }
+            }
+            if (cmd.getFields() != null) {
+                for (FieldMetadata field : cmd.getFields()) {
+                    if (field.getType() == null) continue;
+                    DiagramTypeIndex.FieldType fieldType = typeIndex.fieldType(field.getType());
+                    partitioner.addDependency(cmd, typeIndex.resolve(fieldType.getSimplifiedType(), fieldType.getElementType(), target -> true));
+                }
+            }
+        }
+        return partitionedRequests(classMetadataList, partitioner, this::classDiagramSource, outputDir, "class_diagram", "Class diagram");
+    }
+
+    private String classDiagramSource(List<ClassMetadata> classMetadataList) {
         StringBuilder plantUmlSource = new StringBuilder();
         plantUmlSource.append("@startuml\n");
         plantUmlSource.append("skinparam classAttributeIconSize 0\n"); // Hide attribute icons for cleaner look
@@ -225,6 +336,7 @@ public class DiagramServiceImpl implements DiagramService {
         logger.debug("Added {} inheritance/implementation relationships", relationshipsCount);
 
         // Add association arrows for fields referencing other classes (including collections/arrays)
+        DiagramTypeIndex typeIndex = new DiagramTypeIndex(classMetadataList);
         int associationCount = 0;
         for (ClassMetadata sourceClass : classMetadataList) {
             if (sourceClass == null || sourceClass.getName() == null || sourceClass.getName().isEmpty()) {
@@ -240,44 +352,21 @@ public class DiagramServiceImpl implements DiagramService {
                     String rawType = field.getType();
                     if (rawType == null) continue;
 
-                    String type = rawType.replaceAll("<[^>]+>", ""); // Remove generics for simple matching
-                    type = type.replaceAll("\\[\\]", ""); // Remove array indicators for simple matching
-                    
                     String fieldName = field.getName();
                     if (fieldName == null) fieldName = "";
 
-                    boolean isCollection = rawType.matches(".*(List|Set|Collection|Iterable|Map|ArrayList|HashSet|HashMap|<.+>|\\[\\]).*");
-                    String elementType = type; // Default to the cleaned type
-
-                    // Try to extract generic type for collections more robustly
-                    java.util.regex.Matcher m = java.util.regex.Pattern.compile("(?:List|Set|Collection|Iterable|Map)<([A-Za-z0-9_.]+)>").matcher(rawType);
-                    if (m.find()) {
-                        elementType = m.group(1);
-                        isCollection = true;
-                    } else if (rawType.endsWith("[]")) {
-                        elementType = rawType.substring(0, rawType.length() - 2);
-                        isCollection = true;
-                    }
-                    
-                    // Check if this type or elementType matches any class in the project
-                    for (ClassMetadata targetClass : classMetadataList) {
-                                if (targetClass == null || targetClass.getName() == null || targetClass.getName().isEmpty()) {
-                                    continue;
-                                }
-                        if (targetClass.getName().equals(type) || targetClass.getName().equals(elementType) ||
-                                    (targetClass.getPackageName() != null && (targetClass.getPackageName() + "." + targetClass.getName()).equals(type)) ||
-                                    (targetClass.getPackageName() != null && (targetClass.getPackageName() + "." + targetClass.getName()).equals(elementType)) ) {
-
+                    // Check if this type or its collection/array element type matches a class in the project
+                    DiagramTypeIndex.FieldType fieldType = typeIndex.fieldType(rawType);
+                    ClassMetadata targetClass = typeIndex.resolve(fieldType.getSimplifiedType(), fieldType.getElementType(), target -> true);
+                    if (targetClass != null) {
                             String targetClassName = getClassNameForPuml(targetClass.getName());
-                                    if (targetClassName == null || targetClassName.isEmpty()) continue;
-
-                            String multiplicity = isCollection ? " \"*\"" : ""; // PlantUML uses "1" -- "0..*"
+                            if (targetClassName != null && !targetClassName.isEmpty()) {
+                            String multiplicity = fieldType.isCollection() ? " \"*\"" : ""; // PlantUML uses "1" -- "0..*"
                             plantUmlSource.append(sourceClassName).append(" --> ").append(targetClassName)
                                 .append(" : ").append(sanitizePuml(fieldName)).append(multiplicity).append("\n");
                                     associationCount++;
-                            break; // Found a target, no need to check other classes for this field
-                                }
                             }
+                    }
                         } catch (Exception e) {
                             logger.warn("Exception processing field relationship for {} in class {}: {}", field.getName(), sourceClass.getName(), e.getMessage());
                         }
@@ -292,29 +381,7 @@ public class DiagramServiceImpl implements DiagramService {
         plantUmlSource.append("@enduml\n");
         logger.debug("Completed PlantUML source generation for class diagram, total size: {} chars", plantUmlSource.length());
 
-        try {
-            logger.debug("Creating SourceStringReader for PlantUML processing");
-            SourceStringReader reader = new SourceStringReader(plantUmlSource.toString());
-            String diagramFileName = "class_diagram.svg";
-            File outputFile = new File(outputDir, diagramFileName);
-
-            try (FileOutputStream fos = new FileOutputStream(outputFile);
-                 ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                logger.debug("Generating PlantUML image");
-                reader.outputImage(baos, new FileFormatOption(FileFormat.SVG));
-                baos.writeTo(fos);
-                logger.info("Class diagram generated: {}", outputFile.getAbsolutePath());
-                return outputFile.getAbsolutePath(); // Return path to the generated SVG
-            } 
-        } catch (IOException e) { // Specific catch for IO during image generation/saving
-            logger.error("IOException during class diagram image generation/saving: {}", e.getMessage(), e);
-            logger.debug("Failed PlantUML source for class diagram:\n{}", plantUmlSource.toString());
-            return null; 
-        } catch (Throwable t) { // Catch any other throwable during PlantUML processing
-            logger.error("Throwable (e.g. PlantUML syntax error) during class diagram processing: {}", t.getMessage(), t);
-            logger.debug("Failed PlantUML source for class diagram (Throwable):\n{}", plantUmlSource.toString());
-            return null;
-        }
+        return plantUmlSource.toString();
     }
 
     private String getCleanParticipantName(String rawCallFlowItem) {
@@ -355,8 +422,7 @@ public class DiagramServiceImpl implements DiagramService {
         return label.substring(label.lastIndexOf('.') + 1); // Default to part after last dot
     }
 
-    @Override
-    public String generateSequenceDiagram(List<String> callFlow, String outputDir, String diagramName) {
+    private DiagramRenderRequest sequenceDiagramRequest(List<String> callFlow, String outputDir, String diagramName) {
         if (callFlow == null || callFlow.isEmpty()) {
             logger.info("No call flow provided for sequence diagram generation.");
             return null;
@@ -390,24 +456,10 @@ public class DiagramServiceImpl implements DiagramService {
                 .append(toClass).append("\": ").append(callLabel).append("\n");
         }
         plantUmlSource.append("@enduml\n");
-        try {
-            SourceStringReader reader = new SourceStringReader(plantUmlSource.toString());
-            String diagramFileName = diagramName + ".svg";
-            File outputFile = new File(outputDir, diagramFileName);
-            try (FileOutputStream fos = new FileOutputStream(outputFile);
-                 ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                reader.outputImage(baos, new FileFormatOption(FileFormat.SVG));
-                baos.writeTo(fos);
-                logger.info("Sequence diagram generated: {}", outputFile.getAbsolutePath());
-                return outputFile.getAbsolutePath();
-            }
-        } catch (IOException e) {
-            logger.error("Error generating or saving sequence diagram: {}", e.getMessage(), e);
-            return null;
-        }
+        return new DiagramRenderRequest(plantUmlSource.toString(), new File(outputDir, diagramName + ".svg"), "Sequence diagram", 0);
     }
 
-    public String generateEntityRelationshipDiagram(List<ClassMetadata> classMetadataList, String outputDir) {
+    private DiagramRenderRequest entityRelationshipDiagramRequest(List<ClassMetadata> classMetadataList, String outputDir) {
         if (classMetadataList == null || classMetadataList.isEmpty()) {
             logger.info("No class metadata provided for ER diagram generation.");
             return null;
@@ -428,21 +480,7 @@ public class DiagramServiceImpl implements DiagramService {
             plantUmlSource.append("class \"No Entities Found\" as NoEntities << (T,#FFAAAA) >> {\n  This project has no JPA entities\n}\n");
             plantUmlSource.append("@enduml\n");
             
-            try {
-                SourceStringReader reader = new SourceStringReader(plantUmlSource.toString());
-                String diagramFileName = "entity_relationship_diagram.svg";
-                File outputFile = new File(outputDir, diagramFileName);
-                try (FileOutputStream fos = new FileOutputStream(outputFile);
-                     ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                    reader.outputImage(baos, new FileFormatOption(FileFormat.SVG));
-                    baos.writeTo(fos);
-                    logger.info("Empty ER diagram generated: {}", outputFile.getAbsolutePath());
-                    return outputFile.getAbsolutePath();
-                }
-            } catch (Exception e) {
-                logger.error("Error generating empty ER diagram: {}", e.getMessage(), e);
-                return null;
-            }
+            return new DiagramRenderRequest(plantUmlSource.toString(), new File(outputDir, "entity_relationship_diagram.svg"), "Empty ER diagram", 1);
         }
         
         // Process the actual entities
@@ -472,6 +510,7 @@ public class DiagramServiceImpl implements DiagramService {
         logger.debug("Processed {} out of {} entities", processedEntities, entities.size());
         
         // Add relationships based on field types and annotations
+        DiagramTypeIndex entityIndex = new DiagramTypeIndex(entities);
         int relationshipCount = 0;
         for (ClassMetadata entity : entities) {
             if (entity.getFields() != null) {
@@ -480,32 +519,15 @@ public class DiagramServiceImpl implements DiagramService {
                     String rawFieldType = field.getType();
                     if (rawFieldType == null) continue;
 
-                    // Simplify type for matching (remove generics and array indicators)
-                    String simplifiedFieldType = rawFieldType.replaceAll("<[^>]+>", "");
-                    simplifiedFieldType = simplifiedFieldType.replaceAll("\\[\\]", "");
                     String fieldNameForLabel = field.getName() != null ? sanitizePuml(field.getName()) : "";
 
-                    // Try to get the element type for collections
-                    String potentialElementType = simplifiedFieldType;
-                    java.util.regex.Matcher m = java.util.regex.Pattern.compile("(?:List|Set|Collection|Iterable|Map)<([A-Za-z0-9_.]+)>").matcher(rawFieldType);
-                    if (m.find()) {
-                        potentialElementType = m.group(1);
-                    } else if (rawFieldType.endsWith("[]")) {
-                        potentialElementType = rawFieldType.substring(0, rawFieldType.length() - 2);
-                    }
-
-                    for (ClassMetadata target : entities) {
-                        // Check against simple name, FQN, and potential element type (simple and FQN)
-                        String targetSimpleName = target.getName();
-                            String targetFQN = (target.getPackageName() != null ? target.getPackageName() + "." : "") + target.getName();
-
-                        boolean matchesSimpleType = targetSimpleName.equals(simplifiedFieldType) || targetFQN.equals(simplifiedFieldType);
-                        boolean matchesElementType = targetSimpleName.equals(potentialElementType) || targetFQN.equals(potentialElementType);
-
-                        if (!target.getName().equals(entity.getName()) && (matchesSimpleType || matchesElementType)) {
+                    // Check against simple name, FQN, and potential element type (simple and FQN)
+                    DiagramTypeIndex.FieldType fieldType = entityIndex.fieldType(rawFieldType);
+                    ClassMetadata target = entityIndex.resolve(fieldType.getSimplifiedType(), fieldType.getElementType(),
+                            candidate -> !candidate.getName().equals(entity.getName()));
+                    if (target != null) {
                             // Determine relationship type (e.g., one-to-many if collection)
-                            boolean isCollectionField = rawFieldType.matches(".*(List|Set|Collection|Iterable|Map|<.+>|\\[\\]).*");
-                            String relationshipArrow = isCollectionField ? "}o--|{" : "}--||"; // Example: one-to-many vs one-to-one
+                            String relationshipArrow = fieldType.isCollection() ? "}o--|{" : "}--||"; // Example: one-to-many vs one-to-one
                             
                             plantUmlSource.append(getClassNameForPuml(entity.getName()))
                                           .append(relationshipArrow)
@@ -514,9 +536,7 @@ public class DiagramServiceImpl implements DiagramService {
                                           .append(fieldNameForLabel)
                                           .append("\n");
                                 relationshipCount++;
-                            break; // Found a relationship for this field, move to next field
-                            }
-                        }
+                    }
                     } catch (Exception e) {
                         logger.warn("Exception processing field relationship for {} in entity {}: {}", field.getName(), entity.getName(), e.getMessage());
                     }
@@ -528,34 +548,13 @@ public class DiagramServiceImpl implements DiagramService {
         plantUmlSource.append("@enduml\n");
         logger.debug("Completed PlantUML source generation for ER diagram, total size: {} chars", plantUmlSource.length());
         
-        try {
-            logger.debug("Creating SourceStringReader for PlantUML processing");
-            SourceStringReader reader = new SourceStringReader(plantUmlSource.toString());
-            String diagramFileName = "entity_relationship_diagram.svg";
-            File outputFile = new File(outputDir, diagramFileName);
-            try (FileOutputStream fos = new FileOutputStream(outputFile);
-                 ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                logger.debug("Generating PlantUML image");
-                reader.outputImage(baos, new FileFormatOption(FileFormat.SVG));
-                baos.writeTo(fos);
-                logger.info("ER diagram generated: {}", outputFile.getAbsolutePath());
-                return outputFile.getAbsolutePath();
-            }
-        } catch (IOException e) { // Specific catch for IO during image generation/saving
-            logger.error("IOException during ER diagram image generation/saving: {}", e.getMessage(), e);
-            logger.debug("Failed PlantUML source for ER diagram:\n{}", plantUmlSource.toString());
-            return null;
-        } catch (Throwable t) { // Catch any other throwable during PlantUML processing
-            logger.error("Throwable (e.g. PlantUML syntax error) during ER diagram processing: {}", t.getMessage(), t);
-            logger.debug("Failed PlantUML source for ER diagram (Throwable):\n{}", plantUmlSource.toString());
-            return null;
-        }
+        return new DiagramRenderRequest(plantUmlSource.toString(), new File(outputDir, "entity_relationship_diagram.svg"), "ER diagram", entities.size());
     }
 
-    public String generateComponentDiagram(List<ClassMetadata> classMetadataList, String outputDir) {
+    private List<DiagramRenderRequest> componentDiagramRequests(List<ClassMetadata> classMetadataList, String outputDir) {
         if (classMetadataList == null || classMetadataList.isEmpty()) {
             logger.info("No class metadata provided for component diagram generation.");
-            return null;
+            return List.of();
         }
         logger.debug("Starting component diagram generation with {} classes", classMetadataList.size());
 
@@ -612,24 +611,36 @@ public class DiagramServiceImpl implements DiagramService {
             emptyDiagramSource.append("end note\n");
             emptyDiagramSource.append("@enduml\n");
             
-            try {
-                SourceStringReader reader = new SourceStringReader(emptyDiagramSource.toString());
-                String diagramFileName = "component_diagram.svg";
-                File outputFile = new File(outputDir, diagramFileName);
-                try (FileOutputStream fos = new FileOutputStream(outputFile);
-                     ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                    reader.outputImage(baos, new FileFormatOption(FileFormat.SVG));
-                    baos.writeTo(fos);
-                    logger.info("Empty component diagram generated: {}", outputFile.getAbsolutePath());
-                    return outputFile.getAbsolutePath();
+            return List.of(new DiagramRenderRequest(emptyDiagramSource.toString(), new File(outputDir, "component_diagram.svg"), "Empty component diagram", 1));
+        }
+
+        logger.debug("Found {} components for component diagram", components.size());
+        DiagramPartitioner partitioner = new DiagramPartitioner(components);
+        DiagramTypeIndex componentIndex = new DiagramTypeIndex(components);
+        for (ClassMetadata component : components) {
+            if (component.getFields() != null) {
+                for (FieldMetadata field : component.getFields()) {
+                    if (field.getType() == null) continue;
+                    String simpleFieldType = componentIndex.fieldType(field.getType()).getSimplifiedType();
+                    partitioner.addDependency(component, componentIndex.resolve(simpleFieldType, simpleFieldType, target -> target.getPackageName() != null));
+                }
+            }
+            if (component.getMethods() != null) {
+                for (MethodMetadata method : component.getMethods()) {
+                    if (method.getCalledMethods() == null) continue;
+                    for (String calledMethodSignature : method.getCalledMethods()) {
+                        String calledClassFqn = calledClassFqn(calledMethodSignature);
+                        if (calledClassFqn != null) {
+                            partitioner.addDependency(component, componentIndex.resolveFqn(calledClassFqn));
+                        }
+                    }
                 }
-            } catch (Exception e) {
-                logger.error("Error generating empty component diagram: {}", e.getMessage(), e);
-                return null;
             }
         }
+        return partitionedRequests(components, partitioner, this::componentDiagramSource, outputDir, "component_diagram", "Component diagram");
+    }
 
-        logger.debug("Found {} components for component diagram", components.size());
+    private String componentDiagramSource(List<ClassMetadata> components) {
         StringBuilder plantUmlSource = new StringBuilder();
         plantUmlSource.append("@startuml\n");
         plantUmlSource.append("skinparam componentStyle uml2\n");
@@ -716,6 +727,7 @@ public class DiagramServiceImpl implements DiagramService {
             logger.debug("Added {} components in {} packages", totalComponents, processedPackages);
             
             // Add relationships between components
+            DiagramTypeIndex componentIndex = new DiagramTypeIndex(components);
             Set<String> relationships = new HashSet<>();
             final java.util.concurrent.atomic.AtomicInteger relationshipCount = new java.util.concurrent.atomic.AtomicInteger(0);
 
@@ -731,14 +743,10 @@ public class DiagramServiceImpl implements DiagramService {
                             try {
                                 if (field.getType() == null || field.getName() == null) continue;
                                 String rawFieldType = field.getType();
-                                String simpleFieldType = rawFieldType.replaceAll("<[^>]+>", "").replaceAll("\\[\\]", "");
+                                String simpleFieldType = componentIndex.fieldType(rawFieldType).getSimplifiedType();
                                 
-                                final String finalSimpleFieldType = simpleFieldType;
-                                components.stream()
-                                    .filter(targetCmd -> targetCmd.getName() != null && targetCmd.getPackageName() != null &&
-                                            ( (targetCmd.getPackageName() + "." + targetCmd.getName()).equals(finalSimpleFieldType) ||
-                                            targetCmd.getName().equals(finalSimpleFieldType) ) )
-                                    .findFirst()
+                                java.util.Optional.ofNullable(componentIndex.resolve(simpleFieldType, simpleFieldType,
+                                            targetCmd -> targetCmd.getPackageName() != null))
                                     .ifPresent(targetComponent -> {
                                         try {
                                             String targetPumlName = getClassNameForPuml(targetComponent.getName());
@@ -793,11 +801,7 @@ public class DiagramServiceImpl implements DiagramService {
                                             }
 
                                             if (calledClassFqn != null && !calledClassFqn.trim().isEmpty()) {
-                                                final String finalCalledClassFqn = calledClassFqn;
-                                                components.stream()
-                                                    .filter(targetCmd -> targetCmd.getName() != null && targetCmd.getPackageName() != null &&
-                                                            (targetCmd.getPackageName() + "." + targetCmd.getName()).equals(finalCalledClassFqn))
-                                                    .findFirst()
+                                                java.util.Optional.ofNullable(componentIndex.resolveFqn(calledClassFqn))
                                                     .ifPresent(targetComponent -> {
                                                         try {
                                                             String targetPumlName = getClassNameForPuml(targetComponent.getName());
@@ -848,32 +852,10 @@ public class DiagramServiceImpl implements DiagramService {
         plantUmlSource.append("@enduml\n");
         logger.debug("Completed PlantUML source generation for component diagram, total size: {} chars", plantUmlSource.length());
 
-        try {
-            logger.debug("Creating SourceStringReader for PlantUML processing");
-            SourceStringReader reader = new SourceStringReader(plantUmlSource.toString());
-            String diagramFileName = "component_diagram.svg";
-            File outputFile = new File(outputDir, diagramFileName);
-
-            try (FileOutputStream fos = new FileOutputStream(outputFile);
-                 ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                logger.debug("Generating PlantUML image");
-                reader.outputImage(baos, new FileFormatOption(FileFormat.SVG));
-                baos.writeTo(fos);
-                logger.info("Component diagram generated: {}", outputFile.getAbsolutePath());
-                return outputFile.getAbsolutePath(); 
-            }
-        } catch (IOException e) { // Specific catch for IO during image generation/saving
-            logger.error("IOException during component diagram image generation/saving: {}", e.getMessage(), e);
-            logger.debug("Failed PlantUML source for component diagram:\n{}", plantUmlSource.toString());
-            return null;
-        } catch (Throwable t) { // Catch any other throwable during PlantUML processing
-            logger.error("Throwable (e.g. PlantUML syntax error) during component diagram processing: {}", t.getMessage(), t);
-            logger.debug("Failed PlantUML source for component diagram (Throwable):\n{}", plantUmlSource.toString());
-            return null;
-        }
+        return plantUmlSource.toString();
     }
 
-    public String generateUsecaseDiagram(List<ClassMetadata> classMetadataList, String outputDir) {
+    private DiagramRenderRequest usecaseDiagramRequest(List<ClassMetadata> classMetadataList, String outputDir) {
         if (classMetadataList == null || classMetadataList.isEmpty()) {
             logger.info("No class metadata provided for usecase diagram generation.");
             return null;
@@ -930,6 +912,7 @@ public class DiagramServiceImpl implements DiagramService {
                 controllers.size(), services.size());
             
             final java.util.concurrent.atomic.AtomicInteger usecaseCount = new java.util.concurrent.atomic.AtomicInteger(0);
+            DiagramTypeIndex serviceIndex = new DiagramTypeIndex(services);
             
             // Process controllers first
             for (ClassMetadata controller : controllers) {
@@ -984,44 +967,29 @@ public class DiagramServiceImpl implements DiagramService {
                                                     callPath.substring(lastDot + 1);
                                                 
                                                 // Check if the called method is in a service class
-                                                for (ClassMetadata service : services) {
-                                                    if (service.getName() != null && 
-                                                        (service.getName().equals(calledClass) || 
-                                                         (service.getPackageName() != null && 
-                                                          (service.getPackageName() + "." + service.getName()).equals(calledClass)))) {
+                                                ClassMetadata service = serviceIndex.resolve(calledClass);
+                                                MethodMetadata serviceMethod = service != null ? serviceIndex.method(service, calledMethod) : null;
+                                                if (serviceMethod != null) {
+                                                    // Add second-level use case and relationship
+                                                    String serviceUsecaseName = sanitizePuml(
+                                                        service.getName() + "." + serviceMethod.getName());
+                                                    
+                                                    String serviceClassName = service.getName().contains(".") ?
+                                                        service.getName().substring(service.getName().lastIndexOf('.') + 1) :
+                                                        service.getName();
                                                         
-                                                        // Find the matching method in the service
-                                                        if (service.getMethods() != null) {
-                                                            for (MethodMetadata serviceMethod : service.getMethods()) {
-                                                                if (serviceMethod.getName() != null && 
-                                                                    serviceMethod.getName().equals(calledMethod)) {
-                                                                    
-                                                                    // Add second-level use case and relationship
-                                                                    String serviceUsecaseName = sanitizePuml(
-                                                                        service.getName() + "." + serviceMethod.getName());
-                                                                    
-                                                                    String serviceClassName = service.getName().contains(".") ?
-                                                                        service.getName().substring(service.getName().lastIndexOf('.') + 1) :
-                                                                        service.getName();
-                                                                        
-                                                                    plantUmlSource.append("  usecase \"<&layers> ")
-                                                                        .append(serviceClassName).append(".")
-                                                                        .append(serviceMethod.getName())
-                                                                        .append("\" as ").append(serviceUsecaseName)
-                                                                        .append("\n");
-                                                                        
-                                                                    plantUmlSource.append("  ")
-                                                                        .append(usecaseName).append(" ..> ")
-                                                                        .append(serviceUsecaseName)
-                                                                        .append(" : <<includes>>\n");
-                                                                        
-                                                                    usecaseCount.incrementAndGet();
-                                                                    break;
-                                                                }
-                                                            }
-                                                        }
-                                                        break;
-                                                    }
+                                                    plantUmlSource.append("  usecase \"<&layers> ")
+                                                        .append(serviceClassName).append(".")
+                                                        .append(serviceMethod.getName())
+                                                        .append("\" as ").append(serviceUsecaseName)
+                                                        .append("\n");
+                                                        
+                                                    plantUmlSource.append("  ")
+                                                        .append(usecaseName).append(" ..> ")
+                                                        .append(serviceUsecaseName)
+                                                        .append(" : <<includes>>\n");
+                                                        
+                                                    usecaseCount.incrementAndGet();
                                                 }
                                             }
                                         }
@@ -1077,29 +1045,7 @@ public class DiagramServiceImpl implements DiagramService {
         plantUmlSource.append("@enduml\n");
         logger.debug("Completed PlantUML source generation for usecase diagram, total size: {} chars", plantUmlSource.length());
 
-        try {
-            logger.debug("Creating SourceStringReader for PlantUML processing");
-            SourceStringReader reader = new SourceStringReader(plantUmlSource.toString());
-            String diagramFileName = "usecase_diagram.svg";
-            File outputFile = new File(outputDir, diagramFileName);
-
-            try (FileOutputStream fos = new FileOutputStream(outputFile);
-                 ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-                logger.debug("Generating PlantUML image");
-                reader.outputImage(baos, new FileFormatOption(FileFormat.SVG));
-                baos.writeTo(fos);
-                logger.info("Usecase diagram generated: {}", outputFile.getAbsolutePath());
-                return outputFile.getAbsolutePath(); 
-            }
-        } catch (IOException e) { // Specific catch for IO during image generation/saving
-            logger.error("IOException during usecase diagram image generation/saving: {}", e.getMessage(), e);
-            logger.debug("Failed PlantUML source for usecase diagram:\n{}", plantUmlSource.toString());
-            return null;
-        } catch (Throwable t) { // Catch any other throwable during PlantUML processing
-            logger.error("Throwable (e.g. PlantUML syntax error) during usecase diagram processing: {}", t.getMessage(), t);
-            logger.debug("Failed PlantUML source for usecase diagram (Throwable):\n{}", plantUmlSource.toString());
-            return null;
-        }
+        return new DiagramRenderRequest(plantUmlSource.toString(), new File(outputDir, "usecase_diagram.svg"), "Usecase diagram");
     }
 
     // Helper method to determine the role of a component based on its class name and annotations
@@ -1184,6 +1130,95 @@ public class DiagramServiceImpl implements DiagramService {
         return className.replaceAll("[.:<>\\s()\\\\[\\\\]{}]", "_").replaceAll("[^a-zA-Z0-9_]", ""); // Added more chars to replace for aliases
     }
     
+    /**
+     * Builds one diagram of the classes, or, when they exceed the partition budget, one diagram per partition plus
+     * an index diagram under the usual file name whose boxes link to the partitions.
+     * @return The requests, the diagram or the index first
+     */
+    private List<DiagramRenderRequest> partitionedRequests(List<ClassMetadata> classes, DiagramPartitioner partitioner,
+                                                           Function<List<ClassMetadata>, String> sourceBuilder,
+                                                           String outputDir, String fileBaseName, String label) {
+        DiagramPartitioner.Mode mode = partitionMode();
+        List<List<ClassMetadata>> partitions = partitioner.partition(mode, partitionMaxNodes);
+        if (partitions.size() == 1) {
+            return List.of(new DiagramRenderRequest(sourceBuilder.apply(classes), new File(outputDir, fileBaseName + ".svg"), label, classes.size()));
+        }
+        logger.info("{} has {} classes; split by {} into {} partitions of at most {} classes.",
+                label, classes.size(), mode.name().toLowerCase(), partitions.size(), partitionMaxNodes);
+
+        List<DiagramRenderRequest> requests = new ArrayList<>(partitions.size() + 1);
+        requests.add(new DiagramRenderRequest(indexDiagramSource(partitions, partitioner.crossDependencies(partitions), fileBaseName),
+                new File(outputDir, fileBaseName + ".svg"), label + " index", partitions.size()));
+        for (int part = 0; part < partitions.size(); part++) {
+            requests.add(new DiagramRenderRequest(sourceBuilder.apply(partitions.get(part)),
+                    new File(outputDir, partitionFileName(fileBaseName, part)), label + " part " + (part + 1) + "/" + partitions.size(),
+                    partitions.get(part).size()));
+        }
+        return requests;
+    }
+
+    // One box per partition, linked to its diagram, with arrows counting the dependencies between partitions
+    private String indexDiagramSource(List<List<ClassMetadata>> partitions, int[][] crossDependencies, String fileBaseName) {
+        StringBuilder plantUmlSource = new StringBuilder();
+        plantUmlSource.append("@startuml\n");
+        plantUmlSource.append("left to right direction\n");
+        for (int part = 0; part < partitions.size(); part++) {
+            plantUmlSource.append("rectangle \"Part ").append(part + 1)
+                    .append("\\n").append(sanitizePuml(partitionLabel(partitions.get(part))))
+                    .append("\\n").append(partitions.get(part).size()).append(" classes\" as Part").append(part + 1)
+                    .append(" [[").append(diagramRenderingService.outputFileName(partitionFileName(fileBaseName, part))).append("]]\n");
+        }
+        for (int from = 0; from < partitions.size(); from++) {
+            for (int to = 0; to < partitions.size(); to++) {
+                if (crossDependencies[from][to] > 0) {
+                    plantUmlSource.append("Part").append(from + 1).append(" --> Part").append(to + 1)
+                            .append(" : ").append(crossDependencies[from][to]).append("\n");
+                }
+            }
+        }
+        plantUmlSource.append("@enduml\n");
+        return plantUmlSource.toString();
+    }
+
+    // The partition's package, or its first package and how many others it spans
+    private static String partitionLabel(List<ClassMetadata> partition) {
+        java.util.TreeSet<String> packages = new java.util.TreeSet<>();
+        for (ClassMetadata cmd : partition) {
+            packages.add(cmd != null && cmd.getPackageName() != null && !cmd.getPackageName().isEmpty() ? cmd.getPackageName() : "(default package)");
+        }
+        if (packages.size() <= 1) {
+            return packages.isEmpty() ? "" : packages.first();
+        }
+        return packages.first() + " (+" + (packages.size() - 1) + " more packages)";
+    }
+
+    private static String partitionFileName(String fileBaseName, int part) {
+        return fileBaseName + "_part_" + (part + 1) + ".svg";
+    }
+
+    private DiagramPartitioner.Mode partitionMode() {
+        String mode = partitionMode != null ? partitionMode.trim() : "";
+        if ("none".equalsIgnoreCase(mode)) {
+            return DiagramPartitioner.Mode.NONE;
+        }
+        if ("connected".equalsIgnoreCase(mode)) {
+            return DiagramPartitioner.Mode.CONNECTED;
+        }
+        return DiagramPartitioner.Mode.PACKAGE;
+    }
+
+    // "pkg.Class.method(params)" -> "pkg.Class"
+    private static String calledClassFqn(String calledMethodSignature) {
+        if (calledMethodSignature == null || calledMethodSignature.trim().isEmpty()) {
+            return null;
+        }
+        int paramsOpenParen = calledMethodSignature.indexOf('(');
+        String beforeParams = paramsOpenParen != -1 ? calledMethodSignature.substring(0, paramsOpenParen) : calledMethodSignature;
+        int lastDotBeforeMethodName = beforeParams.lastIndexOf('.');
+        return lastDotBeforeMethodName > 0 && lastDotBeforeMethodName < beforeParams.length() - 1
+                ? beforeParams.substring(0, lastDotBeforeMethodName) : null;
+    }
+
     private String sanitizePuml(String text) {
         if (text == null) {
             return "";
@@ -0,0 +1,145 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.model.ClassMetadata;
+import com.codedocgen.model.MethodMetadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves field and call target types to the classes shown in a diagram with hash lookups instead of scanning
+ * every class per field. Built once per diagram over the classes that may be relationship targets; a lookup
+ * returns the first matching class in list order, as the scans it replaces did.
+ * <p>
+ * Not thread-safe; build one per diagram.
+ */
+final class DiagramTypeIndex {
+
+    private static final Pattern GENERIC_ARGUMENTS = Pattern.compile("<[^>]+>");
+    private static final Pattern ARRAY_BRACKETS = Pattern.compile("\\[\\]");
+    private static final Pattern COLLECTION_ELEMENT = Pattern.compile("(?:List|Set|Collection|Iterable|Map)<([A-Za-z0-9_.]+)>");
+    private static final Pattern COLLECTION_TYPE = Pattern.compile("List|Set|Collection|Iterable|Map|<.+>|\\[\\]");
+
+    private final List<ClassMetadata> classes;
+    // Positions in the class list, ascending, of the classes with a given simple name or FQN
+    private final Map<String, List<Integer>> positionsByName = new HashMap<>();
+    private final Map<String, List<Integer>> positionsByFqn = new HashMap<>();
+    private final Map<String, FieldType> fieldTypes = new HashMap<>();
+    private final Map<ClassMetadata, Map<String, MethodMetadata>> methodsByName = new IdentityHashMap<>();
+
+    DiagramTypeIndex(List<ClassMetadata> classes) {
+        this.classes = classes;
+        for (int position = 0; position < classes.size(); position++) {
+            ClassMetadata cls = classes.get(position);
+            if (cls == null || cls.getName() == null || cls.getName().isEmpty()) {
+                continue;
+            }
+            positionsByName.computeIfAbsent(cls.getName(), k -> new ArrayList<>()).add(position);
+            if (cls.getPackageName() != null) {
+                positionsByFqn.computeIfAbsent(cls.getPackageName() + "." + cls.getName(), k -> new ArrayList<>()).add(position);
+            }
+        }
+    }
+
+    /** @return The first class whose simple name or FQN is the given type, or null */
+    ClassMetadata resolve(String type) {
+        return resolve(type, type, cls -> true);
+    }
+
+    /**
+     * @return The first accepted class whose simple name or FQN is either the field's type or its element type,
+     * or null
+     */
+    ClassMetadata resolve(String type, String elementType, Predicate<ClassMetadata> accept) {
+        List<Integer> candidates = new ArrayList<>();
+        candidates.addAll(positionsByName.getOrDefault(type, Collections.emptyList()));
+        candidates.addAll(positionsByFqn.getOrDefault(type, Collections.emptyList()));
+        if (!type.equals(elementType)) {
+            candidates.addAll(positionsByName.getOrDefault(elementType, Collections.emptyList()));
+            candidates.addAll(positionsByFqn.getOrDefault(elementType, Collections.emptyList()));
+        }
+        // Almost always zero or one candidate; sorting keeps "first in list order" when a name is ambiguous
+        Collections.sort(candidates);
+        for (int position : candidates) {
+            if (accept.test(classes.get(position))) {
+                return classes.get(position);
+            }
+        }
+        return null;
+    }
+
+    /** @return The first class whose package-qualified name is the given FQN, or null */
+    ClassMetadata resolveFqn(String fqn) {
+        List<Integer> positions = positionsByFqn.get(fqn);
+        return positions != null ? classes.get(positions.get(0)) : null;
+    }
+
+    /** @return The first method of the class with the given name, or null */
+    MethodMetadata method(ClassMetadata cls, String methodName) {
+        Map<String, MethodMetadata> methods = methodsByName.computeIfAbsent(cls, k -> {
+            Map<String, MethodMetadata> byName = new HashMap<>();
+            if (k.getMethods() != null) {
+                for (MethodMetadata m : k.getMethods()) {
+                    if (m.getName() != null) {
+                        byName.putIfAbsent(m.getName(), m);
+                    }
+                }
+            }
+            return byName;
+        });
+        return methods.get(methodName);
+    }
+
+    /** @return The parsed form of a declared field type, parsed once per distinct type string */
+    FieldType fieldType(String rawType) {
+        return fieldTypes.computeIfAbsent(rawType, FieldType::parse);
+    }
+
+    /**
+     * A declared field type reduced for matching: generics and array brackets removed, plus the element type of
+     * a collection or array ("List&lt;Order&gt;" and "Order[]" both have element type "Order").
+     */
+    static final class FieldType {
+        private final String simplifiedType;
+        private final String elementType;
+        private final boolean collection;
+
+        private FieldType(String simplifiedType, String elementType, boolean collection) {
+            this.simplifiedType = simplifiedType;
+            this.elementType = elementType;
+            this.collection = collection;
+        }
+
+        static FieldType parse(String rawType) {
+            String simplified = GENERIC_ARGUMENTS.matcher(rawType).replaceAll("");
+            simplified = ARRAY_BRACKETS.matcher(simplified).replaceAll("");
+            String element = simplified;
+            Matcher m = COLLECTION_ELEMENT.matcher(rawType);
+            if (m.find()) {
+                element = m.group(1);
+            } else if (rawType.endsWith("[]")) {
+                element = rawType.substring(0, rawType.length() - 2);
+            }
+            return new FieldType(simplified, element, COLLECTION_TYPE.matcher(rawType).find());
+        }
+
+        String getSimplifiedType() {
+            return simplifiedType;
+        }
+
+        String getElementType() {
+            return elementType;
+        }
+
+        boolean isCollection() {
+            return collection;
+        }
+    }
+}
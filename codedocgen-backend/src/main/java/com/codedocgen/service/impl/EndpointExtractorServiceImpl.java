@@ -3,6 +3,7 @@ package com.codedocgen.service.impl;
 import com.codedocgen.model.ClassMetadata;
 import com.codedocgen.model.EndpointMetadata;
 import com.codedocgen.model.MethodMetadata;
+import com.codedocgen.model.SetterCall;
 import com.codedocgen.service.EndpointExtractorService;
 import com.codedocgen.parser.SoapWsdlParser;
 import com.codedocgen.service.DocumentationService;
@@ -23,13 +24,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-// Corrected JavaParser related imports for current logic:
-import com.github.javaparser.ast.body.MethodDeclaration;
-import com.github.javaparser.ast.stmt.Statement;
-import com.github.javaparser.ast.stmt.ExpressionStmt;
-import com.github.javaparser.ast.expr.MethodCallExpr;
-import com.github.javaparser.ast.expr.StringLiteralExpr;
-import com.github.javaparser.ast.Node;
 // These are the problematic symbol solver imports.
 // If javaparser-symbol-solver-core is correctly on classpath, they should resolve.
 // They are not directly used in the current WSDLDefinitionInfo extraction logic
@@ -74,56 +68,41 @@ public class EndpointExtractorServiceImpl implements EndpointExtractorService {
                             wsdlInfo.setBeanName(method.getName());
                             wsdlInfo.setServiceName(method.getName()); // Tentative service name from bean name
 
-                            MethodDeclaration beanMethodNode = method.getResolvedMethodNode();
-                            if (beanMethodNode != null && beanMethodNode.getBody().isPresent()) {
-                                for (Statement stmt : beanMethodNode.getBody().get().getStatements()) {
-                                    if (stmt.isExpressionStmt()) {
-                                        ExpressionStmt exprStmt = stmt.asExpressionStmt();
-                                        if (exprStmt.getExpression().isMethodCallExpr()) {
-                                            MethodCallExpr calledExpr = exprStmt.getExpression().asMethodCallExpr();
-                                            String calledMethodName = calledExpr.getNameAsString();
-
-                                            // We are interested in setters like setPortTypeName, setTargetNamespace, setLocationUri
-                                            if (calledExpr.getArguments().size() == 1 && 
-                                                (calledMethodName.equals("setPortTypeName") || 
-                                                 calledMethodName.equals("setTargetNamespace") || 
-                                                 calledMethodName.equals("setLocationUri"))) {
-                                                
-                                                Node argNode = calledExpr.getArguments().get(0);
-                                                String argumentValue = null;
-
-                                                if (argNode instanceof StringLiteralExpr) {
-                                                    argumentValue = ((StringLiteralExpr) argNode).getValue();
-                                                } else {
-                                                    // Attempt to resolve if it's not a direct string literal (e.g., a constant)
-                                                    // This part can be complex and might need the full symbol solver context
-                                                    // For now, we'll log if it's not a string literal
-                                                    logger.trace("    Argument for {} in bean {} is not a direct string literal: {}. Type: {}", 
-                                                                 calledMethodName, method.getName(), argNode.toString(), argNode.getClass().getSimpleName());
-                                                    // Try to get its string representation as a fallback, might be variable name
-                                                    // argumentValue = argNode.toString(); 
-                                                }
-                                                
-                                                logger.trace("    Call to {} in bean {} with argument: '{}'", calledMethodName, method.getName(), argumentValue);
-
-                                                if (argumentValue != null && !argumentValue.isEmpty()) {
-                                                    if ("setPortTypeName".equals(calledMethodName)) {
-                                                        wsdlInfo.setPortName(argumentValue);
-                                                        logger.info("    Extracted PortTypeName for bean '{}': {}", wsdlInfo.getBeanName(), argumentValue);
-                                                    } else if ("setTargetNamespace".equals(calledMethodName)) {
-                                                        wsdlInfo.setTargetNamespace(argumentValue);
-                                                        logger.info("    Extracted TargetNamespace for bean '{}': {}", wsdlInfo.getBeanName(), argumentValue);
-                                                    } else if ("setLocationUri".equals(calledMethodName)) {
-                                                        wsdlInfo.setWsdlUrl(argumentValue);
-                                                        logger.info("    Extracted LocationUri for bean '{}' (used as wsdlUrl): {}", wsdlInfo.getBeanName(), argumentValue);
-                                                    }
-                                                }
+                            List<SetterCall> setterCalls = method.getSetterCalls();
+                            if (setterCalls != null && !setterCalls.isEmpty()) {
+                                for (SetterCall setterCall : setterCalls) {
+                                    String calledMethodName = setterCall.getMethodName();
+
+                                    // We are interested in setters like setPortTypeName, setTargetNamespace, setLocationUri
+                                    if (calledMethodName.equals("setPortTypeName") || 
+                                        calledMethodName.equals("setTargetNamespace") || 
+                                        calledMethodName.equals("setLocationUri")) {
+                                        
+                                        String argumentValue = setterCall.getStringLiteralValue();
+                                        if (argumentValue == null) {
+                                            // Not a direct string literal (e.g., a constant); resolving it would need the symbol solver
+                                            logger.trace("    Argument for {} in bean {} is not a direct string literal: {}", 
+                                                         calledMethodName, method.getName(), setterCall.getArgument());
+                                        }
+                                        
+                                        logger.trace("    Call to {} in bean {} with argument: '{}'", calledMethodName, method.getName(), argumentValue);
+
+                                        if (argumentValue != null && !argumentValue.isEmpty()) {
+                                            if ("setPortTypeName".equals(calledMethodName)) {
+                                                wsdlInfo.setPortName(argumentValue);
+                                                logger.info("    Extracted PortTypeName for bean '{}': {}", wsdlInfo.getBeanName(), argumentValue);
+                                            } else if ("setTargetNamespace".equals(calledMethodName)) {
+                                                wsdlInfo.setTargetNamespace(argumentValue);
+                                                logger.info("    Extracted TargetNamespace for bean '{}': {}", wsdlInfo.getBeanName(), argumentValue);
+                                            } else if ("setLocationUri".equals(calledMethodName)) {
+                                                wsdlInfo.setWsdlUrl(argumentValue);
+                                                logger.info("    Extracted LocationUri for bean '{}' (used as wsdlUrl): {}", wsdlInfo.getBeanName(), argumentValue);
                                             }
                                         }
                                     }
                                 }
                             } else {
-                                logger.warn("Could not find method body or resolved node for @Bean method {} in {}", method.getName(), clazz.getName());
+                                logger.warn("Could not find setter calls for @Bean method {} in {}", method.getName(), clazz.getName());
                             }
                             if (wsdlInfo.getTargetNamespace() != null && !wsdlInfo.getTargetNamespace().isEmpty()) {
                                 wsdlInfosByTargetNamespace.put(wsdlInfo.getTargetNamespace(), wsdlInfo);
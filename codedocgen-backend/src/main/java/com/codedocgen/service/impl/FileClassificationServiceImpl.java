@@ -0,0 +1,355 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.service.FileClassificationService;
+import jakarta.annotation.PostConstruct;
+import org.eclipse.jgit.ignore.IgnoreNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class FileClassificationServiceImpl implements FileClassificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileClassificationServiceImpl.class);
+
+    // Never hold project sources; no walk descends into them
+    private static final Set<String> VCS_AND_DEPENDENCY_DIRS = Set.of(".git", ".svn", ".hg", "node_modules");
+    // Build output, also skipped by the PII/PCI scan
+    private static final Set<String> BUILD_OUTPUT_DIRS = Set.of("target", "build", "dist");
+    // Binaries, archives, documents, lockfiles, logs and minified or generated assets, matched case-insensitively
+    private static final List<String> DEFAULT_EXCLUDE_GLOBS = List.of(
+            "*.jar", "*.war", "*.ear", "*.class", "*.pyc", "*.o", "*.obj", "*.so", "*.dll", "*.dylib", "*.exe",
+            "*.png", "*.jpg", "*.jpeg", "*.gif", "*.bmp", "*.tiff", "*.ico", "*.webp",
+            "*.woff", "*.woff2", "*.ttf", "*.otf", "*.eot", "*.mp3", "*.mp4",
+            "*.zip", "*.tar", "*.gz", "*.rar", "*.7z",
+            "*.pdf", "*.doc", "*.docx", "*.xls", "*.xlsx", "*.ppt", "*.pptx", "*.odt", "*.ods", "*.odp",
+            "*.lock", "package-lock.json", "npm-shrinkwrap.json", "pnpm-lock.yaml", "go.sum",
+            "*.log",
+            "*.min.js", "*.min.mjs", "*.min.cjs", "*-min.js", "*.min.css", "*-min.css", "*.js.map", "*.css.map");
+    private static final int SNIFF_BYTES = 8192;
+
+    // Larger files are not scanned for PII/PCI; 0 means no limit
+    @Value("${app.file-classification.max-file-size-mb:10}")
+    private long maxFileSizeMb;
+
+    // Globs excluded from the PII/PCI scan in addition to the defaults; globs with a '/' match the relative path
+    @Value("${app.file-classification.exclude-globs:}")
+    private List<String> extraExcludeGlobs;
+
+    @Value("${app.file-classification.respect-gitignore:true}")
+    private boolean respectGitignore;
+
+    private ExcludeGlobs excludeGlobs;
+
+    @PostConstruct
+    public void init() {
+        List<String> globs = new ArrayList<>(DEFAULT_EXCLUDE_GLOBS);
+        if (extraExcludeGlobs != null) {
+            extraExcludeGlobs.stream().map(String::trim).filter(glob -> !glob.isEmpty()).forEach(globs::add);
+        }
+        this.excludeGlobs = new ExcludeGlobs(globs);
+        logger.info("[FileClassification] {} exclude globs, max file size {} MB, .gitignore {}.",
+                globs.size(), maxFileSizeMb > 0 ? maxFileSizeMb : "unlimited", respectGitignore ? "respected" : "ignored");
+    }
+
+    @Override
+    public List<Path> javaSources(Path root) {
+        List<Path> sources = new ArrayList<>();
+        walk(root, false, (file, size) -> {
+            if (file.getFileName().toString().endsWith(".java")) {
+                sources.add(file);
+            }
+        });
+        return sources;
+    }
+
+    @Override
+    public List<Path> scannableFiles(Path repoRoot) {
+        List<Path> files = new ArrayList<>();
+        int[] excluded = new int[1];
+        walk(repoRoot, true, (file, size) -> {
+            if (isExcludedByNameOrSize(repoRoot, file, size)) {
+                excluded[0]++;
+            } else {
+                files.add(file);
+            }
+        });
+        logger.info("[FileClassification] {} files to scan under {}; {} excluded by name or size.", files.size(), repoRoot, excluded[0]);
+        return files;
+    }
+
+    @Override
+    public boolean isScannable(Path repoRoot, Path file) {
+        Path relativePath = repoRoot.relativize(file);
+        IgnoreRules ignoreRules = respectGitignore ? new IgnoreRules(repoRoot) : null;
+        if (ignoreRules != null) {
+            ignoreRules.enter(repoRoot);
+        }
+        Path dir = repoRoot;
+        for (int i = 0; i < relativePath.getNameCount() - 1; i++) {
+            dir = dir.resolve(relativePath.getName(i));
+            if (isSkippedDirectory(dir, true, ignoreRules)) {
+                return false;
+            }
+            if (ignoreRules != null) {
+                ignoreRules.enter(dir);
+            }
+        }
+        try {
+            return !(ignoreRules != null && ignoreRules.isIgnored(file, false))
+                    && !isExcludedByNameOrSize(repoRoot, file, Files.size(file));
+        } catch (IOException e) {
+            logger.warn("[FileClassification] Could not read the size of {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public boolean looksLikeText(Path file) {
+        byte[] sample = new byte[SNIFF_BYTES];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(sample, 0, sample.length);
+        } catch (IOException e) {
+            logger.warn("[FileClassification] Could not read {}: {}", file, e.getMessage());
+            return false;
+        }
+        for (int i = 0; i < read; i++) {
+            if (sample[i] == 0) {
+                return false;
+            }
+        }
+        // A character cut off by the end of a partial sample is not an error
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        return !decoder.decode(ByteBuffer.wrap(sample, 0, read), CharBuffer.allocate(read), read < sample.length).isError();
+    }
+
+    private interface FileConsumer {
+        void accept(Path file, long size);
+    }
+
+    // forScan adds the PII/PCI scan's directory and .gitignore rules; names and sizes are left to the consumer
+    private void walk(Path root, boolean forScan, FileConsumer consumer) {
+        IgnoreRules ignoreRules = forScan && respectGitignore ? new IgnoreRules(root) : null;
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(root) && isSkippedDirectory(dir, forScan, ignoreRules)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (ignoreRules != null) {
+                        ignoreRules.enter(dir);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    // Symbolic links to regular files count, as with Files.isRegularFile
+                    boolean regularFile = attrs.isRegularFile() || (attrs.isSymbolicLink() && Files.isRegularFile(file));
+                    if (regularFile && !(ignoreRules != null && ignoreRules.isIgnored(file, false))) {
+                        consumer.accept(file, attrs.isSymbolicLink() ? Files.size(file) : attrs.size());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    logger.warn("[FileClassification] Skipping unreadable path {}: {}", file, e.getMessage());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                    if (ignoreRules != null) {
+                        ignoreRules.leave(dir);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            logger.error("[FileClassification] Error walking file tree for path {}: {}", root, e.getMessage(), e);
+        }
+    }
+
+    private static boolean isSkippedDirectory(Path dir, boolean forScan, IgnoreRules ignoreRules) {
+        String name = dir.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (VCS_AND_DEPENDENCY_DIRS.contains(name)) {
+            return true;
+        }
+        return forScan && (BUILD_OUTPUT_DIRS.contains(name) || (ignoreRules != null && ignoreRules.isIgnored(dir, true)));
+    }
+
+    private boolean isExcludedByNameOrSize(Path root, Path file, long size) {
+        if (size == 0 || (maxFileSizeMb > 0 && size > maxFileSizeMb * 1024 * 1024)) {
+            return true;
+        }
+        return excludeGlobs.matches(root.relativize(file).toString().replace('\\', '/'));
+    }
+
+    /**
+     * Exclude globs compiled for matching lowercase paths. "*.ext"-style suffixes and plain names go into a trie of
+     * reversed names, so a file name is checked in one pass over its last characters; other name globs are
+     * {@link PathMatcher}s on the name, and globs containing '/' are PathMatchers on the relative path.
+     */
+    private static final class ExcludeGlobs {
+        private final TrieNode reversedNames = new TrieNode();
+        private final List<PathMatcher> nameMatchers = new ArrayList<>();
+        private final List<PathMatcher> pathMatchers = new ArrayList<>();
+
+        ExcludeGlobs(List<String> globs) {
+            for (String glob : globs) {
+                String lowerGlob = glob.toLowerCase(Locale.ROOT);
+                if (lowerGlob.contains("/")) {
+                    pathMatchers.add(FileSystems.getDefault().getPathMatcher("glob:" + lowerGlob));
+                } else if (lowerGlob.startsWith("*") && isLiteral(lowerGlob.substring(1))) {
+                    reversedNames.add(lowerGlob.substring(1)).suffix = true;
+                } else if (isLiteral(lowerGlob)) {
+                    reversedNames.add(lowerGlob).name = true;
+                } else {
+                    nameMatchers.add(FileSystems.getDefault().getPathMatcher("glob:" + lowerGlob));
+                }
+            }
+        }
+
+        boolean matches(String relativePath) {
+            String lowerPath = relativePath.toLowerCase(Locale.ROOT);
+            String lowerName = lowerPath.substring(lowerPath.lastIndexOf('/') + 1);
+            TrieNode node = reversedNames;
+            if (node.suffix) {
+                return true;
+            }
+            for (int i = lowerName.length() - 1; i >= 0 && node != null; i--) {
+                node = node.children.get(lowerName.charAt(i));
+                if (node != null && (node.suffix || (i == 0 && node.name))) {
+                    return true;
+                }
+            }
+            if (!nameMatchers.isEmpty()) {
+                Path name = Path.of(lowerName);
+                for (PathMatcher matcher : nameMatchers) {
+                    if (matcher.matches(name)) {
+                        return true;
+                    }
+                }
+            }
+            if (!pathMatchers.isEmpty()) {
+                Path path = Path.of(lowerPath);
+                for (PathMatcher matcher : pathMatchers) {
+                    if (matcher.matches(path)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private static boolean isLiteral(String glob) {
+            for (int i = 0; i < glob.length(); i++) {
+                if ("*?[]{}\\".indexOf(glob.charAt(i)) >= 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static final class TrieNode {
+            private final Map<Character, TrieNode> children = new HashMap<>();
+            private boolean suffix; // Any name ending with the characters up to here
+            private boolean name; // Only the name made of exactly these characters
+
+            // Adds the reversed text and returns its last node
+            TrieNode add(String text) {
+                TrieNode node = this;
+                for (int i = text.length() - 1; i >= 0; i--) {
+                    node = node.children.computeIfAbsent(text.charAt(i), c -> new TrieNode());
+                }
+                return node;
+            }
+        }
+    }
+
+    /**
+     * The .gitignore files from the repository root down to the directory being walked, checked deepest first as
+     * git does, then .git/info/exclude. Directories must be entered and left in walk order.
+     */
+    private static final class IgnoreRules {
+        private final Path root;
+        private final IgnoreNode infoExclude;
+        private final Deque<Map.Entry<Path, IgnoreNode>> levels = new ArrayDeque<>(); // Deepest first
+
+        IgnoreRules(Path root) {
+            this.root = root;
+            this.infoExclude = load(root.resolve(".git").resolve("info").resolve("exclude"));
+        }
+
+        void enter(Path dir) {
+            IgnoreNode rules = load(dir.resolve(".gitignore"));
+            if (rules != null) {
+                levels.push(Map.entry(dir, rules));
+            }
+        }
+
+        void leave(Path dir) {
+            if (!levels.isEmpty() && levels.peek().getKey().equals(dir)) {
+                levels.pop();
+            }
+        }
+
+        boolean isIgnored(Path path, boolean isDirectory) {
+            for (Map.Entry<Path, IgnoreNode> level : levels) {
+                Boolean ignored = level.getValue().checkIgnored(relative(level.getKey(), path), isDirectory);
+                if (ignored != null) {
+                    return ignored;
+                }
+            }
+            if (infoExclude != null) {
+                Boolean ignored = infoExclude.checkIgnored(relative(root, path), isDirectory);
+                return ignored != null && ignored;
+            }
+            return false;
+        }
+
+        private static String relative(Path dir, Path path) {
+            return dir.relativize(path).toString().replace('\\', '/');
+        }
+
+        private static IgnoreNode load(Path file) {
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                IgnoreNode rules = new IgnoreNode();
+                rules.parse(in);
+                return rules.getRules().isEmpty() ? null : rules;
+            } catch (IOException e) {
+                logger.warn("[FileClassification] Could not read {}: {}", file, e.getMessage());
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.service.FileResultStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores each result as a gzipped Java-serialized object under {@code <dir>/<analyzer>/<version>/<hash[0..2]>/<hash>.bin}.
+ * Entries are written to a temp file and moved into place, so concurrent analyses never read a partial entry.
+ * <p>
+ * Entries are deserialized, so the directory must only be writable by this application: it is created with
+ * owner-only permissions, and the store disables itself if an existing directory belongs to another user. Reading
+ * is further limited to the exact model and collection classes results are made of.
+ */
+@Service
+public class FileResultStoreImpl implements FileResultStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileResultStoreImpl.class);
+
+    private static final String ENTRY_SUFFIX = ".bin";
+    // Exactly the stored model classes and the lists they hold: ArrayList, List.of lists (serialized as CollSer)
+    // and SymbolTable's unmodifiable Arrays.asList lists. Arrays are matched by their element type
+    private static final ObjectInputFilter DESERIALIZATION_FILTER = ObjectInputFilter.Config.createFilter(String.join(";",
+            "com.codedocgen.model.ClassMetadata",
+            "com.codedocgen.model.MethodMetadata",
+            "com.codedocgen.model.FieldMetadata",
+            "com.codedocgen.model.DaoOperationDetail",
+            "com.codedocgen.model.DaoOperationDetail$SqlOperationType",
+            "com.codedocgen.model.SetterCall",
+            "com.codedocgen.model.LogStatement",
+            "com.codedocgen.model.LogVariable",
+            "com.codedocgen.model.PiiPciFinding",
+            "java.util.ArrayList",
+            "java.util.CollSer",
+            "java.util.ImmutableCollections$List12",
+            "java.util.ImmutableCollections$ListN",
+            "java.util.Arrays$ArrayList",
+            "java.util.Collections$UnmodifiableRandomAccessList",
+            "java.util.Collections$UnmodifiableList",
+            "java.util.Collections$UnmodifiableCollection",
+            "java.lang.Enum",
+            "java.lang.Object",
+            "java.lang.String",
+            "maxdepth=64",
+            "maxarray=1000000",
+            "!*"));
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    @Value("${app.result-store.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.result-store.dir:${user.home}/.codedocgen/result-store}")
+    private String storeDir;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        Path dir = Paths.get(storeDir).toAbsolutePath();
+        try {
+            boolean posix = dir.getFileSystem().supportedFileAttributeViews().contains("posix");
+            if (!Files.isDirectory(dir)) {
+                Files.createDirectories(dir.getParent());
+                if (posix) {
+                    Files.createDirectory(dir, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+                } else {
+                    Files.createDirectory(dir);
+                }
+            }
+            if (posix) {
+                UserPrincipal currentUser = dir.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+                if (!Files.getOwner(dir).equals(currentUser)) {
+                    logger.warn("[FileResultStore] {} belongs to {}, not to this application; the result store is disabled.", dir, Files.getOwner(dir).getName());
+                    enabled = false;
+                    return;
+                }
+                Files.setPosixFilePermissions(dir, OWNER_ONLY);
+            }
+            logger.info("[FileResultStore] Storing per-file results in {}.", dir);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("[FileResultStore] Cannot set up {}; the result store is disabled: {}", dir, e.getMessage());
+            enabled = false;
+        }
+    }
+
+    @Override
+    public String contentHash(Path file) {
+        if (!enabled) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            logger.debug("[FileResultStore] Could not hash {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public String contextualHash(String contentHash, String context) {
+        if (contentHash == null || context == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(contentHash.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(context.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public <T extends Serializable> Optional<T> load(String analyzer, String analyzerVersion, String contentHash, Class<T> type) {
+        if (!enabled || contentHash == null) {
+            return Optional.empty();
+        }
+        Path entryFile = entryFile(analyzer, analyzerVersion, contentHash);
+        if (!Files.isRegularFile(entryFile)) {
+            return Optional.empty();
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(entryFile))))) {
+            in.setObjectInputFilter(DESERIALIZATION_FILTER);
+            Object result = in.readObject();
+            return type.isInstance(result) ? Optional.of(type.cast(result)) : Optional.empty();
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            // Corrupt, truncated or from an incompatible model version; recompute and overwrite
+            logger.warn("[FileResultStore] Discarding unreadable entry {}: {}", entryFile, e.getMessage());
+            try {
+                Files.deleteIfExists(entryFile);
+            } catch (IOException ex) {
+                logger.debug("[FileResultStore] Could not delete {}: {}", entryFile, ex.getMessage());
+            }
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void save(String analyzer, String analyzerVersion, String contentHash, Serializable result) {
+        if (!enabled || contentHash == null || result == null) {
+            return;
+        }
+        Path entryFile = entryFile(analyzer, analyzerVersion, contentHash);
+        try {
+            Files.createDirectories(entryFile.getParent());
+            Path tempFile = Files.createTempFile(entryFile.getParent(), contentHash, ".tmp");
+            try {
+                try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile))))) {
+                    out.writeObject(result);
+                }
+                try {
+                    Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            logger.warn("[FileResultStore] Could not write entry {}: {}", entryFile, e.getMessage());
+        }
+    }
+
+    private Path entryFile(String analyzer, String analyzerVersion, String contentHash) {
+        return Paths.get(storeDir, sanitize(analyzer), sanitize(analyzerVersion), contentHash.substring(0, 2), contentHash + ENTRY_SUFFIX);
+    }
+
+    private static String sanitize(String segment) {
+        return segment.replaceAll("[^a-zA-Z0-9._-]", "_");
+    }
+}
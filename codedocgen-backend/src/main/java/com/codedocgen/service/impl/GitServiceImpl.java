@@ -3,9 +3,27 @@ package com.codedocgen.service.impl;
 import com.codedocgen.service.GitService;
 import com.codedocgen.util.JavaVersionUtil;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.BatchRefUpdate;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.revwalk.RevTree;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.ReceiveCommand;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
 import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.eclipse.jgit.api.CloneCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,18 +33,65 @@ import org.springframework.beans.factory.annotation.Value;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class GitServiceImpl implements GitService {
 
     private static final Logger logger = LoggerFactory.getLogger(GitServiceImpl.class);
-    
+
+    private static final String MIRROR_SUFFIX = ".git";
+    // Mirrors take branches and tags only, not pull request or other hosting refs
+    private static final List<RefSpec> MIRROR_REF_SPECS = List.of(
+            new RefSpec("+" + Constants.R_HEADS + "*:" + Constants.R_HEADS + "*"),
+            new RefSpec("+" + Constants.R_TAGS + "*:" + Constants.R_TAGS + "*"));
+
     @Value("${app.git.username:}")
     private String gitUsername;
-    
+
     @Value("${app.git.password:}")
     private String gitPassword;
 
+    // Keep a bare mirror per repository URL and check analyses out from it instead of cloning from the remote
+    @Value("${app.git.mirror-cache.enabled:true}")
+    private boolean mirrorCacheEnabled;
+
+    @Value("${app.git.mirror-cache.dir:/tmp/codedocgen_git_mirrors}")
+    private String mirrorCacheDir;
+
+    // Least recently used mirrors are evicted once the cache grows past this size
+    @Value("${app.git.mirror-cache.max-size-mb:2048}")
+    private long mirrorCacheMaxSizeMb;
+
+    // One lock per mirror directory; guards fetching into, checking out from and evicting that mirror
+    private final Map<String, MirrorLock> mirrorLocks = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Checkouts that borrow a mirror's objects (absolute path to mirror name), until deleteRepository
+    private final Map<String, String> sharedCheckouts = new ConcurrentHashMap<>();
+
+    private static final class MirrorLock {
+        final ReentrantLock lock = new ReentrantLock();
+        // Incremented after every successful fetch; lets requests that queued behind a fetch reuse it
+        volatile long fetchGeneration;
+        // Checkouts still reading objects from the mirror; it is not evicted while there are any
+        final AtomicInteger sharedCheckouts = new AtomicInteger();
+        // Size on disk as of the last fetch, or -1 until measured
+        volatile long sizeBytes = -1;
+    }
+
     @Override
     public File cloneRepository(String repoUrl, String localPath) throws GitAPIException, IOException {
         logger.info("Cloning repository from {} to {}", repoUrl, localPath);
@@ -41,46 +106,28 @@ public class GitServiceImpl implements GitService {
         }
 
         try {
-            // Set up credentials provider if both username and password are provided
-            CredentialsProvider credentialsProvider = null;
-            if (gitUsername != null && !gitUsername.isEmpty() && gitPassword != null && !gitPassword.isEmpty()) {
-                credentialsProvider = new UsernamePasswordCredentialsProvider(gitUsername, gitPassword);
-                logger.info("Using Git credentials for repository access (username: {})", gitUsername);
-            } else {
-                logger.info("No Git credentials provided, will attempt anonymous access to repository");
-            }
-            
-            // Create clone command with credentials if available
-            CloneCommand cloneCommand = Git.cloneRepository()
-                    .setURI(repoUrl)
-                    .setDirectory(localDir)
-                    .setCloneAllBranches(false) // For initial scan, only main branch is usually enough
-                    .setDepth(1); // Shallow clone for speed, full history might not be needed for doc gen
-                    
-            // Set credentials provider if available
-            if (credentialsProvider != null) {
-                cloneCommand.setCredentialsProvider(credentialsProvider);
-            }
-            
-            // Execute clone
-            try (Git result = cloneCommand.call()) {
-                logger.info("Repository cloned successfully to: {}", result.getRepository().getDirectory().getParent());
-
-                // Detect and log Java version from pom.xml
-                File pomFile = new File(localDir, "pom.xml");
-                if (pomFile.exists()) {
-                    String detectedJavaVersion = JavaVersionUtil.detectJavaVersionFromPom(pomFile);
-                    if (detectedJavaVersion != null) {
-                        logger.info("Detected Java version {} for project in {}", detectedJavaVersion, localDir.getAbsolutePath());
-                    } else {
-                        logger.warn("Could not detect Java version from pom.xml in {}", localDir.getAbsolutePath());
-                    }
+            boolean checkedOut = false;
+            if (mirrorCacheEnabled) {
+                checkedOut = checkoutFromMirror(repoUrl, localDir);
+            }
+            if (!checkedOut) {
+                cloneFromRemote(repoUrl, localDir);
+            }
+
+            // Detect and log Java version from pom.xml
+            File pomFile = new File(localDir, "pom.xml");
+            if (pomFile.exists()) {
+                String detectedJavaVersion = JavaVersionUtil.detectJavaVersionFromPom(pomFile);
+                if (detectedJavaVersion != null) {
+                    logger.info("Detected Java version {} for project in {}", detectedJavaVersion, localDir.getAbsolutePath());
                 } else {
-                    logger.info("No pom.xml found in the root of the cloned repository at {}. Skipping Java version detection.", localDir.getAbsolutePath());
+                    logger.warn("Could not detect Java version from pom.xml in {}", localDir.getAbsolutePath());
                 }
-
-                return localDir;
+            } else {
+                logger.info("No pom.xml found in the root of the cloned repository at {}. Skipping Java version detection.", localDir.getAbsolutePath());
             }
+
+            return localDir;
         } catch (GitAPIException e) {
             logger.error("Error cloning repository {}: {}", repoUrl, e.getMessage(), e);
             // Attempt to clean up partially cloned directory
@@ -95,8 +142,359 @@ public class GitServiceImpl implements GitService {
         }
     }
 
+    private void cloneFromRemote(String repoUrl, File localDir) throws GitAPIException {
+        // Create clone command with credentials if available
+        CloneCommand cloneCommand = Git.cloneRepository()
+                .setURI(repoUrl)
+                .setDirectory(localDir)
+                .setCloneAllBranches(false) // For initial scan, only main branch is usually enough
+                .setDepth(1); // Shallow clone for speed, full history might not be needed for doc gen
+
+        // Set credentials provider if available
+        CredentialsProvider credentialsProvider = credentialsProvider();
+        if (credentialsProvider != null) {
+            cloneCommand.setCredentialsProvider(credentialsProvider);
+        }
+
+        // Execute clone
+        try (Git result = cloneCommand.call()) {
+            logger.info("Repository cloned successfully to: {}", result.getRepository().getDirectory().getParent());
+        }
+    }
+
+    /**
+     * Brings the URL's bare mirror up to date and checks the default branch out of it into {@code localDir}, as a
+     * repository that borrows the mirror's objects instead of copying them. Requests for the same URL are
+     * serialized, and a request that waited for another request's fetch reuses it instead of fetching again.
+     * @return false if the mirror could not be used; the caller then clones from the remote directly
+     */
+    private boolean checkoutFromMirror(String repoUrl, File localDir) {
+        String mirrorName;
+        try {
+            mirrorName = mirrorName(repoUrl);
+        } catch (NoSuchAlgorithmException e) {
+            logger.warn("[GitMirrorCache] Could not derive mirror name for {}: {}", repoUrl, e.getMessage());
+            return false;
+        }
+        File mirrorDir = new File(mirrorCacheDir, mirrorName);
+        MirrorLock mirrorLock = mirrorLocks.computeIfAbsent(mirrorName, name -> new MirrorLock());
+
+        long generationBeforeWaiting = mirrorLock.fetchGeneration;
+        mirrorLock.lock.lock();
+        try {
+            if (!new File(mirrorDir, "HEAD").isFile()) {
+                if (!createMirror(repoUrl, mirrorDir)) {
+                    return false;
+                }
+                fetched(mirrorLock, mirrorDir);
+            } else if (mirrorLock.fetchGeneration != generationBeforeWaiting) {
+                logger.info("[GitMirrorCache] Mirror for {} was fetched while this request waited; reusing it.", repoUrl);
+            } else if (fetchMirror(repoUrl, mirrorDir)) {
+                fetched(mirrorLock, mirrorDir);
+            } else {
+                return false;
+            }
+
+            // No network round trip and no objects copied: only refs are written and the worktree checked out
+            try {
+                checkoutShared(repoUrl, mirrorDir, localDir);
+                sharedCheckouts.put(localDir.getAbsolutePath(), mirrorName);
+                mirrorLock.sharedCheckouts.incrementAndGet();
+                logger.info("[GitMirrorCache] Checked out {} from mirror {} into {}", repoUrl, mirrorDir.getAbsolutePath(), localDir.getAbsolutePath());
+            } catch (GitAPIException | IOException e) {
+                logger.warn("[GitMirrorCache] Checkout from mirror {} failed, falling back to a direct clone: {}", mirrorDir.getAbsolutePath(), e.getMessage());
+                try {
+                    FileUtils.cleanDirectory(localDir);
+                } catch (IOException ex) {
+                    logger.warn("[GitMirrorCache] Could not clean {} after failed checkout: {}", localDir.getAbsolutePath(), ex.getMessage());
+                }
+                return false;
+            }
+            if (!mirrorDir.setLastModified(System.currentTimeMillis())) {
+                logger.debug("[GitMirrorCache] Could not update last-used time of {}", mirrorDir.getAbsolutePath());
+            }
+        } finally {
+            mirrorLock.lock.unlock();
+        }
+
+        evictLeastRecentlyUsedMirrors(mirrorName);
+        return true;
+    }
+
+    // Only fetches change a mirror's size, so it is measured here rather than on every eviction pass
+    private static void fetched(MirrorLock mirrorLock, File mirrorDir) {
+        mirrorLock.fetchGeneration++;
+        try {
+            mirrorLock.sizeBytes = FileUtils.sizeOfDirectory(mirrorDir);
+        } catch (RuntimeException e) {
+            logger.debug("[GitMirrorCache] Could not measure {}: {}", mirrorDir.getAbsolutePath(), e.getMessage());
+            mirrorLock.sizeBytes = -1;
+        }
+    }
+
+    /**
+     * Creates a repository in {@code localDir} that reads its objects from the mirror through
+     * {@code objects/info/alternates}, like {@code git clone --shared}: the mirror's branches become remote-tracking
+     * branches, its tags are copied, its default branch is checked out and origin points at the real remote. The
+     * repository is only usable while the mirror exists; fetches only ever add objects to the mirror.
+     */
+    private void checkoutShared(String repoUrl, File mirrorDir, File localDir) throws GitAPIException, IOException {
+        try (Repository mirror = new FileRepositoryBuilder().setGitDir(mirrorDir).setMustExist(true).build()) {
+            Ref head = mirror.exactRef(Constants.HEAD);
+            if (head == null || head.getObjectId() == null) {
+                throw new IOException("Mirror " + mirrorDir.getAbsolutePath() + " has no HEAD commit");
+            }
+            String branch = head.isSymbolic() ? Repository.shortenRefName(head.getTarget().getName()) : null;
+
+            // Only creates the repository; the alternate is added before its object database is first read
+            Git.init().setDirectory(localDir).setInitialBranch(branch != null ? branch : Constants.MASTER).call().close();
+            File alternates = new File(localDir, Constants.DOT_GIT + "/objects/info/alternates");
+            Files.createDirectories(alternates.getParentFile().toPath());
+            Files.writeString(alternates.toPath(), new File(mirrorDir, "objects").getAbsolutePath() + "\n", StandardCharsets.UTF_8);
+
+            try (Git git = Git.open(localDir)) {
+                Repository repository = git.getRepository();
+                BatchRefUpdate refUpdate = repository.getRefDatabase().newBatchUpdate();
+                for (Ref ref : mirror.getRefDatabase().getRefsByPrefix(Constants.R_HEADS)) {
+                    if (!ref.isSymbolic() && ref.getObjectId() != null) {
+                        String remoteRef = Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + ref.getName().substring(Constants.R_HEADS.length());
+                        refUpdate.addCommand(new ReceiveCommand(ObjectId.zeroId(), ref.getObjectId(), remoteRef));
+                    }
+                }
+                for (Ref ref : mirror.getRefDatabase().getRefsByPrefix(Constants.R_TAGS)) {
+                    if (!ref.isSymbolic() && ref.getObjectId() != null) {
+                        refUpdate.addCommand(new ReceiveCommand(ObjectId.zeroId(), ref.getObjectId(), ref.getName()));
+                    }
+                }
+                if (branch != null) {
+                    refUpdate.addCommand(new ReceiveCommand(ObjectId.zeroId(), head.getObjectId(), Constants.R_HEADS + branch));
+                }
+                try (RevWalk revWalk = new RevWalk(repository)) {
+                    refUpdate.execute(revWalk, NullProgressMonitor.INSTANCE);
+                }
+                for (ReceiveCommand command : refUpdate.getCommands()) {
+                    if (command.getResult() != ReceiveCommand.Result.OK) {
+                        throw new IOException("Could not create " + command.getRefName() + ": " + command.getResult());
+                    }
+                }
+
+                if (branch != null) {
+                    String remoteHead = Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + Constants.HEAD;
+                    repository.updateRef(remoteHead).link(Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + branch);
+                } else {
+                    RefUpdate detachedHead = repository.updateRef(Constants.HEAD, true);
+                    detachedHead.setNewObjectId(head.getObjectId());
+                    detachedHead.forceUpdate();
+                }
+
+                // Point origin at the real remote so the worktree looks like a direct clone
+                StoredConfig config = repository.getConfig();
+                config.setString("remote", Constants.DEFAULT_REMOTE_NAME, "url", repoUrl);
+                config.setString("remote", Constants.DEFAULT_REMOTE_NAME, "fetch", "+refs/heads/*:refs/remotes/origin/*");
+                if (branch != null) {
+                    config.setString("branch", branch, "remote", Constants.DEFAULT_REMOTE_NAME);
+                    config.setString("branch", branch, "merge", Constants.R_HEADS + branch);
+                }
+                config.save();
+
+                git.reset().setMode(ResetCommand.ResetType.HARD).call();
+            }
+        }
+    }
+
+    private boolean createMirror(String repoUrl, File mirrorDir) {
+        logger.info("[GitMirrorCache] Creating mirror of {} in {}", repoUrl, mirrorDir.getAbsolutePath());
+        CloneCommand cloneCommand = Git.cloneRepository()
+                .setURI(repoUrl)
+                .setDirectory(mirrorDir)
+                .setBare(true) // Branches fetched to refs/heads/*
+                .setCloneAllBranches(true)
+                .setTagOption(TagOpt.FETCH_TAGS);
+        CredentialsProvider credentialsProvider = credentialsProvider();
+        if (credentialsProvider != null) {
+            cloneCommand.setCredentialsProvider(credentialsProvider);
+        }
+        try (Git git = cloneCommand.call()) {
+            StoredConfig config = git.getRepository().getConfig();
+            List<String> refSpecs = new ArrayList<>();
+            for (RefSpec refSpec : MIRROR_REF_SPECS) {
+                refSpecs.add(refSpec.toString());
+            }
+            config.setStringList("remote", Constants.DEFAULT_REMOTE_NAME, "fetch", refSpecs);
+            config.save();
+            return true;
+        } catch (GitAPIException | IOException e) {
+            logger.warn("[GitMirrorCache] Could not create mirror of {}: {}", repoUrl, e.getMessage());
+            deleteQuietly(mirrorDir);
+            return false;
+        }
+    }
+
+    private boolean fetchMirror(String repoUrl, File mirrorDir) {
+        logger.info("[GitMirrorCache] Fetching updates for {} into existing mirror {}", repoUrl, mirrorDir.getAbsolutePath());
+        try (Git git = Git.open(mirrorDir)) {
+            // Explicit ref specs, so mirrors created with all refs (+refs/*:refs/*) stop fetching the rest too
+            var fetchCommand = git.fetch()
+                    .setRemote("origin")
+                    .setRefSpecs(MIRROR_REF_SPECS)
+                    .setRemoveDeletedRefs(true);
+            CredentialsProvider credentialsProvider = credentialsProvider();
+            if (credentialsProvider != null) {
+                fetchCommand.setCredentialsProvider(credentialsProvider);
+            }
+            fetchCommand.call();
+            return true;
+        } catch (GitAPIException | IOException e) {
+            // Keep the mirror; the failure is most likely the network and the next request may succeed
+            logger.warn("[GitMirrorCache] Fetch into mirror {} failed: {}", mirrorDir.getAbsolutePath(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Deletes least recently used mirrors until the cache fits its size cap. Mirrors that are in use are skipped,
+     * as is the mirror the caller just used. Sizes are the ones measured after each mirror's last fetch; a mirror
+     * left by an earlier run is measured once. Only one eviction pass runs at a time.
+     */
+    private void evictLeastRecentlyUsedMirrors(String justUsedMirrorName) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            File[] mirrors = new File(mirrorCacheDir).listFiles(file -> file.isDirectory() && file.getName().endsWith(MIRROR_SUFFIX));
+            if (mirrors == null) {
+                return;
+            }
+            long maxBytes = mirrorCacheMaxSizeMb * 1024L * 1024L;
+            List<File> candidates = new ArrayList<>(List.of(mirrors));
+            long totalBytes = 0;
+            for (File mirror : candidates) {
+                MirrorLock mirrorLock = mirrorLocks.computeIfAbsent(mirror.getName(), name -> new MirrorLock());
+                if (mirrorLock.sizeBytes < 0) {
+                    mirrorLock.sizeBytes = FileUtils.sizeOfDirectory(mirror);
+                }
+                totalBytes += mirrorLock.sizeBytes;
+            }
+            if (totalBytes <= maxBytes) {
+                return;
+            }
+            candidates.sort(Comparator.comparingLong(File::lastModified));
+            for (File mirror : candidates) {
+                if (totalBytes <= maxBytes) {
+                    break;
+                }
+                if (mirror.getName().equals(justUsedMirrorName)) {
+                    continue;
+                }
+                MirrorLock mirrorLock = mirrorLocks.computeIfAbsent(mirror.getName(), name -> new MirrorLock());
+                if (!mirrorLock.lock.tryLock()) {
+                    continue; // In use; a later pass will get it
+                }
+                try {
+                    if (mirrorLock.sharedCheckouts.get() > 0) {
+                        continue; // Checkouts still read its objects
+                    }
+                    long size = Math.max(mirrorLock.sizeBytes, 0);
+                    logger.info("[GitMirrorCache] Evicting mirror {} ({} MB) to stay under {} MB.", mirror.getName(), size / (1024 * 1024), mirrorCacheMaxSizeMb);
+                    if (deleteQuietly(mirror)) {
+                        mirrorLock.sizeBytes = -1;
+                        totalBytes -= size;
+                    }
+                } finally {
+                    mirrorLock.lock.unlock();
+                }
+            }
+        } catch (RuntimeException e) {
+            // Sizing races with concurrent fetches; eviction is best effort
+            logger.warn("[GitMirrorCache] Mirror eviction failed: {}", e.getMessage());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private CredentialsProvider credentialsProvider() {
+        // Set up credentials provider if both username and password are provided
+        if (gitUsername != null && !gitUsername.isEmpty() && gitPassword != null && !gitPassword.isEmpty()) {
+            logger.info("Using Git credentials for repository access (username: {})", gitUsername);
+            return new UsernamePasswordCredentialsProvider(gitUsername, gitPassword);
+        }
+        logger.info("No Git credentials provided, will attempt anonymous access to repository");
+        return null;
+    }
+
+    /**
+     * Mirror directory name for a URL: a readable repository name plus a hash of the URL, so different remotes
+     * with the same repository name never share a mirror.
+     */
+    private static String mirrorName(String repoUrl) throws NoSuchAlgorithmException {
+        String normalizedUrl = repoUrl.trim();
+        while (normalizedUrl.endsWith("/")) {
+            normalizedUrl = normalizedUrl.substring(0, normalizedUrl.length() - 1);
+        }
+        String repoName = normalizedUrl.substring(normalizedUrl.lastIndexOf('/') + 1);
+        if (repoName.endsWith(MIRROR_SUFFIX)) {
+            repoName = repoName.substring(0, repoName.length() - MIRROR_SUFFIX.length());
+        }
+        repoName = repoName.replaceAll("[^a-zA-Z0-9._-]", "_");
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(normalizedUrl.getBytes(StandardCharsets.UTF_8));
+        return repoName + "-" + HexFormat.of().formatHex(hash, 0, 8) + MIRROR_SUFFIX;
+    }
+
+    private static boolean deleteQuietly(File dir) {
+        try {
+            FileUtils.deleteDirectory(dir);
+            return true;
+        } catch (IOException e) {
+            logger.warn("[GitMirrorCache] Could not delete {}: {}", dir.getAbsolutePath(), e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public String getHeadCommitId(File repoDir) throws IOException {
+        try (Repository repository = new FileRepositoryBuilder().setWorkTree(repoDir).setMustExist(true).build()) {
+            ObjectId head = repository.resolve(Constants.HEAD);
+            return head != null ? head.getName() : null;
+        }
+    }
+
+    @Override
+    public Set<String> getChangedPaths(File repoDir, String fromCommitId, String toCommitId) throws IOException {
+        try (Repository repository = new FileRepositoryBuilder().setWorkTree(repoDir).setMustExist(true).build();
+             RevWalk revWalk = new RevWalk(repository);
+             DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            // Throws MissingObjectException if the old commit isn't in this clone (e.g. a shallow fallback clone)
+            RevTree fromTree = revWalk.parseCommit(ObjectId.fromString(fromCommitId)).getTree();
+            RevTree toTree = revWalk.parseCommit(ObjectId.fromString(toCommitId)).getTree();
+            diffFormatter.setRepository(repository);
+            diffFormatter.setDetectRenames(true);
+
+            Set<String> changedPaths = new HashSet<>();
+            for (DiffEntry entry : diffFormatter.scan(fromTree, toTree)) {
+                if (!DiffEntry.DEV_NULL.equals(entry.getOldPath())) {
+                    changedPaths.add(entry.getOldPath());
+                }
+                if (!DiffEntry.DEV_NULL.equals(entry.getNewPath())) {
+                    changedPaths.add(entry.getNewPath());
+                }
+            }
+            logger.info("{} paths changed between {} and {} in {}", changedPaths.size(), fromCommitId, toCommitId, repoDir.getAbsolutePath());
+            return changedPaths;
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid commit id: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public void deleteRepository(File repoDir) throws IOException {
+        if (repoDir != null) {
+            // Once deleting starts the checkout no longer needs its mirror, even if deleting fails part way
+            String mirrorName = sharedCheckouts.remove(repoDir.getAbsolutePath());
+            MirrorLock mirrorLock = mirrorName != null ? mirrorLocks.get(mirrorName) : null;
+            if (mirrorLock != null) {
+                mirrorLock.sharedCheckouts.decrementAndGet();
+            }
+        }
         if (repoDir != null && repoDir.exists()) {
             logger.info("Deleting directory: {}", repoDir.getAbsolutePath());
             try {
@@ -108,4 +506,4 @@ public class GitServiceImpl implements GitService {
             }
         }
     }
-} 
\ No newline at end of file
+}
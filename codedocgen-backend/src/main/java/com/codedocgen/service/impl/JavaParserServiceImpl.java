@@ -4,45 +4,70 @@ import com.codedocgen.dto.MavenExecutionResult;
 import com.codedocgen.model.ClassMetadata;
 import com.codedocgen.model.MethodMetadata;
 import com.codedocgen.model.FieldMetadata;
+import com.codedocgen.model.SetterCall;
+import com.codedocgen.model.StageProgress;
+import com.codedocgen.model.CachedClasspath;
 import com.codedocgen.service.JavaParserService;
+import com.codedocgen.service.ClasspathCacheService;
+import com.codedocgen.service.FileClassificationService;
+import com.codedocgen.service.FileResultStore;
 import com.codedocgen.service.MavenBuildService;
+import com.github.javaparser.JavaParser;
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.body.*;
 import com.github.javaparser.ast.expr.AnnotationExpr;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.github.javaparser.ast.NodeList;
 import com.github.javaparser.ast.Modifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
 import com.github.javaparser.symbolsolver.resolution.typesolvers.JarTypeSolver;
+import com.github.javaparser.resolution.TypeSolver;
 import com.github.javaparser.resolution.declarations.ResolvedMethodDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedParameterDeclaration;
 import com.github.javaparser.resolution.declarations.ResolvedTypeDeclaration;
 import com.github.javaparser.resolution.types.ResolvedType;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ParserConfiguration;
+import com.codedocgen.parser.AstAnalyzer;
+import com.codedocgen.parser.AstDispatcher;
+import com.codedocgen.parser.CompilationUnitCache;
 import com.codedocgen.parser.DaoAnalyzer;
+import com.codedocgen.parser.SymbolTable;
 import com.codedocgen.model.DaoOperationDetail;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.github.javaparser.ast.stmt.Statement;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.InputStreamReader;
 import java.io.BufferedReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.regex.Pattern;
@@ -60,17 +85,44 @@ public class JavaParserServiceImpl implements JavaParserService {
 
     private static final Logger logger = LoggerFactory.getLogger(JavaParserServiceImpl.class);
     private static final String CLASSPATH_OUTPUT_FILE = "codedocgen_cp.txt";
+    // Result store namespace; bump the version whenever ClassMetadataAnalyzer's output for the same source changes
+    private static final String CLASS_METADATA_RESULTS = "class-metadata";
+    private static final String CLASS_METADATA_RESULTS_VERSION = "3";
 
     private final DaoAnalyzer daoAnalyzerInstance;
 
     private final MavenBuildService mavenBuildService;
 
+    private final ClasspathCacheService classpathCacheService;
+
+    private final FileResultStore fileResultStore;
+    private final FileClassificationService fileClassificationService;
+    private final AtomicInteger resultStoreHits = new AtomicInteger(); // Per parse run
+    private volatile SourceDependencyIndex sourceDependencies; // Per parse run, see indexSourceDependencies
+
     private File currentProjectDir;
     private JavaSymbolSolver symbolResolver;
+    private TypeSolverSetup typeSolverSetup; // Builds further solvers like symbolResolver, for parallel parsing
+
+    // "sequential" (default) or "parallel"
+    @Value("${app.parser.mode:sequential}")
+    private String parserMode;
+
+    // Worker threads for parallel parsing; 0 means one per available core
+    @Value("${app.parser.threads:0}")
+    private int parserThreads;
+
+    // Upper bound on cached compilation units when the caller doesn't supply a cache
+    @Value("${app.parser.ast-cache.max-entries:20000}")
+    private int astCacheMaxEntries;
 
     @Autowired
-    public JavaParserServiceImpl(MavenBuildService mavenBuildService) {
+    public JavaParserServiceImpl(MavenBuildService mavenBuildService, ClasspathCacheService classpathCacheService, FileResultStore fileResultStore,
+                                 FileClassificationService fileClassificationService) {
         this.mavenBuildService = mavenBuildService;
+        this.classpathCacheService = classpathCacheService;
+        this.fileResultStore = fileResultStore;
+        this.fileClassificationService = fileClassificationService;
         this.daoAnalyzerInstance = new DaoAnalyzer();
     }
 
@@ -88,8 +140,9 @@ public class JavaParserServiceImpl implements JavaParserService {
             boolean isGradleProject = gradleBuildFile.exists() || gradleKtsBuildFile.exists();
             boolean isMavenProject = pomFile.exists() && !isGradleProject; // Prefer Gradle if both somehow exist
 
-            CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
+            TypeSolverSetup typeSolvers = new TypeSolverSetup();
             List<File> moduleBaseDirs = new ArrayList<>(); // For multi-module projects
+            String mavenClasspath = null; // Maven dependency classpath, from the classpath cache or dependency:build-classpath
 
             if (isGradleProject) {
                 logger.info("Detected Gradle project in {}. Running Gradle commands.", projectDir.getAbsolutePath());
@@ -193,7 +246,7 @@ public class JavaParserServiceImpl implements JavaParserService {
                         for (Path jarPath : gradleJarPaths) {
                             try {
                                 logger.info("Adding JarTypeSolver for Gradle discovered JAR: {}", jarPath.toString());
-                                combinedTypeSolver.add(new JarTypeSolver(jarPath.toString()));
+                                typeSolvers.add(() -> new JarTypeSolver(jarPath.toString()));
                             } catch (Exception e) {
                                 logger.warn("Failed to add JarTypeSolver for Gradle JAR {}: {}", jarPath.toString(), e.getMessage());
                             }
@@ -215,43 +268,71 @@ public class JavaParserServiceImpl implements JavaParserService {
                     moduleBaseDirs.addAll(getMavenModules(pomFile, projectDir));
                 }
             } else if (isMavenProject) {
-                logger.info("Detected Maven project in {}. Running Maven commands.", projectDir.getAbsolutePath());
-                try {
-                    // No need to construct mvnCommand or ProcessBuilder here directly for classpath
-                    // Let MavenBuildService handle that with all configurations.
-                    logger.info("Building classpath using MavenBuildService.");
-                    MavenExecutionResult classpathResult = mavenBuildService.runMavenCommandWithExplicitVersion(projectDir, null, 
-                        "dependency:build-classpath", 
-                        "-Dmdep.outputFile=" + CLASSPATH_OUTPUT_FILE,
-                        "-Dmdep.pathSeparator=" + File.pathSeparator,
-                        "-DincludeScope=compile",
-                        "-q"
-                    );
-                    logger.info("Maven 'dependency:build-classpath' finished with exit code: {}. Output: {}", classpathResult.getExitCode(), classpathResult.getOutput());
-
-                    logger.info("Attempting to compile the project via MavenBuildService.");
-                    MavenExecutionResult compileResult = mavenBuildService.runMavenCommandWithExplicitVersion(projectDir, (String) null, 
-                        "compile", 
-                        "-DskipTests", 
-                        "-q", 
-                        "-Dmaven.compiler.failOnError=false", 
-                        "-Dmaven.compiler.failOnWarning=false"
-                    );
-                    logger.info("Maven 'compile' command finished with exit code: {}. Output: {}", compileResult.getExitCode(), compileResult.getOutput());
-
-                    if (!compileResult.isSuccess()) {
-                        logger.warn("Initial Maven compile command failed with exit code {}. Errors might affect symbol resolution.", compileResult.getExitCode());
+                String classpathCacheKey = classpathCacheService.computeKey(projectDir);
+                Optional<CachedClasspath> cachedClasspath = classpathCacheService.lookup(classpathCacheKey);
+                if (cachedClasspath.isPresent()) {
+                    logger.info("Build files of {} are unchanged since a previous analysis; using the cached classpath and skipping dependency resolution.", projectDir.getAbsolutePath());
+                    mavenClasspath = cachedClasspath.get().getClasspath();
+                    for (String modulePath : cachedClasspath.get().getModulePaths()) {
+                        File moduleDir = new File(projectDir, modulePath);
+                        if (moduleDir.isDirectory()) {
+                            moduleBaseDirs.add(moduleDir);
+                        }
                     }
-                } catch (IOException | InterruptedException e) {
-                    logger.error("Error while running Maven commands for Symbol Solver pre-step: {}", e.getMessage(), e);
-                    if (e instanceof InterruptedException) {
-                        Thread.currentThread().interrupt();
+                    // Types are resolved from sources, so the clone only needs its own generated sources, or
+                    // resolution would differ from a run with a cold cache; other projects need no Maven run at all
+                    if (cachedClasspath.get().isGeneratesSources()) {
+                        try {
+                            runMavenPhase(projectDir, "generate-sources");
+                        } catch (IOException | InterruptedException e) {
+                            logger.error("Error while running Maven generate-sources for Symbol Solver pre-step: {}", e.getMessage(), e);
+                            if (e instanceof InterruptedException) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    }
+                } else {
+                    logger.info("Detected Maven project in {}. Running Maven commands.", projectDir.getAbsolutePath());
+                    boolean classpathResolved = false;
+                    try {
+                        // No need to construct mvnCommand or ProcessBuilder here directly for classpath
+                        // Let MavenBuildService handle that with all configurations.
+                        logger.info("Building classpath using MavenBuildService.");
+                        MavenExecutionResult classpathResult = mavenBuildService.runMavenCommandWithExplicitVersion(projectDir, null, 
+                            "dependency:build-classpath", 
+                            "-Dmdep.outputFile=" + CLASSPATH_OUTPUT_FILE,
+                            "-Dmdep.pathSeparator=" + File.pathSeparator,
+                            "-DincludeScope=compile",
+                            "-q"
+                        );
+                        logger.info("Maven 'dependency:build-classpath' finished with exit code: {}. Output: {}", classpathResult.getExitCode(), classpathResult.getOutput());
+                        classpathResolved = classpathResult.isSuccess();
+
+                        runMavenPhase(projectDir, "compile");
+                    } catch (IOException | InterruptedException e) {
+                        logger.error("Error while running Maven commands for Symbol Solver pre-step: {}", e.getMessage(), e);
+                        if (e instanceof InterruptedException) {
+                            Thread.currentThread().interrupt();
+                        }
                     }
-                }
 
-                // After Maven commands, try to find modules if it's a Maven project
-                if (pomFile.exists()) {
-                    moduleBaseDirs.addAll(getMavenModules(pomFile, projectDir));
+                    mavenClasspath = readClasspathFile(projectDir);
+
+                    // After Maven commands, try to find modules if it's a Maven project
+                    if (pomFile.exists()) {
+                        moduleBaseDirs.addAll(getMavenModules(pomFile, projectDir));
+                    }
+
+                    // Only cache a classpath Maven actually resolved, so a transient failure isn't remembered
+                    if (classpathResolved && mavenClasspath != null) {
+                        List<String> modulePaths = new ArrayList<>();
+                        for (File moduleDir : moduleBaseDirs) {
+                            modulePaths.add(projectDir.toPath().relativize(moduleDir.toPath()).toString());
+                        }
+                        List<File> buildDirs = new ArrayList<>(moduleBaseDirs);
+                        buildDirs.add(projectDir);
+                        classpathCacheService.store(classpathCacheKey, new CachedClasspath(mavenClasspath, modulePaths, hasPluginGeneratedSources(buildDirs)));
+                    }
                 }
             } else {
                 logger.warn("No pom.xml or build.gradle/build.gradle.kts file found in {}. Skipping build system pre-compile and classpath build steps. Resolution will be limited.", projectDir.getAbsolutePath());
@@ -265,13 +346,13 @@ public class JavaParserServiceImpl implements JavaParserService {
             // Add ReflectionTypeSolver for JDK classes - prefer classloader
             logger.info("Attempting to add ReflectionTypeSolver (preferring context classloader).");
             try {
-                combinedTypeSolver.add(new ReflectionTypeSolver(true)); // Prefer context classloader
+                typeSolvers.add(() -> new ReflectionTypeSolver(true)); // Prefer context classloader
                 logger.info("ReflectionTypeSolver (with context classloader) added.");
             } catch (Exception e) {
                 logger.warn("Failed to add ReflectionTypeSolver with context classloader: {}", e.getMessage());
                 try {
                     logger.info("Attempting to add ReflectionTypeSolver (without context classloader).");
-                    combinedTypeSolver.add(new ReflectionTypeSolver(false)); // Fallback to not using context classloader
+                    typeSolvers.add(() -> new ReflectionTypeSolver(false)); // Fallback to not using context classloader
                     logger.info("ReflectionTypeSolver (without context classloader) added.");
                 } catch (Exception e2) {
                     logger.error("Failed to add any ReflectionTypeSolver: {}", e2.getMessage());
@@ -313,14 +394,14 @@ public class JavaParserServiceImpl implements JavaParserService {
                     File srcDir = new File(baseDir, srcPath);
                     if (srcDir.exists() && srcDir.isDirectory()) {
                         logger.info("Adding JavaParserTypeSolver for source root: {}", srcDir.getAbsolutePath());
-                        combinedTypeSolver.add(new JavaParserTypeSolver(srcDir));
+                        typeSolvers.add(() -> new JavaParserTypeSolver(srcDir));
                     }
                 }
                 for (String genPath : commonGeneratedAnnotationsDirs) {
                     File genDir = new File(baseDir, genPath);
                     if (genDir.exists() && genDir.isDirectory()) {
                         logger.info("Adding JavaParserTypeSolver for generated annotations root: {}", genDir.getAbsolutePath());
-                        combinedTypeSolver.add(new JavaParserTypeSolver(genDir));
+                        typeSolvers.add(() -> new JavaParserTypeSolver(genDir));
                     }
                 }
                 for (String genPath : commonGeneratedSourcesDirs) {
@@ -330,7 +411,7 @@ public class JavaParserServiceImpl implements JavaParserService {
                         try (Stream<Path> walk = Files.walk(genDir.toPath(), 3)) { // Limit depth to avoid large scans
                             if (walk.anyMatch(p -> p.toString().endsWith(".java"))) {
                                 logger.info("Adding JavaParserTypeSolver for general generated source root: {}", genDir.getAbsolutePath());
-                                combinedTypeSolver.add(new JavaParserTypeSolver(genDir));
+                                typeSolvers.add(() -> new JavaParserTypeSolver(genDir));
                             } else {
                                 logger.debug("Skipping generated source directory {} as it contains no .java files (within depth 3).", genDir.getAbsolutePath());
                             }
@@ -358,7 +439,7 @@ public class JavaParserServiceImpl implements JavaParserService {
                         if (dir.exists() && dir.isDirectory()) {
                             logger.info("Adding JarTypeSolver for Gradle build output directory: {}", dir.getAbsolutePath());
                              try {
-                                combinedTypeSolver.add(new JarTypeSolver(dir.toPath()));
+                                typeSolvers.add(() -> new JarTypeSolver(dir.toPath()));
                             } catch (Exception e) {
                                 logger.warn("Failed to add JarTypeSolver for Gradle build output {}: {} - {}. This directory will be skipped.", dir.getAbsolutePath(), e.getClass().getName(), e.getMessage());
                             }
@@ -375,7 +456,7 @@ public class JavaParserServiceImpl implements JavaParserService {
                     if (dir.exists() && dir.isDirectory()) {
                         logger.info("Adding JarTypeSolver for project's compiled classes directory: {}", dir.getAbsolutePath());
                         try {
-                            combinedTypeSolver.add(new JarTypeSolver(dir.toPath()));
+                            typeSolvers.add(() -> new JarTypeSolver(dir.toPath()));
                         } catch (Exception e) {
                             logger.warn("Failed to add JarTypeSolver for {}: {} - {}. This directory will be skipped.", dir.getAbsolutePath(), e.getClass().getName(), e.getMessage());
                         }
@@ -385,45 +466,29 @@ public class JavaParserServiceImpl implements JavaParserService {
                 }
             }
 
-            // Add JarTypeSolvers for Maven project dependencies (using the pre-built classpath file)
-            // This part is Maven-specific because it relies on CLASSPATH_OUTPUT_FILE from the root project
+            // Add JarTypeSolvers for Maven project dependencies (from the pre-built classpath file or the classpath cache)
             if (isMavenProject) {
-                File classpathFile = new File(projectDir, CLASSPATH_OUTPUT_FILE); // Classpath file is generated at root
-                if (classpathFile.exists() && classpathFile.isFile()) {
-                    try {
-                        String classpath = new String(Files.readAllBytes(classpathFile.toPath()), StandardCharsets.UTF_8).trim();
-                        logger.info("Raw classpath from {}: '{}'", CLASSPATH_OUTPUT_FILE, classpath);
-                        if (classpath != null && !classpath.isEmpty()) {
-                            String[] jarPaths = classpath.split(Pattern.quote(File.pathSeparator));
-                            logger.info("Found {} potential JAR paths in classpath file.", jarPaths.length);
-                            for (String jarPath : jarPaths) {
-                                String trimmedJarPath = jarPath != null ? jarPath.trim() : "";
-                                if (!trimmedJarPath.isEmpty()) {
-                                    File jarFile = new File(trimmedJarPath);
-                                    if (jarFile.exists() && jarFile.isFile()) {
-                                        try {
-                                            logger.info("Adding JarTypeSolver for dependency: {}", jarFile.getAbsolutePath());
-                                            combinedTypeSolver.add(new JarTypeSolver(jarFile.toPath()));
-                                        } catch (Exception e) {
-                                            logger.warn("Failed to add JarTypeSolver for {}: {} - {}. This JAR will be skipped.", jarFile.getAbsolutePath(), e.getClass().getName(), e.getMessage());
-                                        }
-                                    } else {
-                                        logger.warn("Dependency JAR path from classpath file does not exist or is not a file: {}", trimmedJarPath);
-                                    }
+                if (mavenClasspath != null && !mavenClasspath.isEmpty()) {
+                    String[] jarPaths = mavenClasspath.split(Pattern.quote(File.pathSeparator));
+                    logger.info("Found {} potential JAR paths in classpath.", jarPaths.length);
+                    for (String jarPath : jarPaths) {
+                        String trimmedJarPath = jarPath != null ? jarPath.trim() : "";
+                        if (!trimmedJarPath.isEmpty()) {
+                            File jarFile = new File(trimmedJarPath);
+                            if (jarFile.exists() && jarFile.isFile()) {
+                                try {
+                                    logger.info("Adding JarTypeSolver for dependency: {}", jarFile.getAbsolutePath());
+                                    typeSolvers.add(() -> new JarTypeSolver(jarFile.toPath()));
+                                } catch (Exception e) {
+                                    logger.warn("Failed to add JarTypeSolver for {}: {} - {}. This JAR will be skipped.", jarFile.getAbsolutePath(), e.getClass().getName(), e.getMessage());
                                 }
+                            } else {
+                                logger.warn("Dependency JAR path from classpath does not exist or is not a file: {}", trimmedJarPath);
                             }
-                        } else {
-                            logger.warn("Classpath file {} was empty or null.", CLASSPATH_OUTPUT_FILE);
-                        }
-                    } catch (IOException e) {
-                        logger.error("Error reading classpath file {}: {}", CLASSPATH_OUTPUT_FILE, e.getMessage());
-                    } finally {
-                        if (!classpathFile.delete()) {
-                            logger.warn("Failed to delete temporary classpath file: {}", classpathFile.getAbsolutePath());
                         }
                     }
                 } else {
-                     logger.warn("Maven classpath file {} not found after 'dependency:build-classpath'. Dependencies might not be resolved via JarTypeSolver.", CLASSPATH_OUTPUT_FILE);
+                    logger.warn("No Maven classpath available. Dependencies might not be resolved via JarTypeSolver.");
                 }
             }
             
@@ -437,16 +502,83 @@ public class JavaParserServiceImpl implements JavaParserService {
             }
             if (!primarySourceFound) {
                  logger.warn("No standard, generated, or target/classes source roots found. Adding project root as a last resort JavaParserTypeSolver: {}", projectDir.getAbsolutePath());
-                 combinedTypeSolver.add(new JavaParserTypeSolver(projectDir)); // Least preferred, broad scope
+                 typeSolvers.add(() -> new JavaParserTypeSolver(projectDir)); // Least preferred, broad scope
             }
 
-            this.symbolResolver = new JavaSymbolSolver(combinedTypeSolver);
+            this.typeSolverSetup = typeSolvers;
+            this.symbolResolver = typeSolvers.getSymbolSolver();
             ParserConfiguration config = new ParserConfiguration().setSymbolResolver(this.symbolResolver);
             StaticJavaParser.setConfiguration(config);
             logger.info("JavaParser Symbol Solver initialized and configuration set for project: {}", projectDir.getAbsolutePath());
         }
     }
 
+    // Runs the project's build up to the given phase, so generated sources (and, for "compile", build outputs) are
+    // available to the type solvers
+    private void runMavenPhase(File projectDir, String phase) throws IOException, InterruptedException {
+        logger.info("Attempting to run Maven '{}' on the project via MavenBuildService.", phase);
+        MavenExecutionResult result = mavenBuildService.runMavenCommandWithExplicitVersion(projectDir, (String) null, 
+            phase, 
+            "-DskipTests", 
+            "-q", 
+            "-Dmaven.compiler.failOnError=false", 
+            "-Dmaven.compiler.failOnWarning=false"
+        );
+        logger.info("Maven '{}' command finished with exit code: {}. Output: {}", phase, result.getExitCode(), result.getOutput());
+
+        if (!result.isSuccess()) {
+            logger.warn("Maven '{}' command failed with exit code {}. Errors might affect symbol resolution.", phase, result.getExitCode());
+        }
+    }
+
+    // Whether a build plugin (JAXB, wsimport, ...) wrote sources under target/generated-sources of any module;
+    // annotation processor output only appears when compiling and is not counted
+    private boolean hasPluginGeneratedSources(List<File> moduleDirs) {
+        for (File moduleDir : moduleDirs) {
+            Path generatedSources = new File(moduleDir, "target/generated-sources").toPath();
+            if (!Files.isDirectory(generatedSources)) {
+                continue;
+            }
+            try (Stream<Path> walk = Files.walk(generatedSources)) {
+                if (walk.anyMatch(path -> path.toString().endsWith(".java") && !generatedSources.relativize(path).startsWith("annotations"))) {
+                    return true;
+                }
+            } catch (IOException e) {
+                logger.warn("Could not walk directory {}: {}", generatedSources, e.getMessage());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reads and deletes the classpath file written by {@code dependency:build-classpath}.
+     * @return The classpath, or null if the file is missing, empty or unreadable
+     */
+    private String readClasspathFile(File projectDir) {
+        File classpathFile = new File(projectDir, CLASSPATH_OUTPUT_FILE); // Classpath file is generated at root
+        if (!classpathFile.exists() || !classpathFile.isFile()) {
+            logger.warn("Maven classpath file {} not found after 'dependency:build-classpath'. Dependencies might not be resolved via JarTypeSolver.", CLASSPATH_OUTPUT_FILE);
+            return null;
+        }
+        try {
+            String classpath = new String(Files.readAllBytes(classpathFile.toPath()), StandardCharsets.UTF_8).trim();
+            logger.info("Raw classpath from {}: '{}'", CLASSPATH_OUTPUT_FILE, classpath);
+            if (classpath.isEmpty()) {
+                logger.warn("Classpath file {} was empty or null.", CLASSPATH_OUTPUT_FILE);
+                return null;
+            }
+            return classpath;
+        } catch (IOException e) {
+            logger.error("Error reading classpath file {}: {}", CLASSPATH_OUTPUT_FILE, e.getMessage());
+            return null;
+        } finally {
+            if (!classpathFile.delete()) {
+                logger.warn("Failed to delete temporary classpath file: {}", classpathFile.getAbsolutePath());
+            }
+        }
+    }
+
     /**
      * Parses a pom.xml file to find declared modules.
      * @param pomFile The pom.xml file.
@@ -503,21 +635,17 @@ public class JavaParserServiceImpl implements JavaParserService {
         ensureSymbolSolverInitialized(projectDir);
         List<ClassMetadata> allClassMetadata = new ArrayList<>();
         Path projectPath = projectDir.toPath();
+        SymbolTable symbolTable = new SymbolTable();
 
-        try (Stream<Path> javaFiles = Files.walk(projectPath)
-                .filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))) {
-            javaFiles.forEach(javaFilePath -> {
-                try {
-                    ClassMetadata classMetadata = parseFile(javaFilePath.toFile());
-                    if (classMetadata != null) {
-                        allClassMetadata.add(classMetadata);
-                    }
-                } catch (Exception e) {
-                    logger.error("Error parsing file {}: {}", javaFilePath, e.getMessage(), e);
+        for (Path javaFilePath : fileClassificationService.javaSources(projectPath)) {
+            try {
+                ClassMetadata classMetadata = parseFile(javaFilePath.toFile());
+                if (classMetadata != null) {
+                    allClassMetadata.add(symbolTable.compact(classMetadata));
                 }
-            });
-        } catch (IOException e) {
-            logger.error("Error walking through project directory {}: {}", projectPath, e.getMessage(), e);
+            } catch (Exception e) {
+                logger.error("Error parsing file {}: {}", javaFilePath, e.getMessage(), e);
+            }
         }
         return allClassMetadata;
     }
@@ -527,10 +655,7 @@ public class JavaParserServiceImpl implements JavaParserService {
         ensureSymbolSolverInitialized(currentProjectDir != null ? currentProjectDir : javaFile.getParentFile());
         try (FileInputStream in = new FileInputStream(javaFile)) {
             CompilationUnit cu = StaticJavaParser.parse(in);
-            String packageName = cu.getPackageDeclaration().map(pd -> pd.getName().asString()).orElse("");
-            ClassMetadataVisitor visitor = new ClassMetadataVisitor(javaFile.getAbsolutePath(), packageName, this.symbolResolver, this.daoAnalyzerInstance);
-            visitor.visit(cu, null);
-            return visitor.getClassMetadata();
+            return extractClassMetadata(cu, javaFile, this.symbolResolver, this.daoAnalyzerInstance, null);
         } catch (Exception e) {
             logger.error("Failed to parse Java file {}: {}", javaFile.getAbsolutePath(), e.getMessage(), e);
             return null;
@@ -539,68 +664,368 @@ public class JavaParserServiceImpl implements JavaParserService {
 
     // Overloaded method to collect parse warnings
     public List<ClassMetadata> parseProject(File projectDir, List<String> parseWarnings) {
+        return parseProject(projectDir, parseWarnings, null, null);
+    }
+
+    // Synchronized because the symbol solver (and the StaticJavaParser configuration) is per-project service state
+    @Override
+    public synchronized List<ClassMetadata> parseProject(File projectDir, List<String> parseWarnings, StageProgress progress, CompilationUnitCache cuCache) {
+        List<Path> javaFilePaths = fileClassificationService.javaSources(projectDir.toPath());
+        return parseJavaFiles(projectDir, javaFilePaths, parseWarnings, progress, cuCache);
+    }
+
+    @Override
+    public synchronized List<ClassMetadata> parseFiles(File projectDir, List<String> relativePaths, List<String> parseWarnings, StageProgress progress, CompilationUnitCache cuCache) {
+        List<Path> javaFilePaths = new ArrayList<>(relativePaths.size());
+        for (String relativePath : relativePaths) {
+            Path javaFilePath = projectDir.toPath().resolve(relativePath);
+            if (relativePath.endsWith(".java") && Files.isRegularFile(javaFilePath)) {
+                javaFilePaths.add(javaFilePath);
+            }
+        }
+        logger.info("Parsing {} of the given {} paths in {}.", javaFilePaths.size(), relativePaths.size(), projectDir.getAbsolutePath());
+        return parseJavaFiles(projectDir, javaFilePaths, parseWarnings, progress, cuCache);
+    }
+
+    private List<ClassMetadata> parseJavaFiles(File projectDir, List<Path> javaFilePaths, List<String> parseWarnings, StageProgress progress, CompilationUnitCache cuCache) {
         ensureSymbolSolverInitialized(projectDir);
+        CompilationUnitCache cache = cuCache != null ? cuCache : new CompilationUnitCache(astCacheMaxEntries);
+        cache.setParserConfiguration(new ParserConfiguration().setSymbolResolver(this.symbolResolver));
         List<ClassMetadata> allClassMetadata = new ArrayList<>();
         Path projectPath = projectDir.toPath();
+        // Shared by all files of the run, so equal strings across classes end up as one instance
+        SymbolTable symbolTable = new SymbolTable();
+        if (progress != null) {
+            progress.setTotal(javaFilePaths.size());
+        }
+        resultStoreHits.set(0);
+        SourceDependencyIndex dependencies = indexSourceDependencies(projectDir);
+        sourceDependencies = dependencies;
+        cache.setResolutionContexts(file -> dependencies.resolutionContext(file.toAbsolutePath().normalize()));
+
+        if (isParallelParsingEnabled() && javaFilePaths.size() > 1) {
+            allClassMetadata = parseFilesInParallel(javaFilePaths, parseWarnings, progress, cache, symbolTable);
+            logParseStats(cache, projectPath, javaFilePaths.size(), symbolTable);
+            return allClassMetadata;
+        }
 
-        try (Stream<Path> javaFiles = Files.walk(projectPath)
-                .filter(path -> path.toString().endsWith(".java") && Files.isRegularFile(path))) {
-            javaFiles.forEach(javaFilePath -> {
-                try {
-                    ClassMetadata classMetadata = parseFileWithResolver(javaFilePath.toFile(), this.symbolResolver, this.daoAnalyzerInstance);
-                    if (classMetadata != null) {
-                        allClassMetadata.add(classMetadata);
+        for (Path javaFilePath : javaFilePaths) {
+            try {
+                ClassMetadata classMetadata = parseFileWithCache(javaFilePath, cache, this.symbolResolver, this.daoAnalyzerInstance, symbolTable);
+                if (classMetadata != null) {
+                    allClassMetadata.add(classMetadata);
+                }
+            } catch (Exception e) {
+                logger.error("Error parsing file {}: {}", javaFilePath, e.getMessage(), e);
+                if (parseWarnings != null) {
+                    parseWarnings.add(toProjectRelativePath(javaFilePath.toFile()) + ": " + e.getMessage());
+                }
+            }
+            if (progress != null) {
+                progress.increment();
+            }
+        }
+        logParseStats(cache, projectPath, javaFilePaths.size(), symbolTable);
+        return allClassMetadata;
+    }
+
+    // Stored metadata holds symbol-solver results (field and parameter types, called-method signatures), which
+    // depend on more than the file itself: each file's resolution context covers the build files (dependencies)
+    // and the project sources it may resolve against, so an edit only invalidates the files that can see it
+    private SourceDependencyIndex indexSourceDependencies(File projectDir) {
+        Path projectPath = projectDir.toPath().toAbsolutePath().normalize();
+        List<Path> sources = new ArrayList<>();
+        for (Path source : fileClassificationService.javaSources(projectDir.toPath())) {
+            sources.add(source.toAbsolutePath().normalize());
+        }
+        return new SourceDependencyIndex(projectPath, sources, fileResultStore::contentHash, classpathCacheService.buildFilesHash(projectDir));
+    }
+
+    private void logParseStats(CompilationUnitCache cache, Path projectPath, int fileCount, SymbolTable symbolTable) {
+        logger.info("Reused stored metadata for {} of {} Java files in {}.", resultStoreHits.get(), fileCount, projectPath);
+        logger.info("Metadata for {} holds {} distinct strings.", projectPath, symbolTable.size());
+        cache.logStats("After parsing " + projectPath);
+    }
+
+    // Source paths in metadata and warnings are relative to the project root, so they are stable across clones
+    private String toProjectRelativePath(File javaFile) {
+        Path absolutePath = javaFile.toPath().toAbsolutePath().normalize();
+        if (currentProjectDir != null) {
+            Path projectPath = currentProjectDir.toPath().toAbsolutePath().normalize();
+            if (absolutePath.startsWith(projectPath)) {
+                return projectPath.relativize(absolutePath).toString().replace("\\", "/");
+            }
+        }
+        return absolutePath.toString();
+    }
+
+    private boolean isParallelParsingEnabled() {
+        return "parallel".equalsIgnoreCase(parserMode != null ? parserMode.trim() : null);
+    }
+
+    private int resolveParserThreads() {
+        return parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Parses the given files on a bounded worker pool. Parsing goes through the compilation unit cache, which
+     * creates a {@link JavaParser} per parse, so the thread-local {@link StaticJavaParser} configuration is never
+     * needed on the workers. The symbol solver's caches are not thread-safe, so each worker parses and resolves
+     * with its own solver, built from the same type solvers as the shared one (at the cost of a copy of them per
+     * worker). Results and warnings are slotted by file index, so the returned list has the same order as the
+     * sequential path.
+     */
+    private List<ClassMetadata> parseFilesInParallel(List<Path> javaFilePaths, List<String> parseWarnings, StageProgress progress, CompilationUnitCache cache,
+                                                     SymbolTable symbolTable) {
+        int threads = Math.min(resolveParserThreads(), javaFilePaths.size());
+        logger.info("Parsing {} Java files in parallel using {} worker threads.", javaFilePaths.size(), threads);
+
+        final TypeSolverSetup typeSolvers = this.typeSolverSetup;
+        final ThreadLocal<JavaSymbolSolver> workerResolvers = ThreadLocal.withInitial(typeSolvers::newSymbolSolver);
+        final ClassMetadata[] results = new ClassMetadata[javaFilePaths.size()];
+        final String[] warnings = new String[javaFilePaths.size()];
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "java-parser-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(javaFilePaths.size());
+            for (int i = 0; i < javaFilePaths.size(); i++) {
+                final int index = i;
+                final Path javaFilePath = javaFilePaths.get(i);
+                futures.add(executor.submit(() -> {
+                    try {
+                        results[index] = parseFileWithCache(javaFilePath, cache, workerResolvers.get(), this.daoAnalyzerInstance, symbolTable);
+                    } catch (Exception e) {
+                        logger.error("Error parsing file {}: {}", javaFilePath, e.getMessage(), e);
+                        warnings[index] = toProjectRelativePath(javaFilePath.toFile()) + ": " + e.getMessage();
                     }
-                } catch (Exception e) {
-                    logger.error("Error parsing file {}: {}", javaFilePath, e.getMessage(), e);
-                    if (parseWarnings != null) {
-                        parseWarnings.add(javaFilePath.toString() + ": " + e.getMessage());
+                    if (progress != null) {
+                        progress.increment();
                     }
-                }
-            });
-        } catch (IOException e) {
-            logger.error("Error walking through project directory {}: {}", projectPath, e.getMessage(), e);
-            if (parseWarnings != null) {
-                parseWarnings.add("Error walking project directory: " + e.getMessage());
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Parallel parsing was interrupted. Returning partial results.");
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Unexpected error in parallel parsing worker: {}", e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ClassMetadata> allClassMetadata = new ArrayList<>(javaFilePaths.size());
+        for (int i = 0; i < javaFilePaths.size(); i++) {
+            if (results[i] != null) {
+                allClassMetadata.add(results[i]);
+            }
+            if (warnings[i] != null && parseWarnings != null) {
+                parseWarnings.add(warnings[i]);
             }
         }
         return allClassMetadata;
     }
 
-    // Helper for parseProject to use the already initialized resolver
-    private ClassMetadata parseFileWithResolver(File javaFile, JavaSymbolSolver symResolver, DaoAnalyzer daoAnalyst) {
-         try (FileInputStream in = new FileInputStream(javaFile)) {
-            CompilationUnit cu = StaticJavaParser.parse(in);
-            String packageName = cu.getPackageDeclaration().map(pd -> pd.getName().asString()).orElse("");
-            ClassMetadataVisitor visitor = new ClassMetadataVisitor(javaFile.getAbsolutePath(), packageName, symResolver, daoAnalyst);
-            visitor.visit(cu, null);
-            return visitor.getClassMetadata();
+    // Helper for parseProject: reuses stored metadata for identical sources, otherwise parses through the shared
+    // cache with the given resolver. Either way the result is compacted into the run's symbol table
+    private ClassMetadata parseFileWithCache(Path javaFilePath, CompilationUnitCache cache, JavaSymbolSolver symResolver, DaoAnalyzer daoAnalyst,
+                                             SymbolTable symbolTable) {
+        File javaFile = javaFilePath.toFile();
+        try {
+            Path normalizedPath = javaFilePath.toAbsolutePath().normalize();
+            SourceDependencyIndex dependencies = sourceDependencies;
+            String storeKey = dependencies == null ? null
+                    : fileResultStore.contextualHash(dependencies.contentHash(normalizedPath), dependencies.resolutionContext(normalizedPath));
+            Optional<ClassMetadata> stored = fileResultStore.load(CLASS_METADATA_RESULTS, CLASS_METADATA_RESULTS_VERSION, storeKey, ClassMetadata.class);
+            if (stored.isPresent()) {
+                resultStoreHits.incrementAndGet();
+                stored.get().setFilePath(toProjectRelativePath(javaFile));
+                return symbolTable.compact(stored.get());
+            }
+            CompilationUnit cu = cache.get(javaFilePath, new ParserConfiguration().setSymbolResolver(symResolver));
+            ClassMetadata classMetadata = extractClassMetadata(cu, javaFile, symResolver, daoAnalyst, cache);
+            if (classMetadata != null) {
+                symbolTable.compact(classMetadata);
+                fileResultStore.save(CLASS_METADATA_RESULTS, CLASS_METADATA_RESULTS_VERSION, storeKey, classMetadata);
+            }
+            return classMetadata;
         } catch (Exception e) {
             logger.error("Failed to parse Java file {}: {}", javaFile.getAbsolutePath(), e.getMessage(), e);
             throw new RuntimeException("Failed to parse file with resolver: " + javaFile.getAbsolutePath(), e);
         }
     }
 
-    private static class ClassMetadataVisitor extends VoidVisitorAdapter<Void> {
+    // One walk of the file feeds class metadata, its DAO operations and the analyzers later stages added to the
+    // cache; their results and the file's DAO operations are left in the cache for those stages
+    private ClassMetadata extractClassMetadata(CompilationUnit cu, File javaFile, JavaSymbolSolver symResolver, DaoAnalyzer daoAnalyst,
+                                               CompilationUnitCache cache) {
+        String packageName = cu.getPackageDeclaration().map(pd -> pd.getName().asString()).orElse("");
+        DaoAnalyzer.MethodScan daoScan = daoAnalyst.newScan();
+        ClassMetadataAnalyzer classAnalyzer = new ClassMetadataAnalyzer(toProjectRelativePath(javaFile), packageName, symResolver, daoScan);
+        List<AstAnalyzer> stageAnalyzers = cache != null ? cache.newAnalyzers(javaFile.toPath()) : List.of();
+
+        AstDispatcher dispatcher = new AstDispatcher().register(daoScan).register(classAnalyzer);
+        stageAnalyzers.forEach(dispatcher::register);
+        dispatcher.walk(cu);
+        stageAnalyzers.forEach(analyzer -> analyzer.finish(dispatcher));
+
+        RuntimeException failure = dispatcher.failure(daoScan) != null ? dispatcher.failure(daoScan) : dispatcher.failure(classAnalyzer);
+        if (failure != null) {
+            throw failure;
+        }
+        // Only files with operations, as most files are never looked at by DAO analysis; it walks the others itself
+        List<DaoOperationDetail> daoOperations = cache != null ? daoScan.sourceOperations() : List.of();
+        if (!daoOperations.isEmpty()) {
+            cache.putResult(javaFile.toPath(), DaoAnalyzer.SOURCE_OPERATIONS, daoOperations);
+        }
+        return classAnalyzer.getClassMetadata();
+    }
+
+    /**
+     * Collects the type solvers for a project's symbol solver, keeping how each was created so that independent
+     * copies of the solver can be built for parallel parsing workers.
+     */
+    private static class TypeSolverSetup {
+        @FunctionalInterface
+        interface Factory {
+            TypeSolver create() throws IOException;
+        }
+
+        private final List<Factory> factories = new ArrayList<>();
+        private final CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
+
+        // Creates the type solver right away, so failures surface to the caller, and only keeps it if that works
+        void add(Factory factory) {
+            try {
+                combinedTypeSolver.add(factory.create());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e.getMessage(), e);
+            }
+            factories.add(factory);
+        }
+
+        JavaSymbolSolver getSymbolSolver() {
+            return new JavaSymbolSolver(combinedTypeSolver);
+        }
+
+        // A solver sharing no state with the others; a type solver that can no longer be created is left out
+        JavaSymbolSolver newSymbolSolver() {
+            CombinedTypeSolver copy = new CombinedTypeSolver();
+            for (Factory factory : factories) {
+                try {
+                    copy.add(factory.create());
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Failed to create a type solver for a parser worker: {}", e.getMessage());
+                }
+            }
+            return new JavaSymbolSolver(copy);
+        }
+    }
+
+    private static class ClassMetadataAnalyzer implements AstAnalyzer {
         private static final Logger visitorLogger = LoggerFactory.getLogger("com.codedocgen.parser.ClassMetadataVisitorLogger");
 
         private ClassMetadata classMetadata;
         private final String filePath;
         private final String packageName;
         private List<MethodMetadata> methodMetadataList;
-        private MethodMetadata currentMethodMetadata;
         private String currentClassName;
         private final JavaSymbolSolver symbolResolver;
-        private final DaoAnalyzer daoAnalyzer;
+        private final DaoAnalyzer.MethodScan daoScan;
+        // Methods of classes and enums the walk is in, innermost first; their facts are kept until the class exits
+        private final Deque<OpenMethod> openMethods = new ArrayDeque<>();
+        private final Map<MethodDeclaration, OpenMethod> scannedMethods = new IdentityHashMap<>();
 
-        public ClassMetadataVisitor(String filePath, String packageName, JavaSymbolSolver symbolResolver, DaoAnalyzer daoAnalyzer) {
+        public ClassMetadataAnalyzer(String filePath, String packageName, JavaSymbolSolver symbolResolver, DaoAnalyzer.MethodScan daoScan) {
             this.filePath = filePath;
             this.packageName = packageName;
             this.classMetadata = new ClassMetadata();
             this.classMetadata.setFilePath(filePath);
             this.classMetadata.setPackageName(packageName);
             this.symbolResolver = symbolResolver;
-            this.daoAnalyzer = daoAnalyzer;
+            this.daoScan = daoScan;
+        }
+
+        // daoScan must be registered with the same dispatcher, before this analyzer
+        @Override
+        public void register(AstDispatcher dispatcher) {
+            dispatcher.onEnter(this, MethodDeclaration.class, this::enterMethod);
+            dispatcher.onExit(this, MethodDeclaration.class, md -> {
+                if (!openMethods.isEmpty() && openMethods.peek().declaration == md) {
+                    openMethods.pop().localVariables.sort(AstDispatcher.SOURCE_ORDER);
+                }
+            });
+            dispatcher.onEnter(this, BlockStmt.class, block -> {
+                if (!openMethods.isEmpty() && openMethods.peek().body == block) {
+                    openMethods.peek().inBody = true;
+                }
+            });
+            dispatcher.onExit(this, BlockStmt.class, block -> {
+                if (!openMethods.isEmpty() && openMethods.peek().body == block) {
+                    openMethods.peek().inBody = false;
+                }
+            });
+            dispatcher.onEnter(this, VariableDeclarator.class, var -> {
+                for (OpenMethod method : openMethods) {
+                    if (method.inBody) {
+                        method.localVariables.add(var);
+                    }
+                }
+            });
+            // After the call's scope and arguments, so nested calls are listed first
+            dispatcher.onExit(this, MethodCallExpr.class, this::collectCall);
+            dispatcher.onExit(this, ClassOrInterfaceDeclaration.class, this::exitClass);
+            dispatcher.onExit(this, EnumDeclaration.class, this::exitEnum);
+            dispatcher.onExit(this, AnnotationDeclaration.class, this::exitAnnotation);
+        }
+
+        // Only methods declared directly in a class or enum become method metadata
+        private void enterMethod(MethodDeclaration md) {
+            String className = md.getParentNode()
+                    .map(parent -> parent instanceof ClassOrInterfaceDeclaration ? ((ClassOrInterfaceDeclaration) parent).getNameAsString()
+                            : parent instanceof EnumDeclaration ? ((EnumDeclaration) parent).getNameAsString() : null)
+                    .orElse(null);
+            if (className != null) {
+                OpenMethod method = new OpenMethod(md, className);
+                openMethods.push(method);
+                scannedMethods.put(md, method);
+            }
+        }
+
+        // A call counts for every open method, including those of classes declared inside another method's body
+        private void collectCall(MethodCallExpr n) {
+            if (openMethods.isEmpty()) {
+                return;
+            }
+            String resolvedSignature = null;
+            Exception resolveError = null;
+            try {
+                ResolvedMethodDeclaration resolvedMethod = n.resolve();
+                resolvedSignature = resolvedMethod.getQualifiedSignature();
+                visitorLogger.trace("[MCV] Successfully resolved method call '{}'. Signature: '{}'", n.getNameAsString(), resolvedSignature);
+            } catch (Exception e) {
+                resolveError = e;
+            }
+
+            for (OpenMethod method : openMethods) {
+                String methodName = method.declaration.getNameAsString();
+                visitorLogger.trace("[MCV] Visiting MethodCallExpr: '{}' in method: '{}' of class: '{}'", n.toString(), methodName, method.className);
+                if (resolvedSignature != null) {
+                    method.calledMethods.add(resolvedSignature);
+                } else {
+                    visitorLogger.warn("[MCV] Failed to resolve method call '{}' in {}.{}. Attempting fallback. Error: {} - {}",
+                        n.getNameAsString(), method.className, methodName, resolveError.getClass().getName(), resolveError.getMessage(), resolveError);
+                    String fallbackSignature = tryToConstructUnresolvedSignature(n, this.packageName, method.className);
+                    visitorLogger.trace("[MCV] Fallback signature for '{}': '{}'", n.getNameAsString(), fallbackSignature);
+                    method.calledMethods.add(fallbackSignature);
+                }
+            }
         }
 
         private void processMethods(List<MethodDeclaration> methods, String currentPackageName, String currentClassName) {
@@ -625,7 +1050,9 @@ public class JavaParserServiceImpl implements JavaParserService {
                 method.setAbstract(md.isAbstract());
                 method.setPackageName(currentPackageName);
                 method.setClassName(currentClassName);
-                method.setResolvedMethodNode(md);
+                if (md.isAnnotationPresent("Bean")) {
+                    method.setSetterCalls(extractSetterCalls(md));
+                }
 
                 List<List<String>> paramAnnotationsList = new ArrayList<>();
                 for (Parameter param : md.getParameters()) {
@@ -645,29 +1072,24 @@ public class JavaParserServiceImpl implements JavaParserService {
                 method.setDaoOperations(new ArrayList<>());
                 method.setLocalVariables(new ArrayList<>());
 
-                md.getBody().ifPresent(body -> {
-                    body.findAll(VariableDeclarator.class).forEach(var -> {
+                OpenMethod scanned = scannedMethods.get(md);
+                if (scanned != null) {
+                    scanned.localVariables.forEach(var -> {
                         method.getLocalVariables().add(var.getType().toString() + " " + var.getNameAsString());
                     });
-                });
+                    method.getCalledMethods().addAll(scanned.calledMethods);
+                }
 
-                this.currentMethodMetadata = method;
-                MethodCallVisitor methodCallVisitor = new MethodCallVisitor(this.classMetadata, method, this.symbolResolver, currentPackageName, currentClassName);
-                md.accept(methodCallVisitor, null);
-                
-                method.setDaoOperations(this.daoAnalyzer.analyze(md).getOperations());
+                method.setDaoOperations(this.daoScan.result(md).getOperations());
 
                 this.methodMetadataList.add(method);
             }
             if (this.classMetadata != null && this.methodMetadataList != null) {
                 this.classMetadata.setMethods(this.methodMetadataList);
             }
-            this.currentMethodMetadata = null;
         }
 
-        @Override
-        public void visit(ClassOrInterfaceDeclaration n, Void arg) {
-            super.visit(n, arg);
+        private void exitClass(ClassOrInterfaceDeclaration n) {
             this.currentClassName = n.getNameAsString();
             classMetadata.setName(n.getNameAsString());
             classMetadata.setType(determineClassType(n, this.packageName));
@@ -710,9 +1132,7 @@ public class JavaParserServiceImpl implements JavaParserService {
             processMethods(n.getMethods(), this.packageName, n.getNameAsString());
         }
 
-        @Override
-        public void visit(EnumDeclaration n, Void arg) {
-            super.visit(n, arg);
+        private void exitEnum(EnumDeclaration n) {
             this.currentClassName = n.getNameAsString();
             classMetadata.setName(n.getNameAsString());
             classMetadata.setType("enum");
@@ -736,9 +1156,7 @@ public class JavaParserServiceImpl implements JavaParserService {
             processMethods(n.getMethods(), this.packageName, n.getNameAsString());
         }
 
-        @Override
-        public void visit(AnnotationDeclaration n, Void arg) {
-            super.visit(n, arg);
+        private void exitAnnotation(AnnotationDeclaration n) {
             this.currentClassName = n.getNameAsString();
             classMetadata.setName(n.getNameAsString());
             classMetadata.setType("annotation");
@@ -809,6 +1227,27 @@ public class JavaParserServiceImpl implements JavaParserService {
             return "default";
         }
 
+        // Top-level single-argument setXxx(...) statements, as values so the metadata doesn't pin the AST
+        private List<SetterCall> extractSetterCalls(MethodDeclaration md) {
+            List<SetterCall> setterCalls = new ArrayList<>();
+            if (md.getBody().isEmpty()) {
+                return setterCalls;
+            }
+            for (Statement stmt : md.getBody().get().getStatements()) {
+                if (!stmt.isExpressionStmt() || !stmt.asExpressionStmt().getExpression().isMethodCallExpr()) {
+                    continue;
+                }
+                MethodCallExpr call = stmt.asExpressionStmt().getExpression().asMethodCallExpr();
+                String calledMethodName = call.getNameAsString();
+                if (calledMethodName.startsWith("set") && call.getArguments().size() == 1) {
+                    Expression argument = call.getArgument(0);
+                    String literalValue = argument.isStringLiteralExpr() ? argument.asStringLiteralExpr().getValue() : null;
+                    setterCalls.add(new SetterCall(calledMethodName, argument.toString(), literalValue));
+                }
+            }
+            return setterCalls;
+        }
+
         private String getVisibilityFromModifiers(NodeList<Modifier> modifiers) {
             if (modifiers.stream().anyMatch(m -> m.getKeyword() == Modifier.Keyword.PUBLIC)) return "public";
             if (modifiers.stream().anyMatch(m -> m.getKeyword() == Modifier.Keyword.PROTECTED)) return "protected";
@@ -823,92 +1262,59 @@ public class JavaParserServiceImpl implements JavaParserService {
             return classMetadata;
         }
 
-        private class MethodCallVisitor extends VoidVisitorAdapter<Void> {
-            private final ClassMetadata classMetadataContext;
-            private final MethodMetadata methodMetadataContext;
-            private final JavaSymbolSolver specificResolver;
-            private final String outerClassPackageName;
-            private final String outerClassName;
+        private String tryToConstructUnresolvedSignature(MethodCallExpr n, String currentPackageName, String currentClassName) {
+            visitorLogger.trace("[MCV-Fallback] Constructing signature for unresolved call: '{}' in context class: {}, package: {}", n.toString(), currentClassName, currentPackageName);
+            String methodName = n.getNameAsString();
+            String scopeName = null; 
 
-            public MethodCallVisitor(ClassMetadata classCtx, MethodMetadata methodCtx, JavaSymbolSolver resolver, String pkgName, String clsName) {
-                this.classMetadataContext = classCtx;
-                this.methodMetadataContext = methodCtx;
-                this.specificResolver = resolver;
-                this.outerClassPackageName = pkgName;
-                this.outerClassName = clsName;
-            }
-
-            @Override
-            public void visit(MethodCallExpr n, Void arg) {
-                super.visit(n, arg);
-
-                if (methodMetadataContext == null) {
-                    visitorLogger.trace("[MCV] MethodCallExpr visited but methodMetadataContext is null. Call: {}. Class context: {}", n.toString(), classMetadataContext != null ? classMetadataContext.getName() : "UNKNOWN_CLASS");
-                    return;
-                }
-
-                visitorLogger.trace("[MCV] Visiting MethodCallExpr: '{}' in method: '{}' of class: '{}'", 
-                    n.toString(), 
-                    methodMetadataContext.getName(),
-                    outerClassName != null ? outerClassName : "UNKNOWN_CLASS");
-
-                if (methodMetadataContext.getCalledMethods() == null) {
-                    methodMetadataContext.setCalledMethods(new ArrayList<>()); 
+            if (n.getScope().isPresent()) {
+                Expression scopeExpr = n.getScope().get();
+                scopeName = scopeExpr.toString(); 
+                visitorLogger.trace("[MCV-Fallback] Explicit scope: '{}'", scopeName);
+                try {
+                    ResolvedType resolvedType = scopeExpr.calculateResolvedType(); 
+                    scopeName = resolvedType.describe(); 
+                    visitorLogger.trace("[MCV-Fallback] Scope resolved to type: '{}'", scopeName);
+                } catch (Exception e) {
+                    visitorLogger.warn("[MCV-Fallback] Could not resolve type of scope expression '{}' for method call '{}'. Using raw scope. Error: {} - {}", 
+                        scopeExpr.toString(), methodName, e.getClass().getName(), e.getMessage());
                 }
-
+            } else {
+                visitorLogger.trace("[MCV-Fallback] No explicit scope for call to '{}'. Assuming current class or import context: '{}'", methodName, currentClassName);
+                scopeName = currentClassName;
+            }
+            
+            List<String> argTypes = new ArrayList<>();
+            for (Expression argExpr : n.getArguments()) {
                 try {
-                    ResolvedMethodDeclaration resolvedMethod = n.resolve(); 
-                    String resolvedSignature = resolvedMethod.getQualifiedSignature();
-                    visitorLogger.trace("[MCV] Successfully resolved method call '{}'. Signature: '{}'", n.getNameAsString(), resolvedSignature);
-                    methodMetadataContext.getCalledMethods().add(resolvedSignature);
+                    ResolvedType argType = argExpr.calculateResolvedType(); 
+                    argTypes.add(argType.describe());
+                    visitorLogger.trace("[MCV-Fallback] Arg '{}' resolved to type: '{}'", argExpr.toString(), argType.describe());
                 } catch (Exception e) {
-                    visitorLogger.warn("[MCV] Failed to resolve method call '{}' in {}.{}. Attempting fallback. Error: {} - {}", 
-                        n.getNameAsString(), outerClassName, methodMetadataContext.getName(), e.getClass().getName(), e.getMessage(), e);
-                    String fallbackSignature = tryToConstructUnresolvedSignature(n, this.outerClassPackageName, this.outerClassName);
-                    visitorLogger.trace("[MCV] Fallback signature for '{}': '{}'", n.getNameAsString(), fallbackSignature);
-                    methodMetadataContext.getCalledMethods().add(fallbackSignature);
+                    visitorLogger.warn("[MCV-Fallback] Could not resolve type of argument '{}' for method call '{}'. Using UNKNOWN_PARAM_TYPE. Error: {} - {}", 
+                        argExpr.toString(), methodName, e.getClass().getName(), e.getMessage());
+                    argTypes.add("UNKNOWN_PARAM_TYPE"); 
                 }
             }
+            String params = String.join(", ", argTypes);
+            String finalSignature = "UNRESOLVED_CALL: " + (scopeName != null && !scopeName.trim().isEmpty() ? scopeName + "." : "") + methodName + "(" + params + ")";
+            visitorLogger.trace("[MCV-Fallback] Constructed signature for '{}': '{}'", methodName, finalSignature);
+            return finalSignature;
+        }
 
-            private String tryToConstructUnresolvedSignature(MethodCallExpr n, String currentPackageName, String currentClassName) {
-                visitorLogger.trace("[MCV-Fallback] Constructing signature for unresolved call: '{}' in context class: {}, package: {}", n.toString(), currentClassName, currentPackageName);
-                String methodName = n.getNameAsString();
-                String scopeName = null; 
-
-                if (n.getScope().isPresent()) {
-                    Expression scopeExpr = n.getScope().get();
-                    scopeName = scopeExpr.toString(); 
-                    visitorLogger.trace("[MCV-Fallback] Explicit scope: '{}'", scopeName);
-                    try {
-                        ResolvedType resolvedType = scopeExpr.calculateResolvedType(); 
-                        scopeName = resolvedType.describe(); 
-                        visitorLogger.trace("[MCV-Fallback] Scope resolved to type: '{}'", scopeName);
-                    } catch (Exception e) {
-                        visitorLogger.warn("[MCV-Fallback] Could not resolve type of scope expression '{}' for method call '{}'. Using raw scope. Error: {} - {}", 
-                            scopeExpr.toString(), methodName, e.getClass().getName(), e.getMessage());
-                    }
-                } else {
-                    visitorLogger.trace("[MCV-Fallback] No explicit scope for call to '{}'. Assuming current class or import context: '{}'", methodName, currentClassName);
-                    scopeName = currentClassName;
-                }
-                
-                List<String> argTypes = new ArrayList<>();
-                for (Expression argExpr : n.getArguments()) {
-                    try {
-                        ResolvedType argType = argExpr.calculateResolvedType(); 
-                        argTypes.add(argType.describe());
-                        visitorLogger.trace("[MCV-Fallback] Arg '{}' resolved to type: '{}'", argExpr.toString(), argType.describe());
-                    } catch (Exception e) {
-                        visitorLogger.warn("[MCV-Fallback] Could not resolve type of argument '{}' for method call '{}'. Using UNKNOWN_PARAM_TYPE. Error: {} - {}", 
-                            argExpr.toString(), methodName, e.getClass().getName(), e.getMessage());
-                        argTypes.add("UNKNOWN_PARAM_TYPE"); 
-                    }
-                }
-                String params = String.join(", ", argTypes);
-                String finalSignature = "UNRESOLVED_CALL: " + (scopeName != null && !scopeName.trim().isEmpty() ? scopeName + "." : "") + methodName + "(" + params + ")";
-                visitorLogger.trace("[MCV-Fallback] Constructed signature for '{}': '{}'", methodName, finalSignature);
-                return finalSignature;
+        private static final class OpenMethod {
+            private final MethodDeclaration declaration;
+            private final BlockStmt body;
+            private final String className;
+            private boolean inBody;
+            private final List<VariableDeclarator> localVariables = new ArrayList<>();
+            private final List<String> calledMethods = new ArrayList<>();
+
+            private OpenMethod(MethodDeclaration declaration, String className) {
+                this.declaration = declaration;
+                this.body = declaration.getBody().orElse(null);
+                this.className = className;
             }
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,241 @@
+package com.codedocgen.service.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches several {@code \b(a|b|...)\b} keyword alternations in one pass over the text with an Aho-Corasick
+ * automaton, instead of running each alternation as a backtracking regex. Matches are the ones
+ * {@link java.util.regex.Matcher#find()} would report for each alternation: leftmost first, the first listed
+ * keyword when several start at the same position, and not overlapping. Word boundaries are checked as
+ * {@code \b} does without UNICODE_CHARACTER_CLASS ({@code [a-zA-Z0-9_]} word characters).
+ * <p>
+ * Immutable and thread-safe once built.
+ */
+final class KeywordMatcher {
+
+    private static final String REGEX_METACHARACTERS = "\\.[]{}()*+?^$|";
+    private static final Comparator<int[]> MATCH_ORDER = Comparator.<int[]>comparingInt(match -> match[0])
+            .thenComparingInt(match -> match[1])
+            .thenComparingInt(match -> match[3]);
+
+    private final int alphabetSize;
+    private final int[] asciiSymbols = new int[128]; // 0 = character in no keyword
+    private final Map<Character, Integer> otherSymbols = new HashMap<>();
+    // Deterministic automaton: transitions[node * alphabetSize + symbol], failure links already folded in
+    private final int[] transitions;
+    private final int[][] outputs; // Per node, the keywords ending exactly there
+    private final int[] outputLinks; // Per node, the longest proper suffix node with outputs, or -1
+    private final int[] keywordSet;
+    private final int[] keywordRank; // Position of the keyword in its alternation
+    private final int[] keywordLength;
+
+    /**
+     * @param keywordSets Keyword alternations; matches report the index of their alternation in this list
+     */
+    KeywordMatcher(List<List<String>> keywordSets) {
+        int keywordCount = 0;
+        int maxNodes = 1;
+        int nextSymbol = 1;
+        for (List<String> keywords : keywordSets) {
+            for (String keyword : keywords) {
+                keywordCount++;
+                maxNodes += keyword.length();
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = keyword.charAt(i);
+                    if (c < 128 ? asciiSymbols[c] == 0 : !otherSymbols.containsKey(c)) {
+                        if (c < 128) {
+                            asciiSymbols[c] = nextSymbol++;
+                        } else {
+                            otherSymbols.put(c, nextSymbol++);
+                        }
+                    }
+                }
+            }
+        }
+        this.alphabetSize = nextSymbol;
+        this.keywordSet = new int[keywordCount];
+        this.keywordRank = new int[keywordCount];
+        this.keywordLength = new int[keywordCount];
+
+        // Trie; 0 is the root and doubles as "no child" since no edge leads back to it
+        int[] trie = new int[maxNodes * alphabetSize];
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        nodeOutputs.add(new ArrayList<>());
+        int nodeCount = 1;
+        int keyword = 0;
+        for (int set = 0; set < keywordSets.size(); set++) {
+            List<String> keywords = keywordSets.get(set);
+            for (int rank = 0; rank < keywords.size(); rank++, keyword++) {
+                String text = keywords.get(rank);
+                int node = 0;
+                for (int i = 0; i < text.length(); i++) {
+                    int edge = node * alphabetSize + symbol(text.charAt(i));
+                    if (trie[edge] == 0) {
+                        trie[edge] = nodeCount++;
+                        nodeOutputs.add(new ArrayList<>());
+                    }
+                    node = trie[edge];
+                }
+                nodeOutputs.get(node).add(keyword);
+                keywordSet[keyword] = set;
+                keywordRank[keyword] = rank;
+                keywordLength[keyword] = text.length();
+            }
+        }
+
+        // Breadth-first over the trie: a missing edge follows the failure link's edge
+        this.transitions = Arrays.copyOf(trie, nodeCount * alphabetSize);
+        this.outputs = new int[nodeCount][];
+        this.outputLinks = new int[nodeCount];
+        int[] failure = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            outputs[node] = nodeOutputs.get(node).stream().mapToInt(Integer::intValue).toArray();
+        }
+        outputLinks[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < alphabetSize; symbol++) {
+            int child = transitions[symbol];
+            if (child != 0) {
+                failure[child] = 0;
+                outputLinks[child] = -1;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int symbol = 0; symbol < alphabetSize; symbol++) {
+                int edge = node * alphabetSize + symbol;
+                int child = trie[edge];
+                int fallback = transitions[failure[node] * alphabetSize + symbol];
+                if (child == 0) {
+                    transitions[edge] = fallback;
+                } else {
+                    failure[child] = fallback;
+                    outputLinks[child] = outputs[fallback].length > 0 ? fallback : outputLinks[fallback];
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The keywords of a {@code \b(a|b|...)\b} or {@code \b(?:a|b|...)\b} pattern, or null if the pattern
+     * is anything else (any alternative containing a regex metacharacter)
+     */
+    static List<String> keywords(String regex) {
+        if (regex == null || !regex.endsWith(")\\b")) {
+            return null;
+        }
+        int bodyStart;
+        if (regex.startsWith("\\b(?:")) {
+            bodyStart = 5;
+        } else if (regex.startsWith("\\b(") && !regex.startsWith("\\b(?")) {
+            bodyStart = 3;
+        } else {
+            return null;
+        }
+        if (bodyStart > regex.length() - 3) {
+            return null;
+        }
+        List<String> keywords = new ArrayList<>();
+        for (String alternative : regex.substring(bodyStart, regex.length() - 3).split("\\|", -1)) {
+            if (alternative.isEmpty()) {
+                return null;
+            }
+            for (int i = 0; i < alternative.length(); i++) {
+                if (REGEX_METACHARACTERS.indexOf(alternative.charAt(i)) >= 0) {
+                    return null;
+                }
+            }
+            keywords.add(alternative);
+        }
+        return keywords;
+    }
+
+    /**
+     * @return Matches as {set, start, end} (end exclusive), ordered by set and then by start
+     */
+    List<int[]> find(CharSequence text) {
+        List<int[]> candidates = null;
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            node = transitions[node * alphabetSize + symbol(text.charAt(i))];
+            for (int matched = outputs[node].length > 0 ? node : outputLinks[node]; matched >= 0; matched = outputLinks[matched]) {
+                for (int keyword : outputs[matched]) {
+                    int start = i + 1 - keywordLength[keyword];
+                    if (isBoundary(text, start) && isBoundary(text, i + 1)) {
+                        if (candidates == null) {
+                            candidates = new ArrayList<>();
+                        }
+                        candidates.add(new int[]{keywordSet[keyword], start, i + 1, keywordRank[keyword]});
+                    }
+                }
+            }
+        }
+        if (candidates == null) {
+            return List.of();
+        }
+
+        // Per set, leftmost candidates win and the first listed keyword wins a tie, skipping overlaps
+        candidates.sort(MATCH_ORDER);
+        List<int[]> matches = new ArrayList<>(candidates.size());
+        int set = -1;
+        int end = 0;
+        for (int[] candidate : candidates) {
+            if (candidate[0] != set) {
+                set = candidate[0];
+                end = 0;
+            }
+            if (candidate[1] >= end) {
+                matches.add(new int[]{candidate[0], candidate[1], candidate[2]});
+                end = candidate[2];
+            }
+        }
+        return matches;
+    }
+
+    private int symbol(char c) {
+        if (c < 128) {
+            return asciiSymbols[c];
+        }
+        if (otherSymbols.isEmpty()) {
+            return 0;
+        }
+        Integer symbol = otherSymbols.get(c);
+        return symbol != null ? symbol : 0;
+    }
+
+    private static boolean isBoundary(CharSequence text, int position) {
+        boolean wordBefore = position > 0 && isWord(text, Character.codePointBefore(text, position), position - 1);
+        boolean wordAfter = position < text.length() && isWord(text, Character.codePointAt(text, position), position);
+        return wordBefore != wordAfter;
+    }
+
+    // As in Pattern's \b: an ASCII word character, or a non-spacing mark on a letter or digit
+    private static boolean isWord(CharSequence text, int codePoint, int index) {
+        if (codePoint < 128) {
+            return (codePoint >= 'a' && codePoint <= 'z') || (codePoint >= 'A' && codePoint <= 'Z')
+                    || (codePoint >= '0' && codePoint <= '9') || codePoint == '_';
+        }
+        if (Character.getType(codePoint) != Character.NON_SPACING_MARK) {
+            return false;
+        }
+        for (int i = index; i >= 0; i--) {
+            int base = Character.codePointAt(text, i);
+            if (Character.isLetterOrDigit(base)) {
+                return true;
+            }
+            if (Character.getType(base) != Character.NON_SPACING_MARK) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -2,6 +2,11 @@ package com.codedocgen.service.impl;
 
 import com.codedocgen.model.LogStatement;
 import com.codedocgen.model.LogVariable;
+import com.codedocgen.parser.AstAnalyzer;
+import com.codedocgen.parser.AstDispatcher;
+import com.codedocgen.parser.CompilationUnitCache;
+import com.codedocgen.service.FileClassificationService;
+import com.codedocgen.service.FileResultStore;
 import com.codedocgen.service.LoggerInsightsService;
 import com.github.javaparser.ParseProblemException;
 import com.github.javaparser.StaticJavaParser;
@@ -16,7 +21,6 @@ import com.github.javaparser.ast.expr.Expression;
 import com.github.javaparser.ast.expr.MethodCallExpr;
 import com.github.javaparser.ast.expr.NameExpr;
 import com.github.javaparser.ast.expr.StringLiteralExpr;
-import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
 import com.github.javaparser.resolution.declarations.ResolvedValueDeclaration;
 import com.github.javaparser.resolution.types.ResolvedType;
 import com.github.javaparser.symbolsolver.JavaSymbolSolver;
@@ -30,32 +34,45 @@ import org.springframework.beans.factory.annotation.Value;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class LoggerInsightsServiceImpl implements LoggerInsightsService {
 
     private static final Logger logger = LoggerFactory.getLogger(LoggerInsightsServiceImpl.class);
     private static final Set<String> LOGGER_METHOD_NAMES = Set.of("trace", "debug", "info", "warn", "error");
+    // Per-file statements left in the CompilationUnitCache by the parser's walk, see registerWithParser
+    private static final CompilationUnitCache.ResultKey<List<LogStatement>> LOG_STATEMENTS = CompilationUnitCache.ResultKey.of("logStatements");
+    // Result store namespace; bump the version whenever LogAnalyzer's output for the same source changes
+    private static final String LOG_STATEMENT_RESULTS = "log-statements";
+    private static final String LOG_STATEMENT_RESULTS_VERSION = "2";
 
     private final Pattern piiSpecificKeywordsPattern;
     private final Pattern pciKeywordsPattern;
     private final Pattern generalSensitiveKeywordsPattern;
+    private final FileResultStore fileResultStore;
+    private final FileClassificationService fileClassificationService;
+    private final String resultStoreVersion; // Also changes with the configured keyword patterns
 
     public LoggerInsightsServiceImpl(
             @Value("${app.pii-keywords-regex}") String piiKeywordsRegex,
             @Value("${app.pci-keywords-regex}") String pciKeywordsRegex,
-            @Value("${app.general-sensitive-keywords-regex}") String generalKeywordsRegex) {
+            @Value("${app.general-sensitive-keywords-regex}") String generalKeywordsRegex,
+            FileResultStore fileResultStore,
+            FileClassificationService fileClassificationService) {
+        this.fileResultStore = fileResultStore;
+        this.fileClassificationService = fileClassificationService;
+        this.resultStoreVersion = LOG_STATEMENT_RESULTS_VERSION + "-"
+                + Integer.toHexString(Objects.hash(piiKeywordsRegex.trim(), pciKeywordsRegex.trim(), generalKeywordsRegex.trim()));
         this.piiSpecificKeywordsPattern = Pattern.compile(piiKeywordsRegex.trim(), Pattern.CASE_INSENSITIVE);
         this.pciKeywordsPattern = Pattern.compile(pciKeywordsRegex.trim(), Pattern.CASE_INSENSITIVE);
         this.generalSensitiveKeywordsPattern = Pattern.compile(generalKeywordsRegex.trim(), Pattern.CASE_INSENSITIVE);
@@ -63,48 +80,137 @@ public class LoggerInsightsServiceImpl implements LoggerInsightsService {
 
     @Override
     public List<LogStatement> getLogInsights(String projectPath) {
+        return getLogInsights(projectPath, null);
+    }
+
+    @Override
+    public List<LogStatement> getLogInsights(String projectPath, CompilationUnitCache cuCache) {
+        Path rootPath = Paths.get(projectPath);
+        List<String> relativePaths = fileClassificationService.javaSources(rootPath).stream()
+                .map(path -> rootPath.relativize(path).toString())
+                .collect(Collectors.toList());
+        return getLogInsights(rootPath.toFile(), relativePaths, cuCache);
+    }
+
+    @Override
+    public List<LogStatement> getLogInsights(File rootDir, List<String> relativePaths, CompilationUnitCache cuCache) {
         List<LogStatement> logStatements = new ArrayList<>();
         CombinedTypeSolver combinedTypeSolver = new CombinedTypeSolver();
-        combinedTypeSolver.add(new ReflectionTypeSolver());
-        combinedTypeSolver.add(new JavaParserTypeSolver(new File(projectPath))); 
-        // Add more source directories if necessary, e.g. for dependencies for more accurate type solving
-        // combinedTypeSolver.add(new JavaParserTypeSolver(new File(projectPath + "/src/main/java")));
-
-
-        JavaSymbolSolver symbolSolver = new JavaSymbolSolver(combinedTypeSolver);
-        StaticJavaParser.getConfiguration().setSymbolResolver(symbolSolver);
-
-        try (Stream<Path> paths = Files.walk(Paths.get(projectPath))) {
-            List<File> javaFiles = paths
-                    .filter(Files::isRegularFile)
-                    .filter(path -> path.toString().endsWith(".java"))
-                    .map(Path::toFile)
-                    .collect(Collectors.toList());
-
-            for (File javaFile : javaFiles) {
-                try {
-                    CompilationUnit cu = StaticJavaParser.parse(javaFile);
-                    new LogVisitor(combinedTypeSolver).visit(cu, logStatements);
-                } catch (IOException e) {
-                    logger.error("Failed to parse Java file: {}", javaFile.getAbsolutePath(), e);
-                } catch (ParseProblemException e) {
-                    logger.error("Parsing problem in Java file: {}. Details: {}", javaFile.getAbsolutePath(), e.getMessage());
-                } catch (Exception e) { // Catch other runtime exceptions from symbol solving
-                     logger.error("Error processing file {}: {}", javaFile.getAbsolutePath(), e.getMessage(), e);
+        if (cuCache == null) {
+            combinedTypeSolver.add(new ReflectionTypeSolver());
+            combinedTypeSolver.add(new JavaParserTypeSolver(rootDir));
+            // Add more source directories if necessary, e.g. for dependencies for more accurate type solving
+            // combinedTypeSolver.add(new JavaParserTypeSolver(new File(projectPath + "/src/main/java")));
+
+            JavaSymbolSolver symbolSolver = new JavaSymbolSolver(combinedTypeSolver);
+            StaticJavaParser.getConfiguration().setSymbolResolver(symbolSolver);
+        }
+        // With a cache, units come pre-parsed with the project's full symbol solver
+
+        int resultStoreHits = 0;
+        int parserWalkHits = 0;
+        for (String relativePath : relativePaths) {
+            File javaFile = new File(rootDir, relativePath);
+            if (!relativePath.endsWith(".java") || !javaFile.isFile()) {
+                continue;
+            }
+            int firstStatementOfFile = logStatements.size();
+            String normalizedPath = relativePath.replace("\\", "/");
+            // Variable types are resolved against the project, so statements are only reused within the same
+            // resolution context, which is known only for units parsed by the parser service
+            String contentHash = fileResultStore.contextualHash(fileResultStore.contentHash(javaFile.toPath()),
+                    cuCache != null ? cuCache.getResolutionContext(javaFile.toPath()) : null);
+            List<LogStatement> fromParserWalk = cuCache != null ? cuCache.takeResult(javaFile.toPath(), LOG_STATEMENTS) : null;
+            @SuppressWarnings("unchecked")
+            Optional<ArrayList<LogStatement>> stored = fromParserWalk != null ? Optional.empty()
+                    : fileResultStore.load(LOG_STATEMENT_RESULTS, resultStoreVersion, contentHash, ArrayList.class)
+                            .map(list -> (ArrayList<LogStatement>) list);
+            if (stored.isPresent()) {
+                resultStoreHits++;
+                for (LogStatement statement : stored.get()) {
+                    statement.setId(UUID.randomUUID().toString()); // Ids must stay unique when identical files appear twice
+                    statement.setFilePath(normalizedPath);
+                    logStatements.add(statement);
                 }
+                continue;
             }
-        } catch (IOException e) {
-            logger.error("Error walking through project path: {}", projectPath, e);
+            try {
+                if (fromParserWalk != null) {
+                    parserWalkHits++;
+                    logStatements.addAll(fromParserWalk);
+                } else {
+                    CompilationUnit cu = cuCache != null ? cuCache.get(javaFile.toPath()) : StaticJavaParser.parse(javaFile);
+                    extractLogStatements(cu, logStatements);
+                }
+                fileResultStore.save(LOG_STATEMENT_RESULTS, resultStoreVersion, contentHash, new ArrayList<>(logStatements.subList(firstStatementOfFile, logStatements.size())));
+            } catch (IOException e) {
+                logger.error("Failed to parse Java file: {}", javaFile.getAbsolutePath(), e);
+            } catch (ParseProblemException e) {
+                logger.error("Parsing problem in Java file: {}. Details: {}", javaFile.getAbsolutePath(), e.getMessage());
+            } catch (Exception e) { // Catch other runtime exceptions from symbol solving
+                 logger.error("Error processing file {}: {}", javaFile.getAbsolutePath(), e.getMessage(), e);
+            }
+            for (int i = firstStatementOfFile; i < logStatements.size(); i++) {
+                logStatements.get(i).setFilePath(normalizedPath);
+            }
+        }
+        logger.info("Reused stored log statements for {} and the parser's walk for {} of {} files in {}.",
+                resultStoreHits, parserWalkHits, relativePaths.size(), rootDir.getAbsolutePath());
+        if (cuCache != null) {
+            cuCache.logStats("After logger insights for " + rootDir.getAbsolutePath());
         }
         return logStatements;
     }
 
-    private class LogVisitor extends VoidVisitorAdapter<List<LogStatement>> {
-        private final CombinedTypeSolver typeSolver;
+    @Override
+    public void registerWithParser(CompilationUnitCache cuCache, Path sourceRoot) {
+        Path root = sourceRoot.toAbsolutePath().normalize();
+        cuCache.addAnalyzer(file -> file.startsWith(root) ? new LogAnalyzer(new ArrayList<>(), cuCache, file) : null);
+    }
+
+    private void extractLogStatements(CompilationUnit cu, List<LogStatement> logStatements) {
+        LogAnalyzer analyzer = new LogAnalyzer(logStatements, null, null);
+        AstDispatcher dispatcher = new AstDispatcher().register(analyzer);
+        dispatcher.walk(cu);
+        if (dispatcher.failure(analyzer) != null) {
+            throw dispatcher.failure(analyzer);
+        }
+    }
+
+    private class LogAnalyzer implements AstAnalyzer {
+        private final List<LogStatement> logStatements;
+        private final CompilationUnitCache sharedCache; // Set when running in the parser's walk of sharedFile
+        private final Path sharedFile;
+        private final List<String> outerClassNames = new ArrayList<>();
         private String currentClassName = null;
 
-        public LogVisitor(CombinedTypeSolver typeSolver) {
-            this.typeSolver = typeSolver;
+        public LogAnalyzer(List<LogStatement> logStatements, CompilationUnitCache sharedCache, Path sharedFile) {
+            this.logStatements = logStatements;
+            this.sharedCache = sharedCache;
+            this.sharedFile = sharedFile;
+        }
+
+        @Override
+        public void register(AstDispatcher dispatcher) {
+            dispatcher.onEnter(this, CompilationUnit.class, this::enterCompilationUnit);
+            dispatcher.onEnter(this, ClassOrInterfaceDeclaration.class, this::enterType);
+            dispatcher.onExit(this, ClassOrInterfaceDeclaration.class, n -> exitType());
+            dispatcher.onEnter(this, EnumDeclaration.class, this::enterType);
+            dispatcher.onExit(this, EnumDeclaration.class, n -> exitType());
+            dispatcher.onEnter(this, AnnotationDeclaration.class, this::enterType);
+            dispatcher.onExit(this, AnnotationDeclaration.class, n -> exitType());
+            dispatcher.onEnter(this, RecordDeclaration.class, this::enterType);
+            dispatcher.onExit(this, RecordDeclaration.class, n -> exitType());
+            // After the call's scope and arguments, so nested log calls are listed first
+            dispatcher.onExit(this, MethodCallExpr.class, this::collectLogStatement);
+        }
+
+        // A walk that failed leaves nothing, so the log stage walks the file itself and reports the error
+        @Override
+        public void finish(AstDispatcher dispatcher) {
+            if (sharedCache != null && dispatcher.failure(this) == null) {
+                sharedCache.putResult(sharedFile, LOG_STATEMENTS, logStatements);
+            }
         }
 
         private void updateClassNameFromType(TypeDeclaration<?> typeDeclaration) {
@@ -116,8 +222,7 @@ public class LoggerInsightsServiceImpl implements LoggerInsightsService {
             }
         }
 
-        @Override
-        public void visit(CompilationUnit cu, List<LogStatement> logStatements) {
+        private void enterCompilationUnit(CompilationUnit cu) {
             String initialClassName = "UnknownClass";
             if (cu.getPrimaryType().isPresent()) {
                 TypeDeclaration<?> primaryType = cu.getPrimaryType().get();
@@ -134,43 +239,18 @@ public class LoggerInsightsServiceImpl implements LoggerInsightsService {
                  }
             }
             currentClassName = initialClassName;
-            super.visit(cu, logStatements);
-        }
-        
-        @Override
-        public void visit(ClassOrInterfaceDeclaration n, List<LogStatement> arg) {
-            String outerClassName = currentClassName;
-            updateClassNameFromType(n);
-            super.visit(n, arg);
-            currentClassName = outerClassName; // Restore after visiting children
         }
 
-        @Override
-        public void visit(EnumDeclaration n, List<LogStatement> arg) {
-            String outerClassName = currentClassName;
+        private void enterType(TypeDeclaration<?> n) {
+            outerClassNames.add(currentClassName);
             updateClassNameFromType(n);
-            super.visit(n, arg);
-            currentClassName = outerClassName; // Restore after visiting children
         }
 
-        @Override
-        public void visit(AnnotationDeclaration n, List<LogStatement> arg) {
-            String outerClassName = currentClassName;
-            updateClassNameFromType(n);
-            super.visit(n, arg);
-            currentClassName = outerClassName; // Restore after visiting children
-        }
-        
-        @Override
-        public void visit(RecordDeclaration n, List<LogStatement> arg) {
-            String outerClassName = currentClassName;
-            updateClassNameFromType(n);
-            super.visit(n, arg);
-            currentClassName = outerClassName; // Restore after visiting children
+        private void exitType() {
+            currentClassName = outerClassNames.remove(outerClassNames.size() - 1); // Restore after visiting children
         }
 
-        @Override
-        public void visit(MethodCallExpr n, List<LogStatement> logStatements) {
+        private void collectLogStatement(MethodCallExpr n) {
             // Ensure currentClassName is set. If null, it might be a static block or initializer outside a type.
             // For simplicity, we require a class context for logs.
             if (currentClassName == null || currentClassName.equals("UnknownClass")) {
@@ -190,8 +270,6 @@ public class LoggerInsightsServiceImpl implements LoggerInsightsService {
                  }
             }
 
-            super.visit(n, logStatements); // Call super after currentClassName logic if it might affect children
-
             String methodName = n.getNameAsString();
 
             if (LOGGER_METHOD_NAMES.contains(methodName.toLowerCase())) {
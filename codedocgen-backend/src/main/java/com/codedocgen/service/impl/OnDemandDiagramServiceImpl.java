@@ -0,0 +1,128 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.service.DiagramRenderingService;
+import com.codedocgen.service.DiagramService;
+import com.codedocgen.service.OnDemandDiagramService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Call flows are stored as {@code <diagramName>.flow} files, one step per line, in the directory the diagram is
+ * written to; the rendered SVG beside it is the memo. Renders go through {@link DiagramService}, so they share
+ * the render pool and the rendered diagram cache with every other diagram.
+ */
+@Service
+public class OnDemandDiagramServiceImpl implements OnDemandDiagramService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OnDemandDiagramServiceImpl.class);
+
+    private static final String FLOW_SUFFIX = ".flow";
+
+    // "eager" (default) renders every sequence diagram during analysis; "lazy" renders each on first request
+    @Value("${app.diagrams.sequence.mode:eager}")
+    private String sequenceMode;
+
+    private final DiagramService diagramService;
+    private final DiagramRenderingService diagramRenderingService;
+
+    // Renders in progress by diagram path; later callers wait on the first caller's render
+    private final ConcurrentHashMap<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    public OnDemandDiagramServiceImpl(DiagramService diagramService, DiagramRenderingService diagramRenderingService) {
+        this.diagramService = diagramService;
+        this.diagramRenderingService = diagramRenderingService;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return "lazy".equalsIgnoreCase(sequenceMode != null ? sequenceMode.trim() : null);
+    }
+
+    @Override
+    public String registerSequenceDiagram(String diagramName, List<String> callFlow, String outputDir) {
+        Path flowFile = Path.of(outputDir, diagramName + FLOW_SUFFIX);
+        try {
+            Files.createDirectories(flowFile.getParent());
+            Path tempFile = Files.createTempFile(flowFile.getParent(), flowFile.getFileName().toString(), ".tmp");
+            try {
+                // Steps are single-line signatures
+                Files.write(tempFile, callFlow, StandardCharsets.UTF_8);
+                try {
+                    Files.move(tempFile, flowFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempFile, flowFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } catch (IOException e) {
+            logger.warn("[OnDemandDiagrams] Could not store call flow for {}: {}", diagramName, e.getMessage());
+            return null;
+        }
+        return new File(outputDir, diagramRenderingService.outputFileName(diagramName + ".svg")).getAbsolutePath();
+    }
+
+    @Override
+    public boolean ensureRendered(File diagramFile) {
+        if (diagramFile.isFile()) {
+            return true;
+        }
+        String diagramName = diagramName(diagramFile.getName());
+        if (diagramName == null) {
+            return false;
+        }
+        File flowFile = new File(diagramFile.getParentFile(), diagramName + FLOW_SUFFIX);
+        if (!flowFile.isFile()) {
+            return false;
+        }
+
+        String key = diagramFile.getAbsolutePath();
+        CompletableFuture<Boolean> render = new CompletableFuture<>();
+        CompletableFuture<Boolean> running = inFlight.putIfAbsent(key, render);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            // Another render may have finished between the first check and taking the slot
+            if (diagramFile.isFile()) {
+                render.complete(true);
+            } else {
+                long start = System.currentTimeMillis();
+                List<String> callFlow = Files.readAllLines(flowFile.toPath(), StandardCharsets.UTF_8);
+                String path = diagramService.generateSequenceDiagram(callFlow, diagramFile.getParent(), diagramName);
+                render.complete(path != null);
+                logger.info("[OnDemandDiagrams] Rendered {} on first request in {} ms.", diagramFile.getName(), System.currentTimeMillis() - start);
+            }
+        } catch (Exception e) {
+            logger.warn("[OnDemandDiagrams] Could not render {}: {}", diagramFile.getName(), e.getMessage());
+            render.complete(false);
+        } finally {
+            inFlight.remove(key, render);
+        }
+        return render.join();
+    }
+
+    // "sequence_diagram_x.svg" or ".svgz" -> "sequence_diagram_x"
+    private static String diagramName(String fileName) {
+        if (fileName.endsWith(".svg")) {
+            return fileName.substring(0, fileName.length() - ".svg".length());
+        }
+        if (fileName.endsWith(".svgz")) {
+            return fileName.substring(0, fileName.length() - ".svgz".length());
+        }
+        return null;
+    }
+}
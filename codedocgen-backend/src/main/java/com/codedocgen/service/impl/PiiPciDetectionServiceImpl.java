@@ -2,38 +2,71 @@ package com.codedocgen.service.impl;
 
 import com.codedocgen.config.PiiPciProperties;
 import com.codedocgen.model.PiiPciFinding;
+import com.codedocgen.service.FileClassificationService;
+import com.codedocgen.service.FileResultStore;
 import com.codedocgen.service.PiiPciDetectionService;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 @Service
 public class PiiPciDetectionServiceImpl implements PiiPciDetectionService {
 
     private static final Logger logger = LoggerFactory.getLogger(PiiPciDetectionServiceImpl.class);
+    // Result store namespace; bump the version whenever scanFile's output for the same bytes changes
+    private static final String FINDING_RESULTS = "pii-pci-findings";
+    private static final String FINDING_RESULTS_VERSION = "1";
+    // Longer lines (e.g. minified files not caught by extension) are skipped
+    private static final int MAX_LINE_LENGTH = 20000;
 
     private final PiiPciProperties piiPciProperties;
+    private final FileResultStore fileResultStore;
+    private final FileClassificationService fileClassificationService;
+    private String resultStoreVersion; // Also changes with the configured patterns; custom patterns bypass the store
     private Map<String, String> piiPatternStrings; // Keep for init logic, populated from piiPciProperties
     private Map<String, String> pciPatternStrings; // Keep for init logic, populated from piiPciProperties
 
     private final Map<String, Pattern> compiledPiiPatterns = new HashMap<>();
     private final Map<String, Pattern> compiledPciPatterns = new HashMap<>();
+    private ScanPlan configuredScanPlan; // Built once from the compiled patterns above
+
+    // Files scanned in parallel; 0 means one per available core
+    @Value("${app.pii-scan.threads:0}")
+    private int scanThreads;
+
+    // Shared by all scans, so concurrent analyses queue for the same workers instead of each starting its own
+    private ExecutorService scanPool;
+    private int scanPoolThreads;
 
     // Constructor injection for PiiPciProperties
-    public PiiPciDetectionServiceImpl(PiiPciProperties piiPciProperties) {
+    public PiiPciDetectionServiceImpl(PiiPciProperties piiPciProperties, FileResultStore fileResultStore, FileClassificationService fileClassificationService) {
         this.piiPciProperties = piiPciProperties;
+        this.fileResultStore = fileResultStore;
+        this.fileClassificationService = fileClassificationService;
     }
 
     @PostConstruct
@@ -73,131 +106,289 @@ public class PiiPciDetectionServiceImpl implements PiiPciDetectionService {
                 logger.error("[PiiPciDetectionService-Init] Error compiling PCI pattern '{}' during init: {}", key, e.getMessage());
             }
         });
-        logger.info("[PiiPciDetectionService-Init] Initialization complete. Compiled PII patterns: {}, Compiled PCI patterns: {}", compiledPiiPatterns.size(), compiledPciPatterns.size());
+        this.configuredScanPlan = ScanPlan.of(configuredPatterns());
+        this.resultStoreVersion = FINDING_RESULTS_VERSION + "-" + Integer.toHexString(Objects.hash(new TreeMap<>(piiPatternStrings), new TreeMap<>(pciPatternStrings)));
+        logger.info("[PiiPciDetectionService-Init] Initialization complete. Compiled PII patterns: {}, Compiled PCI patterns: {}, of which keyword alternations: {}", compiledPiiPatterns.size(), compiledPciPatterns.size(), configuredScanPlan.keywordPatternCount());
+
+        this.scanPoolThreads = scanThreads > 0 ? scanThreads : Runtime.getRuntime().availableProcessors();
+        if (scanPoolThreads > 1) {
+            AtomicInteger threadCounter = new AtomicInteger();
+            this.scanPool = Executors.newFixedThreadPool(scanPoolThreads, runnable -> {
+                Thread thread = new Thread(runnable, "pii-scanner-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scanPool != null) {
+            scanPool.shutdownNow();
+        }
     }
 
     @Override
     public List<PiiPciFinding> scanRepository(Path repoPath, Map<String, Pattern> customPatterns) {
         logger.info("[PiiPciDetectionService] Starting repository scan for: {}", repoPath);
         final List<PiiPciFinding> allFindings = new ArrayList<>();
-        final Map<String, Pattern> effectivePatterns = new HashMap<>();
+        final ScanPlan scanPlan = resolveScanPlan(customPatterns);
+        if (scanPlan.isEmpty()) {
+            return allFindings; // Return empty list if no patterns
+        }
+
+        try {
+            List<Path> filePaths = fileClassificationService.scannableFiles(repoPath);
+            scanAll(repoPath, filePaths, scanPlan, storeVersionFor(customPatterns), allFindings);
+        } catch (Exception e) {
+            logger.error("[PiiPciDetectionService] Unexpected error during repository scan for {}: {}", repoPath, e.getMessage(), e);
+        }
+
+        logger.info("[PiiPciDetectionService] Scan completed. Found {} PII/PCI items.", allFindings.size());
+        return allFindings;
+    }
+
+    @Override
+    public List<PiiPciFinding> scanFiles(Path repoPath, List<String> relativePaths, Map<String, Pattern> customPatterns) {
+        logger.info("[PiiPciDetectionService] Starting scan of {} files in: {}", relativePaths.size(), repoPath);
+        final List<PiiPciFinding> allFindings = new ArrayList<>();
+        final ScanPlan scanPlan = resolveScanPlan(customPatterns);
+        if (scanPlan.isEmpty()) {
+            return allFindings;
+        }
+        List<Path> filePaths = new ArrayList<>(relativePaths.size());
+        for (String relativePath : relativePaths) {
+            Path filePath = repoPath.resolve(relativePath);
+            if (Files.isRegularFile(filePath) && fileClassificationService.isScannable(repoPath, filePath)) {
+                filePaths.add(filePath);
+            }
+        }
+        scanAll(repoPath, filePaths, scanPlan, storeVersionFor(customPatterns), allFindings);
+        logger.info("[PiiPciDetectionService] Scan completed. Found {} PII/PCI items.", allFindings.size());
+        return allFindings;
+    }
+
+    private ScanPlan resolveScanPlan(Map<String, Pattern> customPatterns) {
+        final ScanPlan scanPlan;
 
         if (customPatterns != null && !customPatterns.isEmpty()) {
             logger.info("[PiiPciDetectionService] Using custom patterns provided ({} patterns).", customPatterns.size());
-            effectivePatterns.putAll(customPatterns);
+            scanPlan = ScanPlan.of(new HashMap<>(customPatterns));
         } else {
             logger.info("[PiiPciDetectionService] No custom patterns provided, using pre-compiled configured patterns. PII: {}, PCI: {}", compiledPiiPatterns.size(), compiledPciPatterns.size());
-            effectivePatterns.putAll(this.compiledPiiPatterns);
-            effectivePatterns.putAll(this.compiledPciPatterns);
+            scanPlan = configuredScanPlan;
         }
-        
-        logger.info("[PiiPciDetectionService] Effective patterns to be used for scanning ({} total): {}", effectivePatterns.size(), effectivePatterns.keySet());
 
-        if (effectivePatterns.isEmpty()) {
+        logger.info("[PiiPciDetectionService] Effective patterns to be used for scanning ({} total, {} as keyword alternations): {}",
+                scanPlan.findingTypes.length, scanPlan.keywordPatternCount(), Arrays.toString(scanPlan.findingTypes));
+
+        if (scanPlan.isEmpty()) {
             logger.warn("[PiiPciDetectionService] No PII/PCI patterns are configured or provided. Scan will not find any items.");
-            return allFindings; // Return empty list if no patterns
         }
+        return scanPlan;
+    }
 
-        try (Stream<Path> paths = Files.walk(repoPath)) {
-            paths.filter(Files::isRegularFile)
-                 .filter(path -> {
-                    String filePathString = path.toString().toLowerCase(); // use toLowerCase for robust suffix checking
-                    // Exclude .git directory, common binary files, target directories etc.
-                    if (filePathString.contains("/.git/") || 
-                        filePathString.contains("/target/") || 
-                        filePathString.contains("/build/") ||
-                        filePathString.contains("/dist/") ||
-                        filePathString.contains("/node_modules/") ||
-                        filePathString.endsWith(".jar") ||
-                        filePathString.endsWith(".class") ||
-                        filePathString.endsWith(".png") ||
-                        filePathString.endsWith(".jpg") ||
-                        filePathString.endsWith(".jpeg") ||
-                        filePathString.endsWith(".gif") ||
-                        filePathString.endsWith(".bmp") ||
-                        filePathString.endsWith(".tiff") ||
-                        filePathString.endsWith(".zip") ||
-                        filePathString.endsWith(".tar") ||
-                        filePathString.endsWith(".gz") ||
-                        filePathString.endsWith(".rar") ||
-                        filePathString.endsWith(".7z") ||
-                        filePathString.endsWith(".exe") ||
-                        filePathString.endsWith(".dll") ||
-                        filePathString.endsWith(".so") ||
-                        filePathString.endsWith(".dylib") ||
-                        filePathString.endsWith(".o") ||
-                        filePathString.endsWith(".obj") ||
-                        filePathString.endsWith(".pdf") ||
-                        filePathString.endsWith(".doc") ||
-                        filePathString.endsWith(".docx") ||
-                        filePathString.endsWith(".xls") ||
-                        filePathString.endsWith(".xlsx") ||
-                        filePathString.endsWith(".ppt") ||
-                        filePathString.endsWith(".pptx") ||
-                        filePathString.endsWith(".odt") ||
-                        filePathString.endsWith(".ods") ||
-                        filePathString.endsWith(".odp") ||
-                        // filePathString.endsWith(".svg") || // SVGs can contain text, might be relevant
-                        filePathString.endsWith(".lock") ||
-                        filePathString.endsWith(".log") || // Logs might be too noisy, but could contain PII/PCI. User request was "not just logs, but any elements"
-                        filePathString.endsWith(".min.js") || // minified JS
-                        filePathString.endsWith(".min.css")) { // minified CSS
-                        // logger.trace("[PiiPciDetectionService] Filtering out file based on path/extension: {}", filePath);
-                        return false;
+    private Map<String, Pattern> configuredPatterns() {
+        final Map<String, Pattern> configuredPatterns = new HashMap<>();
+        configuredPatterns.putAll(this.compiledPiiPatterns);
+        configuredPatterns.putAll(this.compiledPciPatterns);
+        return configuredPatterns;
+    }
+
+    private String storeVersionFor(Map<String, Pattern> customPatterns) {
+        return customPatterns == null || customPatterns.isEmpty() ? resultStoreVersion : null;
+    }
+
+    /**
+     * Scans the files on the shared worker pool: one task per worker, each reading through its own
+     * {@link FileScanner} and taking the next file until none are left. Findings are slotted by file index, so they
+     * come out in file order whatever order the workers finish in.
+     */
+    private void scanAll(Path repoPath, List<Path> filePaths, ScanPlan scanPlan, String storeVersion, List<PiiPciFinding> allFindings) {
+        if (filePaths.isEmpty()) {
+            return;
+        }
+        int workers = scanPool != null ? Math.min(scanPoolThreads, filePaths.size()) : 1;
+        if (workers <= 1) {
+            FileScanner scanner = new FileScanner(scanPlan);
+            for (Path filePath : filePaths) {
+                allFindings.addAll(scanFile(repoPath, filePath, scanner, storeVersion));
+            }
+            return;
+        }
+        logger.info("[PiiPciDetectionService] Scanning {} files using {} worker threads.", filePaths.size(), workers);
+
+        final AtomicReferenceArray<List<PiiPciFinding>> results = new AtomicReferenceArray<>(filePaths.size());
+        final AtomicInteger nextFile = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(scanPool.submit(() -> {
+                    FileScanner scanner = new FileScanner(scanPlan);
+                    int index;
+                    while (!Thread.currentThread().isInterrupted() && (index = nextFile.getAndIncrement()) < filePaths.size()) {
+                        results.set(index, scanFile(repoPath, filePaths.get(index), scanner, storeVersion));
                     }
-                    return true;
-                })
-                .forEach(filePath -> {
-                    // logger.debug("[PiiPciDetectionService] Scanning file: {}", filePath); // Can be too verbose
-                    try {
-                        // Using Files.lines() for potentially better memory usage with large files,
-                        // but readAllLines is fine for moderately sized source code files.
-                        // For this implementation, we need line numbers, so readAllLines is easier.
-                        List<String> lines = Files.readAllLines(filePath); // Assuming UTF-8, might need Charset specification for robustness
-                        for (int i = 0; i < lines.size(); i++) {
-                            String line = lines.get(i);
-                            // Simple check for very long lines to avoid performance issues with regex on massive single lines (e.g. minified files not caught by extension)
-                            if (line.length() > 20000) { 
-                                // logger.warn("[PiiPciDetectionService] Skipping very long line ({}) in file: {}", line.length(), filePath);
-                                continue;
-                            }
-                            for (Map.Entry<String, Pattern> entry : effectivePatterns.entrySet()) {
-                                String findingType = entry.getKey();
-                                Pattern pattern = entry.getValue();
-                                Matcher matcher = pattern.matcher(line);
-                                while (matcher.find()) {
-                                    PiiPciFinding finding = new PiiPciFinding(
-                                            repoPath.relativize(filePath).toString().replace("\\", "/"), // Normalize path separators
-                                            i + 1,             // Line number (1-indexed)
-                                            matcher.start() +1,  // Column number (1-indexed)
-                                            findingType,
-                                            matcher.group()
-                                    );
-                                    allFindings.add(finding);
-                                    logger.info("[PiiPciDetectionService] Found PII/PCI: Type={}, File={}, Line={}, Col={}, Match={}", findingType, finding.getFilePath(), finding.getLineNumber(), finding.getColumnNumber(),finding.getMatchedText());
-                                }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            logger.warn("[PiiPciDetectionService] Scan was interrupted. Returning partial results.");
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("[PiiPciDetectionService] Unexpected error in scan worker: {}", e.getMessage(), e);
+        } finally {
+            // Stops the other workers of this scan if it ended early; a no-op for finished ones
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        for (int i = 0; i < results.length(); i++) {
+            List<PiiPciFinding> fileFindings = results.get(i);
+            if (fileFindings != null) {
+                allFindings.addAll(fileFindings);
+            }
+        }
+    }
+
+    /**
+     * @return The file's findings; empty if it could not be read
+     */
+    private List<PiiPciFinding> scanFile(Path repoPath, Path filePath, FileScanner scanner, String storeVersion) {
+        // logger.debug("[PiiPciDetectionService] Scanning file: {}", filePath); // Can be too verbose
+        // Binary files are recognized before the result store hashes the whole file
+        if (!fileClassificationService.looksLikeText(filePath)) {
+            logger.debug("[PiiPciDetectionService] Skipping binary file: {}", filePath);
+            return List.of();
+        }
+        String relativePath = repoPath.relativize(filePath).toString().replace("\\", "/"); // Normalize path separators
+        // storeVersion is null when results must not be shared through the result store
+        String contentHash = storeVersion != null ? fileResultStore.contentHash(filePath) : null;
+        if (contentHash != null) {
+            @SuppressWarnings("unchecked")
+            Optional<ArrayList<PiiPciFinding>> stored = fileResultStore.load(FINDING_RESULTS, storeVersion, contentHash, ArrayList.class)
+                    .map(list -> (ArrayList<PiiPciFinding>) list);
+            if (stored.isPresent()) {
+                for (PiiPciFinding finding : stored.get()) {
+                    finding.setFilePath(relativePath);
+                }
+                return stored.get();
+            }
+        }
+        try {
+            ArrayList<PiiPciFinding> fileFindings = scanner.scan(filePath, relativePath);
+            if (contentHash != null) {
+                fileResultStore.save(FINDING_RESULTS, storeVersion, contentHash, fileFindings);
+            }
+            return fileFindings;
+        } catch (CharacterCodingException e) {
+            logger.warn("[PiiPciDetectionService] Skipping file due to charset issue ({}): {}", e.getClass().getSimpleName(), filePath);
+        } catch (IOException e) {
+            logger.error("[PiiPciDetectionService] Error reading file {}: {}", filePath, e.getMessage());
+        } catch (StackOverflowError e) {
+            logger.error("[PiiPciDetectionService] StackOverflowError while processing file (likely very complex regex or line structure): {}", filePath);
+        } catch (Exception e) {
+            logger.error("[PiiPciDetectionService] Unexpected error processing file {}: {}", filePath, e.getMessage(), e);
+        }
+        return List.of();
+    }
+
+    // Line and column are 1-indexed
+    private static void addFinding(List<PiiPciFinding> allFindings, String relativePath, int lineNumber, int columnNumber, String findingType, String matchedText) {
+        PiiPciFinding finding = new PiiPciFinding(relativePath, lineNumber, columnNumber, findingType, matchedText);
+        allFindings.add(finding);
+        logger.debug("[PiiPciDetectionService] Found PII/PCI: Type={}, File={}, Line={}, Col={}, Match={}", findingType, finding.getFilePath(), finding.getLineNumber(), finding.getColumnNumber(), finding.getMatchedText());
+    }
+
+    /**
+     * Per-thread scanning state: the line reader and one reusable matcher per regex pattern.
+     */
+    private static final class FileScanner {
+        private final ScanPlan scanPlan;
+        private final Utf8LineReader reader = new Utf8LineReader(MAX_LINE_LENGTH);
+        private final Matcher[] matchers;
+
+        FileScanner(ScanPlan scanPlan) {
+            this.scanPlan = scanPlan;
+            this.matchers = new Matcher[scanPlan.findingTypes.length];
+            for (int type = 0; type < matchers.length; type++) {
+                if (scanPlan.regexPatterns[type] != null) {
+                    matchers[type] = scanPlan.regexPatterns[type].matcher("");
+                }
+            }
+        }
+
+        ArrayList<PiiPciFinding> scan(Path filePath, String relativePath) throws IOException {
+            ArrayList<PiiPciFinding> fileFindings = new ArrayList<>();
+            reader.read(filePath, (lineNumber, line) -> {
+                // One automaton pass covers every keyword alternation of the line
+                List<int[]> keywordMatches = scanPlan.keywordMatcher != null ? scanPlan.keywordMatcher.find(line) : List.of();
+                for (int type = 0; type < scanPlan.findingTypes.length; type++) {
+                    String findingType = scanPlan.findingTypes[type];
+                    int keywordSet = scanPlan.keywordSets[type];
+                    if (keywordSet >= 0) {
+                        for (int[] match : keywordMatches) {
+                            if (match[0] == keywordSet) {
+                                addFinding(fileFindings, relativePath, lineNumber, match[1] + 1, findingType, line.subSequence(match[1], match[2]).toString());
                             }
                         }
-                    } catch (IOException e) {
-                        if (e.getMessage() != null && e.getMessage().toLowerCase().contains("malformedinputexception")) {
-                            logger.warn("[PiiPciDetectionService] Skipping file due to charset issue (MalformedInputException): {}", filePath);
-                        } else {
-                            logger.error("[PiiPciDetectionService] Error reading file {}: {}", filePath, e.getMessage());
-                        }
-                    } catch (StackOverflowError సో) { // Renamed to avoid syntax issue if original char is problematic
-                        logger.error("[PiiPciDetectionService] StackOverflowError while processing file (likely very complex regex or line structure): {}", filePath);
+                        continue;
                     }
-                     catch (Exception e) {
-                        logger.error("[PiiPciDetectionService] Unexpected error processing file {}: {}", filePath, e.getMessage(), e);
+                    Matcher matcher = matchers[type].reset(line);
+                    while (matcher.find()) {
+                        addFinding(fileFindings, relativePath, lineNumber, matcher.start() + 1, findingType, matcher.group());
                     }
-                });
-        } catch (IOException e) {
-            logger.error("[PiiPciDetectionService] Error walking file tree for path {}: {}", repoPath, e.getMessage(), e);
-        } catch (Exception e) {
-            logger.error("[PiiPciDetectionService] Unexpected error during repository scan for {}: {}", repoPath, e.getMessage(), e);
+                }
+            });
+            return fileFindings;
         }
+    }
 
-        logger.info("[PiiPciDetectionService] Scan completed. Found {} PII/PCI items.", allFindings.size());
-        return allFindings;
+    /**
+     * Patterns in scan order. Plain {@code \b(a|b|...)\b} keyword alternations without flags are matched together
+     * by one {@link KeywordMatcher}; regex is kept for everything else.
+     */
+    private static final class ScanPlan {
+        private final String[] findingTypes;
+        private final Pattern[] regexPatterns; // Null where the type is a keyword alternation
+        private final int[] keywordSets; // Keyword matcher set per type, or -1
+        private final KeywordMatcher keywordMatcher; // Null when no pattern is a keyword alternation
+
+        private ScanPlan(String[] findingTypes, Pattern[] regexPatterns, int[] keywordSets, KeywordMatcher keywordMatcher) {
+            this.findingTypes = findingTypes;
+            this.regexPatterns = regexPatterns;
+            this.keywordSets = keywordSets;
+            this.keywordMatcher = keywordMatcher;
+        }
+
+        static ScanPlan of(Map<String, Pattern> patterns) {
+            String[] findingTypes = new String[patterns.size()];
+            Pattern[] regexPatterns = new Pattern[patterns.size()];
+            int[] keywordSets = new int[patterns.size()];
+            List<List<String>> keywordLists = new ArrayList<>();
+            int type = 0;
+            for (Map.Entry<String, Pattern> entry : patterns.entrySet()) {
+                findingTypes[type] = entry.getKey();
+                List<String> keywords = entry.getValue().flags() == 0 ? KeywordMatcher.keywords(entry.getValue().pattern()) : null;
+                if (keywords != null) {
+                    keywordSets[type] = keywordLists.size();
+                    keywordLists.add(keywords);
+                } else {
+                    keywordSets[type] = -1;
+                    regexPatterns[type] = entry.getValue();
+                }
+                type++;
+            }
+            return new ScanPlan(findingTypes, regexPatterns, keywordSets, keywordLists.isEmpty() ? null : new KeywordMatcher(keywordLists));
+        }
+
+        boolean isEmpty() {
+            return findingTypes.length == 0;
+        }
+
+        int keywordPatternCount() {
+            return (int) Arrays.stream(keywordSets).filter(set -> set >= 0).count();
+        }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.codedocgen.service.impl;
 
+import com.codedocgen.service.FileClassificationService;
 import com.codedocgen.service.ProjectDetectorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,13 +13,18 @@ import java.nio.file.Path;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Stream;
 
 @Service
 public class ProjectDetectorServiceImpl implements ProjectDetectorService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProjectDetectorServiceImpl.class);
 
+    private final FileClassificationService fileClassificationService;
+
+    public ProjectDetectorServiceImpl(FileClassificationService fileClassificationService) {
+        this.fileClassificationService = fileClassificationService;
+    }
+
     @Override
     public String detectBuildTool(File projectDir) {
         if (new File(projectDir, "pom.xml").exists()) {
@@ -69,24 +75,19 @@ public class ProjectDetectorServiceImpl implements ProjectDetectorService {
         // Fallback: Scan Java files for @SpringBootApplication annotation
         // This is more intensive and should be a secondary check if build files don't give a clear answer.
         // Consider using JavaParserService for this if it's already available and configured.
-        try (Stream<Path> stream = Files.walk(projectDir.toPath())) {
-            Optional<Path> springBootAppFile = stream
-                .filter(path -> path.toString().endsWith(".java"))
-                .filter(path -> {
-                    try {
-                        return Files.readString(path).contains("@SpringBootApplication");
-                    } catch (IOException e) {
-                        logger.warn("Could not read file {} during Spring Boot detection: {}", path, e.getMessage());
-                        return false;
-                    }
-                })
-                .findFirst();
-            if (springBootAppFile.isPresent()) {
-                logger.info("Detected Spring Boot project (via @SpringBootApplication annotation) in {}", projectDir.getAbsolutePath());
-                return true;
-            }
-        } catch (IOException e) {
-            logger.error("Error walking file tree for Spring Boot detection in {}: {}", projectDir.getAbsolutePath(), e.getMessage());
+        Optional<Path> springBootAppFile = fileClassificationService.javaSources(projectDir.toPath()).stream()
+            .filter(path -> {
+                try {
+                    return Files.readString(path).contains("@SpringBootApplication");
+                } catch (IOException e) {
+                    logger.warn("Could not read file {} during Spring Boot detection: {}", path, e.getMessage());
+                    return false;
+                }
+            })
+            .findFirst();
+        if (springBootAppFile.isPresent()) {
+            logger.info("Detected Spring Boot project (via @SpringBootApplication annotation) in {}", projectDir.getAbsolutePath());
+            return true;
         }
 
         logger.info("Spring Boot not detected in {}", projectDir.getAbsolutePath());
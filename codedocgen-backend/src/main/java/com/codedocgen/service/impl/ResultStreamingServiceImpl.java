@@ -0,0 +1,119 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.dto.ParsedDataResponse;
+import com.codedocgen.service.ResultStreamingService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Takes the sections and their names from the application's {@link ObjectMapper}, so a streamed result uses the
+ * same property names and serializers as the regular response, and new response fields become sections without
+ * changes here. Each section value is serialized straight into the (optionally gzip'ed) response stream; the
+ * gzip stream is sync-flushed after every section so compression does not hold back completed sections.
+ */
+@Service
+public class ResultStreamingServiceImpl implements ResultStreamingService {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+    // Section name -> accessor, in the order Jackson serializes the properties
+    private final Map<String, AnnotatedMember> sections = new LinkedHashMap<>();
+
+    public ResultStreamingServiceImpl(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        BeanDescription description = objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(ParsedDataResponse.class));
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (property.couldSerialize() && property.getAccessor() != null) {
+                sections.put(property.getName(), property.getAccessor());
+            }
+        }
+    }
+
+    @Override
+    public List<String> sectionNames() {
+        return new ArrayList<>(sections.keySet());
+    }
+
+    @Override
+    public List<String> parseSections(String requested) {
+        if (requested == null || requested.isBlank()) {
+            return sectionNames();
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        for (String name : requested.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!sections.containsKey(trimmed)) {
+                throw new IllegalArgumentException("Unknown section '" + trimmed + "'; expected one of " + sections.keySet());
+            }
+            selected.add(trimmed);
+        }
+        // Write order is the response's property order, not the order of the request
+        List<String> ordered = new ArrayList<>();
+        for (String name : sections.keySet()) {
+            if (selected.contains(name)) {
+                ordered.add(name);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public void write(ParsedDataResponse result, List<String> sectionNames, Format format, boolean gzip, OutputStream out) throws IOException {
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_SIZE, true) : null;
+        OutputStream target = gzipOut != null ? gzipOut : out;
+        try (JsonGenerator generator = objectMapper.createGenerator(target)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // NDJSON lines are separated explicitly below
+            generator.setRootValueSeparator(null);
+
+            if (format == Format.JSON) {
+                generator.writeStartObject();
+            }
+            for (String name : sectionNames) {
+                AnnotatedMember accessor = sections.get(name);
+                if (accessor == null) {
+                    throw new IllegalArgumentException("Unknown section '" + name + "'");
+                }
+                Object value = accessor.getValue(result);
+                if (format == Format.JSON) {
+                    generator.writeFieldName(name);
+                    generator.writeObject(value);
+                } else {
+                    generator.writeStartObject();
+                    generator.writeStringField("section", name);
+                    generator.writeFieldName("data");
+                    generator.writeObject(value);
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                }
+                generator.flush();
+            }
+            if (format == Format.JSON) {
+                generator.writeEndObject();
+            }
+        }
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        out.flush();
+    }
+}
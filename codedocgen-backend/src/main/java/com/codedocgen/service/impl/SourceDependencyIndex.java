@@ -0,0 +1,262 @@
+package com.codedocgen.service.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Which of a project's sources symbol resolution in a given source may read, found by scanning the sources'
+ * text instead of parsing them: the sources of its own package, the project types it imports or names by
+ * qualified name, and the supertypes of all of those, transitively. The scan over-approximates (comments and
+ * strings count too), which only costs reuse.
+ * <p>
+ * A source's resolution context hashes the build files (dependencies) and the path and content of each of
+ * those sources, so editing one file only invalidates stored results of the files that may resolve against it.
+ * <p>
+ * Thread-safe once built; contexts are computed on first request.
+ */
+final class SourceDependencyIndex {
+
+    private static final Pattern PACKAGE = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final Pattern SINGLE_IMPORT = Pattern.compile("^\\s*import\\s+([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final Pattern ON_DEMAND_IMPORT = Pattern.compile("^\\s*import\\s+(?:static\\s+)?([\\w.]+)\\.\\*\\s*;", Pattern.MULTILINE);
+    private static final Pattern TYPE_DECLARATION = Pattern.compile("\\b(?:class|interface|enum|record)\\s+([A-Za-z_$][\\w$]*)");
+    private static final Pattern SUPERTYPE_CLAUSE = Pattern.compile("\\b(?:extends|implements)\\b([^{;()]*)");
+    private static final Pattern QUALIFIED_NAME = Pattern.compile("\\b[A-Za-z_$][\\w$]*(?:\\.[A-Za-z_$][\\w$]*)+");
+    private static final Pattern NAME = Pattern.compile("[A-Za-z_$][\\w$.]*");
+    private static final Set<String> CLAUSE_KEYWORDS = Set.of("extends", "implements", "permits", "super");
+
+    private final String buildFilesHash;
+    private final Map<Path, Source> sources = new HashMap<>();
+    private final Map<String, Source> sourcesByTypeName = new HashMap<>(); // By FQN of the types they declare
+    private final Map<String, List<Source>> sourcesByPackage = new HashMap<>();
+    private final Map<Path, String> contexts = new ConcurrentHashMap<>();
+
+    private static final class Source {
+        final Path path;
+        final String relativePath;
+        final String contentHash; // Null if the file cannot be hashed
+        String packageName = "";
+        Scan scan; // Until linked
+        final Set<Source> references = new HashSet<>();
+        final Set<Source> supertypes = new HashSet<>();
+
+        Source(Path path, String relativePath, String contentHash) {
+            this.path = path;
+            this.relativePath = relativePath;
+            this.contentHash = contentHash;
+        }
+    }
+
+    // The names a source mentions, kept between reading all sources and linking them
+    private static final class Scan {
+        final List<String> singleImports = new ArrayList<>();
+        final List<String> onDemandImports = new ArrayList<>();
+        final Set<String> qualifiedNames = new HashSet<>();
+        final Set<String> supertypeNames = new HashSet<>();
+    }
+
+    /**
+     * @param sources Absolute, normalized paths of all Java sources of the project
+     * @param hasher Content hash of a source, or null if it has none
+     * @param buildFilesHash Hash of the project's build files, or null if there are none
+     */
+    SourceDependencyIndex(Path projectPath, List<Path> sources, Function<Path, String> hasher, String buildFilesHash) {
+        this.buildFilesHash = buildFilesHash != null ? buildFilesHash : "none";
+        for (Path path : sources) {
+            String relativePath = projectPath.relativize(path).toString().replace("\\", "/");
+            Source source = new Source(path, relativePath, hasher.apply(path));
+            this.sources.put(path, source);
+            scan(source, readText(path));
+        }
+        for (Source source : this.sources.values()) {
+            link(source);
+            source.scan = null;
+        }
+    }
+
+    /** @return The content hash of the given source, or null if it is not indexed or cannot be hashed */
+    String contentHash(Path path) {
+        Source source = sources.get(path);
+        return source != null ? source.contentHash : null;
+    }
+
+    /**
+     * @return The hash of everything resolving types in the given source may depend on besides the source itself,
+     * or null if it is not indexed or one of those sources cannot be hashed
+     */
+    String resolutionContext(Path path) {
+        Source source = sources.get(path);
+        if (source == null) {
+            return null;
+        }
+        String context = contexts.get(path);
+        if (context == null) {
+            context = computeContext(source);
+            if (context != null) {
+                contexts.put(path, context);
+            }
+        }
+        return context;
+    }
+
+    private String computeContext(Source source) {
+        Set<Source> reachable = new HashSet<>(source.references);
+        Deque<Source> pending = new ArrayDeque<>(reachable);
+        pending.add(source);
+        while (!pending.isEmpty()) {
+            for (Source supertype : pending.poll().supertypes) {
+                if (reachable.add(supertype)) {
+                    pending.add(supertype);
+                }
+            }
+        }
+        reachable.remove(source);
+        Map<String, String> hashes = new TreeMap<>();
+        for (Source dependency : reachable) {
+            if (dependency.contentHash == null) {
+                return null;
+            }
+            hashes.put(dependency.relativePath, dependency.contentHash);
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(("build:" + buildFilesHash + "\n").getBytes(StandardCharsets.UTF_8));
+            hashes.forEach((relativePath, hash) -> digest.update((relativePath + "=" + hash + "\n").getBytes(StandardCharsets.UTF_8)));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    private void scan(Source source, String text) {
+        Matcher packageMatcher = PACKAGE.matcher(text);
+        if (packageMatcher.find()) {
+            source.packageName = packageMatcher.group(1);
+        }
+        sourcesByPackage.computeIfAbsent(source.packageName, k -> new ArrayList<>()).add(source);
+        String fileName = source.path.getFileName().toString();
+        sourcesByTypeName.putIfAbsent(qualify(source.packageName, fileName.substring(0, fileName.length() - ".java".length())), source);
+        Matcher typeMatcher = TYPE_DECLARATION.matcher(text);
+        while (typeMatcher.find()) {
+            sourcesByTypeName.putIfAbsent(qualify(source.packageName, typeMatcher.group(1)), source);
+        }
+
+        Scan scan = new Scan();
+        Matcher importMatcher = SINGLE_IMPORT.matcher(text);
+        while (importMatcher.find()) {
+            scan.singleImports.add(importMatcher.group(1));
+        }
+        Matcher onDemandMatcher = ON_DEMAND_IMPORT.matcher(text);
+        while (onDemandMatcher.find()) {
+            scan.onDemandImports.add(onDemandMatcher.group(1));
+        }
+        Matcher qualifiedMatcher = QUALIFIED_NAME.matcher(text);
+        while (qualifiedMatcher.find()) {
+            scan.qualifiedNames.add(qualifiedMatcher.group());
+        }
+        Matcher clauseMatcher = SUPERTYPE_CLAUSE.matcher(text);
+        while (clauseMatcher.find()) {
+            Matcher nameMatcher = NAME.matcher(clauseMatcher.group(1));
+            while (nameMatcher.find()) {
+                if (!CLAUSE_KEYWORDS.contains(nameMatcher.group())) {
+                    scan.supertypeNames.add(nameMatcher.group());
+                }
+            }
+        }
+        source.scan = scan;
+    }
+
+    private void link(Source source) {
+        Scan scan = source.scan;
+        source.references.addAll(sourcesByPackage.getOrDefault(source.packageName, List.of()));
+        Map<String, Source> imported = new HashMap<>(); // By simple name
+        for (String name : scan.singleImports) {
+            Source target = sourcesByTypeName.get(name);
+            if (target != null) {
+                imported.put(name.substring(name.lastIndexOf('.') + 1), target);
+            }
+        }
+        List<String> onDemandPackages = new ArrayList<>();
+        for (String name : scan.onDemandImports) {
+            Source type = lookUpQualified(name);
+            if (type != null) {
+                source.references.add(type); // Nested types or static members
+            } else {
+                source.references.addAll(sourcesByPackage.getOrDefault(name, List.of()));
+                onDemandPackages.add(name);
+            }
+        }
+        for (String name : scan.qualifiedNames) { // Includes single-type and static imports
+            Source target = lookUpQualified(name);
+            if (target != null) {
+                source.references.add(target);
+            }
+        }
+        for (String name : scan.supertypeNames) {
+            Source target = resolveTypeName(name, source.packageName, imported, onDemandPackages);
+            if (target != null) {
+                source.supertypes.add(target);
+            }
+        }
+        source.references.remove(source);
+        source.supertypes.remove(source);
+    }
+
+    private Source resolveTypeName(String name, String packageName, Map<String, Source> imported, List<String> onDemandPackages) {
+        if (name.indexOf('.') >= 0) {
+            Source target = lookUpQualified(name);
+            return target != null ? target : lookUpQualified(qualify(packageName, name));
+        }
+        Source target = imported.get(name);
+        if (target == null) {
+            target = sourcesByTypeName.get(qualify(packageName, name));
+        }
+        for (int i = 0; target == null && i < onDemandPackages.size(); i++) {
+            target = sourcesByTypeName.get(qualify(onDemandPackages.get(i), name));
+        }
+        return target;
+    }
+
+    // The source declaring the longest known prefix of the name, so nested types and static members count too
+    private Source lookUpQualified(String name) {
+        String candidate = name;
+        while (true) {
+            Source target = sourcesByTypeName.get(candidate);
+            int lastDot = candidate.lastIndexOf('.');
+            if (target != null || lastDot < 0) {
+                return target;
+            }
+            candidate = candidate.substring(0, lastDot);
+        }
+    }
+
+    private static String qualify(String packageName, String name) {
+        return packageName.isEmpty() ? name : packageName + "." + name;
+    }
+
+    private static String readText(Path path) {
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.codedocgen.service.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a UTF-8 file line by line through a fixed-size character window, handing each line to the consumer as
+ * a reused {@link CharSequence} view instead of a String. Lines are split as {@link java.io.BufferedReader#readLine()}
+ * does (on \n, \r or \r\n) and numbered from 1; lines longer than the limit are counted but not passed on.
+ * Large files are memory-mapped, smaller ones read into a reused buffer; malformed input fails the read with a
+ * {@link java.nio.charset.CharacterCodingException}, as {@link java.nio.file.Files#readAllLines(Path)} does.
+ * <p>
+ * Not thread-safe; use one per thread. The line view is only valid during the consumer call.
+ */
+final class Utf8LineReader {
+
+    interface LineConsumer {
+        void accept(int lineNumber, CharSequence line);
+    }
+
+    // Files at least this large are memory-mapped; smaller ones cost less to read than to map
+    private static final int MAP_THRESHOLD_BYTES = 256 * 1024;
+    // Files larger than a mapping are mapped one window at a time
+    private static final long MAX_MAPPED_WINDOW_BYTES = 256L * 1024 * 1024;
+    private static final int MIN_WINDOW_CHARS = 64 * 1024;
+
+    private final int maxLineLength;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private final char[] chars;
+    private final CharBuffer window;
+    private final LineView line = new LineView();
+    private ByteBuffer readBuffer = ByteBuffer.allocate(8 * 1024);
+
+    // Per file
+    private LineConsumer consumer;
+    private int lineNumber;
+    private int lineStart; // Start of the current line in the window
+    private int scanned; // Characters of the window already split into lines
+    private boolean skippingLongLine; // The current line outgrew the window
+    private boolean skipLineFeed; // The last line ended with \r, so a following \n belongs to it
+
+    Utf8LineReader(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+        this.chars = new char[Math.max(MIN_WINDOW_CHARS, maxLineLength + 1)];
+        this.window = CharBuffer.wrap(chars);
+        this.line.chars = chars;
+    }
+
+    /**
+     * @return The number of lines in the file
+     */
+    int read(Path file, LineConsumer lineConsumer) throws IOException {
+        this.consumer = lineConsumer;
+        this.lineNumber = 0;
+        this.lineStart = 0;
+        this.scanned = 0;
+        this.skippingLongLine = false;
+        this.skipLineFeed = false;
+        decoder.reset();
+        window.clear();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD_BYTES) {
+                decode(readFully(channel, (int) size), true);
+            } else {
+                long offset = 0;
+                while (offset < size) {
+                    long windowBytes = Math.min(MAX_MAPPED_WINDOW_BYTES, size - offset);
+                    boolean last = offset + windowBytes == size;
+                    ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, windowBytes);
+                    decode(mapped, last);
+                    // A character cut by the end of the window is decoded from the start of the next one
+                    offset += mapped.position();
+                }
+            }
+        } finally {
+            this.consumer = null;
+        }
+        return lineNumber;
+    }
+
+    private ByteBuffer readFully(FileChannel channel, int size) throws IOException {
+        if (readBuffer.capacity() < size) {
+            readBuffer = ByteBuffer.allocate(Math.max(size, readBuffer.capacity() * 2));
+        }
+        readBuffer.clear().limit(size);
+        while (readBuffer.hasRemaining() && channel.read(readBuffer) >= 0) {
+            // Keep reading; the file may be shorter than its reported size
+        }
+        return readBuffer.flip();
+    }
+
+    private void decode(ByteBuffer in, boolean endOfInput) throws IOException {
+        while (true) {
+            CoderResult result = decoder.decode(in, window, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            splitLines();
+            if (result.isUnderflow()) {
+                break;
+            }
+        }
+        if (endOfInput) {
+            CoderResult result;
+            do {
+                result = decoder.flush(window);
+                splitLines();
+            } while (result.isOverflow());
+            // The last line has no terminator
+            if (lineStart < window.position() || skippingLongLine) {
+                emit(window.position());
+            }
+        }
+    }
+
+    // Passes on the complete lines in the window and keeps the partial last one at the front
+    private void splitLines() {
+        int end = window.position();
+        for (int i = scanned; i < end; i++) {
+            char c = chars[i];
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (c == '\n') {
+                    lineStart = i + 1;
+                    continue;
+                }
+            }
+            if (c == '\n' || c == '\r') {
+                emit(i);
+                lineStart = i + 1;
+                skipLineFeed = c == '\r';
+            }
+        }
+        int partial = end - lineStart;
+        if (partial == chars.length) {
+            // No terminator in a full window: the line is over the limit, drop what we have of it
+            skippingLongLine = true;
+            partial = 0;
+        } else if (lineStart > 0) {
+            System.arraycopy(chars, lineStart, chars, 0, partial);
+        }
+        lineStart = 0;
+        scanned = partial;
+        window.position(partial);
+    }
+
+    private void emit(int end) {
+        lineNumber++;
+        int length = end - lineStart;
+        if (!skippingLongLine && length <= maxLineLength) {
+            line.offset = lineStart;
+            line.length = length;
+            consumer.accept(lineNumber, line);
+        }
+        skippingLongLine = false;
+    }
+
+    // A line in the window; subSequence and toString copy out
+    private static final class LineView implements CharSequence {
+        private char[] chars;
+        private int offset;
+        private int length;
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return chars[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+            }
+            return new String(chars, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, offset, length);
+        }
+    }
+}
@@ -1,33 +1,59 @@
 package com.codedocgen.util;
 
-import com.codedocgen.model.DiagramType;
-import net.sourceforge.plantuml.SourceStringReader;
-import net.sourceforge.plantuml.FileFormatOption;
-import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.dot.GraphvizUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import jakarta.annotation.PostConstruct;
 
+/**
+ * Points PlantUML at the configured Graphviz dot executable and checks that it works. Diagrams themselves are
+ * rendered by {@link com.codedocgen.service.DiagramRenderingService}.
+ */
 @Component
 public class PlantUMLRenderer {
     private static final Logger logger = LoggerFactory.getLogger(PlantUMLRenderer.class);
     
     @Value("${app.graphviz.dot.executable.path:dot}")
     private String dotExecutablePath;
+
+    private volatile boolean dotAvailable;
     
     @PostConstruct
     public void init() {
         configurePlantUML();
+        checkDot();
+    }
+
+    /**
+     * @return Whether PlantUML could run Graphviz dot at startup; without it, only diagrams laid out by PlantUML's
+     * built-in Smetana engine (or needing no layout, like sequence diagrams) render correctly
+     */
+    public boolean isDotAvailable() {
+        return dotAvailable;
+    }
+
+    // Same check as PlantUML's "testdot": locates dot, runs it and reads its version
+    private void checkDot() {
+        List<String> status = new ArrayList<>();
+        try {
+            dotAvailable = GraphvizUtils.addDotStatus(status, false) == 0;
+        } catch (Exception e) {
+            status.add(e.getMessage());
+            dotAvailable = false;
+        }
+        if (dotAvailable) {
+            logger.info("PlantUML Graphviz check passed: {}", status);
+        } else {
+            logger.warn("PlantUML cannot use Graphviz dot; graph diagrams will use the Smetana layout engine. {}", status);
+        }
     }
     
     /**
@@ -68,49 +94,4 @@ public class PlantUMLRenderer {
             }
         }
     }
-    
-    /**
-     * Renders a PlantUML diagram to a file
-     * 
-     * @param plantUmlSource The PlantUML source string
-     * @param outputFilePath The path to save the diagram to
-     * @param diagramType The type of diagram being rendered
-     * @return The path to the rendered diagram or null if rendering failed
-     */
-    public String renderDiagram(String plantUmlSource, String outputFilePath, DiagramType diagramType) {
-        try {
-            // Create directories if they don't exist
-            File outputFile = new File(outputFilePath);
-            File parentDir = outputFile.getParentFile();
-            if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs()) {
-                logger.error("Failed to create parent directories for {}", outputFilePath);
-                return null;
-            }
-            
-            // Generate the diagram
-            SourceStringReader reader = new SourceStringReader(plantUmlSource);
-            ByteArrayOutputStream os = new ByteArrayOutputStream();
-            
-            // We use SVG format for all diagrams as it's vector-based and scales well
-            FileFormatOption formatOption = new FileFormatOption(FileFormat.SVG);
-            String desc = reader.generateImage(os, formatOption);
-            
-            if (desc == null) {
-                logger.error("PlantUML failed to generate {} diagram", diagramType);
-                return null;
-            }
-            
-            // Write to file
-            try (FileOutputStream fos = new FileOutputStream(outputFile)) {
-                os.writeTo(fos);
-            }
-            
-            logger.info("{} diagram generated: {}", diagramType, outputFilePath);
-            return outputFilePath;
-            
-        } catch (IOException e) {
-            logger.error("Error rendering {} diagram: {}", diagramType, e.getMessage(), e);
-            return null;
-        }
-    }
-} 
\ No newline at end of file
+}
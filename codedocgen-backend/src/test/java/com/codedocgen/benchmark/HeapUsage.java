@@ -0,0 +1,32 @@
+package com.codedocgen.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * Heap measurement for the memory benchmarks. Run them with {@code -XX:+UseSerialGC} so a full collection leaves
+ * only live objects and no string deduplication skews the numbers.
+ */
+public final class HeapUsage {
+
+    private HeapUsage() {
+    }
+
+    /**
+     * @return Bytes of heap in use after repeated full collections (the lowest reading)
+     */
+    public static long usedAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    public static String megabytes(long bytes) {
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,132 @@
+package com.codedocgen.parser;
+
+import com.codedocgen.benchmark.HeapUsage;
+import com.codedocgen.model.ClassMetadata;
+import com.codedocgen.model.FieldMetadata;
+import com.codedocgen.model.MethodMetadata;
+
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap per class of parsed metadata, as the parser builds it (a growable list per field, a new string per
+ * occurrence) and after {@link SymbolTable#compact(ClassMetadata)}, on a synthetic project of 10k classes with 12
+ * methods and 4 fields each. Not a unit test; run it from this module with
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ * java -XX:+UseSerialGC -Xmx2g -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) \
+ *     com.codedocgen.parser.SymbolTableBenchmark [classes]
+ * </pre>
+ */
+public class SymbolTableBenchmark {
+
+    private static final int METHODS_PER_CLASS = 12;
+    private static final int FIELDS_PER_CLASS = 4;
+    private static final String[] TYPES = {"String", "Long", "Integer", "List<String>", "Map<String, Object>", "BigDecimal", "LocalDate"};
+    private static final String[] CLASS_ANNOTATIONS = {"@Service", "@RestController", "@Repository", "@Component", "@Entity"};
+
+    public static void main(String[] args) throws InterruptedException {
+        int classCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        long baseline = HeapUsage.usedAfterGc();
+        List<ClassMetadata> parsed = generate(classCount);
+        long asParsed = HeapUsage.usedAfterGc() - baseline;
+
+        SymbolTable symbolTable = new SymbolTable();
+        for (ClassMetadata classMetadata : parsed) {
+            symbolTable.compact(classMetadata);
+        }
+        long compacted = HeapUsage.usedAfterGc() - baseline;
+        Reference.reachabilityFence(parsed);
+
+        System.out.printf("%d classes, %d methods and %d fields each%n", classCount, METHODS_PER_CLASS, FIELDS_PER_CLASS);
+        System.out.printf("As parsed: %s, %,d B/class%n", HeapUsage.megabytes(asParsed), asParsed / classCount);
+        System.out.printf("Compacted: %s, %,d B/class (%d symbols)%n", HeapUsage.megabytes(compacted), compacted / classCount, symbolTable.size());
+        System.out.printf("Saved: %.0f%%%n", 100.0 * (asParsed - compacted) / asParsed);
+    }
+
+    private static List<ClassMetadata> generate(int classCount) {
+        List<ClassMetadata> classes = new ArrayList<>(classCount);
+        for (int i = 0; i < classCount; i++) {
+            classes.add(newClass(i, classCount));
+        }
+        return classes;
+    }
+
+    // Filled the way the parser fills it: every list an ArrayList, every string its own instance
+    private static ClassMetadata newClass(int index, int classCount) {
+        String packageName = "com.example.module" + (index % 50);
+        ClassMetadata classMetadata = new ClassMetadata();
+        classMetadata.setName("Class" + index);
+        classMetadata.setPackageName(packageName);
+        classMetadata.setType(copy("class"));
+        classMetadata.setFilePath("src/main/java/" + packageName.replace('.', '/') + "/Class" + index + ".java");
+        classMetadata.setAnnotations(strings(CLASS_ANNOTATIONS[index % CLASS_ANNOTATIONS.length]));
+        classMetadata.setInterfaces(strings("com.example.api.Api" + (index % 20)));
+        classMetadata.setParentClass("com.example.base.BaseClass" + (index % 5));
+
+        List<FieldMetadata> fields = new ArrayList<>();
+        for (int f = 0; f < FIELDS_PER_CLASS; f++) {
+            FieldMetadata field = new FieldMetadata();
+            field.setName("field" + f);
+            field.setType(copy(TYPES[(index + f) % TYPES.length]));
+            field.setVisibility(copy("private"));
+            field.setAnnotations(f == 0 ? strings("@Autowired") : strings());
+            fields.add(field);
+        }
+        classMetadata.setFields(fields);
+
+        List<MethodMetadata> methods = new ArrayList<>();
+        for (int m = 0; m < METHODS_PER_CLASS; m++) {
+            String type = TYPES[(index + m) % TYPES.length];
+            MethodMetadata method = new MethodMetadata();
+            method.setName("method" + m);
+            method.setReturnType(copy(type));
+            method.setVisibility(copy("public"));
+            method.setPackageName(packageName);
+            method.setClassName("Class" + index);
+            method.setParameters(strings(type + " value", "Long id"));
+            method.setAnnotations(m % 3 == 0 ? strings("@Override") : strings());
+            method.setExceptionsThrown(strings());
+            method.setCalledMethods(strings(
+                    "com.example.module" + ((index + 1) % 50) + ".Class" + ((index + 1) % classCount) + ".method" + m + "(java.lang.String)",
+                    "java.util.List.add(java.lang.Object)",
+                    "org.slf4j.Logger.info(java.lang.String, java.lang.Object)"));
+            method.setExternalCalls(strings());
+            method.setLocalVariables(strings("String result", type + " value"));
+            List<List<String>> parameterAnnotations = new ArrayList<>();
+            parameterAnnotations.add(strings());
+            parameterAnnotations.add(strings("@PathVariable"));
+            method.setParameterAnnotations(parameterAnnotations);
+            method.setReturnTypeAnnotations(strings());
+            method.setDaoOperations(new ArrayList<>());
+            method.setSetterCalls(new ArrayList<>());
+            setSqlLists(method);
+            methods.add(method);
+        }
+        classMetadata.setMethods(methods);
+        return classMetadata;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static void setSqlLists(MethodMetadata method) {
+        method.setSqlQueries(strings());
+        method.setSqlTables(strings());
+        method.setSqlOperations(strings());
+    }
+
+    private static List<String> strings(String... values) {
+        List<String> list = new ArrayList<>();
+        for (String value : values) {
+            list.add(copy(value));
+        }
+        return list;
+    }
+
+    // The parser gets each name from the AST's toString, so equal names are distinct strings
+    @SuppressWarnings("StringOperationCanBeSimplified")
+    private static String copy(String value) {
+        return new String(value);
+    }
+}
@@ -0,0 +1,76 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.dto.ParsedDataResponse;
+import com.codedocgen.model.AnalysisJob;
+import com.codedocgen.service.AnalysisService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnalysisJobServiceImplTest {
+
+    private static final String REPO_URL = "https://example.com/repo.git";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean blockAnalyses;
+    private AnalysisJobServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AnalysisService analysisService = mock(AnalysisService.class);
+        when(analysisService.analyze(anyString(), anyString(), any(), anyBoolean(), any())).thenAnswer(invocation -> {
+            if (blockAnalyses) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return new ParsedDataResponse();
+        });
+        service = new AnalysisJobServiceImpl(analysisService);
+        ReflectionTestUtils.setField(service, "maxConcurrentJobs", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 10);
+        ReflectionTestUtils.setField(service, "retentionMinutes", 60L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void deduplicatesOnlyTheSameBaseJob() throws Exception {
+        AnalysisJob base = service.submit(REPO_URL);
+        waitForCompletion(base);
+
+        blockAnalyses = true;
+        AnalysisJob full = service.submit(REPO_URL);
+        AnalysisJob incremental = service.submit(REPO_URL, base.getId());
+
+        assertNotEquals(full.getId(), incremental.getId());
+        assertEquals(base.getId(), incremental.getBaseJobId());
+        assertSame(full, service.submit(REPO_URL));
+        assertSame(incremental, service.submit(REPO_URL, base.getId()));
+    }
+
+    private static void waitForCompletion(AnalysisJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.getStatus() == AnalysisJob.Status.COMPLETED, "Base job did not complete: " + job.getStatus());
+    }
+}
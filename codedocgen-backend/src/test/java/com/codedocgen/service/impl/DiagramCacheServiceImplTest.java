@@ -0,0 +1,56 @@
+package com.codedocgen.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiagramCacheServiceImplTest {
+
+    private static final int ENTRY_BYTES = 400 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private DiagramCacheServiceImpl cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DiagramCacheServiceImpl(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "cacheDir", tempDir.resolve("cache").toString());
+        ReflectionTestUtils.setField(cache, "memoryMaxMb", 0L);
+        ReflectionTestUtils.setField(cache, "maxSizeMb", 1L);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondCap() throws Exception {
+        String first = store("first", 3_000);
+        String second = store("second", 2_000);
+        // A hit makes the older entry the most recently used one
+        assertTrue(cache.copyTo(first, tempDir.resolve("hit.svg").toFile()));
+
+        String third = store("third", 1_000);
+
+        assertTrue(cache.copyTo(first, tempDir.resolve("first.svg").toFile()));
+        assertFalse(cache.copyTo(second, tempDir.resolve("second.svg").toFile()));
+        assertTrue(cache.copyTo(third, tempDir.resolve("third.svg").toFile()));
+    }
+
+    // Stores an entry last modified the given number of seconds ago
+    private String store(String source, long ageSeconds) throws Exception {
+        String key = cache.key("@startuml\n" + source + "\n@enduml", "svg");
+        Path rendered = Files.write(tempDir.resolve(source + "-rendered.svg"), new byte[ENTRY_BYTES]);
+        Files.setLastModifiedTime(rendered, FileTime.fromMillis(System.currentTimeMillis() - ageSeconds * 1000));
+        cache.store(key, rendered);
+        return key;
+    }
+}
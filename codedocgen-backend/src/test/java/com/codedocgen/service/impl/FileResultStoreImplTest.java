@@ -0,0 +1,111 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.model.ClassMetadata;
+import com.codedocgen.model.DaoOperationDetail;
+import com.codedocgen.model.FieldMetadata;
+import com.codedocgen.model.LogStatement;
+import com.codedocgen.model.LogVariable;
+import com.codedocgen.model.MethodMetadata;
+import com.codedocgen.model.SetterCall;
+import com.codedocgen.parser.SymbolTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileResultStoreImplTest {
+
+    private static final String HASH = "ab" + "0".repeat(62);
+
+    @TempDir
+    Path tempDir;
+
+    private FileResultStoreImpl store;
+    private Path storeDir;
+
+    @BeforeEach
+    void setUp() {
+        storeDir = tempDir.resolve("store");
+        store = new FileResultStoreImpl();
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "storeDir", storeDir.toString());
+        store.init();
+    }
+
+    @Test
+    void createsOwnerOnlyDirectory() throws Exception {
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(storeDir)));
+    }
+
+    @Test
+    void readsBackCompactedClassMetadata() {
+        FieldMetadata field = new FieldMetadata();
+        field.setName("id");
+        field.setAnnotations(new ArrayList<>(List.of("@Id")));
+        MethodMetadata method = new MethodMetadata();
+        method.setName("find");
+        method.setParameters(new ArrayList<>(Arrays.asList("String id", null)));
+        method.setParameterAnnotations(new ArrayList<>(List.of(new ArrayList<>(List.of("@PathVariable")))));
+        method.setDaoOperations(new ArrayList<>(List.of(new DaoOperationDetail("find", "SELECT 1", DaoOperationDetail.SqlOperationType.SELECT, List.of("t")))));
+        method.setSetterCalls(new ArrayList<>(List.of(new SetterCall("setName", "\"x\"", "x"))));
+        ClassMetadata classMetadata = new ClassMetadata();
+        classMetadata.setName("Repo");
+        classMetadata.setFields(new ArrayList<>(List.of(field)));
+        classMetadata.setMethods(new ArrayList<>(List.of(method)));
+        new SymbolTable().compact(classMetadata);
+
+        store.save("class-metadata", "1", HASH, classMetadata);
+        Optional<ClassMetadata> loaded = store.load("class-metadata", "1", HASH, ClassMetadata.class);
+
+        assertTrue(loaded.isPresent());
+        assertEquals(List.of("@Id"), loaded.get().getFields().get(0).getAnnotations());
+        MethodMetadata loadedMethod = loaded.get().getMethods().get(0);
+        assertEquals(method.getParameters(), loadedMethod.getParameters());
+        assertEquals(method.getParameterAnnotations(), loadedMethod.getParameterAnnotations());
+        assertEquals(method.getDaoOperations(), loadedMethod.getDaoOperations());
+        assertEquals(method.getSetterCalls(), loadedMethod.getSetterCalls());
+    }
+
+    @Test
+    void readsBackLogStatements() {
+        ArrayList<LogStatement> statements = new ArrayList<>(List.of(
+                new LogStatement("1", "A", 3, "info", "hi {}", List.of(new LogVariable("user", "String", true, false)), true, false)));
+
+        store.save("log-statements", "1", HASH, statements);
+        Optional<LogStatement> loaded = store.load("log-statements", "1", HASH, ArrayList.class).map(list -> (LogStatement) list.get(0));
+
+        assertTrue(loaded.isPresent());
+        assertEquals("hi {}", loaded.get().getMessage());
+        assertEquals("user", loaded.get().getVariables().get(0).getName());
+    }
+
+    @Test
+    void rejectsClassesOutsideTheModel() throws Exception {
+        HashMap<String, String> unexpected = new HashMap<>(); // Any JDK class not used by the model
+        unexpected.put("a", "b");
+        Path entry = storeDir.resolve("class-metadata").resolve("1").resolve(HASH.substring(0, 2)).resolve(HASH + ".bin");
+        Files.createDirectories(entry.getParent());
+        try (ObjectOutputStream out = new ObjectOutputStream(new GZIPOutputStream(Files.newOutputStream(entry)))) {
+            out.writeObject((Serializable) unexpected);
+        }
+
+        assertTrue(store.load("class-metadata", "1", HASH, HashMap.class).isEmpty());
+        assertFalse(Files.exists(entry), "rejected entries are discarded");
+    }
+}
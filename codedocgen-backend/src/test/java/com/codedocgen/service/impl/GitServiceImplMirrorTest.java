@@ -0,0 +1,116 @@
+package com.codedocgen.service.impl;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GitServiceImplMirrorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GitServiceImpl gitService;
+    private File mirrorCacheDir;
+
+    @BeforeEach
+    void setUp() {
+        mirrorCacheDir = tempDir.resolve("mirrors").toFile();
+        gitService = new GitServiceImpl();
+        ReflectionTestUtils.setField(gitService, "mirrorCacheEnabled", true);
+        ReflectionTestUtils.setField(gitService, "mirrorCacheDir", mirrorCacheDir.getAbsolutePath());
+        ReflectionTestUtils.setField(gitService, "mirrorCacheMaxSizeMb", 2048L);
+    }
+
+    @Test
+    void checksOutFromMirrorWithBranchesAndTagsOnly() throws Exception {
+        try (LocalGitRemote remote = new LocalGitRemote(tempDir.resolve("remote").toFile())) {
+            RevCommit commit = remote.commit("pom.xml", "<project/>");
+            remote.tag("v1");
+            remote.createRef("refs/pull/1/head", commit);
+
+            File checkout = gitService.cloneRepository(remote.url(), tempDir.resolve("checkout").toString());
+
+            assertEquals("<project/>", Files.readString(checkout.toPath().resolve("pom.xml"), StandardCharsets.UTF_8));
+            assertEquals(commit.name(), gitService.getHeadCommitId(checkout));
+            assertTrue(new File(checkout, ".git/objects/info/alternates").isFile(), "checkout should borrow the mirror's objects");
+            try (Repository mirror = openOnlyMirror()) {
+                assertNotNull(mirror.exactRef("refs/heads/main"));
+                assertNotNull(mirror.exactRef("refs/tags/v1"));
+                assertNull(mirror.exactRef("refs/pull/1/head"));
+                assertArrayEquals(new String[]{"+refs/heads/*:refs/heads/*", "+refs/tags/*:refs/tags/*"},
+                        mirror.getConfig().getStringList("remote", "origin", "fetch"));
+            }
+            gitService.deleteRepository(checkout);
+        }
+    }
+
+    @Test
+    void fetchesNewCommitsIntoExistingMirror() throws Exception {
+        try (LocalGitRemote remote = new LocalGitRemote(tempDir.resolve("remote").toFile())) {
+            remote.commit("README.md", "first");
+            File first = gitService.cloneRepository(remote.url(), tempDir.resolve("first").toString());
+            gitService.deleteRepository(first);
+
+            RevCommit second = remote.commit("README.md", "second");
+            File checkout = gitService.cloneRepository(remote.url(), tempDir.resolve("second").toString());
+
+            assertEquals(second.name(), gitService.getHeadCommitId(checkout));
+            assertEquals("second", Files.readString(checkout.toPath().resolve("README.md"), StandardCharsets.UTF_8));
+            gitService.deleteRepository(checkout);
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedMirrorWithoutCheckouts() throws Exception {
+        ReflectionTestUtils.setField(gitService, "mirrorCacheMaxSizeMb", 0L);
+        try (LocalGitRemote first = new LocalGitRemote(tempDir.resolve("first-remote").toFile());
+             LocalGitRemote second = new LocalGitRemote(tempDir.resolve("second-remote").toFile())) {
+            first.commit("a.txt", "a");
+            second.commit("b.txt", "b");
+
+            File firstCheckout = gitService.cloneRepository(first.url(), tempDir.resolve("first").toString());
+            File secondCheckout = gitService.cloneRepository(second.url(), tempDir.resolve("second").toString());
+            assertEquals(2, mirrorDirs().length, "a mirror with a checkout must not be evicted");
+
+            gitService.deleteRepository(firstCheckout);
+            File thirdCheckout = gitService.cloneRepository(second.url(), tempDir.resolve("third").toString());
+            File[] remaining = mirrorDirs();
+            assertEquals(1, remaining.length);
+            assertTrue(remaining[0].getName().startsWith("second-remote-"));
+
+            gitService.deleteRepository(secondCheckout);
+            gitService.deleteRepository(thirdCheckout);
+        }
+    }
+
+    private File[] mirrorDirs() {
+        File[] mirrors = mirrorCacheDir.listFiles(File::isDirectory);
+        return mirrors != null ? mirrors : new File[0];
+    }
+
+    private Repository openOnlyMirror() throws IOException {
+        File[] mirrors = mirrorDirs();
+        assertEquals(1, mirrors.length);
+        Repository mirror = new FileRepositoryBuilder().setGitDir(mirrors[0]).setMustExist(true).build();
+        assertTrue(mirror.isBare());
+        assertNotNull(mirror.exactRef(Constants.HEAD));
+        return mirror;
+    }
+}
@@ -0,0 +1,162 @@
+package com.codedocgen.service.impl;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares the configured ALL_PII and ALL_PCI alternations run through {@link java.util.regex} line by line, as
+ * the scanner did, with one {@link KeywordMatcher} over both. Checks first that both report the same matches on
+ * every line, then times warm runs of each. Not a unit test; run it from this module with
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) \
+ *     com.codedocgen.service.impl.KeywordMatcherBenchmark [sourceRoot] [minChars]
+ * </pre>
+ */
+public class KeywordMatcherBenchmark {
+
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    public static void main(String[] args) throws IOException {
+        Path sourceRoot = Paths.get(args.length > 0 ? args[0] : "src/main/java");
+        long minChars = args.length > 1 ? Long.parseLong(args[1]) : 6_000_000;
+
+        List<String> patterns = configuredPatterns();
+        List<Pattern> regexes = new ArrayList<>();
+        List<List<String>> keywordSets = new ArrayList<>();
+        for (String pattern : patterns) {
+            List<String> keywords = KeywordMatcher.keywords(pattern);
+            if (keywords == null) {
+                throw new IllegalStateException("Not a keyword alternation: " + pattern);
+            }
+            regexes.add(Pattern.compile(pattern));
+            keywordSets.add(keywords);
+        }
+        KeywordMatcher matcher = new KeywordMatcher(keywordSets);
+        List<String> lines = lines(sourceRoot, minChars);
+        long chars = lines.stream().mapToLong(String::length).sum();
+        System.out.printf("%,d lines, %,d chars, %d patterns with %d keywords%n",
+                lines.size(), chars, patterns.size(), keywordSets.stream().mapToInt(List::size).sum());
+
+        for (String line : lines) {
+            List<int[]> expected = findWithRegex(regexes, line);
+            List<int[]> actual = matcher.find(line);
+            if (!sameMatches(expected, actual)) {
+                throw new IllegalStateException("Matches differ on line: " + line);
+            }
+        }
+        System.out.println("Matches identical on every line.");
+
+        report("java.util.regex", () -> {
+            int count = 0;
+            for (String line : lines) {
+                count += findWithRegex(regexes, line).size();
+            }
+            return count;
+        });
+        report("KeywordMatcher", () -> {
+            int count = 0;
+            for (String line : lines) {
+                count += matcher.find(line).size();
+            }
+            return count;
+        });
+    }
+
+    private interface Run {
+        int matches();
+    }
+
+    private static void report(String label, Run run) {
+        int matches = 0;
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            matches = run.matches();
+        }
+        long[] millis = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            matches = run.matches();
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-16s median %,d ms (min %,d, max %,d), %,d matches%n",
+                label, millis[MEASURED_RUNS / 2], millis[0], millis[MEASURED_RUNS - 1], matches);
+    }
+
+    // Matches as {set, start, end}, in the order KeywordMatcher reports them
+    private static List<int[]> findWithRegex(List<Pattern> regexes, String line) {
+        List<int[]> matches = new ArrayList<>();
+        for (int set = 0; set < regexes.size(); set++) {
+            Matcher m = regexes.get(set).matcher(line);
+            while (m.find()) {
+                matches.add(new int[]{set, m.start(), m.end()});
+            }
+        }
+        return matches;
+    }
+
+    private static boolean sameMatches(List<int[]> expected, List<int[]> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            if (!Arrays.equals(expected.get(i), actual.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> configuredPatterns() throws IOException {
+        try (InputStream in = KeywordMatcherBenchmark.class.getResourceAsStream("/application.yml")) {
+            if (in == null) {
+                throw new IllegalStateException("application.yml is not on the classpath");
+            }
+            Map<String, Object> app = (Map<String, Object>) new Yaml().<Map<String, Object>>load(in).get("app");
+            List<String> patterns = new ArrayList<>();
+            for (String section : List.of("pii", "pci")) {
+                Map<String, Object> sectionPatterns = (Map<String, Object>) ((Map<String, Object>) app.get(section)).get("patterns");
+                sectionPatterns.values().forEach(pattern -> patterns.add((String) pattern));
+            }
+            return patterns;
+        }
+    }
+
+    // The tree's lines, repeated until there are at least minChars
+    private static List<String> lines(Path sourceRoot, long minChars) throws IOException {
+        List<String> source = new ArrayList<>();
+        try (Stream<Path> walk = Files.walk(sourceRoot)) {
+            for (Path path : walk.filter(p -> p.toString().endsWith(".java")).sorted().collect(Collectors.toList())) {
+                source.addAll(Files.readAllLines(path, StandardCharsets.UTF_8));
+            }
+        }
+        if (source.isEmpty()) {
+            throw new IllegalStateException("No Java sources under " + sourceRoot);
+        }
+        List<String> lines = new ArrayList<>();
+        long chars = 0;
+        while (chars < minChars) {
+            for (String line : source) {
+                lines.add(line);
+                chars += line.length();
+            }
+        }
+        return lines;
+    }
+}
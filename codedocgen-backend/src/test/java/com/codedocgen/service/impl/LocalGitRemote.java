@@ -0,0 +1,55 @@
+package com.codedocgen.service.impl;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Stand-in for a hosted remote: a local repository on disk, reached through its file:// URL, so clone and fetch
+ * paths run without network access.
+ */
+final class LocalGitRemote implements AutoCloseable {
+
+    private final File dir;
+    private final Git git;
+
+    LocalGitRemote(File dir) throws GitAPIException {
+        this.dir = dir;
+        this.git = Git.init().setDirectory(dir).setInitialBranch("main").call();
+    }
+
+    String url() {
+        return dir.toURI().toString();
+    }
+
+    RevCommit commit(String path, String content) throws IOException, GitAPIException {
+        File file = new File(dir, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+        git.add().addFilepattern(path).call();
+        return git.commit().setMessage("Update " + path).setAuthor("Test", "test@example.com").setCommitter("Test", "test@example.com").call();
+    }
+
+    void tag(String name) throws GitAPIException {
+        git.tag().setName(name).call();
+    }
+
+    // A ref outside refs/heads and refs/tags, like the refs/pull/* refs GitHub advertises
+    void createRef(String name, ObjectId target) throws IOException {
+        RefUpdate update = git.getRepository().updateRef(name);
+        update.setNewObjectId(target);
+        update.forceUpdate();
+    }
+
+    @Override
+    public void close() {
+        git.close();
+    }
+}
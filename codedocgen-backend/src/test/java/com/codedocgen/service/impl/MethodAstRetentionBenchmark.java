@@ -0,0 +1,103 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.benchmark.HeapUsage;
+import com.codedocgen.model.SetterCall;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.expr.Expression;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.stmt.Statement;
+import com.github.javaparser.symbolsolver.JavaSymbolSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.CombinedTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.JavaParserTypeSolver;
+import com.github.javaparser.symbolsolver.resolution.typesolvers.ReflectionTypeSolver;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Heap retained by parsed methods when metadata keeps each method's {@link MethodDeclaration} (which pins its
+ * compilation unit through parent pointers) compared to keeping only the {@link SetterCall} values the parser now
+ * extracts. Parses a source tree several times with the symbol solver configured, as an analysis does. Not a unit
+ * test; run it from this module with
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt
+ * java -XX:+UseSerialGC -Xmx4g -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) \
+ *     com.codedocgen.service.impl.MethodAstRetentionBenchmark [sourceRoot] [rounds]
+ * </pre>
+ */
+public class MethodAstRetentionBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path sourceRoot = Paths.get(args.length > 0 ? args[0] : "src/main/java").toAbsolutePath().normalize();
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        List<Path> sources;
+        try (Stream<Path> walk = Files.walk(sourceRoot)) {
+            sources = walk.filter(path -> path.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+
+        long baseline = HeapUsage.usedAfterGc();
+        List<Object> declarations = parse(sourceRoot, sources, rounds, true);
+        long withAst = HeapUsage.usedAfterGc() - baseline;
+        System.out.printf("%d files x %d rounds, %d methods%n", sources.size(), rounds, declarations.size());
+        Reference.reachabilityFence(declarations);
+        declarations = null;
+
+        baseline = HeapUsage.usedAfterGc();
+        List<Object> setterCalls = parse(sourceRoot, sources, rounds, false);
+        long withValues = HeapUsage.usedAfterGc() - baseline;
+        Reference.reachabilityFence(setterCalls);
+
+        System.out.printf("Keeping a MethodDeclaration per method: %s%n", HeapUsage.megabytes(withAst));
+        System.out.printf("Keeping only extracted setter calls:    %s%n", HeapUsage.megabytes(withValues));
+    }
+
+    // @return Per method, its declaration or its extracted setter calls
+    private static List<Object> parse(Path sourceRoot, List<Path> sources, int rounds, boolean keepAst) throws IOException {
+        List<Object> retained = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            CombinedTypeSolver typeSolver = new CombinedTypeSolver(new ReflectionTypeSolver(), new JavaParserTypeSolver(sourceRoot));
+            JavaParser parser = new JavaParser(new ParserConfiguration().setSymbolResolver(new JavaSymbolSolver(typeSolver)));
+            for (Path source : sources) {
+                ParseResult<CompilationUnit> result = parser.parse(source);
+                if (result.getResult().isEmpty()) {
+                    continue;
+                }
+                for (MethodDeclaration md : result.getResult().get().findAll(MethodDeclaration.class)) {
+                    retained.add(keepAst ? md : extractSetterCalls(md));
+                }
+            }
+        }
+        return retained;
+    }
+
+    // As the parser's metadata analyzer extracts them
+    private static List<SetterCall> extractSetterCalls(MethodDeclaration md) {
+        List<SetterCall> setterCalls = new ArrayList<>();
+        if (md.getBody().isEmpty()) {
+            return setterCalls;
+        }
+        for (Statement stmt : md.getBody().get().getStatements()) {
+            if (!stmt.isExpressionStmt() || !stmt.asExpressionStmt().getExpression().isMethodCallExpr()) {
+                continue;
+            }
+            MethodCallExpr call = stmt.asExpressionStmt().getExpression().asMethodCallExpr();
+            if (call.getNameAsString().startsWith("set") && call.getArguments().size() == 1) {
+                Expression argument = call.getArgument(0);
+                String literalValue = argument.isStringLiteralExpr() ? argument.asStringLiteralExpr().getValue() : null;
+                setterCalls.add(new SetterCall(call.getNameAsString(), argument.toString(), literalValue));
+            }
+        }
+        return setterCalls;
+    }
+}
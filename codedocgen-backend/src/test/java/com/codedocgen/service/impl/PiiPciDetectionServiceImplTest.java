@@ -0,0 +1,67 @@
+package com.codedocgen.service.impl;
+
+import com.codedocgen.config.PiiPciProperties;
+import com.codedocgen.model.PiiPciFinding;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PiiPciDetectionServiceImplTest {
+
+    private static final int FILES = 40;
+
+    @TempDir
+    Path repo;
+
+    private PiiPciDetectionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        FileResultStoreImpl store = new FileResultStoreImpl();
+        ReflectionTestUtils.setField(store, "enabled", false);
+        FileClassificationServiceImpl classification = new FileClassificationServiceImpl();
+        ReflectionTestUtils.setField(classification, "maxFileSizeMb", 10L);
+        classification.init();
+        service = new PiiPciDetectionServiceImpl(new PiiPciProperties(), store, classification);
+        ReflectionTestUtils.setField(service, "scanThreads", 4);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void parallelScansKeepFileOrderOnSharedPool() throws Exception {
+        List<String> relativePaths = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            String relativePath = String.format("File%02d.java", i);
+            Files.writeString(repo.resolve(relativePath), "class File {\n  String ssn;\n  // none\n  String ssn2 = ssn;\n}\n");
+            relativePaths.add(relativePath);
+        }
+        Map<String, Pattern> patterns = Map.of("PII_SSN", Pattern.compile("\\b(ssn)\\b"));
+
+        // Twice, so the second scan runs on workers the first one used
+        for (int run = 0; run < 2; run++) {
+            List<PiiPciFinding> findings = service.scanFiles(repo, relativePaths, patterns);
+            assertEquals(FILES * 2, findings.size());
+            for (int i = 0; i < FILES; i++) {
+                assertEquals(relativePaths.get(i), findings.get(2 * i).getFilePath());
+                assertEquals(2, findings.get(2 * i).getLineNumber());
+                assertEquals(4, findings.get(2 * i + 1).getLineNumber());
+            }
+        }
+    }
+}